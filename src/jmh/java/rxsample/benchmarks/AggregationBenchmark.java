@@ -0,0 +1,92 @@
+package rxsample.benchmarks;
+
+import io.reactivex.Observable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pipelines from AggregationExamples scaled up to {@link #size} elements.
+ * Map keys are bounded the same way the examples bound them (person age, first letter of a word), so the collections
+ * hold every value but only a limited number of keys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AggregationBenchmark {
+    private static final int MAP_KEYS = 1 << 16;
+    private static final int MULTIMAP_KEYS = 100;
+    private static final String[] WORDS = {"first", "second", "third", "forth", "fifth", "sixth", "seventh", "eighth"};
+
+    @Param({"1000", "1000000", "100000000"})
+    int size;
+
+    private Observable<Integer> values;
+
+    @Setup
+    public void setup() {
+        values = Observable.range(1, size);
+    }
+
+    // AggregationExamples.reduce(): sum
+    @Benchmark
+    public Integer reduceSum() {
+        return values.reduce((i1, i2) -> i1 + i2).blockingGet();
+    }
+
+    // AggregationExamples.reduce(): min
+    @Benchmark
+    public Integer reduceMin() {
+        return values.reduce((i1, i2) -> (i1 > i2) ? i2 : i1).blockingGet();
+    }
+
+    // AggregationExamples.scan(): running sum
+    @Benchmark
+    public void scan(Blackhole bh) {
+        values.scan((i1, i2) -> i1 + i2)
+                .subscribe(new BlackholeObserver<>(bh));
+    }
+
+    // AggregationExamples.collect()
+    @Benchmark
+    public List<Integer> collect() {
+        return values.collect(
+                () -> new ArrayList<Integer>(),
+                (acc, value) -> acc.add(value))
+                .blockingGet();
+    }
+
+    // AggregationExamples.toList()
+    @Benchmark
+    public List<Integer> toList() {
+        return values.toList().blockingGet();
+    }
+
+    // AggregationExamples.toMap()
+    @Benchmark
+    public Map<Integer, Integer> toMap() {
+        return values.toMap(v -> v & (MAP_KEYS - 1), v -> v).blockingGet();
+    }
+
+    // AggregationExamples.toMultiMap()
+    @Benchmark
+    public Map<Integer, Collection<Integer>> toMultimap() {
+        return values.toMultimap(v -> v % MULTIMAP_KEYS, v -> v).blockingGet();
+    }
+
+    // AggregationExamples.groupBy()
+    @Benchmark
+    public void groupBy(Blackhole bh) {
+        values.map(v -> WORDS[v & (WORDS.length - 1)])
+                .groupBy(word -> word.charAt(0))
+                .flatMap(group ->
+                        group.last("").map(v -> group.getKey() + ": " + v).toObservable()
+                )
+                .subscribe(new BlackholeObserver<>(bh));
+    }
+}
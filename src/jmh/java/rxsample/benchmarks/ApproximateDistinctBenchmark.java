@@ -0,0 +1,68 @@
+package rxsample.benchmarks;
+
+import io.reactivex.Observable;
+import org.openjdk.jmh.annotations.*;
+import rxsample.sketches.ApproximateDistinct;
+import rxsample.sketches.CountDistinct;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * distinct() and distinct().count() from ObservableReductionExamples against {@link ApproximateDistinct} (1e-3 false
+ * positive rate) and {@link CountDistinct} (HyperLogLog, precision 14), for {@link #keys} distinct keys. Score is keys
+ * per second, {@link PeakHeap} shows the memory each needs.
+ * <p>
+ * Every key is new, so each key dropped by approximate distinct is a false positive: {@code falsePositivePpm} is
+ * their rate in parts per million, {@code countErrorPpm} is the relative error of the approximate count. The exact
+ * versions don't run for 100M keys: a HashSet of 100M Longs doesn't fit into a default heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ApproximateDistinctBenchmark {
+    private static final int MAX_EXACT_KEYS = 10_000_000;
+
+    @Param({"1000000", "10000000", "100000000"})
+    int keys;
+
+    private Observable<Long> values;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Accuracy {
+        public long falsePositivePpm;
+        public long countErrorPpm;
+    }
+
+    @Setup
+    public void setup() {
+        // multiplying by an odd constant keeps the keys distinct, but spreads them like real ids: sequential Longs
+        // land in sequential HashSet buckets, which hides its cache misses
+        values = Observable.rangeLong(0, keys).map(i -> i * 0x9E3779B97F4A7C15L);
+    }
+
+    @Benchmark
+    public long distinctExact(PeakHeap heap) {
+        if (keys > MAX_EXACT_KEYS) {
+            return 0;
+        }
+        return values.distinct().count().blockingGet();
+    }
+
+    @Benchmark
+    public long distinctApproximate(PeakHeap heap, Accuracy accuracy) {
+        long emitted = values.compose(ApproximateDistinct.<Long>create().falsePositiveRate(1e-3)
+                .expectedKeys(1 << 20).maxBytes(512L * 1024 * 1024))
+                .count()
+                .blockingGet();
+        accuracy.falsePositivePpm = (keys - emitted) * 1_000_000 / keys;
+        return emitted;
+    }
+
+    @Benchmark
+    public long countDistinctApproximate(PeakHeap heap, Accuracy accuracy) {
+        long estimate = values.as(CountDistinct.approximate()).blockingGet();
+        accuracy.countErrorPpm = Math.abs(estimate - keys) * 1_000_000 / keys;
+        return estimate;
+    }
+}
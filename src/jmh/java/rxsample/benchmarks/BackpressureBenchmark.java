@@ -0,0 +1,168 @@
+package rxsample.benchmarks;
+
+import io.reactivex.BackpressureOverflowStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Producer which is 10x faster than the consumer: every value costs {@link #producerTokens} of CPU work to produce
+ * and 10 times as much to consume. The producer runs on its own thread, the consumer is behind observeOn().
+ * <p>
+ * Score is how many batches of {@link #BATCH} produced values per second the pipeline keeps up with; the
+ * {@code delivered} and {@code dropped} secondary results are values per second reaching the consumer and lost on
+ * the way. {@code maxBacklog} is the longest queue in front of the consumer during the iteration - i.e. the heap
+ * growth of each mode (-prof gc shows the allocation rate).
+ * <ul>
+ *     <li>observable - Threading.observeOnExample(): nothing is lost, backlog grows with the batch.</li>
+ *     <li>flowable - backpressure slows the producer down to the consumer, backlog is bounded by prefetch.</li>
+ *     <li>buffer - bounded onBackpressureBuffer() which drops the oldest values on overflow.</li>
+ *     <li>drop, latest - onBackpressureDrop() and onBackpressureLatest().</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BackpressureBenchmark {
+    static final int BATCH = 10_000;
+    private static final int CONSUMER_SLOWDOWN = 10;
+    private static final int BUFFER = 1024;
+
+    @Param({"10", "100"})
+    int producerTokens;
+
+    @Param({"16", "128"})
+    int prefetch;
+
+    private Scheduler producer;
+    private Scheduler consumer;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Delivery {
+        public long delivered;
+        public long dropped;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            delivered = 0;
+            dropped = 0;
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Backlog {
+        public long maxBacklog;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            maxBacklog = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        producer = Schedulers.single();
+        consumer = Schedulers.newThread();
+    }
+
+    @Benchmark
+    public void observable(Delivery delivery, Backlog backlog) throws InterruptedException {
+        Meter meter = new Meter();
+        CountDownLatch latch = new CountDownLatch(1);
+        Observable.range(0, BATCH)
+                .map(this::produce)
+                .doOnNext(meter::enqueue)
+                .subscribeOn(producer)
+                .observeOn(consumer)
+                .subscribe(meter::consume, e -> latch.countDown(), latch::countDown);
+        latch.await();
+        meter.report(delivery, backlog);
+    }
+
+    @Benchmark
+    public void flowable(Delivery delivery, Backlog backlog) throws InterruptedException {
+        Meter meter = new Meter();
+        run(Flowable.range(0, BATCH).map(this::produce).doOnNext(meter::enqueue), meter, delivery, backlog);
+    }
+
+    @Benchmark
+    public void buffer(Delivery delivery, Backlog backlog) throws InterruptedException {
+        Meter meter = new Meter();
+        run(Flowable.range(0, BATCH).map(this::produce).doOnNext(meter::enqueue)
+                        .onBackpressureBuffer(BUFFER, meter::drop, BackpressureOverflowStrategy.DROP_OLDEST),
+                meter, delivery, backlog);
+    }
+
+    @Benchmark
+    public void drop(Delivery delivery, Backlog backlog) throws InterruptedException {
+        Meter meter = new Meter();
+        run(Flowable.range(0, BATCH).map(this::produce).onBackpressureDrop(v -> meter.drop())
+                .doOnNext(meter::enqueue), meter, delivery, backlog);
+    }
+
+    @Benchmark
+    public void latest(Delivery delivery, Backlog backlog) throws InterruptedException {
+        Meter meter = new Meter();
+        run(Flowable.range(0, BATCH).map(this::produce).onBackpressureLatest()
+                .doOnNext(meter::enqueue), meter, delivery, backlog);
+    }
+
+    private Integer produce(Integer v) {
+        Blackhole.consumeCPU(producerTokens);
+        return v;
+    }
+
+    private void run(Flowable<Integer> source, Meter meter, Delivery delivery, Backlog backlog)
+            throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        source.subscribeOn(producer)
+                .observeOn(consumer, false, prefetch)
+                .subscribe(meter::consume, e -> latch.countDown(), latch::countDown);
+        latch.await();
+        meter.report(delivery, backlog);
+    }
+
+    /**
+     * Values queued in front of the consumer: enqueued (by the producer, or by the backpressure operator for values
+     * which weren't dropped right away), minus dropped from the buffer, minus consumed. Values which
+     * onBackpressureLatest() overwrites never get enqueued.
+     */
+    private final class Meter {
+        final AtomicLong enqueued = new AtomicLong();
+        final AtomicLong dropped = new AtomicLong();
+        long consumed;
+        long maxBacklog;
+
+        void enqueue(Integer v) {
+            enqueued.lazySet(enqueued.get() + 1);
+        }
+
+        void drop() {
+            dropped.lazySet(dropped.get() + 1);
+        }
+
+        void consume(Integer v) {
+            Blackhole.consumeCPU(producerTokens * CONSUMER_SLOWDOWN);
+            long backlog = enqueued.get() - dropped.get() - consumed;
+            if (backlog > maxBacklog) {
+                maxBacklog = backlog;
+            }
+            consumed++;
+        }
+
+        void report(Delivery delivery, Backlog backlog) {
+            delivery.delivered += consumed;
+            delivery.dropped += BATCH - consumed;
+            backlog.maxBacklog = Math.max(backlog.maxBacklog, maxBacklog);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package rxsample.benchmarks;
+
+import io.reactivex.Observable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rxsample.operators.AdaptiveBatch;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RxJavaSample.save() as a sink with a fixed cost per call ({@link #CALL_TOKENS}, e.g. a round trip to a database) and
+ * a small cost per value, called per value (unbatched) against {@link AdaptiveBatch} with fixed {@link #batchSize}
+ * and with adaptive size (up to {@link #batchSize}, targeting 100us per sink call). Score is values per second;
+ * {@code p99Micros} is the 99th percentile of the time from emission of a value until the sink gets it, which grows
+ * with the batch size. unbatched doesn't depend on {@link #batchSize}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(BatchingBenchmark.VALUES)
+public class BatchingBenchmark {
+    static final int VALUES = 64 * 1024;
+    private static final int CALL_TOKENS = 1000;
+    private static final int VALUE_TOKENS = 10;
+
+    @Param({"1", "16", "256", "4096"})
+    int batchSize;
+
+    private Observable<Long> values;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Latency {
+        // latency histogram with 1 microsecond buckets
+        private final long[] histogram = new long[1 << 16];
+        private long count;
+        public long p99Micros;
+
+        void record(long nanos) {
+            long micros = nanos / 1000;
+            histogram[(int) Math.min(micros, histogram.length - 1)]++;
+            count++;
+        }
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            Arrays.fill(histogram, 0);
+            count = 0;
+            p99Micros = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void percentile() {
+            long threshold = (long) Math.ceil(count * 0.99);
+            long seen = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                seen += histogram[i];
+                if (seen >= threshold) {
+                    p99Micros = i;
+                    return;
+                }
+            }
+        }
+    }
+
+    @Setup
+    public void setup() {
+        values = Observable.range(0, VALUES).map(i -> System.nanoTime());
+    }
+
+    @Benchmark
+    public void unbatched(Latency latency) {
+        values.subscribe(emitted -> {
+            Blackhole.consumeCPU(CALL_TOKENS);
+            latency.record(System.nanoTime() - emitted);
+            Blackhole.consumeCPU(VALUE_TOKENS);
+        });
+    }
+
+    @Benchmark
+    public void batched(Latency latency) {
+        values.compose(AdaptiveBatch.<Long>create().maxCount(batchSize))
+                .subscribe(batch -> saveAll(batch, latency));
+    }
+
+    @Benchmark
+    public void adaptive(Latency latency) {
+        values.compose(AdaptiveBatch.<Long>create().maxCount(batchSize).adaptive(100, TimeUnit.MICROSECONDS))
+                .subscribe(batch -> saveAll(batch, latency));
+    }
+
+    private static void saveAll(List<Long> batch, Latency latency) {
+        Blackhole.consumeCPU(CALL_TOKENS);
+        long now = System.nanoTime();
+        for (Long emitted : batch) {
+            latency.record(now - emitted);
+            Blackhole.consumeCPU(VALUE_TOKENS);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package rxsample.benchmarks;
+
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark counterpart of PrintObserver: sinks every value into JMH {@link Blackhole} so the JIT can't eliminate
+ * the pipeline, and rethrows errors so a broken pipeline fails the benchmark instead of being measured.
+ */
+public class BlackholeObserver<T> implements Observer<T> {
+    private final Blackhole bh;
+
+    public BlackholeObserver(Blackhole bh) {
+        this.bh = bh;
+    }
+
+    @Override
+    public void onSubscribe(Disposable d) {
+    }
+
+    @Override
+    public void onNext(T v) {
+        bh.consume(v);
+    }
+
+    @Override
+    public void onError(Throwable e) {
+        throw new IllegalStateException(e);
+    }
+
+    @Override
+    public void onComplete() {
+    }
+}
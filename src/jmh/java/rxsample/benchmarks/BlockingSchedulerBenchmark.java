@@ -0,0 +1,74 @@
+package rxsample.benchmarks;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+import org.openjdk.jmh.annotations.*;
+import rxsample.schedulers.VirtualThreadScheduler;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link #subscriptions} concurrent subscriptions, each blocked for {@link #blockMillis} (e.g. a JDBC call), on
+ * Schedulers.io() against {@link VirtualThreadScheduler}. Score is the number of such batches completed per second,
+ * {@code peakThreads} is the peak number of platform threads during the iteration.
+ * <p>
+ * The virtual scheduler needs Java 21+: run with -PruntimeJavaHome, otherwise its setup fails.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BlockingSchedulerBenchmark {
+    @Param({"10000"})
+    int subscriptions;
+
+    @Param({"10"})
+    int blockMillis;
+
+    @Param({"io", "virtual"})
+    String scheduler;
+
+    private Scheduler blockingScheduler;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Threads {
+        private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        public long peakThreads;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            threads.resetPeakThreadCount();
+            peakThreads = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void record() {
+            peakThreads = threads.getPeakThreadCount();
+        }
+    }
+
+    @Setup
+    public void setup() {
+        blockingScheduler = "io".equals(scheduler) ? Schedulers.io() : VirtualThreadScheduler.create();
+    }
+
+    @Benchmark
+    public void blockingSubscriptions(Threads threads) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(subscriptions);
+        for (int i = 0; i < subscriptions; i++) {
+            Observable.fromCallable(this::blockingCall)
+                    .subscribeOn(blockingScheduler)
+                    .subscribe(v -> latch.countDown());
+        }
+        latch.await();
+    }
+
+    private Integer blockingCall() throws InterruptedException {
+        Thread.sleep(blockMillis);
+        return blockMillis;
+    }
+}
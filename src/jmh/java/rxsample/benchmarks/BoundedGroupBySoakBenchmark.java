@@ -0,0 +1,55 @@
+package rxsample.benchmarks;
+
+import io.reactivex.Observable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rxsample.operators.BoundedGroupBy;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Soak run of {@link BoundedGroupBy}: {@link #keys} values, every one with a new key (like user ids), grouped with at
+ * most {@link #maxGroups} open groups (lru) or with groups closed after 10 ms without values (idle). Plain groupBy()
+ * would keep every group until completion and run out of a default heap long before 50M keys.
+ * <p>
+ * {@link PeakHeap} should stay flat as {@link #keys} grows; {@code maxActiveGroups} is the most groups seen open.
+ * idle doesn't depend on {@link #maxGroups}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BoundedGroupBySoakBenchmark {
+    @Param({"50000000"})
+    int keys;
+
+    @Param({"10000"})
+    int maxGroups;
+
+    @Param({"lru", "idle"})
+    String eviction;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Groups {
+        public long maxActiveGroups;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            maxActiveGroups = 0;
+        }
+    }
+
+    @Benchmark
+    public void distinctKeys(PeakHeap heap, Groups groups, Blackhole bh) {
+        BoundedGroupBy<Integer, Integer> groupBy = BoundedGroupBy.create(v -> v);
+        BoundedGroupBy<Integer, Integer> bounded = "lru".equals(eviction)
+                ? groupBy.maxGroups(maxGroups)
+                : groupBy.idleTimeout(10, TimeUnit.MILLISECONDS);
+        Observable.range(0, keys)
+                .compose(bounded)
+                .subscribe(group -> {
+                    groups.maxActiveGroups = Math.max(groups.maxActiveGroups, bounded.activeGroupCount());
+                    group.subscribe(bh::consume);
+                });
+    }
+}
@@ -0,0 +1,47 @@
+package rxsample.benchmarks;
+
+import io.reactivex.Observable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rxsample.operators.BoundedCache;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * cache() from ColdAndHotObservables.cacheExample() against {@link BoundedCache}: one subscriber pulls {@link #size}
+ * values through the cache, then a late subscriber gets the cached values replayed.
+ * cache() retains every value, so its cost of a late subscription grows with the size of the stream, the bounded
+ * one is capped by {@link #CACHE_SIZE}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CacheBenchmark {
+    private static final int CACHE_SIZE = 1024;
+
+    @Param({"1000", "1000000"})
+    int size;
+
+    @Benchmark
+    public void cache(Blackhole bh) {
+        Observable<Integer> cached = Observable.range(1, size).cache();
+        cached.subscribe(new BlackholeObserver<>(bh));
+        cached.subscribe(new BlackholeObserver<>(bh));
+    }
+
+    @Benchmark
+    public void boundedCacheBySize(Blackhole bh) {
+        Observable<Integer> cached = Observable.range(1, size)
+                .compose(BoundedCache.<Integer>create().maxSize(CACHE_SIZE));
+        cached.subscribe(new BlackholeObserver<>(bh));
+        cached.subscribe(new BlackholeObserver<>(bh));
+    }
+
+    @Benchmark
+    public void boundedCacheByWeight(Blackhole bh) {
+        Observable<Integer> cached = Observable.range(1, size)
+                .compose(BoundedCache.<Integer>create().maxWeight(CACHE_SIZE * 16L, v -> 16L));
+        cached.subscribe(new BlackholeObserver<>(bh));
+        cached.subscribe(new BlackholeObserver<>(bh));
+    }
+}
@@ -0,0 +1,79 @@
+package rxsample.benchmarks;
+
+import io.reactivex.Observable;
+import org.openjdk.jmh.annotations.*;
+import rxsample.operators.Collect;
+import rxsample.operators.SizedObservable;
+import rxsample.primitive.IntArray;
+import rxsample.primitive.IntObservable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Collecting {@link #size} values: collect() and toList() from AggregationExamples, which grow an ArrayList from its
+ * default capacity, against the presized {@link Collect#toList} variants, a {@link java.util.stream.Collector} on one
+ * and on 4 threads, and primitive collection with {@link IntObservable#toArray()} and into a reused
+ * {@link IntArray}. The gc profiler's alloc.rate.norm is the allocation per collection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CollectBenchmark {
+    @Param({"10000000"})
+    int size;
+
+    private Observable<Integer> values;
+    private SizedObservable<Integer> sizedValues;
+    private IntObservable intValues;
+    private final IntArray reused = new IntArray();
+
+    @Setup
+    public void setup() {
+        values = Observable.range(0, size);
+        sizedValues = SizedObservable.range(0, size);
+        intValues = IntObservable.range(0, size);
+    }
+
+    @Benchmark
+    public List<Integer> collect() {
+        return values.collect(() -> new ArrayList<Integer>(), (acc, value) -> acc.add(value)).blockingGet();
+    }
+
+    @Benchmark
+    public List<Integer> toList() {
+        return values.toList().blockingGet();
+    }
+
+    @Benchmark
+    public List<Integer> toListWithSizeHint() {
+        return values.as(Collect.toList(size)).blockingGet();
+    }
+
+    @Benchmark
+    public List<Integer> toListOfSizedSource() {
+        return sizedValues.as(Collect.toList()).blockingGet();
+    }
+
+    @Benchmark
+    public List<Integer> collector() {
+        return values.as(Collect.of(Collectors.<Integer>toList())).blockingGet();
+    }
+
+    @Benchmark
+    public List<Integer> parallelCollector() {
+        return values.as(Collect.parallel(Collectors.<Integer>toList(), 4)).blockingGet();
+    }
+
+    @Benchmark
+    public int[] intToArray() {
+        return intValues.toArray().blockingGet();
+    }
+
+    @Benchmark
+    public IntArray intCollectIntoReused() {
+        return intValues.collectInto(reused).blockingGet();
+    }
+}
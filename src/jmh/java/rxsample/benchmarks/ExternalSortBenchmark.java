@@ -0,0 +1,97 @@
+package rxsample.benchmarks;
+
+import io.reactivex.Observable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rxsample.operators.ExternalSort;
+import rxsample.subjects.Serializers;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorting {@link #count} pseudo-random longs in a 512 MB heap: AggregationExamples.toSortedList() against
+ * {@link ExternalSort} with runs of {@link #runSize} values. toSortedList() is expected to fail with an
+ * OutOfMemoryError for 1B values; ExternalSort spills about 8 GB of runs into the temporary directory, which needs
+ * that much free disk.
+ * <p>
+ * {@code firstValueSeconds} is the time from subscription to the first sorted value. The jvmArgs of build.gradle set
+ * a 4 GB heap, the {@code -Xmx512m} appended here overrides it. One sort of 1B values takes minutes, run it alone with
+ * fewer iterations, e.g. {@code -PjmhInclude=ExternalSortBenchmark.externalSort}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+public class ExternalSortBenchmark {
+    @Param({"10000000", "1000000000"})
+    long count;
+
+    @Param({"1048576"})
+    int runSize;
+
+    private File directory;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class FirstValue {
+        public double firstValueSeconds;
+        long start;
+        boolean seen;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            start = System.nanoTime();
+            seen = false;
+        }
+
+        void onValue() {
+            if (!seen) {
+                seen = true;
+                firstValueSeconds = (System.nanoTime() - start) / 1e9;
+            }
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("sort-benchmark").toFile();
+    }
+
+    @TearDown
+    public void tearDown() {
+        directory.delete();
+    }
+
+    @Benchmark
+    public void toSortedList(PeakHeap heap, FirstValue first, Blackhole bh) {
+        values().toSortedList()
+                .subscribe(list -> {
+                    for (Long value : list) {
+                        first.onValue();
+                        bh.consume(value);
+                    }
+                });
+    }
+
+    @Benchmark
+    public void externalSort(PeakHeap heap, FirstValue first, Blackhole bh) {
+        values().compose(ExternalSort.create(Serializers.LONG, Comparator.naturalOrder(), directory)
+                .runSize(runSize))
+                .subscribe(value -> {
+                    first.onValue();
+                    bh.consume(value);
+                });
+    }
+
+    private Observable<Long> values() {
+        // xorshift-multiply hash of the index, a permutation of longs
+        return Observable.rangeLong(0, count).map(i -> {
+            long h = i * 0x9E3779B97F4A7C15L;
+            return h ^ (h >>> 32);
+        });
+    }
+}
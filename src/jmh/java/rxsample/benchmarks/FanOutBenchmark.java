@@ -0,0 +1,89 @@
+package rxsample.benchmarks;
+
+import io.reactivex.BackpressureOverflowStrategy;
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.Subject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rxsample.subjects.FanOutSubject;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fan-out throughput (values emitted per second, each delivered to all {@link #subscribers}) of
+ * SubjectExamples.publishSubject() against {@link FanOutSubject} with queues drained on computation workers.
+ * Queues are large enough to hold the whole batch, so nothing is dropped.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(FanOutBenchmark.VALUES)
+public class FanOutBenchmark {
+    static final int VALUES = 16 * 1024;
+    private static final Integer[] ITEMS = new Integer[VALUES];
+
+    static {
+        for (int i = 0; i < VALUES; i++) {
+            ITEMS[i] = i;
+        }
+    }
+
+    @Param({"1", "8", "64", "512"})
+    int subscribers;
+
+    @Benchmark
+    public void publishSubject(Blackhole bh) throws InterruptedException {
+        emit(PublishSubject.create(), bh);
+    }
+
+    @Benchmark
+    public void fanOutSubject(Blackhole bh) throws InterruptedException {
+        emit(FanOutSubject.create(Schedulers.computation(), VALUES, BackpressureOverflowStrategy.ERROR), bh);
+    }
+
+    private void emit(Subject<Integer> subject, Blackhole bh) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(subscribers);
+        for (int i = 0; i < subscribers; i++) {
+            subject.subscribe(new LatchedObserver(bh, latch));
+        }
+        for (Integer item : ITEMS) {
+            subject.onNext(item);
+        }
+        subject.onComplete();
+        latch.await();
+    }
+
+    private static final class LatchedObserver implements Observer<Integer> {
+        private final Blackhole bh;
+        private final CountDownLatch latch;
+
+        LatchedObserver(Blackhole bh, CountDownLatch latch) {
+            this.bh = bh;
+            this.latch = latch;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+        }
+
+        @Override
+        public void onNext(Integer value) {
+            bh.consume(value);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            latch.countDown();
+            throw new IllegalStateException(e);
+        }
+
+        @Override
+        public void onComplete() {
+            latch.countDown();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package rxsample.benchmarks;
+
+import io.reactivex.Observable;
+import io.reactivex.functions.Function;
+import io.reactivex.functions.Predicate;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rxsample.operators.FusedPipeline;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chains of {@link #stages} operators - alternating map() and filter(), the last one being take() - as separate
+ * operators against a single {@link FusedPipeline}. Both are assembled once, so with small {@link #size} the cost of
+ * subscribing the chain dominates (-prof gc shows allocated bytes per operation), with large size the per-value cost
+ * does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FusionBenchmark {
+    private static final Function<Integer, Integer> INCREMENT = i -> i + 1;
+    private static final Predicate<Integer> NOT_MULTIPLE_OF_1024 = i -> (i & 1023) != 0;
+
+    @Param({"2", "4", "8"})
+    int stages;
+
+    @Param({"10", "1000000"})
+    int size;
+
+    private Observable<Integer> separate;
+    private Observable<Integer> fused;
+
+    @Setup
+    public void setup() {
+        Observable<Integer> values = Observable.range(0, size);
+        Observable<Integer> chain = values;
+        FusedPipeline<Integer, Integer> pipeline = FusedPipeline.create();
+        for (int i = 0; i < stages - 1; i++) {
+            if (i % 2 == 0) {
+                chain = chain.map(INCREMENT);
+                pipeline = pipeline.map(INCREMENT);
+            } else {
+                chain = chain.filter(NOT_MULTIPLE_OF_1024);
+                pipeline = pipeline.filter(NOT_MULTIPLE_OF_1024);
+            }
+        }
+        separate = chain.take(size);
+        fused = values.compose(pipeline.take(size));
+    }
+
+    @Benchmark
+    public void separate(Blackhole bh) {
+        separate.subscribe(new BlackholeObserver<>(bh));
+    }
+
+    @Benchmark
+    public void fused(Blackhole bh) {
+        fused.subscribe(new BlackholeObserver<>(bh));
+    }
+}
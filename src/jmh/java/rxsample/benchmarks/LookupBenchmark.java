@@ -0,0 +1,83 @@
+package rxsample.benchmarks;
+
+import io.reactivex.Observable;
+import io.reactivex.schedulers.Schedulers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rxsample.operators.BatchedLookup;
+import rxsample.operators.InMemoryBulkLoader;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enrichment of {@link #VALUES} keys (drawn from {@link #distinctKeys}, like the urlDict lookup in RxJavaSample)
+ * against a store answering after {@link #LATENCY_MILLIS} ms: one lookup per key, in order (perElement) or 16 at a
+ * time (perElementConcurrent), against {@link BatchedLookup} without and with a cache. Score is keys per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(LookupBenchmark.VALUES)
+public class LookupBenchmark {
+    static final int VALUES = 1000;
+    private static final int LATENCY_MILLIS = 2;
+
+    @Param({"100", "10000"})
+    int distinctKeys;
+
+    private Observable<String> keys;
+    private InMemoryBulkLoader<String, String> loader;
+
+    @Setup
+    public void setup() {
+        Map<String, String> store = new HashMap<>();
+        for (int i = 0; i < distinctKeys; i++) {
+            store.put("key" + i, "value" + i);
+        }
+        loader = InMemoryBulkLoader.create(store, LATENCY_MILLIS, TimeUnit.MILLISECONDS, Schedulers.computation());
+        Random random = new Random(42);
+        String[] values = new String[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            values[i] = "key" + random.nextInt(distinctKeys);
+        }
+        keys = Observable.fromArray(values);
+    }
+
+    @Benchmark
+    public void perElement(Blackhole bh) {
+        keys.concatMap(key -> loader.load(Collections.singletonList(key)).flattenAsObservable(Map::values))
+                .doOnNext(bh::consume)
+                .ignoreElements()
+                .blockingAwait();
+    }
+
+    @Benchmark
+    public void perElementConcurrent(Blackhole bh) {
+        keys.concatMapEager(key -> loader.load(Collections.singletonList(key))
+                .flattenAsObservable(Map::values), 16, 1)
+                .doOnNext(bh::consume)
+                .ignoreElements()
+                .blockingAwait();
+    }
+
+    @Benchmark
+    public void batched(Blackhole bh) {
+        keys.compose(BatchedLookup.create(loader))
+                .doOnNext(bh::consume)
+                .ignoreElements()
+                .blockingAwait();
+    }
+
+    @Benchmark
+    public void batchedCached(Blackhole bh) {
+        // a new cache per invocation, so that it's filled by the invocation itself
+        keys.compose(BatchedLookup.create(loader).cache(1024))
+                .doOnNext(bh::consume)
+                .ignoreElements()
+                .blockingAwait();
+    }
+}
@@ -0,0 +1,94 @@
+package rxsample.benchmarks;
+
+import io.reactivex.Observable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rxsample.operators.OrderedFlatMap;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TransformationExamples.flatMapTiming() and concatMap() against {@link OrderedFlatMap}: {@link #count} inner sources
+ * of {@link #valuesPerInner} values each, which take between 1 ms and {@link #maxLatencyMs} to emit them (fixed
+ * pseudo-random latencies, like remote calls). flatMap runs {@link #maxConcurrency} of them at once and emits in
+ * completion order, concatMap runs one at a time, OrderedFlatMap and concatMapEager run {@link #maxConcurrency} at
+ * once and emit in source order.
+ * <p>
+ * {@code peakBuffered} is the most values OrderedFlatMap held back at once while earlier inner sources were running.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderedFlatMapBenchmark {
+    @Param({"1", "10", "100"})
+    int maxLatencyMs;
+
+    @Param({"8"})
+    int maxConcurrency;
+
+    @Param({"64"})
+    int count;
+
+    @Param({"16"})
+    int valuesPerInner;
+
+    private int[] latencies;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Buffered {
+        public long peakBuffered;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            peakBuffered = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        latencies = new int[count];
+        for (int i = 0; i < count; i++) {
+            latencies[i] = 1 + random.nextInt(maxLatencyMs);
+        }
+    }
+
+    @Benchmark
+    public void flatMap(Blackhole bh) {
+        Observable.range(0, count)
+                .flatMap(this::inner, maxConcurrency)
+                .blockingSubscribe(bh::consume);
+    }
+
+    @Benchmark
+    public void concatMap(Blackhole bh) {
+        Observable.range(0, count)
+                .concatMap(this::inner)
+                .blockingSubscribe(bh::consume);
+    }
+
+    @Benchmark
+    public void concatMapEager(Blackhole bh) {
+        Observable.range(0, count)
+                .concatMapEager(this::inner, maxConcurrency, valuesPerInner)
+                .blockingSubscribe(bh::consume);
+    }
+
+    @Benchmark
+    public void orderedFlatMap(Buffered buffered, Blackhole bh) {
+        OrderedFlatMap<Integer, Integer> orderedFlatMap = OrderedFlatMap.<Integer, Integer>create(this::inner)
+                .maxConcurrency(maxConcurrency)
+                .prefetch(valuesPerInner);
+        Observable.range(0, count)
+                .compose(orderedFlatMap)
+                .blockingSubscribe(bh::consume);
+        buffered.peakBuffered = Math.max(buffered.peakBuffered, orderedFlatMap.peakBufferedCount());
+    }
+
+    private Observable<Integer> inner(int i) {
+        return Observable.timer(latencies[i], TimeUnit.MILLISECONDS)
+                .flatMap(v -> Observable.range(i * valuesPerInner, valuesPerInner));
+    }
+}
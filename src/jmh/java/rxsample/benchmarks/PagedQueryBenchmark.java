@@ -0,0 +1,74 @@
+package rxsample.benchmarks;
+
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rxsample.sources.Page;
+import rxsample.sources.PagedSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query with {@link #results} results emitted as a single list (like the original RxJavaSample.query()) against
+ * {@link PagedSource} with {@link #pageSize} results per page. firstElement measures the time until the first result
+ * arrives, all measures how many whole queries run per second.
+ * <p>
+ * {@link PeakHeap} shows the heap needed by each. list doesn't depend on {@link #pageSize}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PagedQueryBenchmark {
+    @Param({"1000000"})
+    int results;
+
+    @Param({"1000"})
+    int pageSize;
+
+    @Param({"list", "paged"})
+    String source;
+
+    private Observable<List<String>> query;
+
+    @Setup
+    public void setup() {
+        if ("list".equals(source)) {
+            query = Observable.fromCallable(() -> {
+                List<String> all = new ArrayList<>();
+                for (int i = 0; i < results; i++) {
+                    all.add("site" + i + ".com");
+                }
+                return all;
+            });
+        } else {
+            query = PagedSource.pages(this::fetchPage);
+        }
+    }
+
+    private Single<Page<String>> fetchPage(String cursor) {
+        return Single.fromCallable(() -> {
+            int from = cursor == null ? 0 : Integer.parseInt(cursor);
+            int to = Math.min(results, from + pageSize);
+            List<String> page = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                page.add("site" + i + ".com");
+            }
+            return to == results ? Page.last(page) : Page.of(page, String.valueOf(to));
+        });
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String firstElement(PeakHeap heap) {
+        return query.flatMap(Observable::fromIterable).blockingFirst();
+    }
+
+    @Benchmark
+    public void all(PeakHeap heap, Blackhole bh) {
+        query.flatMap(Observable::fromIterable).subscribe(bh::consume);
+    }
+}
@@ -0,0 +1,101 @@
+package rxsample.benchmarks;
+
+import io.reactivex.Observable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rxsample.operators.ParallelRails;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TransformationExamples.parseIntMap() on {@link #size} CSV records ("id,quantity,price"), sequentially against
+ * {@link ParallelRails} with 1 to 8 rails (more rails than cores only adds overhead). mergeOrdered shows the cost of
+ * restoring the order of the source, reduce the case where no merge of individual values is needed. sequential doesn't
+ * depend on {@link #rails}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ParallelRailsBenchmark {
+    private static final int DISTINCT_RECORDS = 1 << 16;
+    private static final String[] RECORDS = new String[DISTINCT_RECORDS];
+
+    static {
+        for (int i = 0; i < DISTINCT_RECORDS; i++) {
+            RECORDS[i] = i + "," + (i % 100) + "," + (i % 1000) + "." + (i % 100);
+        }
+    }
+
+    @Param({"10000000"})
+    int size;
+
+    @Param({"1", "2", "4", "8"})
+    int rails;
+
+    private Observable<String> records;
+
+    @Setup
+    public void setup() {
+        records = Observable.range(0, size).map(i -> RECORDS[i & (DISTINCT_RECORDS - 1)]);
+    }
+
+    @Benchmark
+    public void sequential(Blackhole bh) {
+        records.map(ParallelRailsBenchmark::parse)
+                .doOnNext(bh::consume)
+                .ignoreElements()
+                .blockingAwait();
+    }
+
+    @Benchmark
+    public void merge(Blackhole bh) {
+        ParallelRails.from(records, rails)
+                .map(ParallelRailsBenchmark::parse)
+                .merge()
+                .doOnNext(bh::consume)
+                .ignoreElements()
+                .blockingAwait();
+    }
+
+    @Benchmark
+    public void mergeOrdered(Blackhole bh) {
+        ParallelRails.from(records, rails)
+                .map(ParallelRailsBenchmark::parse)
+                .mergeOrdered()
+                .doOnNext(bh::consume)
+                .ignoreElements()
+                .blockingAwait();
+    }
+
+    @Benchmark
+    public double reduce() {
+        return ParallelRails.from(records, rails)
+                .map(r -> parse(r).total())
+                .reduce(Double::sum)
+                .blockingGet();
+    }
+
+    static Order parse(String record) {
+        int first = record.indexOf(',');
+        int second = record.indexOf(',', first + 1);
+        return new Order(Long.parseLong(record.substring(0, first)),
+                Integer.parseInt(record.substring(first + 1, second)),
+                Double.parseDouble(record.substring(second + 1)));
+    }
+
+    static final class Order {
+        final long id;
+        final int quantity;
+        final double price;
+
+        Order(long id, int quantity, double price) {
+            this.id = id;
+            this.quantity = quantity;
+            this.price = price;
+        }
+
+        double total() {
+            return quantity * price;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package rxsample.benchmarks;
+
+import io.reactivex.Observable;
+import org.openjdk.jmh.annotations.*;
+import rxsample.operators.PartitionedToMap;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a lookup table of {@link #entries} distinct keys (and a multimap of 16 values per key) with toMap() and
+ * toMultimap() from AggregationExamples, which build one HashMap on the upstream thread, against
+ * {@link PartitionedToMap} with {@link #partitions} partitions on Schedulers.computation(). Score is the build time,
+ * {@link PeakHeap} shows the peak memory; partitions = 1 shows the cost of the hand-off alone.
+ * <p>
+ * Limit the cores with -Drx2.computation-threads=N in the jvmArgs. 50M entries need about 8 GB of heap, raise -Xmx
+ * in build.gradle for them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PartitionedToMapBenchmark {
+    private static final int VALUES_PER_KEY = 16;
+
+    @Param({"1000000", "10000000", "50000000"})
+    int entries;
+
+    @Param({"1", "4", "16"})
+    int partitions;
+
+    private Observable<Integer> keys;
+    private Observable<Integer> multimapValues;
+
+    @Setup
+    public void setup() {
+        // spread like real ids, sequential Integers would fill sequential buckets
+        keys = Observable.range(0, entries).map(i -> i * 0x9E3779B9);
+        int distinct = entries / VALUES_PER_KEY;
+        multimapValues = Observable.range(0, entries).map(i -> (i % distinct) * 0x9E3779B9);
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> toMapSerial(PeakHeap heap) {
+        return keys.toMap(k -> k, k -> k).blockingGet();
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> toMapPartitioned(PeakHeap heap) {
+        return keys.as(PartitionedToMap.<Integer, Integer, Integer>create(k -> k, k -> k)
+                .partitions(partitions)
+                .expectedSize(entries)
+                .toMap())
+                .blockingGet();
+    }
+
+    @Benchmark
+    public Map<Integer, Collection<Integer>> toMultimapSerial(PeakHeap heap) {
+        return multimapValues.toMultimap(k -> k, k -> k).blockingGet();
+    }
+
+    @Benchmark
+    public Map<Integer, Collection<Integer>> toMultimapPartitioned(PeakHeap heap) {
+        return multimapValues.as(PartitionedToMap.<Integer, Integer, Integer>create(k -> k, k -> k)
+                .partitions(partitions)
+                .expectedSize(entries / VALUES_PER_KEY)
+                .toMultimap())
+                .blockingGet();
+    }
+}
@@ -0,0 +1,46 @@
+package rxsample.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code peakHeapMB}: peak heap usage during the iteration, including garbage. Run with a small young generation
+ * (e.g. -jvmArgs -Xmn16m) to see the retained part.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class PeakHeap {
+    private final List<MemoryPoolMXBean> pools = new ArrayList<>();
+    public long peakHeapMB;
+
+    public PeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pools.add(pool);
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        System.gc();
+        for (MemoryPoolMXBean pool : pools) {
+            pool.resetPeakUsage();
+        }
+        peakHeapMB = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void record() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        peakHeapMB = peak >> 20;
+    }
+}
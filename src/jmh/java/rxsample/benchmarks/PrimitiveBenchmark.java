@@ -0,0 +1,105 @@
+package rxsample.benchmarks;
+
+import io.reactivex.Observable;
+import io.reactivex.disposables.Disposable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rxsample.primitive.IntObservable;
+import rxsample.primitive.IntObserver;
+import rxsample.primitive.LongObservable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Boxed {@code Observable<Integer>} pipelines from AggregationExamples / ObservableReductionExamples /
+ * TransformationExamples against the same pipelines on {@link IntObservable} and {@link LongObservable}.
+ * Compare {@code gc.alloc.rate.norm}: primitive versions should stay constant regardless of {@link #size}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PrimitiveBenchmark {
+
+    @Param({"1000", "1000000", "100000000"})
+    int size;
+
+    @Benchmark
+    public Integer reduceBoxed() {
+        return Observable.range(1, size).reduce((i1, i2) -> i1 + i2).blockingGet();
+    }
+
+    @Benchmark
+    public Integer reducePrimitive() {
+        return IntObservable.range(1, size).reduce((i1, i2) -> i1 + i2).blockingGet();
+    }
+
+    @Benchmark
+    public Long sumLongBoxed() {
+        return Observable.rangeLong(1, size).reduce(0L, (l1, l2) -> l1 + l2).blockingGet();
+    }
+
+    @Benchmark
+    public Long sumLongPrimitive() {
+        return LongObservable.range(1, size).sum().blockingGet();
+    }
+
+    @Benchmark
+    public void scanBoxed(Blackhole bh) {
+        Observable.range(1, size).scan((i1, i2) -> i1 + i2)
+                .subscribe(new BlackholeObserver<>(bh));
+    }
+
+    @Benchmark
+    public void scanPrimitive(Blackhole bh) {
+        IntObservable.range(1, size).scan((i1, i2) -> i1 + i2)
+                .subscribe(new BlackholeIntObserver(bh));
+    }
+
+    @Benchmark
+    public void filterMapBoxed(Blackhole bh) {
+        Observable.range(1, size).filter(v -> v % 2 == 0).map(i -> i + 3)
+                .subscribe(new BlackholeObserver<>(bh));
+    }
+
+    @Benchmark
+    public void filterMapPrimitive(Blackhole bh) {
+        IntObservable.range(1, size).filter(v -> v % 2 == 0).map(i -> i + 3)
+                .subscribe(new BlackholeIntObserver(bh));
+    }
+
+    @Benchmark
+    public Integer maxBoxed() {
+        return Observable.range(1, size).map(i -> i + 3).reduce(Math::max).blockingGet();
+    }
+
+    @Benchmark
+    public Integer maxPrimitive() {
+        return IntObservable.range(1, size).map(i -> i + 3).max().blockingGet();
+    }
+
+    private static final class BlackholeIntObserver implements IntObserver {
+        private final Blackhole bh;
+
+        BlackholeIntObserver(Blackhole bh) {
+            this.bh = bh;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+        }
+
+        @Override
+        public void onNext(int value) {
+            bh.consume(value);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            throw new IllegalStateException(e);
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
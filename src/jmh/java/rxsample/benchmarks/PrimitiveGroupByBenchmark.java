@@ -0,0 +1,95 @@
+package rxsample.benchmarks;
+
+import io.reactivex.Observable;
+import io.reactivex.disposables.Disposables;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rxsample.primitive.LongObjectMap;
+import rxsample.primitive.PrimitiveGroupBy;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * groupBy() and toMultimap() with boxed keys against {@link PrimitiveGroupBy}, for {@link #size} events with
+ * {@link #keys} distinct int keys (user ids). Events are preallocated and reused, so the allocations per element
+ * ({@code gc.alloc.rate.norm} / size) are the ones of the operators: boxing of keys outside of the Integer cache and
+ * HashMap nodes against nothing for the primitive versions. toMultimap doesn't run for 100M events, their lists
+ * wouldn't fit into a default heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PrimitiveGroupByBenchmark {
+    private static final int EVENTS = 1 << 20;
+
+    @Param({"100000000"})
+    int size;
+
+    @Param({"10", "10000", "1000000"})
+    int keys;
+
+    private Observable<Event> events;
+
+    static final class Event {
+        final int userId;
+
+        Event(int userId) {
+            this.userId = userId;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        Event[] pool = new Event[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            pool[i] = new Event(i % keys);
+        }
+        // user ids arrive in random order; sequential ids would favor identity hashing of Integer keys
+        Random random = new Random(42);
+        for (int i = EVENTS - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Event tmp = pool[i];
+            pool[i] = pool[j];
+            pool[j] = tmp;
+        }
+        int count = size;
+        events = Observable.unsafeCreate(observer -> {
+            observer.onSubscribe(Disposables.empty());
+            for (int i = 0; i < count; i++) {
+                observer.onNext(pool[i & (EVENTS - 1)]);
+            }
+            observer.onComplete();
+        });
+    }
+
+    @Benchmark
+    public void groupByBoxed(Blackhole bh) {
+        events.groupBy(event -> event.userId)
+                .subscribe(group -> group.subscribe(bh::consume));
+    }
+
+    @Benchmark
+    public void groupByPrimitive(Blackhole bh) {
+        events.compose(PrimitiveGroupBy.byInt(event -> event.userId))
+                .subscribe(group -> group.subscribe(bh::consume));
+    }
+
+    @Benchmark
+    public Map<Integer, ?> toMultimapBoxed() {
+        if (size > EVENTS * 16) {
+            return null;
+        }
+        return events.toMultimap(event -> event.userId).blockingGet();
+    }
+
+    @Benchmark
+    public LongObjectMap<List<Event>> toMultimapPrimitive() {
+        if (size > EVENTS * 16) {
+            return null;
+        }
+        return events.as(PrimitiveGroupBy.toMultimapByInt(event -> event.userId, event -> event)).blockingGet();
+    }
+}
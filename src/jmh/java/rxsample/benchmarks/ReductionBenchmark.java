@@ -0,0 +1,72 @@
+package rxsample.benchmarks;
+
+import io.reactivex.Observable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pipelines from ObservableReductionExamples scaled up to {@link #size} elements.
+ * distinct() keys are bounded by {@link #DISTINCT_KEYS}, otherwise the 100M run measures nothing but HashSet growth.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ReductionBenchmark {
+    private static final int DISTINCT_KEYS = 1 << 16;
+
+    @Param({"1000", "1000000", "100000000"})
+    int size;
+
+    private Observable<Integer> values;
+
+    @Setup
+    public void setup() {
+        values = Observable.range(1, size);
+    }
+
+    // ObservableReductionExamples.filter()
+    @Benchmark
+    public void filter(Blackhole bh) {
+        values.filter(v -> v % 2 == 0)
+                .subscribe(new BlackholeObserver<>(bh));
+    }
+
+    // ObservableReductionExamples.distinct()
+    @Benchmark
+    public void distinct(Blackhole bh) {
+        values.map(v -> v & (DISTINCT_KEYS - 1))
+                .distinct()
+                .subscribe(new BlackholeObserver<>(bh));
+    }
+
+    // ObservableReductionExamples.distinctWithKeySelector()
+    @Benchmark
+    public void distinctWithKeySelector(Blackhole bh) {
+        values.distinct(v -> v & (DISTINCT_KEYS - 1))
+                .subscribe(new BlackholeObserver<>(bh));
+    }
+
+    // ObservableReductionExamples.distinctUntilChanged(): every value is repeated twice in a row
+    @Benchmark
+    public void distinctUntilChanged(Blackhole bh) {
+        values.map(v -> v >> 1)
+                .distinctUntilChanged()
+                .subscribe(new BlackholeObserver<>(bh));
+    }
+
+    // ObservableReductionExamples.skip()
+    @Benchmark
+    public void skip(Blackhole bh) {
+        values.skip(size / 2)
+                .subscribe(new BlackholeObserver<>(bh));
+    }
+
+    // ObservableReductionExamples.take()
+    @Benchmark
+    public void take(Blackhole bh) {
+        values.take(size / 2)
+                .subscribe(new BlackholeObserver<>(bh));
+    }
+}
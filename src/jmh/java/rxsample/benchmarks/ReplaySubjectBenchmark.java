@@ -0,0 +1,71 @@
+package rxsample.benchmarks;
+
+import io.reactivex.subjects.ReplaySubject;
+import io.reactivex.subjects.Subject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rxsample.subjects.OffHeapReplaySubject;
+import rxsample.subjects.Serializers;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SubjectExamples.replaySubjectLimitedBySize() against {@link OffHeapReplaySubject}.
+ * fill* benchmarks buffer {@link #size} values with no subscribers: {@code gc.alloc.rate.norm} is the heap each
+ * buffered value costs (values themselves are preallocated). replay* benchmarks measure a late subscriber replaying
+ * a full buffer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ReplaySubjectBenchmark {
+    private static final Long[] VALUES = new Long[1024];
+
+    static {
+        for (int i = 0; i < VALUES.length; i++) {
+            VALUES[i] = 1_000_000L + i;
+        }
+    }
+
+    @Param({"1000", "1000000"})
+    int size;
+
+    private Subject<Long> filledHeap;
+    private Subject<Long> filledOffHeap;
+
+    @Setup
+    public void setup() {
+        filledHeap = fill(ReplaySubject.createWithSize(size));
+        filledOffHeap = fill(OffHeapReplaySubject.createWithSize(size, Serializers.LONG));
+        // completed, so that replaying subscribers don't stay subscribed after the benchmark iteration
+        filledHeap.onComplete();
+        filledOffHeap.onComplete();
+    }
+
+    private Subject<Long> fill(Subject<Long> subject) {
+        for (int i = 0; i < size; i++) {
+            subject.onNext(VALUES[i & (VALUES.length - 1)]);
+        }
+        return subject;
+    }
+
+    @Benchmark
+    public Subject<Long> fillHeap() {
+        return fill(ReplaySubject.createWithSize(size));
+    }
+
+    @Benchmark
+    public Subject<Long> fillOffHeap() {
+        return fill(OffHeapReplaySubject.createWithSize(size, Serializers.LONG));
+    }
+
+    @Benchmark
+    public void replayHeap(Blackhole bh) {
+        filledHeap.subscribe(new BlackholeObserver<>(bh));
+    }
+
+    @Benchmark
+    public void replayOffHeap(Blackhole bh) {
+        filledOffHeap.subscribe(new BlackholeObserver<>(bh));
+    }
+}
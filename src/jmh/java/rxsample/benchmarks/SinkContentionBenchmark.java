@@ -0,0 +1,77 @@
+package rxsample.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import rxsample.sinks.ShardedSink;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link #keys} keys written concurrently by 1 to 32 writer threads (the nested classes, one per thread count) into
+ * a synchronized HashMap (what save() in RxJavaSample would need to be safe), ConcurrentHashMap and
+ * {@link ShardedSink}. Score is the total number of writes per second.
+ * <p>
+ * A small number of keys means most writers hit the same few buckets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public abstract class SinkContentionBenchmark {
+    @Param({"16", "65536"})
+    int keys;
+
+    @Param({"synchronized", "concurrent", "sharded"})
+    String sink;
+
+    @Param({"16"})
+    int shards;
+
+    private BiConsumer<Integer, Integer> writer;
+    private Integer[] boxedKeys;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        boxedKeys = new Integer[keys];
+        for (int i = 0; i < keys; i++) {
+            boxedKeys[i] = i;
+        }
+        switch (sink) {
+            case "synchronized":
+                writer = Collections.synchronizedMap(new HashMap<Integer, Integer>())::put;
+                break;
+            case "concurrent":
+                writer = new ConcurrentHashMap<Integer, Integer>()::put;
+                break;
+            default:
+                writer = ShardedSink.<Integer, Integer>create(shards)::put;
+                break;
+        }
+    }
+
+    @Benchmark
+    public void write() {
+        Integer key = boxedKeys[ThreadLocalRandom.current().nextInt(keys)];
+        writer.accept(key, key);
+    }
+
+    @Threads(1)
+    public static class Writers1 extends SinkContentionBenchmark {
+    }
+
+    @Threads(4)
+    public static class Writers4 extends SinkContentionBenchmark {
+    }
+
+    @Threads(16)
+    public static class Writers16 extends SinkContentionBenchmark {
+    }
+
+    @Threads(32)
+    public static class Writers32 extends SinkContentionBenchmark {
+    }
+}
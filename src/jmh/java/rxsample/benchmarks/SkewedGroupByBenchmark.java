@@ -0,0 +1,124 @@
+package rxsample.benchmarks;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rxsample.schedulers.WorkStealingScheduler;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AggregationExamples.groupBy() with skewed keys: every 4th value goes to the hot group 0, the rest is spread over
+ * 63 other groups. Each group is processed on a Worker of the scheduler ({@link #tokens} of CPU work per value).
+ * <p>
+ * roundRobin has the structure of computation() - a fixed pool of {@link #threads} single-threaded executors, Workers
+ * assigned round-robin - which can't be resized at runtime. workStealing is {@link WorkStealingScheduler} of the
+ * same size; {@code steals} and {@code maxQueueDepth} are its metrics for the iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SkewedGroupByBenchmark {
+    private static final int GROUPS = 64;
+
+    @Param({"4", "16", "64"})
+    int threads;
+
+    @Param({"100000"})
+    int size;
+
+    @Param({"50"})
+    int tokens;
+
+    private RoundRobinScheduler roundRobin;
+    private WorkStealingScheduler workStealing;
+    private Observable<Integer> values;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Metrics {
+        public long steals;
+        public long maxQueueDepth;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            steals = 0;
+            maxQueueDepth = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        roundRobin = new RoundRobinScheduler(threads);
+        workStealing = WorkStealingScheduler.create(threads);
+        values = Observable.range(0, size);
+    }
+
+    @TearDown
+    public void tearDown() {
+        roundRobin.shutdown();
+        workStealing.shutdown();
+    }
+
+    @Benchmark
+    public long roundRobin() {
+        return groupBy(roundRobin);
+    }
+
+    @Benchmark
+    public long workStealing(Metrics metrics) {
+        long steals = workStealing.stealCount();
+        long result = groupBy(workStealing);
+        metrics.steals += workStealing.stealCount() - steals;
+        metrics.maxQueueDepth = Math.max(metrics.maxQueueDepth, workStealing.maxQueueDepth());
+        return result;
+    }
+
+    private long groupBy(Scheduler scheduler) {
+        return values.groupBy(i -> (i & 3) == 0 ? 0 : 1 + (i >>> 2) % (GROUPS - 1))
+                .flatMap(group -> group.observeOn(scheduler)
+                        .map(v -> {
+                            Blackhole.consumeCPU(tokens);
+                            return v;
+                        })
+                        .count()
+                        .toObservable())
+                .reduce(0L, Long::sum)
+                .blockingGet();
+    }
+
+    /**
+     * Same assignment of Workers to threads as in computation().
+     */
+    private static final class RoundRobinScheduler extends Scheduler {
+        private final ExecutorService[] executors;
+        private final Scheduler[] schedulers;
+        private final AtomicInteger next = new AtomicInteger();
+
+        RoundRobinScheduler(int threads) {
+            executors = new ExecutorService[threads];
+            schedulers = new Scheduler[threads];
+            for (int i = 0; i < threads; i++) {
+                executors[i] = Executors.newSingleThreadExecutor();
+                schedulers[i] = Schedulers.from(executors[i]);
+            }
+        }
+
+        @Override
+        public Worker createWorker() {
+            return schedulers[Math.floorMod(next.getAndIncrement(), schedulers.length)].createWorker();
+        }
+
+        @Override
+        public void shutdown() {
+            for (ExecutorService executor : executors) {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package rxsample.benchmarks;
+
+import io.reactivex.Observable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rxsample.operators.SlidingWindow;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolling sum and min over the last {@link #windowSize} of {@link #VALUES} values: {@link SlidingWindow} against
+ * {@code window(windowSize, 1).flatMap(w -> w.reduce(...))}, which delivers every value to windowSize windows. Score
+ * is the time of one pass.
+ * <p>
+ * The window() versions don't run for a window of 1M: that's about 2 * 10^10 deliveries per pass.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SlidingWindowBenchmark {
+    private static final int VALUES = 200_000;
+    private static final int MAX_REDUCED_WINDOW = 10_000;
+
+    @Param({"100", "10000", "1000000"})
+    int windowSize;
+
+    private Observable<Integer> values;
+
+    @Setup
+    public void setup() {
+        values = Observable.range(0, VALUES).map(i -> (i * 0x9E3779B9) >>> 8);
+    }
+
+    @Benchmark
+    public void sumBySlidingWindow(Blackhole bh) {
+        values.compose(SlidingWindow.<Integer>create().size(windowSize).sum(v -> v))
+                .subscribe(new BlackholeObserver<>(bh));
+    }
+
+    @Benchmark
+    public void sumByReducedWindows(Blackhole bh) {
+        if (windowSize > MAX_REDUCED_WINDOW) {
+            return;
+        }
+        values.window(windowSize, 1)
+                .flatMap(w -> w.reduce(0L, (sum, v) -> sum + v).toObservable())
+                .subscribe(new BlackholeObserver<>(bh));
+    }
+
+    @Benchmark
+    public void minBySlidingWindow(Blackhole bh) {
+        values.compose(SlidingWindow.<Integer>create().size(windowSize).min(Comparator.naturalOrder()))
+                .subscribe(new BlackholeObserver<>(bh));
+    }
+
+    @Benchmark
+    public void minByReducedWindows(Blackhole bh) {
+        if (windowSize > MAX_REDUCED_WINDOW) {
+            return;
+        }
+        values.window(windowSize, 1)
+                .flatMap(w -> w.reduce(Math::min).toObservable())
+                .subscribe(new BlackholeObserver<>(bh));
+    }
+}
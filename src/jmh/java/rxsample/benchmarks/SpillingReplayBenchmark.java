@@ -0,0 +1,71 @@
+package rxsample.benchmarks;
+
+import io.reactivex.Observable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.observables.ConnectableObservable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import rxsample.operators.SpillingReplay;
+import rxsample.subjects.Serializers;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Late-subscriber replay throughput of ColdAndHotObservables.replayExample() against {@link SpillingReplay} with the
+ * whole history kept in heap and with the whole history spilled to memory-mapped segments.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SpillingReplayBenchmark {
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    @Param({"1000", "1000000", "10000000"})
+    int size;
+
+    private File directory;
+    private ConnectableObservable<Long> replay;
+    private ConnectableObservable<Long> spillingHeap;
+    private ConnectableObservable<Long> spillingMapped;
+    private Disposable heapConnection;
+    private Disposable mappedConnection;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("replay-benchmark").toFile();
+        Observable<Long> values = Observable.rangeLong(0, size);
+        replay = values.replay();
+        replay.connect();
+        spillingHeap = SpillingReplay.create(values, Serializers.LONG, directory, size, SEGMENT_SIZE,
+                SpillingReplay.UNLIMITED_SEGMENTS);
+        heapConnection = spillingHeap.connect();
+        spillingMapped = SpillingReplay.create(values, Serializers.LONG, directory, 0, SEGMENT_SIZE,
+                SpillingReplay.UNLIMITED_SEGMENTS);
+        mappedConnection = spillingMapped.connect();
+    }
+
+    @TearDown
+    public void tearDown() {
+        heapConnection.dispose();
+        mappedConnection.dispose();
+        directory.delete();
+    }
+
+    @Benchmark
+    public void replay(Blackhole bh) {
+        replay.subscribe(new BlackholeObserver<>(bh));
+    }
+
+    @Benchmark
+    public void spillingReplayFromHeap(Blackhole bh) {
+        spillingHeap.subscribe(new BlackholeObserver<>(bh));
+    }
+
+    @Benchmark
+    public void spillingReplayFromMappedSegments(Blackhole bh) {
+        spillingMapped.subscribe(new BlackholeObserver<>(bh));
+    }
+}
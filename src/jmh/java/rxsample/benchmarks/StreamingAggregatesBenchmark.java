@@ -0,0 +1,64 @@
+package rxsample.benchmarks;
+
+import io.reactivex.Observable;
+import org.openjdk.jmh.annotations.*;
+import rxsample.sketches.Quantiles;
+import rxsample.sketches.TopK;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top 100 values and p50/p99/p999 of {@link #size} integers: toSortedList() from AggregationExamples, which buffers
+ * and sorts the whole sequence, against {@link TopK} (a heap of 100) and {@link Quantiles} (a KLL sketch of a few
+ * hundred values). Score is the time of one pass, {@link PeakHeap} shows what each keeps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StreamingAggregatesBenchmark {
+    private static final int K = 100;
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+    @Param({"1000000", "10000000"})
+    int size;
+
+    private Observable<Integer> values;
+
+    @Setup
+    public void setup() {
+        int n = size;
+        // a permutation of 0..size - 1, so that sorting has work to do
+        values = Observable.range(0, n).map(i -> (int) (((long) i * 0x9E3779B1L) % n));
+    }
+
+    @Benchmark
+    public List<Integer> topKBySortedList(PeakHeap heap) {
+        return values.toSortedList((a, b) -> Integer.compare(b, a))
+                .map(sorted -> sorted.subList(0, K))
+                .blockingGet();
+    }
+
+    @Benchmark
+    public List<Integer> topKByHeap(PeakHeap heap) {
+        return values.as(TopK.largest(K)).blockingGet();
+    }
+
+    @Benchmark
+    public double[] quantilesBySortedList(PeakHeap heap) {
+        return values.toSortedList()
+                .map(sorted -> {
+                    double[] result = new double[QUANTILES.length];
+                    for (int i = 0; i < QUANTILES.length; i++) {
+                        result[i] = sorted.get((int) (QUANTILES[i] * (sorted.size() - 1)));
+                    }
+                    return result;
+                })
+                .blockingGet();
+    }
+
+    @Benchmark
+    public double[] quantilesBySketch(PeakHeap heap) {
+        return values.as(Quantiles.of(Integer::doubleValue, QUANTILES)).blockingGet();
+    }
+}
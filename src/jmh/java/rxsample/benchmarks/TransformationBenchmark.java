@@ -0,0 +1,72 @@
+package rxsample.benchmarks;
+
+import io.reactivex.Observable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pipelines from TransformationExamples scaled up to {@link #size} elements.
+ * Every benchmark consumes the whole sequence, so ops/s is "complete pipelines per second".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TransformationBenchmark {
+    private static final List<Integer> ITERABLE = Arrays.asList(1, 2, 3);
+
+    @Param({"1000", "1000000", "100000000"})
+    int size;
+
+    private Observable<Integer> values;
+
+    @Setup
+    public void setup() {
+        values = Observable.range(1, size);
+    }
+
+    // TransformationExamples.incrementMap()
+    @Benchmark
+    public void map(Blackhole bh) {
+        values.map(i -> i + 3)
+                .subscribe(new BlackholeObserver<>(bh));
+    }
+
+    // TransformationExamples.flatMapCollection(): every element either maps to just() or to empty()
+    @Benchmark
+    public void flatMap(Blackhole bh) {
+        values.flatMap(i -> (i & 1) == 0 ? Observable.just(i) : Observable.<Integer>empty())
+                .subscribe(new BlackholeObserver<>(bh));
+    }
+
+    // TransformationExamples.flatMapSingle(): every element expands into a small inner range
+    @Benchmark
+    public void flatMapRange(Blackhole bh) {
+        values.flatMap(i -> Observable.range(0, 3))
+                .subscribe(new BlackholeObserver<>(bh));
+    }
+
+    // TransformationExamples.concatMap() with synchronous inner sources
+    @Benchmark
+    public void concatMap(Blackhole bh) {
+        values.concatMap(i -> Observable.range(0, 3))
+                .subscribe(new BlackholeObserver<>(bh));
+    }
+
+    // TransformationExamples.flatMapIterable(), with a fixed iterable so that cost doesn't grow with the value
+    @Benchmark
+    public void flatMapIterable(Blackhole bh) {
+        values.flatMapIterable(i -> ITERABLE)
+                .subscribe(new BlackholeObserver<>(bh));
+    }
+
+    // TransformationExamples.flatMapIterableWithResultMapper()
+    @Benchmark
+    public void flatMapIterableWithResultMapper(Blackhole bh) {
+        values.flatMapIterable(i -> ITERABLE, (original, item) -> original * item)
+                .subscribe(new BlackholeObserver<>(bh));
+    }
+}
@@ -0,0 +1,75 @@
+package rxsample.benchmarks;
+
+import io.reactivex.Observable;
+import io.reactivex.schedulers.TestScheduler;
+import org.openjdk.jmh.annotations.*;
+import rxsample.operators.WindowedDistinct;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dedup of retried messages within a 60 s window: {@link #keysPerSecond} new keys a second for two windows, on a
+ * virtual clock, and every 10th message is a retry of a message from half a second before. {@link WindowedDistinct}
+ * is compared with the usual per-key timestamp approach - a LinkedHashMap from key to the time it was first seen,
+ * expired from its head - which needs several objects per key. Score is messages per second, {@link PeakHeap} shows
+ * the memory of one window of keys.
+ * <p>
+ * The LinkedHashMap doesn't run for 1M keys/s: 60M entries don't fit into the 4 GB heap. Plain distinct() would
+ * keep all 120M keys and isn't run at all.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WindowedDistinctBenchmark {
+    private static final long WINDOW_SECONDS = 60;
+    private static final int MAX_TIMESTAMP_MAP_KEYS_PER_SECOND = 100_000;
+
+    @Param({"100000", "1000000"})
+    int keysPerSecond;
+
+    private Observable<Long> messages(TestScheduler clock) {
+        long nanosPerKey = TimeUnit.SECONDS.toNanos(1) / keysPerSecond;
+        // odd distance, so a retry never repeats a key which was itself a retry
+        long retryDistance = keysPerSecond / 2 + 1;
+        return Observable.rangeLong(0, 2 * WINDOW_SECONDS * keysPerSecond)
+                .map(i -> {
+                    clock.advanceTimeBy(nanosPerKey, TimeUnit.NANOSECONDS);
+                    return i % 10 == 0 && i >= retryDistance ? i - retryDistance : i;
+                });
+    }
+
+    @Benchmark
+    public long windowedDistinct(PeakHeap heap) {
+        TestScheduler clock = new TestScheduler();
+        return messages(clock)
+                .compose(WindowedDistinct.<Long>create().window(WINDOW_SECONDS, TimeUnit.SECONDS).scheduler(clock))
+                .count()
+                .blockingGet();
+    }
+
+    @Benchmark
+    public long timestampMap(PeakHeap heap) {
+        if (keysPerSecond > MAX_TIMESTAMP_MAP_KEYS_PER_SECOND) {
+            return 0;
+        }
+        TestScheduler clock = new TestScheduler();
+        long windowNanos = TimeUnit.SECONDS.toNanos(WINDOW_SECONDS);
+        return messages(clock)
+                .compose(upstream -> Observable.defer(() -> {
+                    LinkedHashMap<Long, Long> seen = new LinkedHashMap<>();
+                    return upstream.filter(key -> {
+                        long now = clock.now(TimeUnit.NANOSECONDS);
+                        Iterator<Map.Entry<Long, Long>> eldest = seen.entrySet().iterator();
+                        while (eldest.hasNext() && now - eldest.next().getValue() >= windowNanos) {
+                            eldest.remove();
+                        }
+                        return seen.putIfAbsent(key, now) == null;
+                    });
+                }))
+                .count()
+                .blockingGet();
+    }
+}
@@ -1,8 +1,22 @@
 import io.reactivex.Observable;
 import io.reactivex.functions.Action;
 import io.reactivex.functions.Consumer;
+import rxsample.operators.Collect;
+import rxsample.operators.ExternalSort;
+import rxsample.operators.PartitionedToMap;
+import rxsample.operators.SizedObservable;
+import rxsample.operators.SlidingWindow;
+import rxsample.primitive.IntObservable;
+import rxsample.primitive.PrimitiveGroupBy;
+import rxsample.sketches.Quantiles;
+import rxsample.sketches.TopK;
+import rxsample.subjects.Serializers;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Collectors;
 
 public class AggregationExamples {
     private static final Consumer<Throwable> ON_ERROR = e -> System.out.println("Error: " + e);
@@ -27,18 +41,36 @@ public class AggregationExamples {
         examples.reduce();
         System.out.println("--- scan() ---");
         examples.scan();
+        System.out.println("--- SlidingWindow sum() / min() ---");
+        examples.slidingWindow();
+        System.out.println("--- IntObservable reduce() / scan() ---");
+        examples.primitiveReduce();
         System.out.println("--- collect() ---");
         examples.collect();
         System.out.println("--- toList() ---");
         examples.toList();
+        System.out.println("--- Collect toList() / of() / IntObservable toArray() ---");
+        examples.presizedCollect();
         System.out.println("--- toSortedList() ---");
         examples.toSortedList();
+        System.out.println("--- ExternalSort ---");
+        examples.externalSort();
+        System.out.println("--- TopK largest() / rolling() ---");
+        examples.topK();
+        System.out.println("--- Quantiles of() / rolling() ---");
+        examples.quantiles();
         System.out.println("--- toMap() ---");
         examples.toMap();
         System.out.println("--- toMultiMap() ---");
         examples.toMultiMap();
+        System.out.println("--- PartitionedToMap toMap() / toMultimap() ---");
+        examples.partitionedToMap();
+        System.out.println("--- PrimitiveGroupBy toMultimapByInt() ---");
+        examples.primitiveToMultiMap();
         System.out.println("--- groupBy() ---");
         examples.groupBy();
+        System.out.println("--- PrimitiveGroupBy byChar() ---");
+        examples.primitiveGroupBy();
     }
 
     /**
@@ -68,6 +100,34 @@ public class AggregationExamples {
                 .subscribe(new SuccessConsumer<>("Min"), ON_ERROR, ON_COMPLETE);
     }
 
+    /**
+     * Same as {@link #scan()}, but only the last 3 values are aggregated: older values drop out of the running Sum and
+     * Min as new ones arrive.
+     */
+    private void slidingWindow() {
+        Observable<Integer> values = Observable.fromArray(1, 4, 0, 5, 12);
+        values.subscribe(new PrintObserver<>("Original"));
+        values.compose(SlidingWindow.<Integer>create().size(3).sum(v -> v))
+                .subscribe(new PrintObserver<>("Sum of last 3"));
+        values.compose(SlidingWindow.<Integer>create().size(3).min(Comparator.naturalOrder()))
+                .subscribe(new PrintObserver<>("Min of last 3"));
+    }
+
+    /**
+     * Same as {@link #reduce()} and {@link #scan()}, but with IntObservable values are not boxed between operators.
+     * Only the final result of reduce()/sum()/min() is boxed, because it's delivered as Single/Maybe.
+     */
+    private void primitiveReduce() {
+        IntObservable values = IntObservable.fromObservable(Observable.fromArray(1, 4, 0, 5, 12));
+        values.sum()
+                .subscribe(new SuccessConsumer<>("Sum"), ON_ERROR);
+        values.min()
+                .subscribe(new SuccessConsumer<>("Min"), ON_ERROR, ON_COMPLETE);
+        values.scan((i1, i2) -> i1 + i2)
+                .boxed()
+                .subscribe(new PrintObserver<>("Running sum"));
+    }
+
     /**
      * collect() is special version of reduce(), which allows using mutable accumulator, as in example below -
      * for generating new collection.
@@ -91,6 +151,34 @@ public class AggregationExamples {
                 .subscribe(new SuccessConsumer<>("toList()"));
     }
 
+    /**
+     * Emits the same values as {@link #toSortedList()} one by one, but holds at most 2 of them in memory: the rest
+     * are sorted in runs of 2 and spilled to temporary files, which are merged at completion.
+     */
+    private void externalSort() {
+        Observable<Integer> values = Observable.fromArray(1, 4, 0, 5, 12);
+        values.compose(ExternalSort.create(Serializers.INTEGER, Comparator.naturalOrder(),
+                new File(System.getProperty("java.io.tmpdir")))
+                .runSize(2))
+                .subscribe(new PrintObserver<>("ExternalSort"));
+    }
+
+    /**
+     * Same as {@link #collect()} and {@link #toList()}, but without growing the list: SizedObservable tells
+     * Collect.toList() there will be 5 values. Collect.of() takes any java.util.stream Collector, and
+     * IntObservable.toArray() collects into an int[] allocated once for the 5 values of the range.
+     */
+    private void presizedCollect() {
+        SizedObservable<Integer> values = SizedObservable.range(10, 5);
+        values.as(Collect.toList())
+                .subscribe(new SuccessConsumer<>("Collect.toList()"));
+        values.as(Collect.of(Collectors.summingInt(Integer::intValue)))
+                .subscribe(new SuccessConsumer<>("Collect.of(summingInt())"));
+        IntObservable.range(10, 5).toArray()
+                .map(Arrays::toString)
+                .subscribe(new SuccessConsumer<>("toArray()"));
+    }
+
     /**
      * Variation of {@link #toList()}, returning sorted collection of sequence elements.
      */
@@ -100,6 +188,32 @@ public class AggregationExamples {
                 .subscribe(new SuccessConsumer<>("toList()"));
     }
 
+    /**
+     * Instead of {@link #toSortedList()} and taking the first elements, TopK keeps only the 2 largest values seen so
+     * far. largest() emits them at completion like reduce(), rolling() every time they change like scan().
+     */
+    private void topK() {
+        Observable<Integer> values = Observable.fromArray(1, 4, 0, 5, 12);
+        values.as(TopK.largest(2))
+                .subscribe(new SuccessConsumer<>("Top 2"));
+        values.compose(TopK.rolling(2, Comparator.<Integer>naturalOrder()))
+                .subscribe(new PrintObserver<>("Rolling top 2"));
+    }
+
+    /**
+     * Approximate median and 90th percentile from a sketch of a few hundred values, instead of sorting the whole
+     * sequence with {@link #toSortedList()}. rolling() emits them every 250 values.
+     */
+    private void quantiles() {
+        Observable<Integer> values = Observable.range(1, 1000);
+        values.as(Quantiles.of(Integer::doubleValue, 0.5, 0.9))
+                .map(Arrays::toString)
+                .subscribe(new SuccessConsumer<>("Median, p90"));
+        values.compose(Quantiles.rolling(Integer::doubleValue, 250, 0.5, 0.9))
+                .map(Arrays::toString)
+                .subscribe(new PrintObserver<>("Rolling median, p90"));
+    }
+
     private static class Person {
         String name;
         int age;
@@ -148,6 +262,51 @@ public class AggregationExamples {
                 .subscribe(new SuccessConsumer<>("toMultiMap()"));
     }
 
+    /**
+     * Same as {@link #toMap()} and {@link #toMultiMap()}, but the maps are built on 2 threads, each holding the names
+     * (or ages) of its half of the keys. Worth it for maps with millions of entries, not for 5 persons.
+     */
+    private void partitionedToMap() {
+        Observable<Person> persons = Observable.just(
+                new Person("Jack", 27),
+                new Person("Jill", 25),
+                new Person("Bob", 30),
+                new Person("Fred", 25),
+                new Person("Alice", 28)
+        );
+        // blockingGet(): the maps are completed on the partition threads
+        System.out.println("Partitioned toMap(): " + persons.as(PartitionedToMap.<Person, String, Integer>create(
+                person -> person.name,
+                person -> person.age)
+                .partitions(2)
+                .toMap())
+                .blockingGet());
+        System.out.println("Partitioned toMultimap(): " + persons.as(PartitionedToMap.<Person, Integer, String>create(
+                person -> person.age,
+                person -> person.name)
+                .partitions(2)
+                .toMultimap())
+                .blockingGet());
+    }
+
+    /**
+     * Same as {@link #toMultiMap()}, but ages are looked up in a map with primitive keys, so they aren't boxed for
+     * every person.
+     */
+    private void primitiveToMultiMap() {
+        Observable<Person> persons = Observable.just(
+                new Person("Jack", 27),
+                new Person("Jill", 25),
+                new Person("Bob", 30),
+                new Person("Fred", 25),
+                new Person("Alice", 28)
+        );
+        persons.as(PrimitiveGroupBy.toMultimapByInt(
+                person -> person.age,
+                person -> person.name))
+                .subscribe(new SuccessConsumer<>("toMultimapByInt()"));
+    }
+
     /**
      * Rx way of doing MultiMap.
      * For each value, it calculates a key and groups the values into separate observables based on that key.
@@ -167,4 +326,24 @@ public class AggregationExamples {
                 )
                 .subscribe(System.out::println);
     }
+
+    /**
+     * Same as {@link #groupBy()}, but the first letter is looked up as a primitive char: it's boxed once per group
+     * (for getKey()) instead of once per word.
+     */
+    private void primitiveGroupBy() {
+        Observable<String> values = Observable.just(
+                "first",
+                "second",
+                "third",
+                "forth",
+                "fifth",
+                "sixth"
+        );
+        values.compose(PrimitiveGroupBy.byChar(word -> word.charAt(0)))
+                .flatMap(group ->
+                        group.last("").map(v -> group.getKey() + ": " + v).toObservable()
+                )
+                .subscribe(System.out::println);
+    }
 }
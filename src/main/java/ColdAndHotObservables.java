@@ -1,7 +1,11 @@
 import io.reactivex.Observable;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.observables.ConnectableObservable;
+import rxsample.operators.BoundedCache;
+import rxsample.operators.SpillingReplay;
+import rxsample.subjects.Serializers;
 
+import java.io.File;
 import java.util.concurrent.TimeUnit;
 
 public class ColdAndHotObservables {
@@ -17,10 +21,14 @@ public class ColdAndHotObservables {
         example.refCountExample();
         System.out.println("--- replay() ---");
         example.replayExample();
+        System.out.println("--- SpillingReplay ---");
+        example.spillingReplayExample();
         System.out.println("--- cache() ---");
         example.cacheExample();
         System.out.println("--- cache() unsubscribe ---");
         example.cacheUnsubscribeExample();
+        System.out.println("--- BoundedCache ---");
+        example.boundedCacheExample();
     }
 
     /*
@@ -126,6 +134,28 @@ public class ColdAndHotObservables {
         d2.dispose();
     }
 
+    /*
+        Same as replayExample(), but only first 3 values are kept in memory: the rest of the history is written to
+        memory-mapped files in the temp directory, and the second subscription reads it back from there.
+        Files are deleted when the connection is disposed.
+     */
+    private void spillingReplayExample() throws Exception {
+        ConnectableObservable<Long> cold = SpillingReplay.create(
+                Observable.interval(100, TimeUnit.MILLISECONDS),
+                Serializers.LONG,
+                new File(System.getProperty("java.io.tmpdir")),
+                3, 1024, SpillingReplay.UNLIMITED_SEGMENTS);
+        Disposable s = cold.connect();
+
+        Disposable d1 = cold.subscribe(i -> System.out.println("First: " + i));
+        Thread.sleep(700);
+        Disposable d2 = cold.subscribe(i -> System.out.println("Second: " + i));
+        Thread.sleep(300);
+        d1.dispose();
+        d2.dispose();
+        s.dispose();
+    }
+
     /*
         The cache operator has a similar function to replay, but hides away the ConnectableObservable and removes the
         managing of subscriptions. The internal ConnectableObservable is subscribed to when the first observer arrives.
@@ -169,4 +199,26 @@ public class ColdAndHotObservables {
         Thread.sleep(500);
     }
 
+    /*
+        BoundedCache addresses both problems of cache() shown above: it keeps only the last values (here - 3 of them),
+        so memory doesn't grow with an infinite source, and it disconnects from the source when there were no
+        subscribers during the grace period.
+     */
+    private void boundedCacheExample() throws Exception {
+        Observable<Long> obs = Observable.interval(100, TimeUnit.MILLISECONDS)
+                .doOnDispose(() -> System.out.println("Disconnected"))
+                .compose(BoundedCache.<Long>create()
+                        .maxSize(3)
+                        .disconnectAfter(200, TimeUnit.MILLISECONDS));
+
+        Disposable d1 = obs.subscribe(i -> System.out.println("First: " + i));
+        Thread.sleep(650);
+        // Second gets only the last 3 values replayed
+        Disposable d2 = obs.subscribe(i -> System.out.println("Second: " + i));
+        Thread.sleep(200);
+        d1.dispose();
+        d2.dispose();
+        Thread.sleep(300);
+    }
+
 }
\ No newline at end of file
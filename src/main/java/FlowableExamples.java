@@ -0,0 +1,205 @@
+import io.reactivex.BackpressureOverflowStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.flowables.ConnectableFlowable;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.DefaultSubscriber;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FlowableExamples {
+    public static void main(String[] args) throws Exception {
+        FlowableExamples examples = new FlowableExamples();
+        System.out.println("--- observeOn() prefetch ---");
+        examples.observeOnPrefetch();
+        System.out.println("--- range() with explicit requests ---");
+        examples.rangeWithExplicitRequests();
+        System.out.println("--- interval() with onBackpressureDrop() ---");
+        examples.intervalOnBackpressureDrop();
+        System.out.println("--- interval() with onBackpressureLatest() ---");
+        examples.intervalOnBackpressureLatest();
+        System.out.println("--- onBackpressureBuffer() bounded ---");
+        examples.boundedBuffer();
+        System.out.println("--- flatMap() with maxConcurrency and prefetch ---");
+        examples.flatMapWithPrefetch();
+        System.out.println("--- groupBy() ---");
+        examples.groupBy();
+        System.out.println("--- replay(bufferSize) ---");
+        examples.boundedReplay();
+        System.out.println("--- PublishProcessor ---");
+        examples.publishProcessor();
+    }
+
+    /*
+        Flowable is the backpressured counterpart of Observable: the consumer requests how many values it's ready to
+        receive. observeOn() requests `prefetch` values up-front, and then requests more each time 75% of them were
+        consumed, so its queue never holds more than `prefetch` values (Threading.observeOnExample() queue is
+        unbounded).
+     */
+    private void observeOnPrefetch() throws Exception {
+        Flowable.range(1, 10)
+                .doOnRequest(n -> System.out.println("Requested " + n))
+                .observeOn(Schedulers.newThread(), false, 4)
+                .subscribe(i -> System.out.println("Received " + i));
+        Thread.sleep(100);
+    }
+
+    /*
+        Explicit request strategy: the subscriber asks for 2 values at a time and requests the next 2 only after it
+        handled the previous ones. range() emits only as many values as were requested.
+     */
+    private void rangeWithExplicitRequests() {
+        Flowable.range(1, 5)
+                .doOnRequest(n -> System.out.println("Requested " + n))
+                .subscribe(new DefaultSubscriber<Integer>() {
+                    private int received;
+
+                    @Override
+                    protected void onStart() {
+                        request(2);
+                    }
+
+                    @Override
+                    public void onNext(Integer i) {
+                        System.out.println("Received " + i);
+                        if (++received % 2 == 0) {
+                            request(2);
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable e) {
+                        System.out.println("Error: " + e);
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        System.out.println("Completed");
+                    }
+                });
+    }
+
+    /*
+        interval() can't slow down the time, so when the consumer is slower it signals MissingBackpressureException.
+        onBackpressureDrop() requests everything from interval() and drops values the downstream hasn't requested:
+        the consumer below (requesting 2 values at a time) gets the values which arrived while it had room.
+     */
+    private void intervalOnBackpressureDrop() {
+        AtomicInteger dropped = new AtomicInteger();
+        Flowable.interval(1, TimeUnit.MILLISECONDS)
+                .onBackpressureDrop(v -> dropped.incrementAndGet())
+                .take(5)
+                .blockingSubscribe(v -> {
+                    Thread.sleep(10);
+                    System.out.println("Received " + v);
+                }, 2);
+        System.out.println("Dropped " + dropped.get());
+    }
+
+    /*
+        Same as above, but instead of dropping everything onBackpressureLatest() keeps the last value and delivers it
+        as soon as the consumer requests more: the consumer always gets the most recent value.
+     */
+    private void intervalOnBackpressureLatest() {
+        Flowable.interval(1, TimeUnit.MILLISECONDS)
+                .onBackpressureLatest()
+                .take(5)
+                .blockingSubscribe(v -> {
+                    Thread.sleep(10);
+                    System.out.println("Received " + v);
+                }, 1);
+    }
+
+    /*
+        onBackpressureBuffer() without capacity is as unbounded as Observable. With capacity and overflow strategy it
+        buffers values while the consumer is busy, and drops the oldest ones when the buffer is full.
+     */
+    private void boundedBuffer() {
+        AtomicInteger dropped = new AtomicInteger();
+        Flowable.interval(1, TimeUnit.MILLISECONDS)
+                .onBackpressureBuffer(3, dropped::incrementAndGet, BackpressureOverflowStrategy.DROP_OLDEST)
+                .take(5)
+                .blockingSubscribe(v -> {
+                    Thread.sleep(10);
+                    System.out.println("Received " + v);
+                }, 1);
+        System.out.println("Dropped " + dropped.get());
+    }
+
+    /*
+        Flowable counterpart of TransformationExamples.flatMapSingle(): maxConcurrency limits how many inner sources
+        are subscribed at the same time and prefetch is how many values are requested from each of them.
+     */
+    private void flatMapWithPrefetch() {
+        Flowable.range(1, 3)
+                .flatMap(i -> Flowable.range(0, i)
+                                .doOnRequest(n -> System.out.println("Inner " + i + " requested " + n)),
+                        false, 2, 2)
+                .subscribe(v -> System.out.println("flatMap: " + v));
+    }
+
+    /*
+        Flowable counterpart of AggregationExamples.groupBy(). Every group has to be consumed, otherwise groupBy()
+        stops requesting upstream once the buffer of the unconsumed group is full.
+     */
+    private void groupBy() {
+        Flowable.just("first", "second", "third", "forth", "fifth", "sixth")
+                .groupBy(word -> word.charAt(0))
+                .flatMap(group -> group.last("").map(v -> group.getKey() + ": " + v).toFlowable())
+                .subscribe(System.out::println);
+    }
+
+    /*
+        Flowable counterpart of ColdAndHotObservables.replayExample(), with the replayed history bounded by size.
+     */
+    private void boundedReplay() throws Exception {
+        ConnectableFlowable<Long> hot = Flowable.interval(100, TimeUnit.MILLISECONDS).replay(2);
+        Disposable connection = hot.connect();
+        Disposable d1 = hot.subscribe(i -> System.out.println("First: " + i));
+        Thread.sleep(450);
+        Disposable d2 = hot.subscribe(i -> System.out.println("Second: " + i));
+        Thread.sleep(250);
+        d1.dispose();
+        d2.dispose();
+        connection.dispose();
+    }
+
+    /*
+        Processors are backpressured Subjects. PublishProcessor can't buffer, so it signals
+        MissingBackpressureException to the subscriber which didn't request enough; onBackpressureBuffer() with
+        capacity makes room for a few values (here - 2 values for the consumer which requested just 1).
+     */
+    private void publishProcessor() {
+        PublishProcessor<Integer> processor = PublishProcessor.create();
+        processor.onBackpressureBuffer(2, () -> System.out.println("Buffer overflow"),
+                BackpressureOverflowStrategy.DROP_LATEST)
+                .subscribe(new DefaultSubscriber<Integer>() {
+                    @Override
+                    protected void onStart() {
+                        request(1);
+                    }
+
+                    @Override
+                    public void onNext(Integer i) {
+                        System.out.println("Received " + i);
+                    }
+
+                    @Override
+                    public void onError(Throwable e) {
+                        System.out.println("Error: " + e);
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        System.out.println("Completed");
+                    }
+                });
+        for (int i = 1; i <= 5; i++) {
+            processor.onNext(i);
+        }
+        processor.onComplete();
+        // Received 1 (requested), 2 and 3 are buffered, 4 and 5 overflow
+    }
+}
@@ -1,4 +1,7 @@
 import io.reactivex.Observable;
+import io.reactivex.schedulers.Schedulers;
+import rxsample.operators.ParallelRails;
+import rxsample.operators.WindowedDistinct;
 
 public class ObservableReductionExamples {
 
@@ -6,10 +9,14 @@ public class ObservableReductionExamples {
         ObservableReductionExamples examples = new ObservableReductionExamples();
         System.out.println("--- filter() ---");
         examples.filter();
+        System.out.println("--- filter() on parallel rails ---");
+        examples.filterParallel();
         System.out.println("--- distinct() ---");
         examples.distinct();
         System.out.println("--- distinct() with key selector ---");
         examples.distinctWithKeySelector();
+        System.out.println("--- distinct() within a window ---");
+        examples.windowedDistinct();
         System.out.println("--- distinctUntilChanged() ---");
         examples.distinctUntilChanged();
         System.out.println("--- ignoreElements() ---");
@@ -35,6 +42,18 @@ public class ObservableReductionExamples {
                 .subscribe(new PrintObserver<>("Filtered"));
     }
 
+    /**
+     * Same as filter(), but the predicate is evaluated on 2 rails in parallel; values are split between rails by their
+     * key (here - v % 4), so values with the same key are processed on the same rail.
+     */
+    private void filterParallel() {
+        Observable<Integer> values = Observable.range(1, 8);
+        ParallelRails.byKey(values, 2, Schedulers.computation(), v -> v % 4)
+                .filter(v -> v % 2 == 0)
+                .mergeOrdered()
+                .blockingSubscribe(new PrintObserver<>("Filtered in parallel"));
+    }
+
     /**
      * Filters out the values already appeared in the sequence
      */
@@ -56,6 +75,18 @@ public class ObservableReductionExamples {
                 .subscribe(new PrintObserver<>("Distinct lower case"));
     }
 
+    /**
+     * Same as {@link #distinct()}, but keys are forgotten after a while, so the set of seen keys doesn't grow forever.
+     * In example below only the last 2 keys are remembered: the second 1 is dropped, but the last 1 is not, because
+     * 2 and 3 came in between.
+     */
+    private void windowedDistinct() {
+        Observable<Integer> values = Observable.fromArray(1, 1, 2, 3, 1);
+        values.subscribe(new PrintObserver<>("Original"));
+        values.compose(WindowedDistinct.<Integer>create().maxKeys(2))
+                .subscribe(new PrintObserver<>("Distinct among last 2"));
+    }
+
     /**
      * Same as {@link #distinct()} ()}, but ignores only consequent non-distinct elements.
      */
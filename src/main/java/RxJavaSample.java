@@ -1,14 +1,26 @@
 import io.reactivex.Observable;
 import io.reactivex.ObservableSource;
+import io.reactivex.Single;
 import io.reactivex.functions.Function;
+import rxsample.operators.AdaptiveBatch;
+import rxsample.operators.BatchedLookup;
+import rxsample.operators.BulkLoader;
+import rxsample.operators.InMemoryBulkLoader;
+import rxsample.sinks.ShardedSink;
+import rxsample.sources.Page;
+import rxsample.sources.PagedSource;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 public class RxJavaSample {
-    private static Map<Integer, String> MAP = new HashMap<>();
+    // save() is called from whatever thread the pipeline runs on, e.g. the timer thread of AdaptiveBatch
+    private static final ShardedSink<Integer, String> SAVED = ShardedSink.create(4);
+    private static final int PAGE_SIZE = 2;
 
     public static void main(String[] args) throws Exception {
         urlsExample();
+        batchedUrlsExample();
     }
 
     private static void urlsExample() {
@@ -18,40 +30,80 @@ public class RxJavaSample {
         urlDict.put("fb.com", "Facebook");
         urlDict.put("twitter.com", "Twitter");
         urlDict.put("instagram.com", "Instagram");
+        // urlDict stands for a remote store: URLs are looked up in batches, collected for up to 5 ms
+        BulkLoader<String, String> names = InMemoryBulkLoader.create(urlDict);
         query("social")
                 .flatMap(Observable::fromIterable)
-                .filter(urlDict::containsKey)
-                .map(urlDict::get)
+                .compose(BatchedLookup.create(names).window(5, TimeUnit.MILLISECONDS))
                 .take(2)
                 .map(String::toLowerCase)
                 .doOnNext(RxJavaSample::save)
-                .subscribe(System.out::println);
-        for (Map.Entry<Integer, String> entry : MAP.entrySet()) {
+                .blockingSubscribe(System.out::println);
+        for (Map.Entry<Integer, String> entry : SAVED.snapshot().entrySet()) {
             System.out.println("" + entry.getKey() + " -> " + entry.getValue());
         }
     }
 
+    /*
+        Same as urlsExample(), but the names are saved in batches: save is called once per batch of up to 16 values (or
+        per values which arrived within 10 ms) instead of once per value.
+     */
+    private static void batchedUrlsExample() {
+        Map<String, String> urlDict = new HashMap<>();
+        urlDict.put("google.com", "Google");
+        urlDict.put("bing.com", "Bing");
+        urlDict.put("fb.com", "Facebook");
+        urlDict.put("twitter.com", "Twitter");
+        query("search")
+                .concatWith(query("social"))
+                .flatMap(Observable::fromIterable)
+                .filter(urlDict::containsKey)
+                .map(urlDict::get)
+                .map(String::toLowerCase)
+                .compose(AdaptiveBatch.<String>create().maxCount(16).maxLatency(10, TimeUnit.MILLISECONDS))
+                .doOnNext(RxJavaSample::saveAll)
+                .blockingSubscribe(batch -> System.out.println("Saved batch " + batch));
+    }
+
     private static void save(String s) {
-        MAP.put(s.length(), s);
+        SAVED.put(s.length(), s);
     }
 
+    private static void saveAll(List<String> batch) {
+        for (String s : batch) {
+            save(s);
+        }
+    }
+
+    /*
+        Results of the query arrive page by page (like from a paginated search API) and each page is emitted as soon
+        as it's fetched; the next page is fetched after that, and not at all once the downstream disposed. In
+        urlsExample() both pages of "social" are fetched anyway: fb.com, one of the 2 names it takes, is on the second
+        page, and BatchedLookup collects the keys of this synchronous source before take(2) sees the first name.
+     */
     private static Observable<List<String>> query(String query) {
+        return PagedSource.pages(cursor -> fetchPage(query, cursor));
+    }
+
+    private static Single<Page<String>> fetchPage(String query, String cursor) {
+        List<String> sites = new ArrayList<>();
         switch (query) {
             case "search":
-                List<String> searchSites = new ArrayList<>();
-                searchSites.add("google.com");
-                searchSites.add("bing.com");
-                return Observable.just(searchSites);
+                sites.add("google.com");
+                sites.add("bing.com");
+                break;
             case "social":
-                List<String> socialSites = new ArrayList<>();
-                socialSites.add("insta");
-                socialSites.add("twitter.com");
-                socialSites.add("facebook.com");
-                socialSites.add("fb.com");
-                return Observable.just(socialSites);
+                sites.add("insta");
+                sites.add("twitter.com");
+                sites.add("facebook.com");
+                sites.add("fb.com");
+                break;
             default:
-                return Observable.empty();
-
+                break;
         }
+        int from = cursor == null ? 0 : Integer.parseInt(cursor);
+        int to = Math.min(sites.size(), from + PAGE_SIZE);
+        List<String> page = new ArrayList<>(sites.subList(from, to));
+        return Single.just(to == sites.size() ? Page.last(page) : Page.of(page, String.valueOf(to)));
     }
 }
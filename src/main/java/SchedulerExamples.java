@@ -1,6 +1,9 @@
+import io.reactivex.Observable;
 import io.reactivex.Scheduler;
 import io.reactivex.schedulers.Schedulers;
 import io.reactivex.schedulers.TestScheduler;
+import rxsample.schedulers.VirtualThreadScheduler;
+import rxsample.schedulers.WorkStealingScheduler;
 
 import java.util.concurrent.TimeUnit;
 
@@ -11,9 +14,14 @@ public class SchedulerExamples {
 //        examples.trampoline();
 //        System.out.println("--- newThread() ---");
 //        examples.newThread();
+        System.out.println("--- WorkStealingScheduler ---");
+        examples.workStealing();
+        System.out.println("--- VirtualThreadScheduler ---");
+        examples.virtualThreads();
         /*
             Other common schedulers:
-            - computation() is intended for CPU work
+            - computation() is intended for CPU work; WorkStealingScheduler is the alternative for skewed work, see
+            workStealing()
             - io() is intended for IO work
             - test() was useful for testing and debugging, but conceptually different from other Schedulers, so it was
             removed in RxJava 2.x. Use new TestScheduler() instead.
@@ -67,6 +75,54 @@ public class SchedulerExamples {
         System.out.println("Main end");
     }
 
+    /*
+        computation() binds every Worker to one of its threads round-robin, so with a skewed groupBy() the groups which
+        share the thread with the hot group wait for it. WorkStealingScheduler keeps the order of tasks within a Worker,
+        but lets idle threads take over the Workers queued behind the busy one.
+     */
+    private void workStealing() {
+        WorkStealingScheduler scheduler = WorkStealingScheduler.create(4);
+        Observable.range(0, 100_000)
+                .groupBy(i -> i % 2 == 0 ? "hot" : "cold-" + i % 16)
+                .flatMap(group -> group.observeOn(scheduler)
+                        .count()
+                        .map(count -> group.getKey() + ": " + count)
+                        .toObservable())
+                .blockingSubscribe(System.out::println);
+        System.out.println("Steals: " + scheduler.stealCount() + ", max queue depth: " + scheduler.maxQueueDepth());
+        scheduler.shutdown();
+    }
+
+    /*
+        Blocking calls (JDBC, files) on Schedulers.io() occupy a platform thread each, so 1000 concurrent calls need
+        1000 threads. VirtualThreadScheduler runs every worker on virtual threads, which release their carrier thread
+        while blocked. Worker semantics are the same as for newThread(): "Start", "End" and "Inner" are executed in
+        order, though not necessarily on the same thread. Requires Java 21+.
+     */
+    private void virtualThreads() throws Exception {
+        if (!VirtualThreadScheduler.isSupported()) {
+            System.out.println("Virtual threads are not supported by Java " + System.getProperty("java.version"));
+            return;
+        }
+        Scheduler scheduler = VirtualThreadScheduler.create();
+        Scheduler.Worker worker = scheduler.createWorker();
+        worker.schedule(() -> {
+            printThread("Start");
+            worker.schedule(() -> printThread("Inner"));
+            printThread("End");
+        });
+        long start = System.currentTimeMillis();
+        long count = Observable.range(0, 1000)
+                .flatMap(i -> Observable.fromCallable(() -> {
+                    Thread.sleep(100);
+                    return i;
+                }).subscribeOn(scheduler))
+                .count()
+                .blockingGet();
+        System.out.println(count + " blocking calls took " + (System.currentTimeMillis() - start) + " ms");
+        worker.dispose();
+    }
+
     /*
         This example shows how virtual time in TestScheduler works. Virtual time allows to not wait for long time when
         testing some event expected to occur after that long time.
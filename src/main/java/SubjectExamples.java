@@ -1,7 +1,11 @@
+import io.reactivex.BackpressureOverflowStrategy;
 import io.reactivex.Observable;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.schedulers.Schedulers;
 import io.reactivex.subjects.*;
+import rxsample.subjects.FanOutSubject;
+import rxsample.subjects.OffHeapReplaySubject;
+import rxsample.subjects.Serializers;
 
 import java.util.concurrent.TimeUnit;
 
@@ -10,11 +14,15 @@ public class SubjectExamples {
         SubjectExamples examples = new SubjectExamples();
         System.out.println("--- PublishSubject ---");
         examples.publishSubject();
+        System.out.println("--- FanOutSubject ---");
+        examples.fanOutSubject();
         System.out.println("--- ReplaySubject ---");
         System.out.println("- .createBySize() -");
         examples.replaySubjectLimitedBySize();
         System.out.println("- .createByTime() -");
         examples.replaySubjectLimitedByTime();
+        System.out.println("- OffHeapReplaySubject.createWithSize() -");
+        examples.offHeapReplaySubject();
         System.out.println("--- BehaviorSubject ---");
         examples.behaviorSubject();
         System.out.println("--- BehaviorSubject listening to Observable ---");
@@ -42,6 +50,26 @@ public class SubjectExamples {
         // Prints 2, 3, 4
     }
 
+    /**
+     * Same as {@link #publishSubject()}, but every subscriber receives values on its own worker thread, so a slow
+     * subscriber doesn't delay the fast one. Slow subscriber has room for 2 values only, the oldest ones are dropped.
+     */
+    void fanOutSubject() throws Exception {
+        FanOutSubject<Integer> subject = FanOutSubject.create(Schedulers.newThread(), 2,
+                BackpressureOverflowStrategy.DROP_OLDEST);
+        subject.subscribe(i -> {
+            Thread.sleep(100);
+            System.out.println("Slow: " + i);
+        });
+        subject.subscribe(i -> System.out.println("Fast: " + i));
+        for (int i = 1; i <= 6; i++) {
+            subject.onNext(i);
+            Thread.sleep(20);
+        }
+        Thread.sleep(300);
+        // Fast prints every value right away, Slow - 1 and then only the last values which fit into its queue
+    }
+
     /**
      * ReplaySubject caches previous values, which may be limited by size (.createWithSize)
      */
@@ -76,6 +104,22 @@ public class SubjectExamples {
         // Early prints all values, Late - except 1 (outside timeout cache)
     }
 
+    /**
+     * Behaves like {@link #replaySubjectLimitedBySize()}, but cached values are serialized into a ring buffer
+     * outside of java heap, so the Serializer defines how values are stored.
+     */
+    void offHeapReplaySubject() {
+        OffHeapReplaySubject<Integer> replaySubject = OffHeapReplaySubject.createWithSize(2, Serializers.INTEGER);
+        replaySubject.subscribe(i -> System.out.println("Early: " + i));
+        replaySubject.onNext(1);
+        replaySubject.onNext(2);
+        replaySubject.onNext(3);
+        replaySubject.subscribe(i -> System.out.println("Late: " + i));
+        replaySubject.onNext(4);
+        replaySubject.onNext(5);
+        // Early prints all values, Late - except 1 (overwritten in the ring)
+    }
+
     /**
      * BehaviorSubject is the same as ReplaySubject.createWithSize(1) - caches only last emitted value and delivers it
      * to new subscription
@@ -4,6 +4,8 @@ import io.reactivex.disposables.Disposable;
 import io.reactivex.functions.Consumer;
 import io.reactivex.functions.Function;
 import io.reactivex.schedulers.Timed;
+import rxsample.operators.OrderedFlatMap;
+import rxsample.operators.ParallelRails;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -17,6 +19,8 @@ public class TransformationExamples {
         examples.incrementMap();
         System.out.println("--- map(): parseInt ---");
         examples.parseIntMap();
+        System.out.println("--- map() on parallel rails ---");
+        examples.parseIntMapParallel();
         System.out.println("--- cast() ---");
         examples.cast();
         System.out.println("--- timestamp() ---");
@@ -31,6 +35,8 @@ public class TransformationExamples {
         examples.flatMapTiming();
         System.out.println("--- concatMap() ---");
         examples.concatMap();
+        System.out.println("--- OrderedFlatMap ---");
+        examples.orderedFlatMap();
         System.out.println("--- flatMapIterable() ---");
         examples.flatMapIterable();
         System.out.println("--- flatMapIterable() with result mapper ---");
@@ -56,6 +62,19 @@ public class TransformationExamples {
         values.map(Integer::parseInt).map(i -> i + 2).subscribe(new PrintObserver<>("Map (ParseInt, +2)"));
     }
 
+    /*
+        Same as parseIntMap(), but parsing runs on 2 rails in parallel (computation() Workers), and mergeOrdered()
+        restores the original order. merge() would emit values as soon as they're ready, in any order.
+     */
+    private void parseIntMapParallel() {
+        Observable<String> values = Observable.fromArray("1", "2", "3", "4");
+        ParallelRails.from(values, 2)
+                .map(Integer::parseInt)
+                .map(i -> i + 2)
+                .mergeOrdered()
+                .blockingSubscribe(new PrintObserver<>("Parallel map (ParseInt, +2)"));
+    }
+
     // Error when cast fails (i.e. String -> Integer)
     private void cast() {
         Observable<Object> values = Observable.just(1, 2, "3");
@@ -158,6 +177,23 @@ public class TransformationExamples {
         disposable.dispose();
     }
 
+    // Runs both inner observables of concatMap() at once like flatMap(), but emits them in order: the 100 ms values
+    // wait in a buffer until the 150 ms ones are done, so it takes 450 ms instead of 750 ms
+    private void orderedFlatMap() throws Exception {
+        OrderedFlatMap<Integer, Integer> orderedFlatMap = OrderedFlatMap.<Integer, Integer>create(i ->
+                Observable.interval(i, TimeUnit.MILLISECONDS)
+                        .map(v -> i).take(3)
+        )
+                .maxConcurrency(2)
+                .prefetch(3);
+        Disposable disposable = Observable.just(150, 100)
+                .compose(orderedFlatMap)
+                .subscribe(new FlatMapTimingConsumer<>());
+        Thread.sleep(1000);
+        System.out.println("Peak buffered values: " + orderedFlatMap.peakBufferedCount());
+        disposable.dispose();
+    }
+
     // Converts iterable into single observable sequence
     private void flatMapIterable() {
         Observable<Integer> values = Observable.range(1, 3);
@@ -0,0 +1,114 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Groups values into batches, so that the stages after it (e.g. a sink which writes a whole batch at once) pay the
+ * per-element dispatch once per batch. A batch is emitted when it reaches {@link #maxCount}, {@link #maxBytes}, or
+ * when its first value waited for {@link #maxLatency}, whichever comes first; the remaining values are emitted when
+ * upstream completes.
+ * <p>
+ * With {@link #adaptive} the count limit follows the downstream: the time downstream takes to handle a batch is
+ * measured, and the limit is halved when it takes longer than the target, and doubled (up to maxCount) when full
+ * batches take less than half of it.
+ * <p>
+ * Usage: {@code source.compose(AdaptiveBatch.<String>create().maxCount(256).maxLatency(10, TimeUnit.MILLISECONDS))}
+ */
+public final class AdaptiveBatch<T> implements ObservableTransformer<T, List<T>> {
+    static final long UNBOUNDED = Long.MAX_VALUE;
+    static final long NOT_ADAPTIVE = 0L;
+    // count limit an adaptive batch starts with
+    static final int INITIAL_ADAPTIVE_COUNT = 16;
+
+    final int maxCount;
+    final long maxBytes;
+    final ToLongFunction<? super T> sizer;
+    final long maxLatencyNanos;
+    final long targetNanos;
+    final Scheduler scheduler;
+
+    private AdaptiveBatch(int maxCount, long maxBytes, ToLongFunction<? super T> sizer, long maxLatencyNanos,
+                          long targetNanos, Scheduler scheduler) {
+        this.maxCount = maxCount;
+        this.maxBytes = maxBytes;
+        this.sizer = sizer;
+        this.maxLatencyNanos = maxLatencyNanos;
+        this.targetNanos = targetNanos;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Starts configuration of the batching. At least one of the limits has to be set before it's applied.
+     */
+    public static <T> AdaptiveBatch<T> create() {
+        return new AdaptiveBatch<>(Integer.MAX_VALUE, UNBOUNDED, null, UNBOUNDED, NOT_ADAPTIVE,
+                Schedulers.computation());
+    }
+
+    public AdaptiveBatch<T> maxCount(int maxCount) {
+        if (maxCount <= 0) {
+            throw new IllegalArgumentException("maxCount > 0 required but it was " + maxCount);
+        }
+        return new AdaptiveBatch<>(maxCount, maxBytes, sizer, maxLatencyNanos, targetNanos, scheduler);
+    }
+
+    /**
+     * Emits the batch once the sum of {@code sizer} results over its values reaches {@code maxBytes}.
+     */
+    public AdaptiveBatch<T> maxBytes(long maxBytes, ToLongFunction<? super T> sizer) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes > 0 required but it was " + maxBytes);
+        }
+        Objects.requireNonNull(sizer, "sizer is null");
+        return new AdaptiveBatch<>(maxCount, maxBytes, sizer, maxLatencyNanos, targetNanos, scheduler);
+    }
+
+    /**
+     * Emits the batch at latest {@code maxLatency} after its first value arrived, on the {@link #scheduler}.
+     */
+    public AdaptiveBatch<T> maxLatency(long maxLatency, TimeUnit unit) {
+        if (maxLatency <= 0) {
+            throw new IllegalArgumentException("maxLatency > 0 required but it was " + maxLatency);
+        }
+        return new AdaptiveBatch<>(maxCount, maxBytes, sizer, unit.toNanos(maxLatency), targetNanos, scheduler);
+    }
+
+    /**
+     * Adapts the count limit between 1 and {@link #maxCount}, so that downstream handles a batch in about
+     * {@code target} time.
+     */
+    public AdaptiveBatch<T> adaptive(long target, TimeUnit unit) {
+        if (target <= 0) {
+            throw new IllegalArgumentException("target > 0 required but it was " + target);
+        }
+        return new AdaptiveBatch<>(maxCount, maxBytes, sizer, maxLatencyNanos, unit.toNanos(target), scheduler);
+    }
+
+    /**
+     * Scheduler for the {@link #maxLatency} timer. Defaults to {@link Schedulers#computation()}.
+     */
+    public AdaptiveBatch<T> scheduler(Scheduler scheduler) {
+        Objects.requireNonNull(scheduler, "scheduler is null");
+        return new AdaptiveBatch<>(maxCount, maxBytes, sizer, maxLatencyNanos, targetNanos, scheduler);
+    }
+
+    @Override
+    public ObservableSource<List<T>> apply(Observable<T> upstream) {
+        if (maxCount == Integer.MAX_VALUE && maxBytes == UNBOUNDED && maxLatencyNanos == UNBOUNDED) {
+            throw new IllegalStateException("At least one of maxCount, maxBytes or maxLatency has to be set");
+        }
+        if (targetNanos != NOT_ADAPTIVE && maxCount == Integer.MAX_VALUE) {
+            throw new IllegalStateException("adaptive() requires maxCount");
+        }
+        return new AdaptiveBatchObservable<>(upstream, this);
+    }
+}
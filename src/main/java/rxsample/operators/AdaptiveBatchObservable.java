@@ -0,0 +1,257 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.Observer;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.plugins.RxJavaPlugins;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementation of {@link AdaptiveBatch}. Without maxLatency batches are filled and emitted on the upstream thread
+ * only; with it the timer may close a batch concurrently, so the current batch is guarded by the observer's lock,
+ * and closed batches are emitted through a queue drained by one thread at a time. A batch is queued under the same
+ * lock as it's closed, so batches are queued in the order they were filled.
+ */
+final class AdaptiveBatchObservable<T> extends Observable<List<T>> {
+    private final ObservableSource<T> source;
+    private final AdaptiveBatch<T> config;
+
+    AdaptiveBatchObservable(ObservableSource<T> source, AdaptiveBatch<T> config) {
+        this.source = source;
+        this.config = config;
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super List<T>> observer) {
+        Scheduler.Worker worker = config.maxLatencyNanos != AdaptiveBatch.UNBOUNDED
+                ? config.scheduler.createWorker() : null;
+        source.subscribe(new BatchObserver<>(observer, config, worker));
+    }
+
+    static final class BatchObserver<T> extends AtomicInteger implements Observer<T>, Disposable {
+        private final Observer<? super List<T>> downstream;
+        private final AdaptiveBatch<T> config;
+        private final Scheduler.Worker worker;
+        private final ConcurrentLinkedQueue<List<T>> ready = new ConcurrentLinkedQueue<>();
+        private Disposable upstream;
+        private volatile boolean done;
+        private Throwable error;
+        private volatile boolean cancelled;
+        // count limit, changed by the drain when adaptive
+        private volatile int limit;
+
+        // guarded by this when there's a timer
+        private List<T> batch;
+        private long bytes;
+        private long batchId;
+        private Disposable timer;
+
+        BatchObserver(Observer<? super List<T>> downstream, AdaptiveBatch<T> config, Scheduler.Worker worker) {
+            this.downstream = downstream;
+            this.config = config;
+            this.worker = worker;
+            this.limit = config.targetNanos != AdaptiveBatch.NOT_ADAPTIVE
+                    ? Math.min(AdaptiveBatch.INITIAL_ADAPTIVE_COUNT, config.maxCount) : config.maxCount;
+            this.batch = newBatch();
+        }
+
+        private List<T> newBatch() {
+            int l = limit;
+            return l <= 1024 ? new ArrayList<>(l) : new ArrayList<>();
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            upstream = d;
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (done) {
+                return;
+            }
+            long size;
+            try {
+                size = config.sizer != null ? config.sizer.applyAsLong(t) : 0L;
+            } catch (Throwable e) {
+                Exceptions.throwIfFatal(e);
+                upstream.dispose();
+                onError(e);
+                return;
+            }
+            boolean closed;
+            if (worker == null) {
+                closed = add(t, size);
+            } else {
+                synchronized (this) {
+                    closed = add(t, size);
+                }
+            }
+            if (closed) {
+                drain();
+            }
+        }
+
+        /**
+         * Adds the value to the current batch; returns true if that closed the batch.
+         */
+        private boolean add(T t, long size) {
+            List<T> b = batch;
+            b.add(t);
+            bytes += size;
+            if (b.size() >= limit || bytes >= config.maxBytes) {
+                close();
+                return true;
+            }
+            if (b.size() == 1 && worker != null) {
+                long id = batchId;
+                timer = worker.schedule(() -> timeout(id), config.maxLatencyNanos, TimeUnit.NANOSECONDS);
+            }
+            return false;
+        }
+
+        /**
+         * Queues the current batch and starts a new one.
+         */
+        private void close() {
+            ready.offer(batch);
+            batch = newBatch();
+            bytes = 0;
+            batchId++;
+            Disposable t = timer;
+            if (t != null) {
+                timer = null;
+                t.dispose();
+            }
+        }
+
+        private void timeout(long id) {
+            synchronized (this) {
+                if (id != batchId || batch.isEmpty()) {
+                    return;
+                }
+                close();
+            }
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (done) {
+                RxJavaPlugins.onError(e);
+                return;
+            }
+            error = e;
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            if (worker == null) {
+                if (!batch.isEmpty()) {
+                    close();
+                }
+            } else {
+                synchronized (this) {
+                    if (!batch.isEmpty()) {
+                        close();
+                    }
+                }
+            }
+            done = true;
+            drain();
+        }
+
+        private void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            boolean adaptive = config.targetNanos != AdaptiveBatch.NOT_ADAPTIVE;
+            for (;;) {
+                for (;;) {
+                    if (cancelled) {
+                        ready.clear();
+                        return;
+                    }
+                    boolean d = done;
+                    if (d && error != null) {
+                        cancelled = true;
+                        ready.clear();
+                        disposeWorker();
+                        downstream.onError(error);
+                        return;
+                    }
+                    List<T> b = ready.poll();
+                    if (b == null) {
+                        if (d) {
+                            cancelled = true;
+                            disposeWorker();
+                            downstream.onComplete();
+                            return;
+                        }
+                        break;
+                    }
+                    if (adaptive) {
+                        long start = System.nanoTime();
+                        downstream.onNext(b);
+                        adapt(System.nanoTime() - start, b.size());
+                    } else {
+                        downstream.onNext(b);
+                    }
+                }
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        private void adapt(long elapsedNanos, int size) {
+            int l = limit;
+            if (elapsedNanos > config.targetNanos) {
+                if (l > 1) {
+                    limit = l >> 1;
+                }
+            } else if (elapsedNanos < config.targetNanos >> 1 && size >= l && l < config.maxCount) {
+                limit = (int) Math.min((long) l << 1, config.maxCount);
+            }
+        }
+
+        private void disposeWorker() {
+            if (worker != null) {
+                worker.dispose();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (!cancelled) {
+                cancelled = true;
+                upstream.dispose();
+                disposeWorker();
+                if (getAndIncrement() == 0) {
+                    ready.clear();
+                }
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.SingleSubject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replaces every key with its value from a {@link BulkLoader}, like {@code filter(store::containsKey).map(store::get)}
+ * but with one request per batch of keys instead of one per key: keys are collected with {@link AdaptiveBatch} for
+ * up to {@link #window} or {@link #maxBatchSize} keys, and up to {@link #maxConcurrency} batches are loaded at the
+ * same time. Values are emitted in the order of their keys; keys the loader didn't find are skipped.
+ * <p>
+ * A key which is already being loaded (by an earlier batch or by another pipeline using the same instance) isn't
+ * requested again: its batch waits for that load instead. With {@link #cache} loaded values are kept in an LRU cache
+ * with optional time-to-live, shared by all pipelines using the instance. Loads aren't cancelled when downstream
+ * disposes, their results still fill the cache.
+ * <p>
+ * Usage: {@code urls.compose(BatchedLookup.create(loader).window(5, TimeUnit.MILLISECONDS).cache(1024, 1, MINUTES))}
+ */
+public final class BatchedLookup<K, V> implements ObservableTransformer<K, V> {
+    static final int DEFAULT_MAX_BATCH_SIZE = 128;
+    static final long DEFAULT_WINDOW_MILLIS = 1;
+    static final int DEFAULT_MAX_CONCURRENCY = 4;
+    static final long NO_TTL = Long.MAX_VALUE;
+
+    final BulkLoader<K, V> loader;
+    final int maxBatchSize;
+    final long windowNanos;
+    final int maxConcurrency;
+    final int cacheSize;
+    final long ttlNanos;
+    final Scheduler scheduler;
+    private final LruCache<K, V> cache;
+    private final Map<K, Load<K, V>> inFlight = new ConcurrentHashMap<>();
+
+    private BatchedLookup(BulkLoader<K, V> loader, int maxBatchSize, long windowNanos, int maxConcurrency,
+                          int cacheSize, long ttlNanos, Scheduler scheduler) {
+        this.loader = loader;
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = windowNanos;
+        this.maxConcurrency = maxConcurrency;
+        this.cacheSize = cacheSize;
+        this.ttlNanos = ttlNanos;
+        this.scheduler = scheduler;
+        this.cache = new LruCache<>(cacheSize, ttlNanos);
+    }
+
+    /**
+     * Lookup with batches of up to {@value #DEFAULT_MAX_BATCH_SIZE} keys collected for
+     * {@value #DEFAULT_WINDOW_MILLIS} ms, {@value #DEFAULT_MAX_CONCURRENCY} concurrent loads and no cache. Every
+     * wither returns a new instance with its own cache and in-flight loads.
+     */
+    public static <K, V> BatchedLookup<K, V> create(BulkLoader<K, V> loader) {
+        Objects.requireNonNull(loader, "loader is null");
+        return new BatchedLookup<>(loader, DEFAULT_MAX_BATCH_SIZE, TimeUnit.MILLISECONDS.toNanos(DEFAULT_WINDOW_MILLIS),
+                DEFAULT_MAX_CONCURRENCY, 0, NO_TTL, Schedulers.computation());
+    }
+
+    public BatchedLookup<K, V> maxBatchSize(int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize > 0 required but it was " + maxBatchSize);
+        }
+        return new BatchedLookup<>(loader, maxBatchSize, windowNanos, maxConcurrency, cacheSize, ttlNanos, scheduler);
+    }
+
+    /**
+     * How long the first key of a batch waits for more keys.
+     */
+    public BatchedLookup<K, V> window(long window, TimeUnit unit) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("window > 0 required but it was " + window);
+        }
+        return new BatchedLookup<>(loader, maxBatchSize, unit.toNanos(window), maxConcurrency, cacheSize, ttlNanos,
+                scheduler);
+    }
+
+    /**
+     * Number of batches loaded at the same time. Values of later batches are buffered until the earlier ones are
+     * emitted.
+     */
+    public BatchedLookup<K, V> maxConcurrency(int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency > 0 required but it was " + maxConcurrency);
+        }
+        return new BatchedLookup<>(loader, maxBatchSize, windowNanos, maxConcurrency, cacheSize, ttlNanos, scheduler);
+    }
+
+    /**
+     * Caches up to {@code maxSize} loaded values, evicting the least recently used ones.
+     */
+    public BatchedLookup<K, V> cache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize > 0 required but it was " + maxSize);
+        }
+        return new BatchedLookup<>(loader, maxBatchSize, windowNanos, maxConcurrency, maxSize, NO_TTL, scheduler);
+    }
+
+    /**
+     * Caches up to {@code maxSize} loaded values for {@code ttl}, according to {@link #scheduler} time.
+     */
+    public BatchedLookup<K, V> cache(int maxSize, long ttl, TimeUnit unit) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize > 0 required but it was " + maxSize);
+        }
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("ttl > 0 required but it was " + ttl);
+        }
+        return new BatchedLookup<>(loader, maxBatchSize, windowNanos, maxConcurrency, maxSize, unit.toNanos(ttl),
+                scheduler);
+    }
+
+    /**
+     * Scheduler for the {@link #window} timer and time source of the cache. Defaults to
+     * {@link Schedulers#computation()}.
+     */
+    public BatchedLookup<K, V> scheduler(Scheduler scheduler) {
+        Objects.requireNonNull(scheduler, "scheduler is null");
+        return new BatchedLookup<>(loader, maxBatchSize, windowNanos, maxConcurrency, cacheSize, ttlNanos, scheduler);
+    }
+
+    @Override
+    public ObservableSource<V> apply(Observable<K> upstream) {
+        return upstream
+                .compose(AdaptiveBatch.<K>create()
+                        .maxCount(maxBatchSize)
+                        .maxLatency(windowNanos, TimeUnit.NANOSECONDS)
+                        .scheduler(scheduler))
+                .concatMapEager(this::lookup, maxConcurrency, maxBatchSize);
+    }
+
+    /**
+     * Values of the batch: cached ones, plus the results of the loads the batch started or joined.
+     */
+    private Observable<V> lookup(List<K> batch) {
+        long now = scheduler.now(TimeUnit.NANOSECONDS);
+        Map<K, V> found = new HashMap<>();
+        Set<Load<K, V>> pending = new LinkedHashSet<>();
+        Load<K, V> load = null;
+        for (K key : batch) {
+            if (found.containsKey(key)) {
+                continue;
+            }
+            V cached = cache.get(key, now);
+            if (cached != null) {
+                found.put(key, cached);
+                continue;
+            }
+            Load<K, V> current = inFlight.get(key);
+            if (current == null) {
+                if (load == null) {
+                    load = new Load<>();
+                }
+                current = inFlight.putIfAbsent(key, load);
+                if (current == null) {
+                    load.keys.add(key);
+                    current = load;
+                }
+            }
+            pending.add(current);
+        }
+        // every key may have been claimed by other batches in between, then there's nothing to load
+        if (load != null && !load.keys.isEmpty()) {
+            start(load);
+        }
+        if (pending.isEmpty()) {
+            return Observable.fromIterable(inOrder(batch, found));
+        }
+        return Observable.fromIterable(pending)
+                .flatMapSingle(l -> l.result)
+                .collectInto(found, Map::putAll)
+                .flattenAsObservable(values -> inOrder(batch, values));
+    }
+
+    /**
+     * Loads the keys claimed by the batch. It runs even if the batch is disposed, so that the keys don't stay in
+     * flight.
+     */
+    private void start(Load<K, V> load) {
+        Single.defer(() -> loader.load(load.keys))
+                .doOnSuccess(values -> cache.putAll(values, scheduler.now(TimeUnit.NANOSECONDS)))
+                .doFinally(() -> {
+                    for (K key : load.keys) {
+                        inFlight.remove(key, load);
+                    }
+                })
+                .subscribe(load.result);
+    }
+
+    private static <K, V> List<V> inOrder(List<K> batch, Map<K, V> values) {
+        List<V> result = new ArrayList<>(batch.size());
+        for (K key : batch) {
+            V value = values.get(key);
+            if (value != null) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Keys requested by a single call of the loader, claimed by the batch which starts the load. Batches which
+     * found some of their keys in flight wait for the result too.
+     */
+    static final class Load<K, V> {
+        final List<K> keys = new ArrayList<>();
+        final SingleSubject<Map<K, V>> result = SingleSubject.create();
+    }
+
+    static final class LruCache<K, V> {
+        private final int maxSize;
+        private final long ttlNanos;
+        private final LinkedHashMap<K, Entry<V>> entries;
+
+        LruCache(int maxSize, long ttlNanos) {
+            this.maxSize = maxSize;
+            this.ttlNanos = ttlNanos;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        }
+
+        V get(K key, long now) {
+            if (maxSize == 0) {
+                return null;
+            }
+            synchronized (entries) {
+                Entry<V> entry = entries.get(key);
+                if (entry == null) {
+                    return null;
+                }
+                if (now - entry.loadedAt >= ttlNanos) {
+                    entries.remove(key);
+                    return null;
+                }
+                return entry.value;
+            }
+        }
+
+        void putAll(Map<K, V> values, long now) {
+            if (maxSize == 0) {
+                return;
+            }
+            synchronized (entries) {
+                for (Map.Entry<K, V> e : values.entrySet()) {
+                    entries.put(e.getKey(), new Entry<>(e.getValue(), now));
+                }
+                Iterator<K> eldest = entries.keySet().iterator();
+                for (int excess = entries.size() - maxSize; excess > 0; excess--) {
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+        }
+    }
+
+    static final class Entry<V> {
+        final V value;
+        final long loadedAt;
+
+        Entry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
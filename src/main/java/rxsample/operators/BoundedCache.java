@@ -0,0 +1,109 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded replacement for {@link Observable#cache()}: late subscribers get the cached values replayed, but the cache
+ * never holds more than the configured number of elements, elements older than the configured age, or more than the
+ * configured total weight (e.g. estimated bytes). The oldest elements are evicted first.
+ * <p>
+ * Unlike cache(), upstream can be disconnected when the last subscriber leaves (see {@link #disconnectAfter}): after
+ * the grace period passes without new subscribers, the cached values are dropped and the next subscriber connects
+ * to the source again, like with replay().refCount().
+ * <p>
+ * Usage: {@code source.compose(BoundedCache.<Long>create().maxSize(100).disconnectAfter(1, TimeUnit.SECONDS))}
+ */
+public final class BoundedCache<T> implements ObservableTransformer<T, T> {
+    static final long UNBOUNDED = Long.MAX_VALUE;
+    static final long STAY_CONNECTED = -1L;
+
+    final long maxSize;
+    final long maxAgeNanos;
+    final long maxWeight;
+    final ToLongFunction<? super T> weigher;
+    final long disconnectAfterNanos;
+    final Scheduler scheduler;
+
+    private BoundedCache(long maxSize, long maxAgeNanos, long maxWeight, ToLongFunction<? super T> weigher,
+                         long disconnectAfterNanos, Scheduler scheduler) {
+        this.maxSize = maxSize;
+        this.maxAgeNanos = maxAgeNanos;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.disconnectAfterNanos = disconnectAfterNanos;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Starts configuration of the cache. At least one of the bounds has to be set before it's applied.
+     */
+    public static <T> BoundedCache<T> create() {
+        return new BoundedCache<>(UNBOUNDED, UNBOUNDED, UNBOUNDED, null, STAY_CONNECTED, Schedulers.computation());
+    }
+
+    public BoundedCache<T> maxSize(long maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize > 0 required but it was " + maxSize);
+        }
+        return new BoundedCache<>(maxSize, maxAgeNanos, maxWeight, weigher, disconnectAfterNanos, scheduler);
+    }
+
+    /**
+     * Evicts elements cached longer than {@code maxAge} ago, according to {@link #scheduler(Scheduler)} time.
+     */
+    public BoundedCache<T> maxAge(long maxAge, TimeUnit unit) {
+        if (maxAge <= 0) {
+            throw new IllegalArgumentException("maxAge > 0 required but it was " + maxAge);
+        }
+        return new BoundedCache<>(maxSize, unit.toNanos(maxAge), maxWeight, weigher, disconnectAfterNanos, scheduler);
+    }
+
+    /**
+     * Evicts the oldest elements while the sum of {@code weigher} results over the cached elements exceeds
+     * {@code maxWeight}. An element heavier than {@code maxWeight} is still delivered to current subscribers, but
+     * isn't retained.
+     */
+    public BoundedCache<T> maxWeight(long maxWeight, ToLongFunction<? super T> weigher) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("maxWeight > 0 required but it was " + maxWeight);
+        }
+        Objects.requireNonNull(weigher, "weigher is null");
+        return new BoundedCache<>(maxSize, maxAgeNanos, maxWeight, weigher, disconnectAfterNanos, scheduler);
+    }
+
+    /**
+     * Disconnects from upstream and drops cached values when there were no subscribers during {@code gracePeriod}.
+     * Zero grace period disconnects immediately after the last subscriber leaves.
+     */
+    public BoundedCache<T> disconnectAfter(long gracePeriod, TimeUnit unit) {
+        if (gracePeriod < 0) {
+            throw new IllegalArgumentException("gracePeriod >= 0 required but it was " + gracePeriod);
+        }
+        return new BoundedCache<>(maxSize, maxAgeNanos, maxWeight, weigher, unit.toNanos(gracePeriod), scheduler);
+    }
+
+    /**
+     * Scheduler used as time source for {@link #maxAge} and for the {@link #disconnectAfter} timer.
+     * Defaults to {@link Schedulers#computation()}.
+     */
+    public BoundedCache<T> scheduler(Scheduler scheduler) {
+        Objects.requireNonNull(scheduler, "scheduler is null");
+        return new BoundedCache<>(maxSize, maxAgeNanos, maxWeight, weigher, disconnectAfterNanos, scheduler);
+    }
+
+    @Override
+    public ObservableSource<T> apply(Observable<T> upstream) {
+        if (maxSize == UNBOUNDED && maxAgeNanos == UNBOUNDED && maxWeight == UNBOUNDED) {
+            throw new IllegalStateException("At least one of maxSize, maxAge or maxWeight has to be set");
+        }
+        return new BoundedCacheObservable<>(upstream, this);
+    }
+}
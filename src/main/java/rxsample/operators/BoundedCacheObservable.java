@@ -0,0 +1,337 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.exceptions.Exceptions;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Implementation of {@link BoundedCache}.
+ * Cached values form a singly-linked list: upstream appends to the tail and evicts by moving the head forward,
+ * every subscriber walks the list from its own position, so replay doesn't need locking. Evicted nodes become
+ * garbage as soon as no subscriber is positioned before them.
+ */
+final class BoundedCacheObservable<T> extends Observable<T> {
+    private final ObservableSource<T> source;
+    private final BoundedCache<T> config;
+
+    // guarded by this
+    private Connection<T> connection;
+
+    BoundedCacheObservable(ObservableSource<T> source, BoundedCache<T> config) {
+        this.source = source;
+        this.config = config;
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super T> observer) {
+        Connection<T> conn;
+        boolean connect;
+        CacheSubscription<T> subscription;
+        synchronized (this) {
+            conn = connection;
+            connect = conn == null;
+            if (connect) {
+                conn = new Connection<>(config);
+                connection = conn;
+            }
+            subscription = new CacheSubscription<>(observer, this, conn);
+            conn.add(subscription);
+        }
+        observer.onSubscribe(subscription);
+        if (connect) {
+            source.subscribe(conn);
+        }
+        conn.replay(subscription);
+    }
+
+    void remove(CacheSubscription<T> subscription) {
+        Connection<T> conn = subscription.connection;
+        synchronized (this) {
+            if (!conn.remove(subscription) || conn.subscribers.length != 0
+                    || config.disconnectAfterNanos == BoundedCache.STAY_CONNECTED || connection != conn) {
+                return;
+            }
+            if (config.disconnectAfterNanos != 0) {
+                conn.timer = config.scheduler.scheduleDirect(
+                        () -> timeout(conn), config.disconnectAfterNanos, TimeUnit.NANOSECONDS);
+                return;
+            }
+            connection = null;
+        }
+        conn.dispose();
+    }
+
+    private void timeout(Connection<T> conn) {
+        synchronized (this) {
+            if (connection != conn || conn.subscribers.length != 0) {
+                return;
+            }
+            connection = null;
+        }
+        conn.dispose();
+    }
+
+    static final class Node<T> extends AtomicReference<Node<T>> {
+        final T value;
+        final long time;
+        final long weight;
+
+        Node(T value, long time, long weight) {
+            this.value = value;
+            this.time = time;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Upstream subscription together with the values cached during it.
+     */
+    static final class Connection<T> extends AtomicReference<Disposable> implements Observer<T>, Disposable {
+        private static final CacheSubscription[] EMPTY = new CacheSubscription[0];
+        private static final Disposable DISPOSED = Disposables.disposed();
+
+        private final BoundedCache<T> config;
+        private final boolean timed;
+
+        // written by upstream only, head is also read by new subscribers
+        private volatile Node<T> head;
+        private Node<T> tail;
+        private long size;
+        private long weight;
+
+        private volatile boolean done;
+        private Throwable error;
+
+        // modified under the lock of the owning BoundedCacheObservable
+        @SuppressWarnings("unchecked")
+        volatile CacheSubscription<T>[] subscribers = EMPTY;
+        Disposable timer;
+
+        Connection(BoundedCache<T> config) {
+            this.config = config;
+            this.timed = config.maxAgeNanos != BoundedCache.UNBOUNDED;
+            Node<T> sentinel = new Node<>(null, 0L, 0L);
+            head = sentinel;
+            tail = sentinel;
+        }
+
+        void add(CacheSubscription<T> subscription) {
+            if (timer != null) {
+                timer.dispose();
+                timer = null;
+            }
+            CacheSubscription<T>[] current = subscribers;
+            int n = current.length;
+            @SuppressWarnings("unchecked")
+            CacheSubscription<T>[] updated = new CacheSubscription[n + 1];
+            System.arraycopy(current, 0, updated, 0, n);
+            updated[n] = subscription;
+            subscribers = updated;
+        }
+
+        boolean remove(CacheSubscription<T> subscription) {
+            CacheSubscription<T>[] current = subscribers;
+            int n = current.length;
+            for (int i = 0; i < n; i++) {
+                if (current[i] == subscription) {
+                    @SuppressWarnings("unchecked")
+                    CacheSubscription<T>[] updated = new CacheSubscription[n - 1];
+                    System.arraycopy(current, 0, updated, 0, i);
+                    System.arraycopy(current, i + 1, updated, i, n - i - 1);
+                    subscribers = updated;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            if (!compareAndSet(null, d)) {
+                d.dispose();
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (done) {
+                return;
+            }
+            long now = timed ? config.scheduler.now(TimeUnit.NANOSECONDS) : 0L;
+            long w = 0L;
+            if (config.weigher != null) {
+                try {
+                    w = config.weigher.applyAsLong(t);
+                } catch (Throwable e) {
+                    Exceptions.throwIfFatal(e);
+                    dispose();
+                    onError(e);
+                    return;
+                }
+            }
+            Node<T> node = new Node<>(t, now, w);
+            tail.set(node);
+            tail = node;
+            size++;
+            weight += w;
+            evict(now);
+            for (CacheSubscription<T> subscription : subscribers) {
+                replay(subscription);
+            }
+        }
+
+        private void evict(long now) {
+            Node<T> h = head;
+            long limit = now - config.maxAgeNanos;
+            for (;;) {
+                Node<T> next = h.get();
+                if (next == null) {
+                    break;
+                }
+                if (size > config.maxSize || weight > config.maxWeight || (timed && next.time <= limit)) {
+                    size--;
+                    weight -= next.weight;
+                    h = next;
+                } else {
+                    break;
+                }
+            }
+            head = h;
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (done) {
+                return;
+            }
+            error = e;
+            done = true;
+            for (CacheSubscription<T> subscription : subscribers) {
+                replay(subscription);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            for (CacheSubscription<T> subscription : subscribers) {
+                replay(subscription);
+            }
+        }
+
+        /**
+         * Position for a new subscriber: the current head, skipping the values which already expired but weren't
+         * evicted yet because upstream didn't emit since then.
+         */
+        private Node<T> startNode() {
+            Node<T> h = head;
+            if (timed) {
+                long limit = config.scheduler.now(TimeUnit.NANOSECONDS) - config.maxAgeNanos;
+                Node<T> next = h.get();
+                while (next != null && next.time <= limit) {
+                    h = next;
+                    next = h.get();
+                }
+            }
+            return h;
+        }
+
+        void replay(CacheSubscription<T> subscription) {
+            if (subscription.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            Observer<? super T> downstream = subscription.downstream;
+            for (;;) {
+                Node<T> node = subscription.node;
+                if (node == null) {
+                    node = startNode();
+                }
+                for (;;) {
+                    if (subscription.disposed) {
+                        subscription.node = null;
+                        return;
+                    }
+                    boolean d = done;
+                    Node<T> next = node.get();
+                    if (next == null) {
+                        if (d) {
+                            subscription.node = null;
+                            subscription.terminate();
+                            Throwable e = error;
+                            if (e != null) {
+                                downstream.onError(e);
+                            } else {
+                                downstream.onComplete();
+                            }
+                            return;
+                        }
+                        break;
+                    }
+                    downstream.onNext(next.value);
+                    node = next;
+                }
+                subscription.node = node;
+                missed = subscription.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        @Override
+        public void dispose() {
+            Disposable d = getAndSet(DISPOSED);
+            if (d != null && d != DISPOSED) {
+                d.dispose();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return get() == DISPOSED;
+        }
+    }
+
+    static final class CacheSubscription<T> extends AtomicInteger implements Disposable {
+        final Observer<? super T> downstream;
+        final BoundedCacheObservable<T> parent;
+        final Connection<T> connection;
+        // accessed only by the thread which is currently replaying
+        Node<T> node;
+        volatile boolean disposed;
+
+        CacheSubscription(Observer<? super T> downstream, BoundedCacheObservable<T> parent, Connection<T> connection) {
+            this.downstream = downstream;
+            this.parent = parent;
+            this.connection = connection;
+        }
+
+        void terminate() {
+            disposed = true;
+            parent.remove(this);
+        }
+
+        @Override
+        public void dispose() {
+            if (!disposed) {
+                terminate();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.Scheduler;
+import io.reactivex.functions.Function;
+import io.reactivex.observables.GroupedObservable;
+import io.reactivex.schedulers.Schedulers;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link Observable#groupBy} for keys with unbounded cardinality (user ids, session ids): instead of keeping a group
+ * per distinct key until upstream completes, at most {@link #maxGroups} groups are open - opening another one
+ * completes the least recently used group - and groups which got no value for {@link #idleTimeout} are completed.
+ * The next value with the key of a completed group opens a new group, so downstream sees a key's values split into
+ * several groups (like sessions).
+ * <p>
+ * Group counts are aggregated over all subscriptions of the pipelines the instance was applied to: every wither
+ * returns a new instance with its own counters.
+ * <p>
+ * Usage: {@code events.compose(BoundedGroupBy.create(Event::userId).maxGroups(10_000).idleTimeout(5, MINUTES))}
+ */
+public final class BoundedGroupBy<T, K> implements ObservableTransformer<T, GroupedObservable<K, T>> {
+    static final int UNBOUNDED = Integer.MAX_VALUE;
+    static final long NO_TIMEOUT = Long.MAX_VALUE;
+
+    final Function<? super T, ? extends K> keySelector;
+    final int maxGroups;
+    final long idleTimeoutNanos;
+    final Scheduler scheduler;
+    final AtomicLong active = new AtomicLong();
+    final AtomicLong evicted = new AtomicLong();
+    final AtomicLong expired = new AtomicLong();
+
+    private BoundedGroupBy(Function<? super T, ? extends K> keySelector, int maxGroups, long idleTimeoutNanos,
+                           Scheduler scheduler) {
+        this.keySelector = keySelector;
+        this.maxGroups = maxGroups;
+        this.idleTimeoutNanos = idleTimeoutNanos;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Starts configuration of the grouping. At least one of the bounds has to be set before it's applied.
+     */
+    public static <T, K> BoundedGroupBy<T, K> create(Function<? super T, ? extends K> keySelector) {
+        Objects.requireNonNull(keySelector, "keySelector is null");
+        return new BoundedGroupBy<>(keySelector, UNBOUNDED, NO_TIMEOUT, Schedulers.computation());
+    }
+
+    public BoundedGroupBy<T, K> maxGroups(int maxGroups) {
+        if (maxGroups <= 0) {
+            throw new IllegalArgumentException("maxGroups > 0 required but it was " + maxGroups);
+        }
+        return new BoundedGroupBy<>(keySelector, maxGroups, idleTimeoutNanos, scheduler);
+    }
+
+    /**
+     * Completes groups which got no value for {@code idleTimeout}. Idle groups are looked for every half of the
+     * timeout, so a group is completed between 1 and 1.5 timeouts after its last value.
+     */
+    public BoundedGroupBy<T, K> idleTimeout(long idleTimeout, TimeUnit unit) {
+        if (idleTimeout <= 0) {
+            throw new IllegalArgumentException("idleTimeout > 0 required but it was " + idleTimeout);
+        }
+        return new BoundedGroupBy<>(keySelector, maxGroups, unit.toNanos(idleTimeout), scheduler);
+    }
+
+    /**
+     * Scheduler for the {@link #idleTimeout} checks and their time source. Defaults to
+     * {@link Schedulers#computation()}.
+     */
+    public BoundedGroupBy<T, K> scheduler(Scheduler scheduler) {
+        Objects.requireNonNull(scheduler, "scheduler is null");
+        return new BoundedGroupBy<>(keySelector, maxGroups, idleTimeoutNanos, scheduler);
+    }
+
+    /**
+     * Number of currently open groups.
+     */
+    public long activeGroupCount() {
+        return active.get();
+    }
+
+    /**
+     * Number of groups completed to make room for a new group.
+     */
+    public long evictedGroupCount() {
+        return evicted.get();
+    }
+
+    /**
+     * Number of groups completed because they were idle.
+     */
+    public long expiredGroupCount() {
+        return expired.get();
+    }
+
+    @Override
+    public ObservableSource<GroupedObservable<K, T>> apply(Observable<T> upstream) {
+        if (maxGroups == UNBOUNDED && idleTimeoutNanos == NO_TIMEOUT) {
+            throw new IllegalStateException("At least one of maxGroups or idleTimeout has to be set");
+        }
+        return new BoundedGroupByObservable<>(upstream, this);
+    }
+}
@@ -0,0 +1,249 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.observables.GroupedObservable;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.subjects.UnicastSubject;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementation of {@link BoundedGroupBy}. Open groups are kept in access order, so the least recently used group
+ * is the first one and idle groups form a prefix. The idle check runs on the scheduler concurrently with upstream,
+ * so the groups are guarded by the observer's lock.
+ */
+final class BoundedGroupByObservable<T, K> extends Observable<GroupedObservable<K, T>> {
+    // initial capacity of a group buffer, it grows by linking more arrays of the same size
+    private static final int GROUP_BUFFER = 16;
+
+    private final ObservableSource<T> source;
+    private final BoundedGroupBy<T, K> config;
+
+    BoundedGroupByObservable(ObservableSource<T> source, BoundedGroupBy<T, K> config) {
+        this.source = source;
+        this.config = config;
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super GroupedObservable<K, T>> observer) {
+        source.subscribe(new GroupByObserver<>(observer, config));
+    }
+
+    /**
+     * Counts the main observer and the groups which weren't terminated yet; upstream is disposed when it drops to 0.
+     */
+    static final class GroupByObserver<T, K> extends AtomicInteger implements Observer<T>, Disposable, Runnable {
+        private final Observer<? super GroupedObservable<K, T>> downstream;
+        private final BoundedGroupBy<T, K> config;
+        private final boolean timed;
+        private final LinkedHashMap<K, Group<K, T>> groups = new LinkedHashMap<>(16, 0.75f, true);
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private Disposable upstream;
+        private Disposable idleCheck;
+        private boolean done;
+
+        GroupByObserver(Observer<? super GroupedObservable<K, T>> downstream, BoundedGroupBy<T, K> config) {
+            this.downstream = downstream;
+            this.config = config;
+            this.timed = config.idleTimeoutNanos != BoundedGroupBy.NO_TIMEOUT;
+            lazySet(1);
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            upstream = d;
+            downstream.onSubscribe(this);
+            if (timed) {
+                long period = Math.max(1, config.idleTimeoutNanos / 2);
+                synchronized (this) {
+                    if (!done) {
+                        idleCheck = config.scheduler.schedulePeriodicallyDirect(this, period, period,
+                                TimeUnit.NANOSECONDS);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            K key;
+            try {
+                key = config.keySelector.apply(t);
+            } catch (Throwable e) {
+                Exceptions.throwIfFatal(e);
+                upstream.dispose();
+                onError(e);
+                return;
+            }
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                Group<K, T> group = groups.get(key);
+                if (group != null && group.cancelled) {
+                    remove(key);
+                    group = null;
+                }
+                if (group == null) {
+                    if (cancelled.get()) {
+                        // nobody can receive a new group
+                        return;
+                    }
+                    if (groups.size() >= config.maxGroups) {
+                        Iterator<Group<K, T>> eldest = groups.values().iterator();
+                        Group<K, T> evicted = eldest.next();
+                        eldest.remove();
+                        config.active.decrementAndGet();
+                        if (!evicted.cancelled) {
+                            config.evicted.incrementAndGet();
+                        }
+                        evicted.subject.onComplete();
+                    }
+                    group = new Group<>(key, this);
+                    groups.put(key, group);
+                    config.active.incrementAndGet();
+                    getAndIncrement();
+                    downstream.onNext(group);
+                }
+                if (timed) {
+                    group.lastValueAt = config.scheduler.now(TimeUnit.NANOSECONDS);
+                }
+                group.subject.onNext(t);
+            }
+        }
+
+        private void remove(K key) {
+            groups.remove(key);
+            config.active.decrementAndGet();
+        }
+
+        /**
+         * Completes the idle groups.
+         */
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                long now = config.scheduler.now(TimeUnit.NANOSECONDS);
+                Iterator<Group<K, T>> it = groups.values().iterator();
+                while (it.hasNext()) {
+                    Group<K, T> group = it.next();
+                    if (now - group.lastValueAt < config.idleTimeoutNanos) {
+                        break;
+                    }
+                    it.remove();
+                    config.active.decrementAndGet();
+                    if (!group.cancelled) {
+                        config.expired.incrementAndGet();
+                    }
+                    group.subject.onComplete();
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            List<Group<K, T>> open;
+            synchronized (this) {
+                if (done) {
+                    RxJavaPlugins.onError(e);
+                    return;
+                }
+                open = terminate();
+            }
+            for (Group<K, T> group : open) {
+                group.subject.onError(e);
+            }
+            downstream.onError(e);
+        }
+
+        @Override
+        public void onComplete() {
+            List<Group<K, T>> open;
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                open = terminate();
+            }
+            for (Group<K, T> group : open) {
+                group.subject.onComplete();
+            }
+            downstream.onComplete();
+        }
+
+        private List<Group<K, T>> terminate() {
+            done = true;
+            if (idleCheck != null) {
+                idleCheck.dispose();
+            }
+            List<Group<K, T>> open = new ArrayList<>(groups.values());
+            config.active.addAndGet(-open.size());
+            groups.clear();
+            return open;
+        }
+
+        void cancelGroup() {
+            if (decrementAndGet() == 0) {
+                upstream.dispose();
+                synchronized (this) {
+                    if (idleCheck != null) {
+                        idleCheck.dispose();
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (cancelled.compareAndSet(false, true)) {
+                cancelGroup();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return cancelled.get();
+        }
+    }
+
+    /**
+     * Group buffered by a UnicastSubject until its single subscriber arrives. The subject calls {@link #cancel}
+     * when the subscriber disposes or the group terminates.
+     */
+    static final class Group<K, T> extends GroupedObservable<K, T> {
+        final UnicastSubject<T> subject;
+        private final GroupByObserver<T, K> parent;
+        volatile boolean cancelled;
+        // guarded by the parent's lock
+        long lastValueAt;
+
+        Group(K key, GroupByObserver<T, K> parent) {
+            super(key);
+            this.parent = parent;
+            this.subject = UnicastSubject.create(GROUP_BUFFER, this::cancel);
+        }
+
+        private void cancel() {
+            cancelled = true;
+            parent.cancelGroup();
+        }
+
+        @Override
+        protected void subscribeActual(Observer<? super T> observer) {
+            subject.subscribe(observer);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package rxsample.operators;
+
+import io.reactivex.Single;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Store which looks up many keys with one request, e.g. a multi-get of a remote key-value store. Used by
+ * {@link BatchedLookup}.
+ */
+public interface BulkLoader<K, V> {
+    /**
+     * Values of the given keys. Keys which don't exist in the store are left out of the result.
+     */
+    Single<Map<K, V>> load(List<K> keys);
+}
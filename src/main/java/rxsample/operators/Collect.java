@@ -0,0 +1,96 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableConverter;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * Variants of {@link Observable#collect} and {@link Observable#toList()} which avoid growing the collection:
+ * {@link #toList(int)} takes the expected size, {@link #toList()} takes it from a {@link SizedObservable} source.
+ * {@link #of} and {@link #parallel} accept a {@link Collector}, so the collectors of {@code java.util.stream} (and
+ * their finishers and combiners) work on Observables as they are.
+ * <p>
+ * Usage: {@code Single<Map<Boolean, List<Order>>> split = orders.as(Collect.of(partitioningBy(Order::isPaid)))}
+ */
+public final class Collect {
+    // ArrayList's capacity when nothing is known about the size
+    static final int DEFAULT_CAPACITY = 10;
+    // largest capacity a size hint may ask for, larger hints would fail the allocation
+    static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private Collect() {
+    }
+
+    /**
+     * Like {@link Observable#toList()}; applied directly to a {@link SizedObservable}, the list is allocated with
+     * its size.
+     */
+    public static <T> ObservableConverter<T, Single<List<T>>> toList() {
+        return upstream -> {
+            int capacity = upstream instanceof SizedObservable
+                    ? (int) Math.min(((SizedObservable<?>) upstream).size(), MAX_CAPACITY)
+                    : DEFAULT_CAPACITY;
+            return toList(upstream, capacity);
+        };
+    }
+
+    /**
+     * Like {@link Observable#toList(int)}: the list is allocated for {@code sizeHint} values.
+     */
+    public static <T> ObservableConverter<T, Single<List<T>>> toList(int sizeHint) {
+        if (sizeHint < 0) {
+            throw new IllegalArgumentException("sizeHint >= 0 required but it was " + sizeHint);
+        }
+        return upstream -> toList(upstream, sizeHint);
+    }
+
+    private static <T> Single<List<T>> toList(Observable<T> upstream, int capacity) {
+        return upstream.collect(() -> new ArrayList<>(capacity), List::add);
+    }
+
+    /**
+     * Collects the values with the collector on the upstream thread, then applies its finisher.
+     */
+    public static <T, A, R> ObservableConverter<T, Single<R>> of(Collector<? super T, A, R> collector) {
+        Objects.requireNonNull(collector, "collector is null");
+        Supplier<A> supplier = collector.supplier();
+        BiConsumer<A, ? super T> accumulator = collector.accumulator();
+        Function<A, R> finisher = collector.finisher();
+        return upstream -> upstream
+                .collect(supplier::get, accumulator::accept)
+                .map(finisher::apply);
+    }
+
+    /**
+     * {@link #parallel(Collector, int, Scheduler)} on {@link Schedulers#computation()}.
+     */
+    public static <T, A, R> ObservableConverter<T, Single<R>> parallel(Collector<? super T, A, R> collector,
+                                                                       int rails) {
+        return parallel(collector, rails, Schedulers.computation());
+    }
+
+    /**
+     * Collects chunks of values into separate containers on {@code rails} Workers of the scheduler, then joins the
+     * containers with the collector's combiner, in the order of the chunks, and applies the finisher. Worth it when
+     * accumulating is expensive compared to combining: for a plain list, combining copies everything once more.
+     */
+    public static <T, A, R> ObservableConverter<T, Single<R>> parallel(Collector<? super T, A, R> collector,
+                                                                       int rails, Scheduler scheduler) {
+        Objects.requireNonNull(collector, "collector is null");
+        Objects.requireNonNull(scheduler, "scheduler is null");
+        if (rails <= 0) {
+            throw new IllegalArgumentException("rails > 0 required but it was " + rails);
+        }
+        return upstream -> new ParallelCollectSingle<>(upstream, collector, rails, scheduler);
+    }
+}
@@ -0,0 +1,179 @@
+package rxsample.operators;
+
+import java.util.Arrays;
+
+/**
+ * Key set of {@link WindowedDistinct}: keys are forgotten once {@code windowTicks} full ticks passed since they were
+ * added, and the oldest keys are forgotten first once there are more than {@code maxKeys}.
+ * <p>
+ * Keys are stored twice: in an open-addressing table (linear probing, removal shifts the following entries back) for
+ * lookups, and in a ring in the order they were added. The order of the ring is also the order of expiry, so
+ * expiring keys is popping them from its head. A timer wheel tells how far: slot {@code tick % slots} holds the
+ * number of keys added up to the end of that tick. Advancing the wheel to a new tick releases the slots which fell
+ * out of the window, so there's no timer and no timestamp per key, only one slot per tick of the window.
+ * <p>
+ * Not thread-safe.
+ */
+final class ExpiringKeySet {
+    static final long NO_TICKS = Long.MAX_VALUE;
+    private static final int MIN_CAPACITY = 16;
+
+    private final long windowTicks;
+    private final long maxKeys;
+
+    // lookup table, at most half full
+    private Object[] table;
+    private int shift;
+
+    // keys in the order they were added, key number n is at n & (order.length - 1)
+    private Object[] order;
+    private long added;
+    private long removed;
+
+    // timer wheel: the tick a slot was last used for and the number of keys added up to the end of that tick
+    private final long[] slotTicks;
+    private final long[] slotEnds;
+    private long currentTick = Long.MIN_VALUE;
+    private long expiredTick = Long.MIN_VALUE;
+
+    /**
+     * @param windowTicks number of ticks a key is remembered for, or {@link #NO_TICKS}
+     * @param maxKeys     most keys remembered at once
+     */
+    ExpiringKeySet(long windowTicks, long maxKeys) {
+        this.windowTicks = windowTicks;
+        this.maxKeys = maxKeys;
+        // keys of the current tick and of the windowTicks before it are alive
+        int slots = windowTicks == NO_TICKS ? 1 : (int) windowTicks + 1;
+        slotTicks = new long[slots];
+        slotEnds = new long[slots];
+        Arrays.fill(slotTicks, Long.MIN_VALUE);
+        order = new Object[MIN_CAPACITY];
+        table = new Object[MIN_CAPACITY * 2];
+        shift = Integer.numberOfLeadingZeros(table.length - 1);
+    }
+
+    /**
+     * Advances the clock to {@code tick} and adds the key. Returns false if the key was already there; its expiry
+     * doesn't change then, a key is remembered for the window after it was first added.
+     */
+    boolean add(Object key, long tick) {
+        advance(tick);
+        int mask = table.length - 1;
+        for (int i = slot(key); table[i] != null; i = (i + 1) & mask) {
+            if (table[i].equals(key)) {
+                return false;
+            }
+        }
+        if (added - removed == order.length) {
+            grow();
+        }
+        insert(key);
+        order[(int) added & (order.length - 1)] = key;
+        added++;
+        if (windowTicks != NO_TICKS) {
+            slotEnds[slotOf(currentTick)] = added;
+        }
+        if (added - removed > maxKeys) {
+            poll();
+        }
+        return true;
+    }
+
+    /**
+     * Moves the wheel to {@code tick} and forgets the keys added more than {@code windowTicks} ticks before it.
+     * Ticks earlier than the current one are ignored.
+     */
+    void advance(long tick) {
+        if (windowTicks == NO_TICKS || tick <= currentTick) {
+            return;
+        }
+        currentTick = tick;
+        long lastExpired = tick - windowTicks - 1;
+        if (expiredTick == Long.MIN_VALUE || lastExpired - expiredTick > slotTicks.length) {
+            // every key is older than the window
+            while (removed < added) {
+                poll();
+            }
+        } else {
+            for (long t = expiredTick + 1; t <= lastExpired; t++) {
+                int s = slotOf(t);
+                if (slotTicks[s] == t) {
+                    while (removed < slotEnds[s]) {
+                        poll();
+                    }
+                }
+            }
+        }
+        expiredTick = lastExpired;
+        // the slot was used by the tick which expired last
+        int s = slotOf(tick);
+        slotTicks[s] = tick;
+        slotEnds[s] = added;
+    }
+
+    int size() {
+        return (int) (added - removed);
+    }
+
+    private int slotOf(long tick) {
+        return (int) Math.floorMod(tick, (long) slotTicks.length);
+    }
+
+    private int slot(Object key) {
+        return (key.hashCode() * 0x9E3779B9) >>> shift;
+    }
+
+    private void insert(Object key) {
+        int mask = table.length - 1;
+        int i = slot(key);
+        while (table[i] != null) {
+            i = (i + 1) & mask;
+        }
+        table[i] = key;
+    }
+
+    private void poll() {
+        int index = (int) removed & (order.length - 1);
+        Object key = order[index];
+        order[index] = null;
+        removed++;
+        remove(key);
+    }
+
+    private void remove(Object key) {
+        int mask = table.length - 1;
+        int free = slot(key);
+        while (!table[free].equals(key)) {
+            free = (free + 1) & mask;
+        }
+        for (int i = (free + 1) & mask; table[i] != null; i = (i + 1) & mask) {
+            int home = slot(table[i]);
+            // the entry at i can move to free if its home slot isn't cyclically within (free, i]
+            if (((i - home) & mask) >= ((i - free) & mask)) {
+                table[free] = table[i];
+                free = i;
+            }
+        }
+        table[free] = null;
+    }
+
+    /**
+     * Doubles the ring and the table. Keys keep their numbers, only their positions in the ring change.
+     */
+    private void grow() {
+        Object[] oldOrder = order;
+        order = new Object[oldOrder.length << 1];
+        for (long n = removed; n < added; n++) {
+            order[(int) n & (order.length - 1)] = oldOrder[(int) n & (oldOrder.length - 1)];
+        }
+        Object[] oldTable = table;
+        table = new Object[order.length * 2];
+        shift = Integer.numberOfLeadingZeros(table.length - 1);
+        for (Object key : oldTable) {
+            if (key != null) {
+                insert(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.ObservableTransformer;
+import rxsample.subjects.Serializer;
+
+import java.io.File;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * {@link Observable#sorted()} for sequences which don't fit into the heap: values are collected into runs of
+ * {@link #runSize} values, each full run is sorted and written to a temporary file in {@code directory} (see
+ * {@link RunFile}). At completion the last run stays in memory and the runs are merged: with a heap of the first
+ * value of every run, the next value emitted is always the top of the heap, so the first value is emitted as soon as
+ * the first value of every run has been read, long before the merge ends. More than {@link #maxFanIn} runs are merged
+ * into longer runs first, {@code maxFanIn} consecutive runs at a time.
+ * <p>
+ * Memory is bounded by one run plus {@code maxFanIn} read buffers of {@link #bufferSize} bytes. The sort is stable.
+ * Values are emitted on the thread which completed the upstream. Files of a subscription are in their own
+ * subdirectory, which is deleted when the sequence terminates or is disposed.
+ * <p>
+ * Usage: {@code records.compose(ExternalSort.create(Serializers.LONG, Comparator.naturalOrder(), tmpDir))}
+ */
+public final class ExternalSort<T> implements ObservableTransformer<T, T> {
+    public static final int DEFAULT_RUN_SIZE = 1 << 20;
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    public static final int DEFAULT_MAX_FAN_IN = 128;
+
+    final Serializer<T> serializer;
+    final Comparator<? super T> comparator;
+    final File directory;
+    final int runSize;
+    final int bufferSize;
+    final int maxFanIn;
+
+    private ExternalSort(Serializer<T> serializer, Comparator<? super T> comparator, File directory, int runSize,
+                         int bufferSize, int maxFanIn) {
+        this.serializer = serializer;
+        this.comparator = comparator;
+        this.directory = directory;
+        this.runSize = runSize;
+        this.bufferSize = bufferSize;
+        this.maxFanIn = maxFanIn;
+    }
+
+    /**
+     * Sorts in runs of {@value #DEFAULT_RUN_SIZE} values, reads and writes runs through {@value #DEFAULT_BUFFER_SIZE}
+     * bytes buffers (or larger, if the serializer's values don't fit) and merges up to
+     * {@value #DEFAULT_MAX_FAN_IN} runs at once.
+     */
+    public static <T> ExternalSort<T> create(Serializer<T> serializer, Comparator<? super T> comparator,
+                                             File directory) {
+        Objects.requireNonNull(serializer, "serializer is null");
+        Objects.requireNonNull(comparator, "comparator is null");
+        Objects.requireNonNull(directory, "directory is null");
+        int bufferSize = Math.max(DEFAULT_BUFFER_SIZE, recordSize(serializer));
+        return new ExternalSort<>(serializer, comparator, directory, DEFAULT_RUN_SIZE, bufferSize,
+                DEFAULT_MAX_FAN_IN);
+    }
+
+    /**
+     * Values kept in memory, the length of the runs written to files.
+     */
+    public ExternalSort<T> runSize(int runSize) {
+        if (runSize <= 0) {
+            throw new IllegalArgumentException("runSize > 0 required but it was " + runSize);
+        }
+        return new ExternalSort<>(serializer, comparator, directory, runSize, bufferSize, maxFanIn);
+    }
+
+    /**
+     * Size of the buffer each run file is written and read through.
+     */
+    public ExternalSort<T> bufferSize(int bufferSize) {
+        if (bufferSize < recordSize(serializer)) {
+            throw new IllegalArgumentException("bufferSize " + bufferSize + " can't fit a single value");
+        }
+        return new ExternalSort<>(serializer, comparator, directory, runSize, bufferSize, maxFanIn);
+    }
+
+    /**
+     * Most runs merged at once, i.e. most files open at once.
+     */
+    public ExternalSort<T> maxFanIn(int maxFanIn) {
+        if (maxFanIn < 2) {
+            throw new IllegalArgumentException("maxFanIn >= 2 required but it was " + maxFanIn);
+        }
+        return new ExternalSort<>(serializer, comparator, directory, runSize, bufferSize, maxFanIn);
+    }
+
+    private static int recordSize(Serializer<?> serializer) {
+        return RunFile.lengthWidth(serializer.maxSerializedSize()) + serializer.maxSerializedSize();
+    }
+
+    @Override
+    public ObservableSource<T> apply(Observable<T> upstream) {
+        return new ExternalSortObservable<>(upstream, this);
+    }
+}
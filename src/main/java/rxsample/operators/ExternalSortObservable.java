@@ -0,0 +1,288 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.plugins.RxJavaPlugins;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Execution of {@link ExternalSort}. The files are touched only by the upstream thread while it spills or merges,
+ * and by {@link Disposable#dispose()} when no spill or merge is running; a dispose during one leaves the deletion
+ * to the upstream thread.
+ */
+final class ExternalSortObservable<T> extends Observable<T> {
+    // values allocated for the first run, the run array grows up to runSize
+    private static final int INITIAL_RUN_CAPACITY = 1024;
+
+    private final ObservableSource<T> source;
+    private final ExternalSort<T> config;
+
+    ExternalSortObservable(ObservableSource<T> source, ExternalSort<T> config) {
+        this.source = source;
+        this.config = config;
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super T> observer) {
+        source.subscribe(new SortObserver<>(observer, config));
+    }
+
+    static final class SortObserver<T> extends AtomicInteger implements Observer<T>, Disposable {
+        private static final int IDLE = 0;
+        private static final int BUSY = 1;
+        private static final int DISPOSED = 2;
+
+        private final Observer<? super T> downstream;
+        private final ExternalSort<T> config;
+        private final Comparator<Object> comparator;
+        private Disposable upstream;
+        private boolean done;
+
+        private Object[] run;
+        private int size;
+        // sorted runs on disk, in the order they were written; the directory is created with the first one
+        private List<File> files = new ArrayList<>();
+        private File directory;
+        private int fileCount;
+
+        @SuppressWarnings("unchecked")
+        SortObserver(Observer<? super T> downstream, ExternalSort<T> config) {
+            this.downstream = downstream;
+            this.config = config;
+            this.comparator = (Comparator<Object>) config.comparator;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            upstream = d;
+            run = new Object[Math.min(config.runSize, INITIAL_RUN_CAPACITY)];
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (done || get() == DISPOSED) {
+                return;
+            }
+            if (size == run.length) {
+                run = Arrays.copyOf(run, (int) Math.min(config.runSize, 2L * run.length));
+            }
+            run[size++] = t;
+            if (size == config.runSize) {
+                if (!compareAndSet(IDLE, BUSY)) {
+                    return;
+                }
+                try {
+                    spill();
+                } catch (Throwable e) {
+                    Exceptions.throwIfFatal(e);
+                    upstream.dispose();
+                    fail(e);
+                    return;
+                }
+                if (!compareAndSet(BUSY, IDLE)) {
+                    // disposed during the spill
+                    deleteFiles();
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (done) {
+                RxJavaPlugins.onError(e);
+                return;
+            }
+            done = true;
+            if (compareAndSet(IDLE, BUSY)) {
+                fail(e);
+            } else {
+                RxJavaPlugins.onError(e);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            if (!compareAndSet(IDLE, BUSY)) {
+                return;
+            }
+            try {
+                Arrays.sort(run, 0, size, comparator);
+                if (files.isEmpty()) {
+                    emit();
+                } else {
+                    while (files.size() >= config.maxFanIn && get() != DISPOSED) {
+                        mergePass();
+                    }
+                    if (get() != DISPOSED) {
+                        merge();
+                    }
+                }
+            } catch (Throwable e) {
+                Exceptions.throwIfFatal(e);
+                fail(e);
+                return;
+            }
+            deleteFiles();
+            run = null;
+            if (getAndSet(DISPOSED) != DISPOSED) {
+                downstream.onComplete();
+            }
+        }
+
+        /**
+         * Sorts the full run and writes it to a new file.
+         */
+        @SuppressWarnings("unchecked")
+        private void spill() throws IOException {
+            Arrays.sort(run, 0, size, comparator);
+            File file = newFile();
+            try (RunFile.Writer<T> writer = new RunFile.Writer<>(file, config.serializer, config.bufferSize)) {
+                for (int i = 0; i < size; i++) {
+                    writer.write((T) run[i]);
+                }
+            }
+            files.add(file);
+            Arrays.fill(run, 0, size, null);
+            size = 0;
+        }
+
+        /**
+         * Emits the run when nothing was spilled.
+         */
+        @SuppressWarnings("unchecked")
+        private void emit() {
+            for (int i = 0; i < size; i++) {
+                if (get() == DISPOSED) {
+                    return;
+                }
+                downstream.onNext((T) run[i]);
+            }
+        }
+
+        /**
+         * Merges the runs on disk and the run in memory into the downstream.
+         */
+        private void merge() throws IOException {
+            try (RunMerger<T> merger = new RunMerger<>(config.comparator, files.size() + 1)) {
+                for (File file : files) {
+                    merger.add(new RunFile.Reader<>(file, config.serializer, config.bufferSize));
+                }
+                // the run in memory was the last one, it goes last for stability
+                merger.add(run, size);
+                T value;
+                while ((value = merger.poll()) != null) {
+                    if (get() == DISPOSED) {
+                        return;
+                    }
+                    downstream.onNext(value);
+                }
+            }
+        }
+
+        /**
+         * Merges every {@code maxFanIn} consecutive files into one; consecutive, so that equal values stay in order.
+         */
+        private void mergePass() throws IOException {
+            List<File> merged = new ArrayList<>();
+            for (int from = 0; from < files.size(); from += config.maxFanIn) {
+                List<File> group = files.subList(from, Math.min(files.size(), from + config.maxFanIn));
+                if (group.size() == 1) {
+                    merged.add(group.get(0));
+                    continue;
+                }
+                File file = newFile();
+                try (RunMerger<T> merger = new RunMerger<>(config.comparator, group.size());
+                     RunFile.Writer<T> writer = new RunFile.Writer<>(file, config.serializer, config.bufferSize)) {
+                    for (File input : group) {
+                        merger.add(new RunFile.Reader<>(input, config.serializer, config.bufferSize));
+                    }
+                    T value;
+                    while ((value = merger.poll()) != null) {
+                        if (get() == DISPOSED) {
+                            return;
+                        }
+                        writer.write(value);
+                    }
+                }
+                merged.add(file);
+                for (File input : group) {
+                    delete(input);
+                }
+            }
+            files = merged;
+        }
+
+        private File newFile() throws IOException {
+            if (directory == null) {
+                directory = Files.createTempDirectory(config.directory.toPath(), "sort-").toFile();
+            }
+            return new File(directory, String.format("%09d.run", fileCount++));
+        }
+
+        private void fail(Throwable e) {
+            deleteFiles();
+            run = null;
+            if (getAndSet(DISPOSED) != DISPOSED) {
+                downstream.onError(e);
+            } else {
+                RxJavaPlugins.onError(e);
+            }
+        }
+
+        /**
+         * Deletes the subscription's directory with everything in it, including files of an interrupted merge.
+         */
+        private void deleteFiles() {
+            if (directory == null) {
+                return;
+            }
+            File[] contents = directory.listFiles();
+            if (contents != null) {
+                for (File file : contents) {
+                    delete(file);
+                }
+            }
+            delete(directory);
+            directory = null;
+            files.clear();
+        }
+
+        private static void delete(File file) {
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            int state = getAndSet(DISPOSED);
+            if (state != DISPOSED) {
+                upstream.dispose();
+                if (state == IDLE) {
+                    deleteFiles();
+                }
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return get() == DISPOSED;
+        }
+    }
+}
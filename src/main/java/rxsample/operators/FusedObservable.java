@@ -0,0 +1,142 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.functions.Function;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Implementation of {@link FusedPipeline}: one Observer running the compiled segments of the pipeline, with the
+ * take()/skip() counters in an array.
+ */
+final class FusedObservable<T, R> extends Observable<R> {
+    private final ObservableSource<T> source;
+    private final FusedPipeline<T, R> pipeline;
+
+    FusedObservable(ObservableSource<T> source, FusedPipeline<T, R> pipeline) {
+        this.source = source;
+        this.pipeline = pipeline;
+    }
+
+    <V> FusedObservable<T, V> append(FusedPipeline<R, V> next) {
+        return new FusedObservable<>(source, pipeline.concat(next));
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super R> observer) {
+        source.subscribe(new FusedObserver<>(observer, pipeline));
+    }
+
+    static final class FusedObserver<T, R> implements Observer<T>, Disposable {
+        private final Observer<? super R> downstream;
+        private final Function<Object, Object>[] segments;
+        private final byte[] limitKinds;
+        // remaining values of take() and skip() limits
+        private final long[] remaining;
+        private Disposable upstream;
+        private boolean done;
+
+        FusedObserver(Observer<? super R> downstream, FusedPipeline<T, R> pipeline) {
+            this.downstream = downstream;
+            this.segments = pipeline.segments;
+            this.limitKinds = pipeline.limitKinds;
+            this.remaining = pipeline.limits.clone();
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            upstream = d;
+            for (int i = 0; i < limitKinds.length; i++) {
+                if (limitKinds[i] == FusedPipeline.TAKE && remaining[i] == 0) {
+                    // like take(0): nothing can pass, so complete without waiting for upstream
+                    done = true;
+                    d.dispose();
+                    downstream.onSubscribe(this);
+                    downstream.onComplete();
+                    return;
+                }
+            }
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onNext(T t) {
+            if (done) {
+                return;
+            }
+            Object v = t;
+            boolean complete = false;
+            Function<Object, Object>[] segments = this.segments;
+            for (int i = 0; i < segments.length; i++) {
+                Function<Object, Object> segment = segments[i];
+                if (segment != null) {
+                    try {
+                        v = segment.apply(v);
+                    } catch (Throwable e) {
+                        Exceptions.throwIfFatal(e);
+                        upstream.dispose();
+                        onError(e);
+                        return;
+                    }
+                    if (v == FusedPipeline.FILTERED) {
+                        if (complete) {
+                            onComplete();
+                        }
+                        return;
+                    }
+                }
+                byte limit = limitKinds[i];
+                if (limit == FusedPipeline.TAKE) {
+                    if (--remaining[i] == 0) {
+                        // this is the last value, the rest of the stages still get it
+                        complete = true;
+                        upstream.dispose();
+                    }
+                } else if (limit == FusedPipeline.SKIP && remaining[i] != 0) {
+                    remaining[i]--;
+                    if (complete) {
+                        onComplete();
+                    }
+                    return;
+                }
+            }
+            downstream.onNext((R) v);
+            if (complete) {
+                onComplete();
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (done) {
+                RxJavaPlugins.onError(e);
+                return;
+            }
+            done = true;
+            downstream.onError(e);
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            downstream.onComplete();
+        }
+
+        @Override
+        public void dispose() {
+            upstream.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return upstream.isDisposed();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.functions.Function;
+import io.reactivex.functions.Predicate;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Chain of map(), filter(), take() and skip() stages executed by a single operator: instead of an Observer per stage
+ * and an onNext() call from each stage to the next, consecutive map() and filter() stages are composed into one
+ * function when the pipeline is built, and every value goes through a single loop over those functions and the
+ * take()/skip() limits between them. The semantics are the same as of the separate operators, including take()
+ * completing (and disposing upstream) as soon as its last value passed it, even if a later stage filters that value
+ * out.
+ * <p>
+ * What this saves is allocation per subscription: one Observer instead of one per stage. It doesn't make values flow
+ * faster, throughput is on par with the separate operators for longer chains and lower for short ones (2 stages), so
+ * it pays off only where many short-lived subscriptions are made to long chains.
+ * <p>
+ * Usage: {@code source.compose(FusedPipeline.<String>create().filter(s -> !s.isEmpty()).map(String::length).take(2))}
+ * <p>
+ * Applying a pipeline on top of an Observable produced by another pipeline appends the stages to that pipeline.
+ *
+ * @param <T> type of values the pipeline accepts
+ * @param <R> type of values the pipeline emits
+ */
+public final class FusedPipeline<T, R> implements ObservableTransformer<T, R> {
+    static final byte MAP = 0;
+    static final byte FILTER = 1;
+    static final byte TAKE = 2;
+    static final byte SKIP = 3;
+
+    private static final byte[] NO_KINDS = new byte[0];
+    private static final Object[] NO_FUNCTIONS = new Object[0];
+    private static final long[] NO_COUNTS = new long[0];
+
+    // marks values filtered out by a compiled segment
+    static final Object FILTERED = new Object();
+    static final byte NO_LIMIT = -1;
+
+    final byte[] kinds;
+    final Object[] functions;
+    final long[] counts;
+
+    // the stages compiled into segments: map()/filter() stages between two take()/skip() are composed into a single
+    // function (null if there are none), which is followed by the take()/skip() limit (NO_LIMIT for the last one)
+    final Function<Object, Object>[] segments;
+    final byte[] limitKinds;
+    final long[] limits;
+
+    private FusedPipeline(byte[] kinds, Object[] functions, long[] counts) {
+        this.kinds = kinds;
+        this.functions = functions;
+        this.counts = counts;
+        int segmentCount = 1;
+        for (byte kind : kinds) {
+            if (kind == TAKE || kind == SKIP) {
+                segmentCount++;
+            }
+        }
+        @SuppressWarnings("unchecked")
+        Function<Object, Object>[] s = new Function[segmentCount];
+        byte[] lk = new byte[segmentCount];
+        long[] l = new long[segmentCount];
+        int segment = 0;
+        Function<Object, Object> composed = null;
+        for (int i = 0; i < kinds.length; i++) {
+            if (kinds[i] == TAKE || kinds[i] == SKIP) {
+                s[segment] = composed;
+                lk[segment] = kinds[i];
+                l[segment] = counts[i];
+                segment++;
+                composed = null;
+            } else {
+                composed = compose(composed, kinds[i], functions[i]);
+            }
+        }
+        s[segment] = composed;
+        lk[segment] = NO_LIMIT;
+        this.segments = s;
+        this.limitKinds = lk;
+        this.limits = l;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> compose(Function<Object, Object> previous, byte kind, Object function) {
+        if (kind == MAP) {
+            Function<Object, Object> m = (Function<Object, Object>) function;
+            if (previous == null) {
+                return v -> Objects.requireNonNull(m.apply(v), "The mapper function returned a null value.");
+            }
+            return v -> {
+                Object r = previous.apply(v);
+                return r == FILTERED ? FILTERED
+                        : Objects.requireNonNull(m.apply(r), "The mapper function returned a null value.");
+            };
+        }
+        Predicate<Object> p = (Predicate<Object>) function;
+        if (previous == null) {
+            return v -> p.test(v) ? v : FILTERED;
+        }
+        return v -> {
+            Object r = previous.apply(v);
+            return r == FILTERED || !p.test(r) ? FILTERED : r;
+        };
+    }
+
+    public static <T> FusedPipeline<T, T> create() {
+        return new FusedPipeline<>(NO_KINDS, NO_FUNCTIONS, NO_COUNTS);
+    }
+
+    public <V> FusedPipeline<T, V> map(Function<? super R, ? extends V> mapper) {
+        Objects.requireNonNull(mapper, "mapper is null");
+        return append(MAP, mapper, 0);
+    }
+
+    public FusedPipeline<T, R> filter(Predicate<? super R> predicate) {
+        Objects.requireNonNull(predicate, "predicate is null");
+        return append(FILTER, predicate, 0);
+    }
+
+    public FusedPipeline<T, R> take(long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count >= 0 required but it was " + count);
+        }
+        return append(TAKE, null, count);
+    }
+
+    public FusedPipeline<T, R> skip(long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count >= 0 required but it was " + count);
+        }
+        return count == 0 ? this : append(SKIP, null, count);
+    }
+
+    /**
+     * Number of stages, which is also the number of operators this pipeline replaces.
+     */
+    public int stageCount() {
+        return kinds.length;
+    }
+
+    private <V> FusedPipeline<T, V> append(byte kind, Object function, long count) {
+        int n = kinds.length;
+        byte[] k = Arrays.copyOf(kinds, n + 1);
+        Object[] f = Arrays.copyOf(functions, n + 1);
+        long[] c = Arrays.copyOf(counts, n + 1);
+        k[n] = kind;
+        f[n] = function;
+        c[n] = count;
+        return new FusedPipeline<>(k, f, c);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ObservableSource<R> apply(Observable<T> upstream) {
+        if (upstream instanceof FusedObservable) {
+            FusedObservable<?, T> previous = (FusedObservable<?, T>) upstream;
+            return previous.append(this);
+        }
+        return new FusedObservable<>(upstream, this);
+    }
+
+    /**
+     * Stages of this pipeline followed by the stages of the next one.
+     */
+    <V> FusedPipeline<T, V> concat(FusedPipeline<R, V> next) {
+        int n = kinds.length;
+        int m = next.kinds.length;
+        byte[] k = Arrays.copyOf(kinds, n + m);
+        Object[] f = Arrays.copyOf(functions, n + m);
+        long[] c = Arrays.copyOf(counts, n + m);
+        System.arraycopy(next.kinds, 0, k, n, m);
+        System.arraycopy(next.functions, 0, f, n, m);
+        System.arraycopy(next.counts, 0, c, n, m);
+        return new FusedPipeline<>(k, f, c);
+    }
+}
@@ -0,0 +1,78 @@
+package rxsample.operators;
+
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link BulkLoader} backed by a map, optionally answering after a simulated latency. Counts the loads and the keys
+ * it was asked for.
+ */
+public final class InMemoryBulkLoader<K, V> implements BulkLoader<K, V> {
+    private final Map<K, V> store;
+    private final long latency;
+    private final TimeUnit unit;
+    private final Scheduler scheduler;
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong loadedKeys = new AtomicLong();
+
+    private InMemoryBulkLoader(Map<K, V> store, long latency, TimeUnit unit, Scheduler scheduler) {
+        this.store = store;
+        this.latency = latency;
+        this.unit = unit;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Loader answering synchronously.
+     */
+    public static <K, V> InMemoryBulkLoader<K, V> create(Map<K, V> store) {
+        Objects.requireNonNull(store, "store is null");
+        return new InMemoryBulkLoader<>(store, 0, TimeUnit.NANOSECONDS, null);
+    }
+
+    /**
+     * Loader answering {@code latency} after each request, on the scheduler.
+     */
+    public static <K, V> InMemoryBulkLoader<K, V> create(Map<K, V> store, long latency, TimeUnit unit,
+                                                         Scheduler scheduler) {
+        Objects.requireNonNull(store, "store is null");
+        Objects.requireNonNull(unit, "unit is null");
+        Objects.requireNonNull(scheduler, "scheduler is null");
+        if (latency < 0) {
+            throw new IllegalArgumentException("latency >= 0 required but it was " + latency);
+        }
+        return new InMemoryBulkLoader<>(store, latency, unit, scheduler);
+    }
+
+    @Override
+    public Single<Map<K, V>> load(List<K> keys) {
+        Single<Map<K, V>> result = Single.fromCallable(() -> {
+            loads.incrementAndGet();
+            loadedKeys.addAndGet(keys.size());
+            Map<K, V> found = new HashMap<>();
+            for (K key : keys) {
+                V value = store.get(key);
+                if (value != null) {
+                    found.put(key, value);
+                }
+            }
+            return found;
+        });
+        return scheduler == null ? result : result.delaySubscription(latency, unit, scheduler);
+    }
+
+    public long loadCount() {
+        return loads.get();
+    }
+
+    public long loadedKeyCount() {
+        return loadedKeys.get();
+    }
+}
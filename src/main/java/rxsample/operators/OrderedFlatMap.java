@@ -0,0 +1,106 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.exceptions.MissingBackpressureException;
+import io.reactivex.functions.Function;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Between {@link Observable#flatMap} and {@link Observable#concatMap}: up to {@link #maxConcurrency} inner sources
+ * are subscribed at once, like flatMap, but their values are emitted in the order of the upstream values, like
+ * concatMap (see also {@link Observable#concatMapEager}). The oldest inner source emits directly; the values of
+ * the others are buffered until every inner source before them completed.
+ * <p>
+ * An inner source buffers at most {@link #prefetch} values. Observables can't be paused, so an inner source which
+ * emits more while it waits fails the sequence with {@link MissingBackpressureException}: prefetch should be at
+ * least the number of values an inner source emits. Upstream values waiting for a free slot are queued without a
+ * bound, like in concatMapEager.
+ * <p>
+ * {@link #bufferedCount()} and {@link #peakBufferedCount()} are aggregated over all subscriptions of the pipelines
+ * the instance was applied to: every wither returns a new instance with its own counters.
+ * <p>
+ * Usage: {@code ids.compose(OrderedFlatMap.create(this::fetchPage).maxConcurrency(8).prefetch(16))}
+ */
+public final class OrderedFlatMap<T, R> implements ObservableTransformer<T, R> {
+    public static final int DEFAULT_MAX_CONCURRENCY = 16;
+
+    final Function<? super T, ? extends ObservableSource<? extends R>> mapper;
+    final int maxConcurrency;
+    final int prefetch;
+    final AtomicLong buffered = new AtomicLong();
+    final AtomicLong peakBuffered = new AtomicLong();
+
+    private OrderedFlatMap(Function<? super T, ? extends ObservableSource<? extends R>> mapper, int maxConcurrency,
+                           int prefetch) {
+        this.mapper = mapper;
+        this.maxConcurrency = maxConcurrency;
+        this.prefetch = prefetch;
+    }
+
+    /**
+     * Runs up to {@value #DEFAULT_MAX_CONCURRENCY} inner sources, each buffering up to
+     * {@link Observable#bufferSize()} values.
+     */
+    public static <T, R> OrderedFlatMap<T, R> create(
+            Function<? super T, ? extends ObservableSource<? extends R>> mapper) {
+        Objects.requireNonNull(mapper, "mapper is null");
+        return new OrderedFlatMap<>(mapper, DEFAULT_MAX_CONCURRENCY, Observable.bufferSize());
+    }
+
+    /**
+     * Most inner sources subscribed at once, the one emitting included.
+     */
+    public OrderedFlatMap<T, R> maxConcurrency(int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency > 0 required but it was " + maxConcurrency);
+        }
+        return new OrderedFlatMap<>(mapper, maxConcurrency, prefetch);
+    }
+
+    /**
+     * Most values an inner source may emit ahead of its turn.
+     */
+    public OrderedFlatMap<T, R> prefetch(int prefetch) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
+        }
+        return new OrderedFlatMap<>(mapper, maxConcurrency, prefetch);
+    }
+
+    /**
+     * Number of values currently buffered, emitted by inner sources but not yet emitted downstream.
+     */
+    public long bufferedCount() {
+        return buffered.get();
+    }
+
+    /**
+     * Largest {@link #bufferedCount()} seen so far.
+     */
+    public long peakBufferedCount() {
+        return peakBuffered.get();
+    }
+
+    void addBuffered() {
+        long count = buffered.incrementAndGet();
+        long peak;
+        while (count > (peak = peakBuffered.get()) && !peakBuffered.compareAndSet(peak, count)) {
+            // another inner source raised the peak, compare again
+        }
+    }
+
+    void removeBuffered(long count) {
+        if (count != 0) {
+            buffered.addAndGet(-count);
+        }
+    }
+
+    @Override
+    public ObservableSource<R> apply(Observable<T> upstream) {
+        return new OrderedFlatMapObservable<>(upstream, this);
+    }
+}
@@ -0,0 +1,340 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.exceptions.MissingBackpressureException;
+import io.reactivex.plugins.RxJavaPlugins;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Execution of {@link OrderedFlatMap}. Upstream values are queued and every signal ends in a drain loop, which runs
+ * on one thread at a time: it subscribes inner sources while there are free slots and emits the values of the oldest
+ * inner source until it's empty and completed, then moves on to the next one. The list of inner sources is touched
+ * only by the drain loop. An inner source which finds the loop idle and is the oldest one emits its value directly,
+ * without queueing it; so does the oldest inner source emitting synchronously while the loop subscribes it.
+ */
+final class OrderedFlatMapObservable<T, R> extends Observable<R> {
+    private final ObservableSource<T> source;
+    private final OrderedFlatMap<T, R> config;
+
+    OrderedFlatMapObservable(ObservableSource<T> source, OrderedFlatMap<T, R> config) {
+        this.source = source;
+        this.config = config;
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super R> observer) {
+        source.subscribe(new MainObserver<>(observer, config));
+    }
+
+    static final class MainObserver<T, R> extends AtomicInteger implements Observer<T>, Disposable {
+        private final Observer<? super R> downstream;
+        private final OrderedFlatMap<T, R> config;
+        // offered by the upstream thread, polled by the drain loop
+        private final ConcurrentLinkedQueue<T> pending = new ConcurrentLinkedQueue<>();
+        // drain loop only, in the order of the upstream values
+        private final ArrayDeque<InnerObserver<R>> active = new ArrayDeque<>();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        // the oldest inner source while the drain loop subscribes it, and the loop's thread
+        private volatile InnerObserver<R> direct;
+        private volatile Thread directThread;
+        private Disposable upstream;
+        private volatile boolean done;
+        private volatile boolean cancelled;
+
+        MainObserver(Observer<? super R> downstream, OrderedFlatMap<T, R> config) {
+            this.downstream = downstream;
+            this.config = config;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            upstream = d;
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T t) {
+            pending.offer(t);
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (error.compareAndSet(null, e)) {
+                done = true;
+                drain();
+            } else {
+                RxJavaPlugins.onError(e);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            drain();
+        }
+
+        void innerNext(InnerObserver<R> inner, R value) {
+            if (directThread == Thread.currentThread() && direct == inner) {
+                // this thread runs the drain loop; values queued from other threads go first
+                if (!inner.queue.isEmpty()) {
+                    inner.offer(value);
+                } else if (!cancelled) {
+                    downstream.onNext(value);
+                }
+                return;
+            }
+            if (get() == 0 && compareAndSet(0, 1)) {
+                if (active.peek() == inner && inner.queue.isEmpty() && !cancelled) {
+                    downstream.onNext(value);
+                    if (decrementAndGet() == 0) {
+                        return;
+                    }
+                } else {
+                    inner.offer(value);
+                }
+                drainLoop();
+            } else {
+                inner.offer(value);
+                drain();
+            }
+        }
+
+        void innerError(Throwable e) {
+            if (error.compareAndSet(null, e)) {
+                upstream.dispose();
+                drain();
+            } else {
+                RxJavaPlugins.onError(e);
+            }
+        }
+
+        void drain() {
+            if (getAndIncrement() == 0) {
+                drainLoop();
+            }
+        }
+
+        private void drainLoop() {
+            int missed = 1;
+            for (;;) {
+                for (;;) {
+                    if (cancelled) {
+                        clear();
+                        return;
+                    }
+                    Throwable e = error.get();
+                    if (e != null) {
+                        cancelled = true;
+                        upstream.dispose();
+                        clear();
+                        downstream.onError(e);
+                        return;
+                    }
+                    // read before the queue, values are queued before done is set
+                    boolean d = done;
+                    if (!subscribeInners()) {
+                        continue;
+                    }
+                    InnerObserver<R> head = active.peek();
+                    if (head == null) {
+                        if (d && pending.isEmpty()) {
+                            cancelled = true;
+                            downstream.onComplete();
+                            return;
+                        }
+                        break;
+                    }
+                    boolean innerDone = head.done;
+                    R value = head.poll();
+                    if (value == null) {
+                        if (innerDone) {
+                            active.poll();
+                            continue;
+                        }
+                        break;
+                    }
+                    downstream.onNext(value);
+                }
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Subscribes inner sources for the pending upstream values while there are free slots. Returns false if the
+         * mapper failed; the error is recorded then.
+         */
+        private boolean subscribeInners() {
+            for (;;) {
+                // completed inner sources with nothing left to emit make room, the next one can emit directly
+                InnerObserver<R> head;
+                while ((head = active.peek()) != null && head.done && head.queue.isEmpty()) {
+                    active.poll();
+                }
+                if (active.size() >= config.maxConcurrency || cancelled) {
+                    return true;
+                }
+                T t = pending.poll();
+                if (t == null) {
+                    return true;
+                }
+                ObservableSource<? extends R> source;
+                try {
+                    source = Objects.requireNonNull(config.mapper.apply(t),
+                            "The mapper returned a null ObservableSource");
+                } catch (Throwable e) {
+                    Exceptions.throwIfFatal(e);
+                    upstream.dispose();
+                    if (!error.compareAndSet(null, e)) {
+                        RxJavaPlugins.onError(e);
+                    }
+                    return false;
+                }
+                InnerObserver<R> inner = new InnerObserver<>(this, config);
+                active.offer(inner);
+                if (active.size() == 1) {
+                    direct = inner;
+                    directThread = Thread.currentThread();
+                }
+                source.subscribe(inner);
+                directThread = null;
+                direct = null;
+            }
+        }
+
+        private void clear() {
+            InnerObserver<R> inner;
+            while ((inner = active.poll()) != null) {
+                inner.cancel();
+            }
+            pending.clear();
+        }
+
+        @Override
+        public void dispose() {
+            if (!cancelled) {
+                cancelled = true;
+                upstream.dispose();
+                drain();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * An inner source and the values it emitted ahead of its turn.
+     */
+    static final class InnerObserver<R> extends AtomicReference<Disposable> implements Observer<R> {
+        private static final Disposable DISPOSED = Disposables.disposed();
+
+        private final MainObserver<?, R> parent;
+        private final OrderedFlatMap<?, R> config;
+        final SpscChunkedQueue queue = new SpscChunkedQueue();
+        // values in the queue, the bound of prefetch and the share of the counters of config
+        private final AtomicInteger buffered = new AtomicInteger();
+        volatile boolean done;
+        private volatile boolean cancelled;
+
+        InnerObserver(MainObserver<?, R> parent, OrderedFlatMap<?, R> config) {
+            this.parent = parent;
+            this.config = config;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            if (!compareAndSet(null, d)) {
+                d.dispose();
+            }
+        }
+
+        @Override
+        public void onNext(R value) {
+            if (!done && !cancelled) {
+                parent.innerNext(this, value);
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (done) {
+                RxJavaPlugins.onError(e);
+                return;
+            }
+            done = true;
+            parent.innerError(e);
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done) {
+                done = true;
+                parent.drain();
+            }
+        }
+
+        /**
+         * Queues a value, producer side.
+         */
+        void offer(R value) {
+            if (buffered.incrementAndGet() > config.prefetch) {
+                buffered.decrementAndGet();
+                disposeSource();
+                onError(new MissingBackpressureException("Inner source emitted more than " + config.prefetch
+                        + " values ahead of its turn"));
+                return;
+            }
+            config.addBuffered();
+            queue.offer(0, value);
+            if (cancelled) {
+                // cancel() may have counted the buffered values before this one was added
+                config.removeBuffered(buffered.getAndSet(0));
+            }
+        }
+
+        /**
+         * Takes the oldest queued value or null, drain loop side.
+         */
+        @SuppressWarnings("unchecked")
+        R poll() {
+            Object value = queue.poll();
+            if (value != null) {
+                buffered.decrementAndGet();
+                config.removeBuffered(1);
+            }
+            return (R) value;
+        }
+
+        /**
+         * Disposes the source and takes the queued values out of the counters, drain loop side.
+         */
+        void cancel() {
+            cancelled = true;
+            disposeSource();
+            config.removeBuffered(buffered.getAndSet(0));
+        }
+
+        private void disposeSource() {
+            Disposable d = getAndSet(DISPOSED);
+            if (d != null && d != DISPOSED) {
+                d.dispose();
+            }
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package rxsample.operators;
+
+import io.reactivex.ObservableSource;
+import io.reactivex.Observer;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.SingleObserver;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.plugins.RxJavaPlugins;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collector;
+
+/**
+ * Execution of {@link Collect#parallel}: the upstream thread fills chunks of values and hands them round-robin to the
+ * rails' Workers, each of which accumulates a chunk into a container of its own. Chunks are kept in the order they
+ * were filled, so on completion their containers are combined in the order of the values, on the Worker which
+ * finished last.
+ */
+final class ParallelCollectSingle<T, A, R> extends Single<R> {
+    // values per chunk, and so per container
+    private static final int CHUNK = 4096;
+
+    private final ObservableSource<T> source;
+    private final Collector<? super T, A, R> collector;
+    private final int rails;
+    private final Scheduler scheduler;
+
+    ParallelCollectSingle(ObservableSource<T> source, Collector<? super T, A, R> collector, int rails,
+                          Scheduler scheduler) {
+        this.source = source;
+        this.collector = collector;
+        this.rails = rails;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    protected void subscribeActual(SingleObserver<? super R> observer) {
+        source.subscribe(new CollectObserver<>(observer, this));
+    }
+
+    /**
+     * Counts the chunks which weren't accumulated yet, plus one until upstream completes.
+     */
+    static final class CollectObserver<T, A, R> extends AtomicInteger implements Observer<T>, Disposable {
+        private final SingleObserver<? super R> downstream;
+        private final Collector<? super T, A, R> collector;
+        private final Scheduler.Worker[] workers;
+        private final AtomicBoolean terminated = new AtomicBoolean();
+        // upstream thread only, read by the last Worker after upstream completed
+        private final List<Chunk<T, A>> chunks = new ArrayList<>();
+        private Disposable upstream;
+        private Chunk<T, A> current;
+        private int next;
+
+        CollectObserver(SingleObserver<? super R> downstream, ParallelCollectSingle<T, A, R> parent) {
+            this.downstream = downstream;
+            this.collector = parent.collector;
+            this.workers = new Scheduler.Worker[parent.rails];
+            for (int i = 0; i < workers.length; i++) {
+                workers[i] = parent.scheduler.createWorker();
+            }
+            lazySet(1);
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            upstream = d;
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T t) {
+            Chunk<T, A> chunk = current;
+            if (chunk == null) {
+                chunk = new Chunk<>();
+                current = chunk;
+            }
+            chunk.values[chunk.size++] = t;
+            if (chunk.size == CHUNK) {
+                submit(chunk);
+                current = null;
+            }
+        }
+
+        private void submit(Chunk<T, A> chunk) {
+            chunks.add(chunk);
+            getAndIncrement();
+            Scheduler.Worker worker = workers[next];
+            next = next + 1 == workers.length ? 0 : next + 1;
+            worker.schedule(() -> accumulate(chunk));
+        }
+
+        @SuppressWarnings("unchecked")
+        private void accumulate(Chunk<T, A> chunk) {
+            if (terminated.get()) {
+                return;
+            }
+            try {
+                A container = collector.supplier().get();
+                for (int i = 0; i < chunk.size; i++) {
+                    collector.accumulator().accept(container, (T) chunk.values[i]);
+                }
+                chunk.container = container;
+                chunk.values = null;
+            } catch (Throwable e) {
+                Exceptions.throwIfFatal(e);
+                upstream.dispose();
+                onError(e);
+                return;
+            }
+            finishOne();
+        }
+
+        private void finishOne() {
+            if (decrementAndGet() != 0 || !terminated.compareAndSet(false, true)) {
+                return;
+            }
+            disposeWorkers();
+            R result;
+            try {
+                A container = chunks.isEmpty() ? collector.supplier().get() : chunks.get(0).container;
+                for (int i = 1; i < chunks.size(); i++) {
+                    container = collector.combiner().apply(container, chunks.get(i).container);
+                }
+                result = collector.finisher().apply(container);
+            } catch (Throwable e) {
+                Exceptions.throwIfFatal(e);
+                downstream.onError(e);
+                return;
+            }
+            if (result == null) {
+                downstream.onError(new NullPointerException("The collector returned a null value"));
+            } else {
+                downstream.onSuccess(result);
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (terminated.compareAndSet(false, true)) {
+                disposeWorkers();
+                downstream.onError(e);
+            } else {
+                RxJavaPlugins.onError(e);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (terminated.get()) {
+                return;
+            }
+            if (current != null) {
+                submit(current);
+                current = null;
+            }
+            finishOne();
+        }
+
+        private void disposeWorkers() {
+            for (Scheduler.Worker worker : workers) {
+                worker.dispose();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (terminated.compareAndSet(false, true)) {
+                upstream.dispose();
+                disposeWorkers();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return terminated.get();
+        }
+    }
+
+    static final class Chunk<T, A> {
+        Object[] values = new Object[CHUNK];
+        int size;
+        A container;
+    }
+}
@@ -0,0 +1,140 @@
+package rxsample.operators;
+
+import io.reactivex.Maybe;
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.Scheduler;
+import io.reactivex.functions.BiFunction;
+import io.reactivex.functions.Function;
+import io.reactivex.functions.Predicate;
+import io.reactivex.schedulers.Schedulers;
+
+import java.util.Objects;
+
+/**
+ * Runs CPU-bound map()/filter()/reduce() stages of an Observable on several rails in parallel: values are split
+ * between {@code rails} Workers of a scheduler either round-robin or by the hash of a key (so that values with the
+ * same key stay on one rail and in order), and then merged back into a single Observable.
+ * <p>
+ * All map() and filter() stages of a rail are fused and executed together on the rail's Worker. Merging is either
+ * unordered ({@link #merge()}) or restores the order of the source ({@link #mergeOrdered()}) using sequence numbers
+ * assigned when values are split.
+ * <p>
+ * Like observeOn(), rails don't apply backpressure: values queue up in front of a rail which is slower than the
+ * source.
+ *
+ * @param <T> type of values on the rails
+ */
+public final class ParallelRails<T> {
+    // returned by the fused stage for values which were filtered out
+    static final Object FILTERED = new Object();
+
+    private final ObservableSource<?> source;
+    private final int rails;
+    private final Scheduler scheduler;
+    private final Function<Object, Object> keySelector;
+    private final Function<Object, Object> stage;
+
+    private ParallelRails(ObservableSource<?> source, int rails, Scheduler scheduler,
+                          Function<Object, Object> keySelector, Function<Object, Object> stage) {
+        this.source = source;
+        this.rails = rails;
+        this.scheduler = scheduler;
+        this.keySelector = keySelector;
+        this.stage = stage;
+    }
+
+    /**
+     * Splits values round-robin between {@code rails} Workers of {@link Schedulers#computation()}.
+     */
+    public static <T> ParallelRails<T> from(ObservableSource<T> source, int rails) {
+        return from(source, rails, Schedulers.computation());
+    }
+
+    /**
+     * Splits values round-robin between {@code rails} Workers of the scheduler.
+     */
+    public static <T> ParallelRails<T> from(ObservableSource<T> source, int rails, Scheduler scheduler) {
+        return create(source, rails, scheduler, null);
+    }
+
+    /**
+     * Splits values between {@code rails} Workers of the scheduler by the hash of their key.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ParallelRails<T> byKey(ObservableSource<T> source, int rails, Scheduler scheduler,
+                                             Function<? super T, ?> keySelector) {
+        Objects.requireNonNull(keySelector, "keySelector is null");
+        return create(source, rails, scheduler, (Function<Object, Object>) keySelector);
+    }
+
+    private static <T> ParallelRails<T> create(ObservableSource<T> source, int rails, Scheduler scheduler,
+                                               Function<Object, Object> keySelector) {
+        Objects.requireNonNull(source, "source is null");
+        Objects.requireNonNull(scheduler, "scheduler is null");
+        if (rails <= 0) {
+            throw new IllegalArgumentException("rails > 0 required but it was " + rails);
+        }
+        return new ParallelRails<>(source, rails, scheduler, keySelector, null);
+    }
+
+    public int railCount() {
+        return rails;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <R> ParallelRails<R> map(Function<? super T, ? extends R> mapper) {
+        Objects.requireNonNull(mapper, "mapper is null");
+        Function<Object, Object> m = (Function<Object, Object>) mapper;
+        Function<Object, Object> previous = stage;
+        Function<Object, Object> fused = previous == null ? m : v -> {
+            Object r = previous.apply(v);
+            return r == FILTERED ? FILTERED : Objects.requireNonNull(m.apply(r), "The mapper returned a null value");
+        };
+        return new ParallelRails<>(source, rails, scheduler, keySelector, fused);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ParallelRails<T> filter(Predicate<? super T> predicate) {
+        Objects.requireNonNull(predicate, "predicate is null");
+        Predicate<Object> p = (Predicate<Object>) predicate;
+        Function<Object, Object> previous = stage;
+        Function<Object, Object> fused;
+        if (previous == null) {
+            fused = v -> p.test(v) ? v : FILTERED;
+        } else {
+            fused = v -> {
+                Object r = previous.apply(v);
+                return r == FILTERED || !p.test(r) ? FILTERED : r;
+            };
+        }
+        return new ParallelRails<>(source, rails, scheduler, keySelector, fused);
+    }
+
+    /**
+     * Merges values from the rails in the order they're produced.
+     */
+    public Observable<T> merge() {
+        return new ParallelRailsObservable<>(source, rails, scheduler, keySelector, stage, false, null);
+    }
+
+    /**
+     * Merges values from the rails in the order of the source. A value which takes longer to process holds back
+     * values from the other rails which come after it.
+     */
+    public Observable<T> mergeOrdered() {
+        return new ParallelRailsObservable<>(source, rails, scheduler, keySelector, stage, true, null);
+    }
+
+    /**
+     * Reduces every rail on its Worker, then reduces the results of the rails. Since the rails split values between
+     * them, the reducer has to be associative and commutative.
+     */
+    @SuppressWarnings("unchecked")
+    public Maybe<T> reduce(BiFunction<T, T, T> reducer) {
+        Objects.requireNonNull(reducer, "reducer is null");
+        return new ParallelRailsObservable<T>(source, rails, scheduler, keySelector, stage, false,
+                (BiFunction<Object, Object, Object>) (BiFunction<?, ?, ?>) reducer)
+                .reduce(reducer);
+    }
+}
@@ -0,0 +1,392 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.Observer;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.functions.BiFunction;
+import io.reactivex.functions.Function;
+import io.reactivex.plugins.RxJavaPlugins;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Execution of {@link ParallelRails}: the source is subscribed on the subscribing thread, which assigns every value a
+ * sequence number and queues it to one of the rails. Every rail drains its queue on its own Worker through the fused
+ * stage, and queues the results for the merge, which is drained by whichever rail gets to it first.
+ * <p>
+ * In the ordered mode rails queue a {@link ParallelRails#FILTERED} marker for every value they filtered out, so that
+ * the merge can wait for each sequence number in turn.
+ */
+final class ParallelRailsObservable<T> extends Observable<T> {
+    // how many values a rail processes before it lets the merge emit them
+    private static final int MERGE_BATCH = 128;
+
+    private final ObservableSource<?> source;
+    private final int rails;
+    private final Scheduler scheduler;
+    private final Function<Object, Object> keySelector;
+    private final Function<Object, Object> stage;
+    private final boolean ordered;
+    private final BiFunction<Object, Object, Object> reducer;
+
+    ParallelRailsObservable(ObservableSource<?> source, int rails, Scheduler scheduler,
+                            Function<Object, Object> keySelector, Function<Object, Object> stage, boolean ordered,
+                            BiFunction<Object, Object, Object> reducer) {
+        this.source = source;
+        this.rails = rails;
+        this.scheduler = scheduler;
+        this.keySelector = keySelector;
+        this.stage = stage;
+        this.ordered = ordered;
+        this.reducer = reducer;
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super T> observer) {
+        Coordinator<T> coordinator = new Coordinator<>(observer, this);
+        observer.onSubscribe(coordinator);
+        coordinator.start();
+        source.subscribe(coordinator);
+    }
+
+    static final class Coordinator<T> extends AtomicInteger implements Observer<Object>, Disposable {
+        private static final Disposable DISPOSED = Disposables.disposed();
+
+        private final Observer<? super T> downstream;
+        private final ParallelRailsObservable<T> parent;
+        private final Rail[] rails;
+        private final AtomicReference<Disposable> upstream = new AtomicReference<>();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private final AtomicInteger finishedRails = new AtomicInteger();
+        volatile boolean done;
+        volatile boolean cancelled;
+
+        // upstream thread only
+        private long sequence;
+        private int next;
+
+        // merge drain only
+        private long emitSequence;
+
+        Coordinator(Observer<? super T> downstream, ParallelRailsObservable<T> parent) {
+            this.downstream = downstream;
+            this.parent = parent;
+            this.rails = new Rail[parent.rails];
+        }
+
+        void start() {
+            for (int i = 0; i < rails.length; i++) {
+                rails[i] = new Rail(this, parent.scheduler.createWorker());
+            }
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            if (!upstream.compareAndSet(null, d)) {
+                d.dispose();
+            }
+        }
+
+        @Override
+        public void onNext(Object t) {
+            if (done) {
+                return;
+            }
+            int index;
+            Function<Object, Object> keySelector = parent.keySelector;
+            if (keySelector == null) {
+                index = next;
+                next = index + 1 == rails.length ? 0 : index + 1;
+            } else {
+                Object key;
+                try {
+                    key = keySelector.apply(t);
+                } catch (Throwable e) {
+                    Exceptions.throwIfFatal(e);
+                    fail(e);
+                    return;
+                }
+                int h = key == null ? 0 : key.hashCode();
+                index = Math.floorMod(h ^ (h >>> 16), rails.length);
+            }
+            Rail rail = rails[index];
+            rail.in.offer(sequence++, t);
+            rail.schedule();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (done) {
+                RxJavaPlugins.onError(e);
+                return;
+            }
+            done = true;
+            fail(e);
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            for (Rail rail : rails) {
+                rail.schedule();
+            }
+        }
+
+        void fail(Throwable e) {
+            if (error.compareAndSet(null, e)) {
+                done = true;
+                disposeUpstream();
+                drain();
+            } else {
+                RxJavaPlugins.onError(e);
+            }
+        }
+
+        private void disposeUpstream() {
+            Disposable d = upstream.getAndSet(DISPOSED);
+            if (d != null && d != DISPOSED) {
+                d.dispose();
+            }
+        }
+
+        private void disposeRails() {
+            for (Rail rail : rails) {
+                rail.cancelled = true;
+                rail.worker.dispose();
+            }
+        }
+
+        void railFinished() {
+            finishedRails.incrementAndGet();
+            drain();
+        }
+
+        void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            for (;;) {
+                if (parent.ordered ? drainOrdered() : drainUnordered()) {
+                    return;
+                }
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Emits everything the rails produced so far; returns true if the merge terminated.
+         */
+        @SuppressWarnings("unchecked")
+        private boolean drainUnordered() {
+            for (;;) {
+                if (checkTerminated()) {
+                    return true;
+                }
+                boolean d = finishedRails.get() == rails.length;
+                boolean empty = true;
+                for (Rail rail : rails) {
+                    Object v;
+                    while ((v = rail.out.poll()) != null) {
+                        empty = false;
+                        downstream.onNext((T) v);
+                        if (cancelled) {
+                            return true;
+                        }
+                    }
+                }
+                if (empty) {
+                    if (d) {
+                        complete();
+                        return true;
+                    }
+                    return false;
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean drainOrdered() {
+            for (;;) {
+                if (checkTerminated()) {
+                    return true;
+                }
+                boolean d = finishedRails.get() == rails.length;
+                long s = emitSequence;
+                Rail rail = railOf(s);
+                if (rail == null) {
+                    if (d) {
+                        complete();
+                        return true;
+                    }
+                    return false;
+                }
+                Object v = rail.out.poll();
+                emitSequence = s + 1;
+                if (v != ParallelRails.FILTERED) {
+                    downstream.onNext((T) v);
+                }
+            }
+        }
+
+        private Rail railOf(long s) {
+            if (parent.keySelector == null) {
+                Rail rail = rails[(int) (s % rails.length)];
+                return rail.out.peekSequence() == s ? rail : null;
+            }
+            for (Rail rail : rails) {
+                if (rail.out.peekSequence() == s) {
+                    return rail;
+                }
+            }
+            return null;
+        }
+
+        private boolean checkTerminated() {
+            if (cancelled) {
+                clear();
+                return true;
+            }
+            Throwable e = error.get();
+            if (e != null) {
+                cancelled = true;
+                disposeRails();
+                clear();
+                downstream.onError(e);
+                return true;
+            }
+            return false;
+        }
+
+        private void complete() {
+            cancelled = true;
+            disposeRails();
+            downstream.onComplete();
+        }
+
+        private void clear() {
+            for (Rail rail : rails) {
+                rail.out.clear();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (!cancelled) {
+                cancelled = true;
+                disposeUpstream();
+                disposeRails();
+                if (getAndIncrement() == 0) {
+                    clear();
+                }
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * Single rail: the upstream thread is the only producer of {@code in}, the rail's Worker is the only producer of
+     * {@code out}.
+     */
+    static final class Rail extends AtomicInteger implements Runnable {
+        final Coordinator<?> coordinator;
+        final Scheduler.Worker worker;
+        final SpscChunkedQueue in = new SpscChunkedQueue();
+        final SpscChunkedQueue out = new SpscChunkedQueue();
+        volatile boolean cancelled;
+        private Object accumulator;
+
+        Rail(Coordinator<?> coordinator, Scheduler.Worker worker) {
+            this.coordinator = coordinator;
+            this.worker = worker;
+        }
+
+        void schedule() {
+            if (getAndIncrement() == 0) {
+                worker.schedule(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            ParallelRailsObservable<?> parent = coordinator.parent;
+            Function<Object, Object> stage = parent.stage;
+            BiFunction<Object, Object, Object> reducer = parent.reducer;
+            boolean ordered = parent.ordered;
+            int missed = 1;
+            int produced = 0;
+            for (;;) {
+                for (;;) {
+                    if (cancelled) {
+                        in.clear();
+                        return;
+                    }
+                    boolean d = coordinator.done;
+                    Object v = in.poll();
+                    if (v == null) {
+                        if (d) {
+                            finish();
+                            return;
+                        }
+                        break;
+                    }
+                    Object r;
+                    try {
+                        r = stage == null ? v : stage.apply(v);
+                        if (reducer != null) {
+                            if (r != ParallelRails.FILTERED) {
+                                accumulator = accumulator == null ? r : reducer.apply(accumulator, r);
+                            }
+                            continue;
+                        }
+                    } catch (Throwable e) {
+                        Exceptions.throwIfFatal(e);
+                        cancelled = true;
+                        in.clear();
+                        coordinator.fail(e);
+                        return;
+                    }
+                    if (r != ParallelRails.FILTERED || ordered) {
+                        out.offer(in.lastSequence(), r);
+                        if (++produced == MERGE_BATCH) {
+                            produced = 0;
+                            coordinator.drain();
+                        }
+                    }
+                }
+                if (produced != 0) {
+                    produced = 0;
+                    coordinator.drain();
+                }
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        private void finish() {
+            cancelled = true;
+            if (accumulator != null) {
+                out.offer(0, accumulator);
+                accumulator = null;
+            }
+            coordinator.railFinished();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package rxsample.operators;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Read-only map over the partition maps built by {@link PartitionedToMap}: a lookup hashes the key to its partition
+ * the same way the builder did and asks that partition's map, iteration goes over the partitions one by one. Safe
+ * to read from several threads, since the partitions aren't modified after the map is published.
+ * <p>
+ * The partition is chosen by the upper bits of the scrambled hash, while HashMap picks buckets by the lower bits, so
+ * the keys of a partition still spread over all buckets of its map.
+ */
+public final class PartitionedMap<K, V> extends AbstractMap<K, V> {
+    private final Map<K, V>[] partitions;
+    private final int bits;
+    private Set<Entry<K, V>> entrySet;
+
+    PartitionedMap(Map<K, V>[] partitions) {
+        this.partitions = partitions;
+        this.bits = Integer.numberOfTrailingZeros(partitions.length);
+    }
+
+    /**
+     * Partition of the key among {@code 2^bits} partitions.
+     */
+    static int partition(Object key, int bits) {
+        if (bits == 0) {
+            return 0;
+        }
+        int h = key == null ? 0 : key.hashCode();
+        return (h * 0x9E3779B9) >>> (32 - bits);
+    }
+
+    public int partitionCount() {
+        return partitions.length;
+    }
+
+    @Override
+    public V get(Object key) {
+        return partitions[partition(key, bits)].get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return partitions[partition(key, bits)].containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        long size = 0;
+        for (Map<K, V> partition : partitions) {
+            size += partition.size();
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (Map<K, V> partition : partitions) {
+            if (!partition.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (Map<K, V> partition : partitions) {
+            partition.forEach(action);
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        Set<Entry<K, V>> entries = entrySet;
+        if (entries == null) {
+            entries = new AbstractSet<Entry<K, V>>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return PartitionedMap.this.size();
+                }
+            };
+            entrySet = entries;
+        }
+        return entries;
+    }
+
+    private final class EntryIterator implements Iterator<Entry<K, V>> {
+        private int partition;
+        private Iterator<Entry<K, V>> current = partitions[0].entrySet().iterator();
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (++partition == partitions.length) {
+                    partition--;
+                    return false;
+                }
+                current = partitions[partition].entrySet().iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            // read-only: entries of the partition maps would allow setValue()
+            Entry<K, V> entry = current.next();
+            return new SimpleImmutableEntry<>(entry);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package rxsample.operators;
+
+import io.reactivex.ObservableSource;
+import io.reactivex.Observer;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.SingleObserver;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.plugins.RxJavaPlugins;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Execution of {@link PartitionedToMap}: the upstream thread computes the key of every value and appends the key and
+ * the value to the current chunk of the key's partition; a full chunk is scheduled on the partition's Worker, which
+ * applies the value selector and puts the entries into the partition map. A Worker runs its tasks one at a time, so
+ * every partition map is confined to its Worker while it's built.
+ * <p>
+ * On completion the last chunks are scheduled, each Worker then counts its partition as finished, and the Worker
+ * finishing the last partition emits the {@link PartitionedMap}.
+ */
+final class PartitionedMapSingle<T, K, V, R> extends Single<Map<K, R>> {
+    // values per chunk handed to a partition
+    private static final int CHUNK = 1024;
+
+    private final ObservableSource<T> source;
+    private final PartitionedToMap<T, K, V> config;
+    private final boolean multimap;
+
+    PartitionedMapSingle(ObservableSource<T> source, PartitionedToMap<T, K, V> config, boolean multimap) {
+        this.source = source;
+        this.config = config;
+        this.multimap = multimap;
+    }
+
+    @Override
+    protected void subscribeActual(SingleObserver<? super Map<K, R>> observer) {
+        source.subscribe(new Builder<>(observer, config, multimap));
+    }
+
+    static final class Builder<T, K, V, R> extends AtomicInteger implements Observer<T>, Disposable {
+        private final SingleObserver<? super Map<K, R>> downstream;
+        private final PartitionedToMap<T, K, V> config;
+        private final boolean multimap;
+        private final int bits;
+        private final Partition[] partitions;
+        private final AtomicBoolean terminated = new AtomicBoolean();
+        private Disposable upstream;
+
+        Builder(SingleObserver<? super Map<K, R>> downstream, PartitionedToMap<T, K, V> config, boolean multimap) {
+            this.downstream = downstream;
+            this.config = config;
+            this.multimap = multimap;
+            this.bits = Integer.numberOfTrailingZeros(config.partitions);
+            this.partitions = new Partition[config.partitions];
+            lazySet(config.partitions);
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            upstream = d;
+            int capacity = (int) Math.min(1 << 30, config.expectedSize / partitions.length * 4 / 3 + 1);
+            for (int i = 0; i < partitions.length; i++) {
+                partitions[i] = new Partition(config.scheduler.createWorker(), new HashMap<>(capacity));
+            }
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (terminated.get()) {
+                return;
+            }
+            K key;
+            try {
+                key = config.keySelector.apply(t);
+            } catch (Throwable e) {
+                Exceptions.throwIfFatal(e);
+                upstream.dispose();
+                onError(e);
+                return;
+            }
+            Partition partition = partitions[PartitionedMap.partition(key, bits)];
+            Object[] chunk = partition.chunk;
+            int size = partition.size;
+            chunk[size] = key;
+            chunk[size + 1] = t;
+            size += 2;
+            if (size == chunk.length) {
+                partition.schedule(this, chunk, size);
+                partition.chunk = new Object[2 * CHUNK];
+                size = 0;
+            }
+            partition.size = size;
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (terminated.compareAndSet(false, true)) {
+                disposeWorkers();
+                downstream.onError(e);
+            } else {
+                RxJavaPlugins.onError(e);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (terminated.get()) {
+                return;
+            }
+            for (Partition partition : partitions) {
+                partition.schedule(this, partition.chunk, partition.size);
+                partition.chunk = null;
+                partition.worker.schedule(this::finishPartition);
+            }
+        }
+
+        /**
+         * Puts the entries of a chunk into the partition map, on the partition's Worker.
+         */
+        @SuppressWarnings("unchecked")
+        void insert(Map<Object, Object> map, Object[] chunk, int size) {
+            if (terminated.get()) {
+                return;
+            }
+            try {
+                for (int i = 0; i < size; i += 2) {
+                    Object key = chunk[i];
+                    Object value = config.valueSelector.apply((T) chunk[i + 1]);
+                    if (multimap) {
+                        ((Collection<Object>) map.computeIfAbsent(key, k -> new ArrayList<>())).add(value);
+                    } else {
+                        map.put(key, value);
+                    }
+                }
+            } catch (Throwable e) {
+                Exceptions.throwIfFatal(e);
+                upstream.dispose();
+                onError(e);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void finishPartition() {
+            if (decrementAndGet() != 0 || !terminated.compareAndSet(false, true)) {
+                return;
+            }
+            Map<K, R>[] maps = new Map[partitions.length];
+            for (int i = 0; i < partitions.length; i++) {
+                maps[i] = (Map<K, R>) (Map<?, ?>) partitions[i].map;
+                partitions[i].worker.dispose();
+            }
+            // the Workers' tasks happened-before their decrementAndGet(), so the maps are complete here
+            downstream.onSuccess(new PartitionedMap<>(maps));
+        }
+
+        private void disposeWorkers() {
+            for (Partition partition : partitions) {
+                partition.worker.dispose();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (terminated.compareAndSet(false, true)) {
+                upstream.dispose();
+                disposeWorkers();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return terminated.get();
+        }
+    }
+
+    /**
+     * A partition map and the chunk being filled for it; the chunk is touched only by the upstream thread, the map
+     * only by the Worker.
+     */
+    static final class Partition {
+        final Scheduler.Worker worker;
+        final Map<Object, Object> map;
+        Object[] chunk = new Object[2 * CHUNK];
+        int size;
+
+        Partition(Scheduler.Worker worker, Map<Object, Object> map) {
+            this.worker = worker;
+            this.map = map;
+        }
+
+        void schedule(Builder<?, ?, ?, ?> builder, Object[] chunk, int size) {
+            if (size > 0) {
+                worker.schedule(() -> builder.insert(map, chunk, size));
+            }
+        }
+    }
+}
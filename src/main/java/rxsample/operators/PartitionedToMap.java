@@ -0,0 +1,100 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableConverter;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@link Observable#toMap} and {@link Observable#toMultimap} built on several threads: keys are hashed into
+ * {@link #partitions} partitions, and each partition's HashMap is built on its own Worker of the {@link #scheduler},
+ * so the hashing, probing and resizing of a large map is spread over the cores. The result is a read-only
+ * {@link PartitionedMap} over the partition maps - there's no final merge which would copy every entry again.
+ * <p>
+ * The upstream thread computes the keys and hands them to the partitions in chunks; the value selector runs on the
+ * partition's Worker. Like observeOn(), the partitions don't apply backpressure: chunks queue up in front of a
+ * partition which is slower than the source.
+ * <p>
+ * Usage: {@code Single<Map<Long, User>> byId = users.as(PartitionedToMap.create(User::id, u -> u).toMap())}
+ */
+public final class PartitionedToMap<T, K, V> {
+    static final int DEFAULT_PARTITIONS = Runtime.getRuntime().availableProcessors();
+
+    final Function<? super T, ? extends K> keySelector;
+    final Function<? super T, ? extends V> valueSelector;
+    final int partitions;
+    final long expectedSize;
+    final Scheduler scheduler;
+
+    private PartitionedToMap(Function<? super T, ? extends K> keySelector,
+                             Function<? super T, ? extends V> valueSelector, int partitions, long expectedSize,
+                             Scheduler scheduler) {
+        this.keySelector = keySelector;
+        this.valueSelector = valueSelector;
+        this.partitions = partitions;
+        this.expectedSize = expectedSize;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Map of {@code valueSelector} results by {@code keySelector} results, with a partition per available processor
+     * (rounded up to a power of 2), built on {@link Schedulers#computation()}.
+     */
+    public static <T, K, V> PartitionedToMap<T, K, V> create(Function<? super T, ? extends K> keySelector,
+                                                             Function<? super T, ? extends V> valueSelector) {
+        Objects.requireNonNull(keySelector, "keySelector is null");
+        Objects.requireNonNull(valueSelector, "valueSelector is null");
+        return new PartitionedToMap<>(keySelector, valueSelector, powerOf2(DEFAULT_PARTITIONS), 0,
+                Schedulers.computation());
+    }
+
+    /**
+     * Number of partitions, rounded up to a power of 2.
+     */
+    public PartitionedToMap<T, K, V> partitions(int partitions) {
+        if (partitions <= 0 || partitions > 1 << 16) {
+            throw new IllegalArgumentException("0 < partitions <= 65536 required but it was " + partitions);
+        }
+        return new PartitionedToMap<>(keySelector, valueSelector, powerOf2(partitions), expectedSize, scheduler);
+    }
+
+    /**
+     * Number of keys expected, to size the partition maps so that they don't resize while they're built.
+     */
+    public PartitionedToMap<T, K, V> expectedSize(long expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize >= 0 required but it was " + expectedSize);
+        }
+        return new PartitionedToMap<>(keySelector, valueSelector, partitions, expectedSize, scheduler);
+    }
+
+    public PartitionedToMap<T, K, V> scheduler(Scheduler scheduler) {
+        Objects.requireNonNull(scheduler, "scheduler is null");
+        return new PartitionedToMap<>(keySelector, valueSelector, partitions, expectedSize, scheduler);
+    }
+
+    /**
+     * Like {@link Observable#toMap(Function, Function)}: the last value of a key wins.
+     */
+    public ObservableConverter<T, Single<Map<K, V>>> toMap() {
+        return upstream -> new PartitionedMapSingle<T, K, V, V>(upstream, this, false);
+    }
+
+    /**
+     * Like {@link Observable#toMultimap(Function, Function)}: all values of a key, in the order they came.
+     */
+    public ObservableConverter<T, Single<Map<K, Collection<V>>>> toMultimap() {
+        return upstream -> new PartitionedMapSingle<T, K, V, Collection<V>>(upstream, this, true);
+    }
+
+    private static int powerOf2(int n) {
+        int size = Integer.highestOneBit(n);
+        return size < n ? size << 1 : size;
+    }
+}
@@ -0,0 +1,150 @@
+package rxsample.operators;
+
+import rxsample.subjects.Serializer;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sorted run of {@link ExternalSort} on disk: records written one after another, each prefixed by its length in as
+ * few bytes as the serializer's {@link Serializer#maxSerializedSize()} needs (1 byte up to 255, 2 up to 65535,
+ * otherwise 4). Both sides go through a direct buffer, which the serializer reads and writes in place.
+ */
+final class RunFile {
+    private RunFile() {
+    }
+
+    static int lengthWidth(int maxSerializedSize) {
+        return maxSerializedSize <= 0xFF ? 1 : maxSerializedSize <= 0xFFFF ? 2 : 4;
+    }
+
+    static final class Writer<T> implements Closeable {
+        private final Serializer<T> serializer;
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final int width;
+        private final int maxSize;
+
+        Writer(File file, Serializer<T> serializer, int bufferSize) throws IOException {
+            this.serializer = serializer;
+            this.maxSize = serializer.maxSerializedSize();
+            this.width = lengthWidth(maxSize);
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        }
+
+        void write(T value) throws IOException {
+            if (buffer.remaining() < width + maxSize) {
+                flush();
+            }
+            int start = buffer.position();
+            buffer.limit(start + width + maxSize);
+            buffer.position(start + width);
+            serializer.write(value, buffer);
+            int length = buffer.position() - start - width;
+            switch (width) {
+                case 1:
+                    buffer.put(start, (byte) length);
+                    break;
+                case 2:
+                    buffer.putShort(start, (short) length);
+                    break;
+                default:
+                    buffer.putInt(start, length);
+            }
+            buffer.limit(buffer.capacity());
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    static final class Reader<T> implements Closeable {
+        private final Serializer<T> serializer;
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final int width;
+
+        Reader(File file, Serializer<T> serializer, int bufferSize) throws IOException {
+            this.serializer = serializer;
+            this.width = lengthWidth(serializer.maxSerializedSize());
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            this.buffer = ByteBuffer.allocateDirect(bufferSize);
+            buffer.flip();
+        }
+
+        /**
+         * Next value of the run, or null at its end.
+         */
+        T read() throws IOException {
+            if (buffer.remaining() < width && !fill(width)) {
+                return null;
+            }
+            int length;
+            switch (width) {
+                case 1:
+                    length = buffer.get() & 0xFF;
+                    break;
+                case 2:
+                    length = buffer.getShort() & 0xFFFF;
+                    break;
+                default:
+                    length = buffer.getInt();
+            }
+            if (buffer.remaining() < length && !fill(length)) {
+                throw new EOFException("Truncated record");
+            }
+            int limit = buffer.limit();
+            int end = buffer.position() + length;
+            buffer.limit(end);
+            T value = serializer.read(buffer);
+            buffer.limit(limit);
+            buffer.position(end);
+            return value;
+        }
+
+        /**
+         * Reads more of the file, returns false if it ended before {@code needed} bytes are available. An end of the
+         * file in the middle of the bytes is an error.
+         */
+        private boolean fill(int needed) throws IOException {
+            buffer.compact();
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read until the buffer is full or the file ends
+            }
+            buffer.flip();
+            if (buffer.remaining() >= needed) {
+                return true;
+            }
+            if (buffer.hasRemaining()) {
+                throw new EOFException("Truncated record");
+            }
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
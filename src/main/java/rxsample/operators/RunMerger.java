@@ -0,0 +1,162 @@
+package rxsample.operators;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * K-way merge of sorted runs of {@link ExternalSort}: a binary min-heap of the runs ordered by their next value, so
+ * each value costs {@code O(log k)} comparisons. Runs with equal values are taken in the order they were added, which
+ * keeps the merge stable.
+ * <p>
+ * Not thread-safe.
+ */
+final class RunMerger<T> implements Closeable {
+    private final Comparator<? super T> comparator;
+    private Run<T>[] heap;
+    private int count;
+    private int added;
+
+    @SuppressWarnings("unchecked")
+    RunMerger(Comparator<? super T> comparator, int runs) {
+        this.comparator = comparator;
+        this.heap = new Run[runs];
+    }
+
+    /**
+     * Adds a run file; the merger closes the reader.
+     */
+    void add(RunFile.Reader<T> reader) throws IOException {
+        Run<T> run = new Run<>(added++, reader, null, 0);
+        push(run);
+    }
+
+    /**
+     * Adds a run kept in memory, the first {@code size} values of {@code values}.
+     */
+    void add(Object[] values, int size) throws IOException {
+        push(new Run<>(added++, null, values, size));
+    }
+
+    /**
+     * Removes and returns the smallest value of all runs, null when all runs ended.
+     */
+    T poll() throws IOException {
+        if (count == 0) {
+            return null;
+        }
+        Run<T> top = heap[0];
+        T value = top.head;
+        if (!top.advance()) {
+            top.close();
+            heap[0] = heap[--count];
+            heap[count] = null;
+        }
+        if (count > 0) {
+            siftDown(0);
+        }
+        return value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException error = null;
+        for (int i = 0; i < count; i++) {
+            try {
+                heap[i].close();
+            } catch (IOException e) {
+                error = e;
+            }
+            heap[i] = null;
+        }
+        count = 0;
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private void push(Run<T> run) throws IOException {
+        if (count == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length * 2 + 1);
+        }
+        // a run stays in the heap even if it fails here, so that it's closed
+        heap[count++] = run;
+        if (!run.advance()) {
+            run.close();
+            heap[--count] = null;
+            return;
+        }
+        siftUp(count - 1);
+    }
+
+    private boolean less(Run<T> a, Run<T> b) {
+        int c = comparator.compare(a.head, b.head);
+        return c < 0 || (c == 0 && a.order < b.order);
+    }
+
+    private void siftUp(int index) {
+        Run<T> run = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!less(run, heap[parent])) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = run;
+    }
+
+    private void siftDown(int index) {
+        Run<T> run = heap[index];
+        int half = count >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < count && less(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!less(heap[child], run)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = run;
+    }
+
+    /**
+     * A run and its next value; read either from a file or from an array.
+     */
+    static final class Run<T> {
+        final int order;
+        final RunFile.Reader<T> reader;
+        final Object[] values;
+        final int size;
+        int index;
+        T head;
+
+        Run(int order, RunFile.Reader<T> reader, Object[] values, int size) {
+            this.order = order;
+            this.reader = reader;
+            this.values = values;
+            this.size = size;
+        }
+
+        @SuppressWarnings("unchecked")
+        boolean advance() throws IOException {
+            if (reader != null) {
+                head = reader.read();
+            } else {
+                head = index < size ? (T) values[index++] : null;
+            }
+            return head != null;
+        }
+
+        void close() throws IOException {
+            if (reader != null) {
+                reader.close();
+            }
+        }
+    }
+}
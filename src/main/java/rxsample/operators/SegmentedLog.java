@@ -0,0 +1,230 @@
+package rxsample.operators;
+
+import rxsample.subjects.Serializer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+
+/**
+ * Append-only log used by {@link SpillingReplay}: the first {@code heapThreshold} values are kept in a heap array,
+ * the rest are serialized into memory-mapped segment files of {@code segmentSize} bytes each.
+ * <p>
+ * Single writer, any number of concurrent readers. Values are never modified after they are published, so readers
+ * don't need locking; a reader reads records directly from the mapped segment, without copying them to heap first.
+ * When there are more than {@code maxSegments} segments, the oldest one (and the heap part) is dropped and readers
+ * which didn't get to it yet skip to the oldest retained value.
+ */
+final class SegmentedLog<T> {
+    private static final int LENGTH_SIZE = Integer.BYTES;
+
+    private final Serializer<T> serializer;
+    private final File parentDirectory;
+    private final int heapThreshold;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final int maxRecordSize;
+
+    private volatile Object[] heap;
+    private volatile int heapCount;
+
+    private volatile Segment first;
+    private volatile long firstIndex;
+    private volatile boolean closed;
+
+    // accessed by the writer only
+    private File directory;
+    private Segment last;
+    private int segmentCount;
+    private long size;
+
+    SegmentedLog(Serializer<T> serializer, File parentDirectory, int heapThreshold, int segmentSize,
+                 int maxSegments) {
+        this.serializer = serializer;
+        this.parentDirectory = parentDirectory;
+        this.heapThreshold = heapThreshold;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.maxRecordSize = LENGTH_SIZE + serializer.maxSerializedSize();
+        this.heap = new Object[heapThreshold];
+    }
+
+    static final class Segment {
+        final File file;
+        final MappedByteBuffer buffer;
+        final long baseIndex;
+        volatile int count;
+        volatile Segment next;
+        // accessed by the writer only
+        int writePosition;
+
+        Segment(File file, MappedByteBuffer buffer, long baseIndex) {
+            this.file = file;
+            this.buffer = buffer;
+            this.baseIndex = baseIndex;
+        }
+    }
+
+    /**
+     * Read position of a single reader.
+     */
+    static class Cursor {
+        long index;
+        Segment segment;
+        ByteBuffer view;
+        int position;
+        int local;
+    }
+
+    void append(T value) throws IOException {
+        if (closed) {
+            return;
+        }
+        if (heapCount < heapThreshold) {
+            heap[heapCount] = value;
+            heapCount = heapCount + 1;
+            size++;
+            return;
+        }
+        Segment segment = last;
+        if (segment == null || segmentSize - segment.writePosition < maxRecordSize) {
+            segment = roll();
+        }
+        ByteBuffer buffer = segment.buffer;
+        int position = segment.writePosition;
+        buffer.limit(position + maxRecordSize);
+        buffer.position(position + LENGTH_SIZE);
+        serializer.write(value, buffer);
+        int length = buffer.position() - position - LENGTH_SIZE;
+        buffer.putInt(position, length);
+        segment.writePosition = position + LENGTH_SIZE + length;
+        segment.count = segment.count + 1;
+        size++;
+    }
+
+    private Segment roll() throws IOException {
+        if (directory == null) {
+            directory = Files.createTempDirectory(parentDirectory.toPath(), "replay-").toFile();
+        }
+        File file = new File(directory, String.format("%019d.segment", size));
+        MappedByteBuffer buffer;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        Segment segment = new Segment(file, buffer, size);
+        if (last == null) {
+            first = segment;
+        } else {
+            last.next = segment;
+        }
+        last = segment;
+        segmentCount++;
+        if (maxSegments > 0 && segmentCount > maxSegments) {
+            Segment dropped = first;
+            heap = null;
+            first = dropped.next;
+            firstIndex = dropped.next.baseIndex;
+            segmentCount--;
+            // readers which are still positioned in the segment keep the mapping alive until they move on
+            delete(dropped.file);
+        }
+        return segment;
+    }
+
+    /**
+     * Returns the value at cursor position and advances it, or returns null if there's no value yet.
+     */
+    @SuppressWarnings("unchecked")
+    T poll(Cursor cursor) {
+        for (;;) {
+            long oldest = firstIndex;
+            if (cursor.index < oldest) {
+                cursor.index = oldest;
+                cursor.segment = null;
+            }
+            if (cursor.segment == null) {
+                if (cursor.index < heapThreshold) {
+                    Object[] h = heap;
+                    if (h == null) {
+                        // dropped by retention after firstIndex was read
+                        continue;
+                    }
+                    if (cursor.index < heapCount) {
+                        return (T) h[(int) cursor.index++];
+                    }
+                    return null;
+                }
+                Segment s = first;
+                if (s == null || s.baseIndex > cursor.index) {
+                    if (s != null && firstIndex > cursor.index) {
+                        continue;
+                    }
+                    return null;
+                }
+                enter(cursor, s);
+            }
+            Segment segment = cursor.segment;
+            if (cursor.local >= segment.count) {
+                Segment next = segment.next;
+                if (next == null) {
+                    return null;
+                }
+                // next is linked only after the last record of the segment was published, so re-read the count
+                if (cursor.local >= segment.count) {
+                    enter(cursor, next);
+                    continue;
+                }
+            }
+            return read(cursor);
+        }
+    }
+
+    private void enter(Cursor cursor, Segment segment) {
+        cursor.segment = segment;
+        cursor.view = segment.buffer.duplicate();
+        cursor.position = 0;
+        cursor.local = 0;
+        cursor.index = segment.baseIndex;
+    }
+
+    private T read(Cursor cursor) {
+        ByteBuffer view = cursor.view;
+        int position = cursor.position;
+        view.clear();
+        int length = view.getInt(position);
+        view.limit(position + LENGTH_SIZE + length);
+        view.position(position + LENGTH_SIZE);
+        T value = serializer.read(view);
+        cursor.position = position + LENGTH_SIZE + length;
+        cursor.local++;
+        cursor.index++;
+        return value;
+    }
+
+    /**
+     * Deletes segment files. Readers which are still positioned in the log can continue reading mapped segments.
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Segment s = first; s != null; s = s.next) {
+            delete(s.file);
+        }
+        if (directory != null) {
+            delete(directory);
+        }
+    }
+
+    private static void delete(File file) {
+        if (!file.delete()) {
+            // e.g. on Windows mapped files can't be deleted
+            file.deleteOnExit();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.Observer;
+
+import java.util.Objects;
+
+/**
+ * Observable which knows how many values it emits, so that {@link Collect#toList()} applied directly to it allocates
+ * its list once with the right capacity. Subscribing goes straight to the wrapped source, values don't pass through
+ * an extra operator.
+ */
+public final class SizedObservable<T> extends Observable<T> {
+    private final ObservableSource<T> source;
+    private final long size;
+
+    private SizedObservable(ObservableSource<T> source, long size) {
+        this.source = source;
+        this.size = size;
+    }
+
+    /**
+     * {@link Observable#range(int, int)} with its count as the size.
+     */
+    public static SizedObservable<Integer> range(int start, int count) {
+        return new SizedObservable<>(Observable.range(start, count), count);
+    }
+
+    /**
+     * {@link Observable#fromArray(Object[])} with the length of the array as the size.
+     */
+    @SafeVarargs
+    // items are only read, fromArray doesn't store anything into the array
+    @SuppressWarnings("varargs")
+    public static <T> SizedObservable<T> fromArray(T... items) {
+        return new SizedObservable<>(Observable.fromArray(items), items.length);
+    }
+
+    /**
+     * Source which the caller knows to emit {@code size} values; the size is only a hint, collecting a source which
+     * emits more or less values still works.
+     */
+    public static <T> SizedObservable<T> of(ObservableSource<T> source, long size) {
+        Objects.requireNonNull(source, "source is null");
+        if (size < 0) {
+            throw new IllegalArgumentException("size >= 0 required but it was " + size);
+        }
+        return new SizedObservable<>(source, size);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super T> observer) {
+        source.subscribe(observer);
+    }
+}
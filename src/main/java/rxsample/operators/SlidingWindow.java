@@ -0,0 +1,137 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.Scheduler;
+import io.reactivex.functions.BiFunction;
+import io.reactivex.schedulers.Schedulers;
+
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Rolling aggregates over the last {@link #size} values and/or the values of the last {@link #span}: like
+ * {@link Observable#scan}, one result is emitted per value, but the older values drop out of it. Instead of reducing
+ * a {@code window(size, 1)} buffer for each value, which costs {@code O(size)} per value, the aggregate is updated
+ * in O(1) amortized: sums subtract the evicted values, {@link #min}, {@link #max} and {@link #reduce} use two stacks
+ * (see {@link WindowRing.TwoStack}).
+ * <p>
+ * Values of a time window are evicted when a newer value arrives, timed by the {@link #scheduler}. Each subscription
+ * has its own window.
+ * <p>
+ * Usage: {@code latencies.compose(SlidingWindow.<Long>create().span(10, SECONDS).average(v -> v))}
+ */
+public final class SlidingWindow<T> {
+    static final long UNBOUNDED = Long.MAX_VALUE;
+
+    final long size;
+    final long spanNanos;
+    final Scheduler scheduler;
+
+    private SlidingWindow(long size, long spanNanos, Scheduler scheduler) {
+        this.size = size;
+        this.spanNanos = spanNanos;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Starts configuration of the window. At least one of {@link #size} or {@link #span} has to be set before an
+     * aggregate is applied.
+     */
+    public static <T> SlidingWindow<T> create() {
+        return new SlidingWindow<>(UNBOUNDED, UNBOUNDED, Schedulers.computation());
+    }
+
+    /**
+     * Aggregates the last {@code size} values.
+     */
+    public SlidingWindow<T> size(long size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size > 0 required but it was " + size);
+        }
+        return new SlidingWindow<>(size, spanNanos, scheduler);
+    }
+
+    /**
+     * Aggregates the values which arrived less than {@code span} ago.
+     */
+    public SlidingWindow<T> span(long span, TimeUnit unit) {
+        if (span <= 0) {
+            throw new IllegalArgumentException("span > 0 required but it was " + span);
+        }
+        return new SlidingWindow<>(size, unit.toNanos(span), scheduler);
+    }
+
+    /**
+     * Time source of the {@link #span}. Defaults to {@link Schedulers#computation()}.
+     */
+    public SlidingWindow<T> scheduler(Scheduler scheduler) {
+        Objects.requireNonNull(scheduler, "scheduler is null");
+        return new SlidingWindow<>(size, spanNanos, scheduler);
+    }
+
+    /**
+     * Exact sum of the window.
+     */
+    public ObservableTransformer<T, Long> sum(ToLongFunction<? super T> value) {
+        Objects.requireNonNull(value, "value is null");
+        check();
+        return upstream -> Observable.defer(() -> {
+            WindowRing.LongSum window = new WindowRing.LongSum(size, spanNanos);
+            return upstream.map(v -> window.add(value.applyAsLong(v), now()));
+        });
+    }
+
+    /**
+     * Average of the window.
+     */
+    public ObservableTransformer<T, Double> average(ToDoubleFunction<? super T> value) {
+        Objects.requireNonNull(value, "value is null");
+        check();
+        return upstream -> Observable.defer(() -> {
+            WindowRing.DoubleSum window = new WindowRing.DoubleSum(size, spanNanos);
+            return upstream.map(v -> window.add(value.applyAsDouble(v), now()) / window.size());
+        });
+    }
+
+    /**
+     * Smallest value of the window; of equal values, the oldest.
+     */
+    public ObservableTransformer<T, T> min(Comparator<? super T> comparator) {
+        Objects.requireNonNull(comparator, "comparator is null");
+        return reduce((a, b) -> comparator.compare(b, a) < 0 ? b : a);
+    }
+
+    /**
+     * Largest value of the window; of equal values, the oldest.
+     */
+    public ObservableTransformer<T, T> max(Comparator<? super T> comparator) {
+        Objects.requireNonNull(comparator, "comparator is null");
+        return reduce((a, b) -> comparator.compare(b, a) > 0 ? b : a);
+    }
+
+    /**
+     * Reduction of the window with an associative {@code reducer}, applied to the values in their order.
+     */
+    public ObservableTransformer<T, T> reduce(BiFunction<T, T, T> reducer) {
+        Objects.requireNonNull(reducer, "reducer is null");
+        check();
+        return upstream -> Observable.defer(() -> {
+            WindowRing.TwoStack<T> window = new WindowRing.TwoStack<>(size, spanNanos, reducer);
+            return upstream.map(v -> window.add(v, now()));
+        });
+    }
+
+    private long now() {
+        return spanNanos == UNBOUNDED ? 0 : scheduler.now(TimeUnit.NANOSECONDS);
+    }
+
+    private void check() {
+        if (size == UNBOUNDED && spanNanos == UNBOUNDED) {
+            throw new IllegalStateException("At least one of size or span has to be set");
+        }
+    }
+}
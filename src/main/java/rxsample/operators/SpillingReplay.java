@@ -0,0 +1,326 @@
+package rxsample.operators;
+
+import io.reactivex.ObservableSource;
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.functions.Consumer;
+import io.reactivex.observables.ConnectableObservable;
+import io.reactivex.plugins.RxJavaPlugins;
+import rxsample.subjects.Serializer;
+
+import java.io.File;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Counterpart of {@link io.reactivex.Observable#replay()} for histories which don't fit into the heap: the first
+ * {@code heapThreshold} values are kept in memory, everything after them is spilled into memory-mapped segment files
+ * in {@code directory}. Every subscriber replays the history from its own position in the log.
+ * <p>
+ * Segment files are deleted when the connection is disposed, or when there are more than {@code maxSegments} of
+ * them - then the oldest segment is dropped together with the in-memory part of the history.
+ */
+public final class SpillingReplay<T> extends ConnectableObservable<T> {
+    public static final int DEFAULT_HEAP_THRESHOLD = 1024;
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    public static final int UNLIMITED_SEGMENTS = 0;
+
+    private final ObservableSource<T> source;
+    private final Serializer<T> serializer;
+    private final File directory;
+    private final int heapThreshold;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final AtomicReference<Connection<T>> current = new AtomicReference<>();
+
+    private SpillingReplay(ObservableSource<T> source, Serializer<T> serializer, File directory, int heapThreshold,
+                           int segmentSize, int maxSegments) {
+        this.source = source;
+        this.serializer = serializer;
+        this.directory = directory;
+        this.heapThreshold = heapThreshold;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+    }
+
+    /**
+     * Keeps {@value #DEFAULT_HEAP_THRESHOLD} values in memory and spills the rest into unlimited number of
+     * {@value #DEFAULT_SEGMENT_SIZE} bytes segments.
+     */
+    public static <T> SpillingReplay<T> create(ObservableSource<T> source, Serializer<T> serializer, File directory) {
+        return create(source, serializer, directory, DEFAULT_HEAP_THRESHOLD, DEFAULT_SEGMENT_SIZE, UNLIMITED_SEGMENTS);
+    }
+
+    public static <T> SpillingReplay<T> create(ObservableSource<T> source, Serializer<T> serializer, File directory,
+                                               int heapThreshold, int segmentSize, int maxSegments) {
+        Objects.requireNonNull(source, "source is null");
+        Objects.requireNonNull(serializer, "serializer is null");
+        Objects.requireNonNull(directory, "directory is null");
+        if (heapThreshold < 0) {
+            throw new IllegalArgumentException("heapThreshold >= 0 required but it was " + heapThreshold);
+        }
+        if (segmentSize < Integer.BYTES + serializer.maxSerializedSize()) {
+            throw new IllegalArgumentException("segmentSize " + segmentSize + " can't fit a single value");
+        }
+        if (maxSegments < 0) {
+            throw new IllegalArgumentException("maxSegments >= 0 required but it was " + maxSegments);
+        }
+        return new SpillingReplay<>(source, serializer, directory, heapThreshold, segmentSize, maxSegments);
+    }
+
+    private Connection<T> currentConnection() {
+        for (;;) {
+            Connection<T> conn = current.get();
+            if (conn != null) {
+                return conn;
+            }
+            Connection<T> created = new Connection<>(this,
+                    new SegmentedLog<>(serializer, directory, heapThreshold, segmentSize, maxSegments));
+            if (current.compareAndSet(null, created)) {
+                return created;
+            }
+        }
+    }
+
+    @Override
+    public void connect(Consumer<? super Disposable> connection) {
+        Connection<T> conn = currentConnection();
+        boolean doConnect = !conn.connected.get() && conn.connected.compareAndSet(false, true);
+        try {
+            connection.accept(conn);
+        } catch (Throwable e) {
+            Exceptions.throwIfFatal(e);
+            throw Exceptions.propagate(e);
+        }
+        if (doConnect) {
+            source.subscribe(conn);
+        }
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super T> observer) {
+        Connection<T> conn = currentConnection();
+        ReplayCursor<T> cursor = new ReplayCursor<>(observer, conn);
+        observer.onSubscribe(cursor);
+        if (conn.add(cursor) && cursor.cancelled) {
+            conn.remove(cursor);
+            return;
+        }
+        conn.replay(cursor);
+    }
+
+    static final class Connection<T> extends AtomicReference<Disposable> implements Observer<T>, Disposable {
+        @SuppressWarnings("rawtypes")
+        private static final ReplayCursor[] EMPTY = new ReplayCursor[0];
+        @SuppressWarnings("rawtypes")
+        private static final ReplayCursor[] TERMINATED = new ReplayCursor[0];
+        private static final Disposable DISPOSED = Disposables.disposed();
+
+        private final SpillingReplay<T> parent;
+        private final SegmentedLog<T> log;
+        final AtomicBoolean connected = new AtomicBoolean();
+        private final AtomicReference<ReplayCursor<T>[]> subscribers;
+        private volatile boolean done;
+        private Throwable error;
+
+        @SuppressWarnings("unchecked")
+        Connection(SpillingReplay<T> parent, SegmentedLog<T> log) {
+            this.parent = parent;
+            this.log = log;
+            this.subscribers = new AtomicReference<>(EMPTY);
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            if (!compareAndSet(null, d)) {
+                d.dispose();
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (done) {
+                return;
+            }
+            try {
+                log.append(t);
+            } catch (Throwable e) {
+                // I/O failures and serializer failures alike; a failed record isn't counted, readers never see it
+                Exceptions.throwIfFatal(e);
+                Disposable d = getAndSet(DISPOSED);
+                if (d != null && d != DISPOSED) {
+                    d.dispose();
+                }
+                onError(e);
+                return;
+            }
+            for (ReplayCursor<T> cursor : subscribers.get()) {
+                replay(cursor);
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (done) {
+                RxJavaPlugins.onError(e);
+                return;
+            }
+            error = e;
+            terminate();
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            terminate();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void terminate() {
+            done = true;
+            for (ReplayCursor<T> cursor : subscribers.getAndSet(TERMINATED)) {
+                replay(cursor);
+            }
+        }
+
+        void replay(ReplayCursor<T> cursor) {
+            if (cursor.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            Observer<? super T> downstream = cursor.downstream;
+            for (;;) {
+                for (;;) {
+                    if (cursor.cancelled) {
+                        return;
+                    }
+                    boolean d = done;
+                    T value = log.poll(cursor);
+                    if (value == null) {
+                        if (d) {
+                            cursor.cancelled = true;
+                            Throwable e = error;
+                            if (e != null) {
+                                downstream.onError(e);
+                            } else {
+                                downstream.onComplete();
+                            }
+                            return;
+                        }
+                        break;
+                    }
+                    downstream.onNext(value);
+                }
+                missed = cursor.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        boolean add(ReplayCursor<T> cursor) {
+            for (;;) {
+                ReplayCursor<T>[] a = subscribers.get();
+                if (a == TERMINATED) {
+                    return false;
+                }
+                int n = a.length;
+                @SuppressWarnings("unchecked")
+                ReplayCursor<T>[] b = new ReplayCursor[n + 1];
+                System.arraycopy(a, 0, b, 0, n);
+                b[n] = cursor;
+                if (subscribers.compareAndSet(a, b)) {
+                    return true;
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void remove(ReplayCursor<T> cursor) {
+            for (;;) {
+                ReplayCursor<T>[] a = subscribers.get();
+                int n = a.length;
+                int j = -1;
+                for (int i = 0; i < n; i++) {
+                    if (a[i] == cursor) {
+                        j = i;
+                        break;
+                    }
+                }
+                if (j < 0) {
+                    return;
+                }
+                ReplayCursor<T>[] b;
+                if (n == 1) {
+                    b = EMPTY;
+                } else {
+                    b = new ReplayCursor[n - 1];
+                    System.arraycopy(a, 0, b, 0, j);
+                    System.arraycopy(a, j + 1, b, j, n - j - 1);
+                }
+                if (subscribers.compareAndSet(a, b)) {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void dispose() {
+            parent.current.compareAndSet(this, null);
+            Disposable d = getAndSet(DISPOSED);
+            if (d != DISPOSED) {
+                if (d != null) {
+                    d.dispose();
+                }
+                log.close();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return get() == DISPOSED;
+        }
+    }
+
+    /**
+     * Subscriber's position in the log, accessed only by the thread which is currently replaying to it.
+     */
+    static final class ReplayCursor<T> extends SegmentedLog.Cursor implements Disposable {
+        final Observer<? super T> downstream;
+        final Connection<T> connection;
+        final AtomicInteger wip = new AtomicInteger();
+        volatile boolean cancelled;
+
+        ReplayCursor(Observer<? super T> downstream, Connection<T> connection) {
+            this.downstream = downstream;
+            this.connection = connection;
+        }
+
+        int getAndIncrement() {
+            return wip.getAndIncrement();
+        }
+
+        int addAndGet(int delta) {
+            return wip.addAndGet(delta);
+        }
+
+        @Override
+        public void dispose() {
+            if (!cancelled) {
+                cancelled = true;
+                connection.remove(this);
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return cancelled;
+        }
+    }
+}
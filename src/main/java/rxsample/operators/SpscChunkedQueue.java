@@ -0,0 +1,106 @@
+package rxsample.operators;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Unbounded queue for a single producer and a single consumer, made of linked fixed-size chunks: offering a value is
+ * a plain write plus an ordered store, without a CAS or a node allocation per value. Every value carries a sequence
+ * number, which {@link ParallelRailsObservable} uses to restore the order of values processed on different rails.
+ */
+final class SpscChunkedQueue {
+    private static final int CHUNK_SIZE = 256;
+
+    private static final class Chunk {
+        final AtomicReferenceArray<Object> values = new AtomicReferenceArray<>(CHUNK_SIZE);
+        // written before the value is published, read after it's seen
+        final long[] sequences = new long[CHUNK_SIZE];
+        volatile Chunk next;
+    }
+
+    // producer only
+    private Chunk tail;
+    private int tailIndex;
+
+    // consumer only
+    private Chunk head;
+    private int headIndex;
+    private long lastSequence;
+
+    SpscChunkedQueue() {
+        Chunk chunk = new Chunk();
+        tail = chunk;
+        head = chunk;
+    }
+
+    void offer(long sequence, Object value) {
+        Chunk chunk = tail;
+        int index = tailIndex;
+        if (index == CHUNK_SIZE) {
+            Chunk next = new Chunk();
+            chunk.next = next;
+            tail = next;
+            chunk = next;
+            index = 0;
+        }
+        chunk.sequences[index] = sequence;
+        chunk.values.lazySet(index, value);
+        tailIndex = index + 1;
+    }
+
+    /**
+     * Returns the oldest value (its sequence is then available from {@link #lastSequence()}) or null if the queue is
+     * empty.
+     */
+    Object poll() {
+        Chunk chunk = head;
+        int index = headIndex;
+        if (index == CHUNK_SIZE) {
+            Chunk next = chunk.next;
+            if (next == null) {
+                return null;
+            }
+            head = next;
+            chunk = next;
+            index = 0;
+        }
+        Object value = chunk.values.get(index);
+        if (value == null) {
+            headIndex = index;
+            return null;
+        }
+        chunk.values.lazySet(index, null);
+        lastSequence = chunk.sequences[index];
+        headIndex = index + 1;
+        return value;
+    }
+
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Sequence of the oldest value, or -1 if the queue is empty.
+     */
+    long peekSequence() {
+        Chunk chunk = head;
+        int index = headIndex;
+        if (index == CHUNK_SIZE) {
+            chunk = chunk.next;
+            if (chunk == null) {
+                return -1;
+            }
+            index = 0;
+        }
+        return chunk.values.get(index) != null ? chunk.sequences[index] : -1;
+    }
+
+    boolean isEmpty() {
+        return peekSequence() < 0;
+    }
+
+    void clear() {
+        while (poll() != null) {
+            // drop everything
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package rxsample.operators;
+
+import io.reactivex.functions.BiFunction;
+
+/**
+ * Bookkeeping shared by the {@link SlidingWindow} aggregations: positions of the values in a ring which grows by
+ * doubling, their arrival times for time-bounded windows, and eviction of the oldest values when a new value arrives.
+ * Subclasses keep the values and their aggregate in arrays indexed like the ring.
+ * <p>
+ * Value number {@code n} is at {@code n & mask}; {@link #head} and {@link #tail} are value numbers, so they don't
+ * change when the ring grows. Not thread-safe.
+ */
+abstract class WindowRing {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final long maxSize;
+    private final long spanNanos;
+    private long[] times;
+    long head;
+    long tail;
+    int mask = INITIAL_CAPACITY - 1;
+
+    WindowRing(long maxSize, long spanNanos) {
+        this.maxSize = maxSize;
+        this.spanNanos = spanNanos;
+        if (spanNanos != SlidingWindow.UNBOUNDED) {
+            times = new long[INITIAL_CAPACITY];
+        }
+    }
+
+    /**
+     * Evicts the values which fall out of the window when a value arrives at {@code now}, and returns the index the
+     * new value goes to.
+     */
+    final int push(long now) throws Exception {
+        if (times != null) {
+            while (head != tail && now - times[(int) head & mask] >= spanNanos) {
+                removeHead();
+            }
+        }
+        if (tail - head == maxSize) {
+            removeHead();
+        }
+        if (tail - head == mask + 1) {
+            int oldMask = mask;
+            mask = (mask << 1) | 1;
+            if (times != null) {
+                times = copy(times, oldMask, head, tail, mask);
+            }
+            grow(oldMask);
+        }
+        int index = (int) tail & mask;
+        if (times != null) {
+            times[index] = now;
+        }
+        tail++;
+        return index;
+    }
+
+    int size() {
+        return (int) (tail - head);
+    }
+
+    private void removeHead() throws Exception {
+        removing((int) head & mask);
+        head++;
+    }
+
+    /**
+     * The value at {@code index}, the oldest one, leaves the window.
+     */
+    abstract void removing(int index) throws Exception;
+
+    /**
+     * Copies the subclass arrays from a ring of {@code oldMask + 1} to one of {@link #mask}{@code + 1}.
+     */
+    abstract void grow(int oldMask);
+
+    static long[] copy(long[] old, int oldMask, long head, long tail, int mask) {
+        long[] copy = new long[mask + 1];
+        for (long n = head; n < tail; n++) {
+            copy[(int) n & mask] = old[(int) n & oldMask];
+        }
+        return copy;
+    }
+
+    static double[] copy(double[] old, int oldMask, long head, long tail, int mask) {
+        double[] copy = new double[mask + 1];
+        for (long n = head; n < tail; n++) {
+            copy[(int) n & mask] = old[(int) n & oldMask];
+        }
+        return copy;
+    }
+
+    static Object[] copy(Object[] old, int oldMask, long head, long tail, int mask) {
+        Object[] copy = new Object[mask + 1];
+        for (long n = head; n < tail; n++) {
+            copy[(int) n & mask] = old[(int) n & oldMask];
+        }
+        return copy;
+    }
+
+    /**
+     * Subtract-on-evict sum of longs: exact, O(1) per value.
+     */
+    static final class LongSum extends WindowRing {
+        private long[] values = new long[INITIAL_CAPACITY];
+        private long sum;
+
+        LongSum(long maxSize, long spanNanos) {
+            super(maxSize, spanNanos);
+        }
+
+        long add(long value, long now) throws Exception {
+            // not values[push(now)]: push() may replace the array
+            int index = push(now);
+            values[index] = value;
+            sum += value;
+            return sum;
+        }
+
+        @Override
+        void removing(int index) {
+            sum -= values[index];
+        }
+
+        @Override
+        void grow(int oldMask) {
+            values = copy(values, oldMask, head, tail, mask);
+        }
+    }
+
+    /**
+     * Subtract-on-evict sum of doubles. Subtracting leaves rounding errors behind, so the sum is computed again from
+     * the values after every ring capacity of evictions, which keeps the update O(1) amortized.
+     */
+    static final class DoubleSum extends WindowRing {
+        private double[] values = new double[INITIAL_CAPACITY];
+        private double sum;
+        private int evictions;
+
+        DoubleSum(long maxSize, long spanNanos) {
+            super(maxSize, spanNanos);
+        }
+
+        double add(double value, long now) throws Exception {
+            int index = push(now);
+            values[index] = value;
+            sum += value;
+            if (evictions > mask) {
+                evictions = 0;
+                sum = 0;
+                for (long n = head; n < tail; n++) {
+                    sum += values[(int) n & mask];
+                }
+            }
+            return sum;
+        }
+
+        @Override
+        void removing(int index) {
+            sum -= values[index];
+            evictions++;
+        }
+
+        @Override
+        void grow(int oldMask) {
+            values = copy(values, oldMask, head, tail, mask);
+        }
+    }
+
+    /**
+     * Aggregate of any associative function in O(1) amortized, without an inverse (min, max): the window is a queue
+     * made of two stacks. Values older than {@code split} form the front stack, each with the aggregate of itself and
+     * the newer front values; newer values form the back stack, of which only the running aggregate is kept. The
+     * window aggregate is front aggregate of the head combined with the back aggregate. When the front runs empty, the
+     * back becomes the front by computing its suffix aggregates once, so every value is combined at most twice.
+     */
+    static final class TwoStack<T> extends WindowRing {
+        private final BiFunction<T, T, T> reducer;
+        private Object[] values = new Object[INITIAL_CAPACITY];
+        private Object[] aggregates = new Object[INITIAL_CAPACITY];
+        private long split;
+        private T back;
+
+        TwoStack(long maxSize, long spanNanos, BiFunction<T, T, T> reducer) {
+            super(maxSize, spanNanos);
+            this.reducer = reducer;
+        }
+
+        @SuppressWarnings("unchecked")
+        T add(T value, long now) throws Exception {
+            int index = push(now);
+            values[index] = value;
+            back = back == null ? value : reducer.apply(back, value);
+            if (head == split) {
+                return back;
+            }
+            return reducer.apply((T) aggregates[(int) head & mask], back);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void removing(int index) throws Exception {
+            if (head == split) {
+                // flip: the back stack becomes the front
+                T aggregate = null;
+                for (long n = tail - 1; n >= head; n--) {
+                    int i = (int) n & mask;
+                    aggregate = aggregate == null ? (T) values[i] : reducer.apply((T) values[i], aggregate);
+                    aggregates[i] = aggregate;
+                }
+                split = tail;
+                back = null;
+            }
+            values[index] = null;
+            aggregates[index] = null;
+        }
+
+        @Override
+        void grow(int oldMask) {
+            values = copy(values, oldMask, head, tail, mask);
+            aggregates = copy(aggregates, oldMask, head, tail, mask);
+        }
+    }
+}
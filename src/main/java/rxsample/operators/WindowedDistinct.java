@@ -0,0 +1,106 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.Scheduler;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Observable#distinct()} which forgets keys: a value is dropped only if its key was emitted within the last
+ * {@link #window} or among the last {@link #maxKeys} emitted keys, so memory is bounded by the keys of one window
+ * instead of growing with every key ever seen. Meant for dropping retried messages.
+ * <p>
+ * Expiry is measured from the first emission of a key; duplicates don't extend it, so a message retried forever still
+ * gets through once per window. Time is read from the {@link #scheduler} with every value and cut into
+ * {@value #TICKS_PER_WINDOW} ticks per window, and the keys of a tick are dropped together by a timer wheel
+ * ({@link ExpiringKeySet}): a key is remembered for at least the window and less than two ticks longer. Nothing is
+ * scheduled, so keys expire only when values arrive. Each subscription has its own key set.
+ * <p>
+ * Usage: {@code messages.compose(WindowedDistinct.<Message>create().keySelector(Message::id).window(60, SECONDS))}
+ */
+public final class WindowedDistinct<T> implements ObservableTransformer<T, T> {
+    static final int TICKS_PER_WINDOW = 64;
+    static final long NO_WINDOW = Long.MAX_VALUE;
+    static final long UNBOUNDED = Long.MAX_VALUE;
+
+    final Function<? super T, ?> keySelector;
+    final long windowNanos;
+    final long maxKeys;
+    final Scheduler scheduler;
+
+    private WindowedDistinct(Function<? super T, ?> keySelector, long windowNanos, long maxKeys, Scheduler scheduler) {
+        this.keySelector = keySelector;
+        this.windowNanos = windowNanos;
+        this.maxKeys = maxKeys;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Starts configuration of the dedup. At least one of {@link #window} or {@link #maxKeys} has to be set before
+     * it's applied.
+     */
+    public static <T> WindowedDistinct<T> create() {
+        return new WindowedDistinct<>(v -> v, NO_WINDOW, UNBOUNDED, Schedulers.computation());
+    }
+
+    /**
+     * Compares keys computed by {@code keySelector} instead of the values, like {@link Observable#distinct(Function)}.
+     */
+    public WindowedDistinct<T> keySelector(Function<? super T, ?> keySelector) {
+        Objects.requireNonNull(keySelector, "keySelector is null");
+        return new WindowedDistinct<>(keySelector, windowNanos, maxKeys, scheduler);
+    }
+
+    /**
+     * Drops values whose key was emitted less than {@code window} ago.
+     */
+    public WindowedDistinct<T> window(long window, TimeUnit unit) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("window > 0 required but it was " + window);
+        }
+        return new WindowedDistinct<>(keySelector, unit.toNanos(window), maxKeys, scheduler);
+    }
+
+    /**
+     * Drops values whose key is among the last {@code maxKeys} emitted keys.
+     */
+    public WindowedDistinct<T> maxKeys(long maxKeys) {
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("maxKeys > 0 required but it was " + maxKeys);
+        }
+        return new WindowedDistinct<>(keySelector, windowNanos, maxKeys, scheduler);
+    }
+
+    /**
+     * Time source of the {@link #window}. Defaults to {@link Schedulers#computation()}.
+     */
+    public WindowedDistinct<T> scheduler(Scheduler scheduler) {
+        Objects.requireNonNull(scheduler, "scheduler is null");
+        return new WindowedDistinct<>(keySelector, windowNanos, maxKeys, scheduler);
+    }
+
+    @Override
+    public ObservableSource<T> apply(Observable<T> upstream) {
+        if (windowNanos == NO_WINDOW && maxKeys == UNBOUNDED) {
+            throw new IllegalStateException("At least one of window or maxKeys has to be set");
+        }
+        if (windowNanos == NO_WINDOW) {
+            return Observable.defer(() -> {
+                ExpiringKeySet keys = new ExpiringKeySet(ExpiringKeySet.NO_TICKS, maxKeys);
+                return upstream.filter(v -> keys.add(keySelector.apply(v), 0));
+            });
+        }
+        long tickNanos = Math.max(1, (windowNanos + TICKS_PER_WINDOW - 1) / TICKS_PER_WINDOW);
+        long windowTicks = (windowNanos + tickNanos - 1) / tickNanos;
+        return Observable.defer(() -> {
+            ExpiringKeySet keys = new ExpiringKeySet(windowTicks, maxKeys);
+            return upstream.filter(v -> keys.add(keySelector.apply(v),
+                    scheduler.now(TimeUnit.NANOSECONDS) / tickNanos));
+        });
+    }
+}
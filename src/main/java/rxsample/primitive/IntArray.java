@@ -0,0 +1,73 @@
+package rxsample.primitive;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of {@code int}s, the primitive counterpart of an {@code ArrayList<Integer>}. {@link #clear()} keeps
+ * the capacity, so an IntArray reused for a series of collections (see {@link IntObservable#collectInto}) stops
+ * allocating once it's grown to the largest of them.
+ * <p>
+ * Not thread-safe.
+ */
+public final class IntArray {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] values;
+    private int size;
+
+    public IntArray() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntArray(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity >= 0 required but it was " + capacity);
+        }
+        values = new int[capacity];
+    }
+
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(DEFAULT_CAPACITY, size + (size >> 1)));
+        }
+        values[size++] = value;
+    }
+
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return values.length;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Copy of the values.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * The values, without a copy if the array is exactly full; for arrays which aren't shared.
+     */
+    int[] trimmed() {
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
@@ -0,0 +1,649 @@
+package rxsample.primitive;
+
+import io.reactivex.Maybe;
+import io.reactivex.MaybeObserver;
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.Observer;
+import io.reactivex.Single;
+import io.reactivex.SingleObserver;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.plugins.RxJavaPlugins;
+
+import java.util.Objects;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Synchronous, {@code int}-specialized counterpart of {@code Observable<Integer>}.
+ * Values travel between operators as primitives, so a pipeline like {@code range().map().filter().sum()} doesn't
+ * allocate per element - only once per subscription. Use {@link #boxed()} / {@link #fromObservable(ObservableSource)}
+ * to cross over to regular Observables for operators which don't have primitive versions.
+ */
+public abstract class IntObservable {
+
+    /**
+     * Emits {@code count} sequential values starting with {@code start}, like {@link Observable#range(int, int)}.
+     */
+    public static IntObservable range(int start, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count >= 0 required but it was " + count);
+        }
+        if (count > 1 && start + (long) (count - 1) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Integer overflow");
+        }
+        return new Range(start, count);
+    }
+
+    /**
+     * Unboxes values of the given source. Boxing cost is paid by the source, operators after this one are primitive.
+     */
+    public static IntObservable fromObservable(ObservableSource<Integer> source) {
+        Objects.requireNonNull(source, "source is null");
+        return new FromObservable(source);
+    }
+
+    public final void subscribe(IntObserver observer) {
+        Objects.requireNonNull(observer, "observer is null");
+        subscribeActual(observer);
+    }
+
+    protected abstract void subscribeActual(IntObserver observer);
+
+    /**
+     * Number of values the sequence emits if it's known before subscribing (range(), and map()/scan() of it),
+     * otherwise -1.
+     */
+    int knownSize() {
+        return -1;
+    }
+
+    public final IntObservable map(IntUnaryOperator mapper) {
+        Objects.requireNonNull(mapper, "mapper is null");
+        return new Map(this, mapper);
+    }
+
+    public final IntObservable filter(IntPredicate predicate) {
+        Objects.requireNonNull(predicate, "predicate is null");
+        return new Filter(this, predicate);
+    }
+
+    /**
+     * Emits every intermediate result of the accumulation, starting with the first value, like
+     * {@link Observable#scan(io.reactivex.functions.BiFunction)}.
+     */
+    public final IntObservable scan(IntBinaryOperator accumulator) {
+        Objects.requireNonNull(accumulator, "accumulator is null");
+        return new Scan(this, accumulator);
+    }
+
+    /**
+     * Reduces the sequence to a single value, or completes empty when there were no values.
+     */
+    public final Maybe<Integer> reduce(IntBinaryOperator reducer) {
+        Objects.requireNonNull(reducer, "reducer is null");
+        return new Reduce(this, reducer);
+    }
+
+    /**
+     * Reduces the sequence starting from {@code seed}, which is also the result of an empty sequence.
+     */
+    public final Single<Integer> reduce(int seed, IntBinaryOperator reducer) {
+        Objects.requireNonNull(reducer, "reducer is null");
+        return new ReduceSeed(this, seed, reducer);
+    }
+
+    public final Single<Integer> sum() {
+        return reduce(0, Integer::sum);
+    }
+
+    public final Maybe<Integer> min() {
+        return reduce(Math::min);
+    }
+
+    public final Maybe<Integer> max() {
+        return reduce(Math::max);
+    }
+
+    /**
+     * Collects the values into an array. When the size is known upfront (see {@link #range}), the array is allocated
+     * once with that size, otherwise it grows and is trimmed at the end.
+     */
+    public final Single<int[]> toArray() {
+        return new Collect(this, null).map(IntArray::trimmed);
+    }
+
+    /**
+     * Collects the values into {@code target}, replacing its content, and emits it. Reusing the same IntArray for
+     * collections which don't overlap in time allocates nothing once it has grown to the largest of them.
+     */
+    public final Single<IntArray> collectInto(IntArray target) {
+        Objects.requireNonNull(target, "target is null");
+        return new Collect(this, target);
+    }
+
+    /**
+     * Bridge back to {@code Observable<Integer>}: every value is boxed on the way out.
+     */
+    public final Observable<Integer> boxed() {
+        return new Boxed(this);
+    }
+
+    private static final class Range extends IntObservable {
+        private final int start;
+        private final int count;
+
+        Range(int start, int count) {
+            this.start = start;
+            this.count = count;
+        }
+
+        @Override
+        int knownSize() {
+            return count;
+        }
+
+        @Override
+        protected void subscribeActual(IntObserver observer) {
+            RangeDisposable d = new RangeDisposable();
+            observer.onSubscribe(d);
+            for (int i = 0; i < count && !d.disposed; i++) {
+                observer.onNext(start + i);
+            }
+            if (!d.disposed) {
+                observer.onComplete();
+            }
+        }
+    }
+
+    private static final class RangeDisposable implements Disposable {
+        volatile boolean disposed;
+
+        @Override
+        public void dispose() {
+            disposed = true;
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+
+    private static final class FromObservable extends IntObservable {
+        private final ObservableSource<Integer> source;
+
+        FromObservable(ObservableSource<Integer> source) {
+            this.source = source;
+        }
+
+        @Override
+        protected void subscribeActual(IntObserver observer) {
+            source.subscribe(new Observer<Integer>() {
+                @Override
+                public void onSubscribe(Disposable d) {
+                    observer.onSubscribe(d);
+                }
+
+                @Override
+                public void onNext(Integer value) {
+                    observer.onNext(value);
+                }
+
+                @Override
+                public void onError(Throwable e) {
+                    observer.onError(e);
+                }
+
+                @Override
+                public void onComplete() {
+                    observer.onComplete();
+                }
+            });
+        }
+    }
+
+    /**
+     * Common part of the intermediate operators: keeps upstream disposable and guards against signals after a
+     * terminal event (e.g. mapper failure followed by upstream values emitted before it noticed disposal).
+     */
+    private abstract static class BasicIntObserver implements IntObserver, Disposable {
+        final IntObserver downstream;
+        Disposable upstream;
+        boolean done;
+
+        BasicIntObserver(IntObserver downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            upstream = d;
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (done) {
+                RxJavaPlugins.onError(e);
+                return;
+            }
+            done = true;
+            downstream.onError(e);
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            downstream.onComplete();
+        }
+
+        void fail(Throwable e) {
+            Exceptions.throwIfFatal(e);
+            upstream.dispose();
+            onError(e);
+        }
+
+        @Override
+        public void dispose() {
+            upstream.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return upstream.isDisposed();
+        }
+    }
+
+    private static final class Map extends IntObservable {
+        private final IntObservable source;
+        private final IntUnaryOperator mapper;
+
+        Map(IntObservable source, IntUnaryOperator mapper) {
+            this.source = source;
+            this.mapper = mapper;
+        }
+
+        @Override
+        int knownSize() {
+            return source.knownSize();
+        }
+
+        @Override
+        protected void subscribeActual(IntObserver observer) {
+            source.subscribe(new BasicIntObserver(observer) {
+                @Override
+                public void onNext(int value) {
+                    if (done) {
+                        return;
+                    }
+                    int result;
+                    try {
+                        result = mapper.applyAsInt(value);
+                    } catch (Throwable e) {
+                        fail(e);
+                        return;
+                    }
+                    downstream.onNext(result);
+                }
+            });
+        }
+    }
+
+    private static final class Filter extends IntObservable {
+        private final IntObservable source;
+        private final IntPredicate predicate;
+
+        Filter(IntObservable source, IntPredicate predicate) {
+            this.source = source;
+            this.predicate = predicate;
+        }
+
+        @Override
+        protected void subscribeActual(IntObserver observer) {
+            source.subscribe(new BasicIntObserver(observer) {
+                @Override
+                public void onNext(int value) {
+                    if (done) {
+                        return;
+                    }
+                    boolean pass;
+                    try {
+                        pass = predicate.test(value);
+                    } catch (Throwable e) {
+                        fail(e);
+                        return;
+                    }
+                    if (pass) {
+                        downstream.onNext(value);
+                    }
+                }
+            });
+        }
+    }
+
+    private static final class Scan extends IntObservable {
+        private final IntObservable source;
+        private final IntBinaryOperator accumulator;
+
+        Scan(IntObservable source, IntBinaryOperator accumulator) {
+            this.source = source;
+            this.accumulator = accumulator;
+        }
+
+        @Override
+        int knownSize() {
+            return source.knownSize();
+        }
+
+        @Override
+        protected void subscribeActual(IntObserver observer) {
+            source.subscribe(new BasicIntObserver(observer) {
+                boolean hasValue;
+                int value;
+
+                @Override
+                public void onNext(int next) {
+                    if (done) {
+                        return;
+                    }
+                    if (hasValue) {
+                        try {
+                            value = accumulator.applyAsInt(value, next);
+                        } catch (Throwable e) {
+                            fail(e);
+                            return;
+                        }
+                    } else {
+                        hasValue = true;
+                        value = next;
+                    }
+                    downstream.onNext(value);
+                }
+            });
+        }
+    }
+
+    private static final class Reduce extends Maybe<Integer> {
+        private final IntObservable source;
+        private final IntBinaryOperator reducer;
+
+        Reduce(IntObservable source, IntBinaryOperator reducer) {
+            this.source = source;
+            this.reducer = reducer;
+        }
+
+        @Override
+        protected void subscribeActual(MaybeObserver<? super Integer> observer) {
+            source.subscribe(new ReduceObserver(observer, reducer));
+        }
+    }
+
+    private static final class ReduceObserver implements IntObserver, Disposable {
+        private final MaybeObserver<? super Integer> downstream;
+        private final IntBinaryOperator reducer;
+        private Disposable upstream;
+        private boolean hasValue;
+        private int value;
+        private boolean done;
+
+        ReduceObserver(MaybeObserver<? super Integer> downstream, IntBinaryOperator reducer) {
+            this.downstream = downstream;
+            this.reducer = reducer;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            upstream = d;
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(int next) {
+            if (done) {
+                return;
+            }
+            if (hasValue) {
+                try {
+                    value = reducer.applyAsInt(value, next);
+                } catch (Throwable e) {
+                    Exceptions.throwIfFatal(e);
+                    upstream.dispose();
+                    onError(e);
+                }
+            } else {
+                hasValue = true;
+                value = next;
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (done) {
+                RxJavaPlugins.onError(e);
+                return;
+            }
+            done = true;
+            downstream.onError(e);
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            if (hasValue) {
+                downstream.onSuccess(value);
+            } else {
+                downstream.onComplete();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            upstream.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return upstream.isDisposed();
+        }
+    }
+
+    private static final class ReduceSeed extends Single<Integer> {
+        private final IntObservable source;
+        private final int seed;
+        private final IntBinaryOperator reducer;
+
+        ReduceSeed(IntObservable source, int seed, IntBinaryOperator reducer) {
+            this.source = source;
+            this.seed = seed;
+            this.reducer = reducer;
+        }
+
+        @Override
+        protected void subscribeActual(SingleObserver<? super Integer> observer) {
+            source.subscribe(new ReduceSeedObserver(observer, seed, reducer));
+        }
+    }
+
+    private static final class ReduceSeedObserver implements IntObserver, Disposable {
+        private final SingleObserver<? super Integer> downstream;
+        private final IntBinaryOperator reducer;
+        private Disposable upstream;
+        private int value;
+        private boolean done;
+
+        ReduceSeedObserver(SingleObserver<? super Integer> downstream, int seed, IntBinaryOperator reducer) {
+            this.downstream = downstream;
+            this.value = seed;
+            this.reducer = reducer;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            upstream = d;
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(int next) {
+            if (done) {
+                return;
+            }
+            try {
+                value = reducer.applyAsInt(value, next);
+            } catch (Throwable e) {
+                Exceptions.throwIfFatal(e);
+                upstream.dispose();
+                onError(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (done) {
+                RxJavaPlugins.onError(e);
+                return;
+            }
+            done = true;
+            downstream.onError(e);
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            downstream.onSuccess(value);
+        }
+
+        @Override
+        public void dispose() {
+            upstream.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return upstream.isDisposed();
+        }
+    }
+
+    private static final class Collect extends Single<IntArray> {
+        private final IntObservable source;
+        // null: a new array, sized by knownSize()
+        private final IntArray target;
+
+        Collect(IntObservable source, IntArray target) {
+            this.source = source;
+            this.target = target;
+        }
+
+        @Override
+        protected void subscribeActual(SingleObserver<? super IntArray> observer) {
+            IntArray values;
+            if (target == null) {
+                int size = source.knownSize();
+                values = size >= 0 ? new IntArray(size) : new IntArray();
+            } else {
+                values = target;
+                values.clear();
+            }
+            source.subscribe(new CollectObserver(observer, values));
+        }
+    }
+
+    private static final class CollectObserver implements IntObserver, Disposable {
+        private final SingleObserver<? super IntArray> downstream;
+        private final IntArray values;
+        private Disposable upstream;
+        private boolean done;
+
+        CollectObserver(SingleObserver<? super IntArray> downstream, IntArray values) {
+            this.downstream = downstream;
+            this.values = values;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            upstream = d;
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(int value) {
+            if (!done) {
+                values.add(value);
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (done) {
+                RxJavaPlugins.onError(e);
+                return;
+            }
+            done = true;
+            downstream.onError(e);
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            downstream.onSuccess(values);
+        }
+
+        @Override
+        public void dispose() {
+            upstream.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return upstream.isDisposed();
+        }
+    }
+
+    private static final class Boxed extends Observable<Integer> {
+        private final IntObservable source;
+
+        Boxed(IntObservable source) {
+            this.source = source;
+        }
+
+        @Override
+        protected void subscribeActual(Observer<? super Integer> observer) {
+            source.subscribe(new IntObserver() {
+                @Override
+                public void onSubscribe(Disposable d) {
+                    observer.onSubscribe(d);
+                }
+
+                @Override
+                public void onNext(int value) {
+                    observer.onNext(value);
+                }
+
+                @Override
+                public void onError(Throwable e) {
+                    observer.onError(e);
+                }
+
+                @Override
+                public void onComplete() {
+                    observer.onComplete();
+                }
+            });
+        }
+    }
+}
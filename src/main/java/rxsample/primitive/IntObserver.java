@@ -0,0 +1,16 @@
+package rxsample.primitive;
+
+import io.reactivex.disposables.Disposable;
+
+/**
+ * Same contract as {@link io.reactivex.Observer}, but receives values as {@code int} so nothing is boxed per element.
+ */
+public interface IntObserver {
+    void onSubscribe(Disposable d);
+
+    void onNext(int value);
+
+    void onError(Throwable e);
+
+    void onComplete();
+}
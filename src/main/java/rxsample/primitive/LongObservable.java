@@ -0,0 +1,608 @@
+package rxsample.primitive;
+
+import io.reactivex.Maybe;
+import io.reactivex.MaybeObserver;
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.Observer;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.SingleObserver;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.Schedulers;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * {@code long}-specialized counterpart of {@code Observable<Long>}.
+ * Values travel between operators as primitives, so a pipeline like {@code range().map().filter().sum()} doesn't
+ * allocate per element - only once per subscription. Use {@link #boxed()} / {@link #fromObservable(ObservableSource)}
+ * to cross over to regular Observables for operators which don't have primitive versions.
+ */
+public abstract class LongObservable {
+
+    /**
+     * Emits {@code count} sequential values starting with {@code start}, like {@link Observable#rangeLong(long, long)}.
+     */
+    public static LongObservable range(long start, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count >= 0 required but it was " + count);
+        }
+        if (count > 1 && start > Long.MAX_VALUE - (count - 1)) {
+            throw new IllegalArgumentException("Overflow");
+        }
+        return new Range(start, count);
+    }
+
+    /**
+     * Emits 0, 1, 2... every {@code period}, like {@link Observable#interval(long, TimeUnit)}.
+     */
+    public static LongObservable interval(long period, TimeUnit unit) {
+        return interval(period, period, unit, Schedulers.computation());
+    }
+
+    public static LongObservable interval(long initialDelay, long period, TimeUnit unit, Scheduler scheduler) {
+        Objects.requireNonNull(unit, "unit is null");
+        Objects.requireNonNull(scheduler, "scheduler is null");
+        return new Interval(Math.max(0L, initialDelay), Math.max(0L, period), unit, scheduler);
+    }
+
+    /**
+     * Unboxes values of the given source. Boxing cost is paid by the source, operators after this one are primitive.
+     */
+    public static LongObservable fromObservable(ObservableSource<Long> source) {
+        Objects.requireNonNull(source, "source is null");
+        return new FromObservable(source);
+    }
+
+    public final void subscribe(LongObserver observer) {
+        Objects.requireNonNull(observer, "observer is null");
+        subscribeActual(observer);
+    }
+
+    protected abstract void subscribeActual(LongObserver observer);
+
+    public final LongObservable map(LongUnaryOperator mapper) {
+        Objects.requireNonNull(mapper, "mapper is null");
+        return new Map(this, mapper);
+    }
+
+    public final LongObservable filter(LongPredicate predicate) {
+        Objects.requireNonNull(predicate, "predicate is null");
+        return new Filter(this, predicate);
+    }
+
+    /**
+     * Emits every intermediate result of the accumulation, starting with the first value, like
+     * {@link Observable#scan(io.reactivex.functions.BiFunction)}.
+     */
+    public final LongObservable scan(LongBinaryOperator accumulator) {
+        Objects.requireNonNull(accumulator, "accumulator is null");
+        return new Scan(this, accumulator);
+    }
+
+    /**
+     * Reduces the sequence to a single value, or completes empty when there were no values.
+     */
+    public final Maybe<Long> reduce(LongBinaryOperator reducer) {
+        Objects.requireNonNull(reducer, "reducer is null");
+        return new Reduce(this, reducer);
+    }
+
+    /**
+     * Reduces the sequence starting from {@code seed}, which is also the result of an empty sequence.
+     */
+    public final Single<Long> reduce(long seed, LongBinaryOperator reducer) {
+        Objects.requireNonNull(reducer, "reducer is null");
+        return new ReduceSeed(this, seed, reducer);
+    }
+
+    public final Single<Long> sum() {
+        return reduce(0, Long::sum);
+    }
+
+    public final Maybe<Long> min() {
+        return reduce(Math::min);
+    }
+
+    public final Maybe<Long> max() {
+        return reduce(Math::max);
+    }
+
+    /**
+     * Bridge back to {@code Observable<Long>}: every value is boxed on the way out.
+     */
+    public final Observable<Long> boxed() {
+        return new Boxed(this);
+    }
+
+    private static final class Range extends LongObservable {
+        private final long start;
+        private final long count;
+
+        Range(long start, long count) {
+            this.start = start;
+            this.count = count;
+        }
+
+        @Override
+        protected void subscribeActual(LongObserver observer) {
+            RangeDisposable d = new RangeDisposable();
+            observer.onSubscribe(d);
+            for (long i = 0; i < count && !d.disposed; i++) {
+                observer.onNext(start + i);
+            }
+            if (!d.disposed) {
+                observer.onComplete();
+            }
+        }
+    }
+
+    private static final class RangeDisposable implements Disposable {
+        volatile boolean disposed;
+
+        @Override
+        public void dispose() {
+            disposed = true;
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+
+    private static final class Interval extends LongObservable {
+        private final long initialDelay;
+        private final long period;
+        private final TimeUnit unit;
+        private final Scheduler scheduler;
+
+        Interval(long initialDelay, long period, TimeUnit unit, Scheduler scheduler) {
+            this.initialDelay = initialDelay;
+            this.period = period;
+            this.unit = unit;
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        protected void subscribeActual(LongObserver observer) {
+            IntervalTask task = new IntervalTask(observer);
+            observer.onSubscribe(task);
+            Disposable d = scheduler.schedulePeriodicallyDirect(task, initialDelay, period, unit);
+            if (!task.compareAndSet(null, d)) {
+                // disposed from onSubscribe() or by the first tick
+                d.dispose();
+            }
+        }
+    }
+
+    /**
+     * Holds the periodic task disposable; {@link #DISPOSED} marks disposal which happened before scheduling returned.
+     */
+    private static final class IntervalTask extends AtomicReference<Disposable> implements Runnable, Disposable {
+        private static final Disposable DISPOSED = Disposables.disposed();
+
+        private final LongObserver downstream;
+        private long count;
+
+        IntervalTask(LongObserver downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void run() {
+            if (get() != DISPOSED) {
+                downstream.onNext(count++);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            Disposable d = getAndSet(DISPOSED);
+            if (d != null && d != DISPOSED) {
+                d.dispose();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return get() == DISPOSED;
+        }
+    }
+
+    private static final class FromObservable extends LongObservable {
+        private final ObservableSource<Long> source;
+
+        FromObservable(ObservableSource<Long> source) {
+            this.source = source;
+        }
+
+        @Override
+        protected void subscribeActual(LongObserver observer) {
+            source.subscribe(new Observer<Long>() {
+                @Override
+                public void onSubscribe(Disposable d) {
+                    observer.onSubscribe(d);
+                }
+
+                @Override
+                public void onNext(Long value) {
+                    observer.onNext(value);
+                }
+
+                @Override
+                public void onError(Throwable e) {
+                    observer.onError(e);
+                }
+
+                @Override
+                public void onComplete() {
+                    observer.onComplete();
+                }
+            });
+        }
+    }
+
+    /**
+     * Common part of the intermediate operators: keeps upstream disposable and guards against signals after a
+     * terminal event (e.g. mapper failure followed by upstream values emitted before it noticed disposal).
+     */
+    private abstract static class BasicLongObserver implements LongObserver, Disposable {
+        final LongObserver downstream;
+        Disposable upstream;
+        boolean done;
+
+        BasicLongObserver(LongObserver downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            upstream = d;
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (done) {
+                RxJavaPlugins.onError(e);
+                return;
+            }
+            done = true;
+            downstream.onError(e);
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            downstream.onComplete();
+        }
+
+        void fail(Throwable e) {
+            Exceptions.throwIfFatal(e);
+            upstream.dispose();
+            onError(e);
+        }
+
+        @Override
+        public void dispose() {
+            upstream.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return upstream.isDisposed();
+        }
+    }
+
+    private static final class Map extends LongObservable {
+        private final LongObservable source;
+        private final LongUnaryOperator mapper;
+
+        Map(LongObservable source, LongUnaryOperator mapper) {
+            this.source = source;
+            this.mapper = mapper;
+        }
+
+        @Override
+        protected void subscribeActual(LongObserver observer) {
+            source.subscribe(new BasicLongObserver(observer) {
+                @Override
+                public void onNext(long value) {
+                    if (done) {
+                        return;
+                    }
+                    long result;
+                    try {
+                        result = mapper.applyAsLong(value);
+                    } catch (Throwable e) {
+                        fail(e);
+                        return;
+                    }
+                    downstream.onNext(result);
+                }
+            });
+        }
+    }
+
+    private static final class Filter extends LongObservable {
+        private final LongObservable source;
+        private final LongPredicate predicate;
+
+        Filter(LongObservable source, LongPredicate predicate) {
+            this.source = source;
+            this.predicate = predicate;
+        }
+
+        @Override
+        protected void subscribeActual(LongObserver observer) {
+            source.subscribe(new BasicLongObserver(observer) {
+                @Override
+                public void onNext(long value) {
+                    if (done) {
+                        return;
+                    }
+                    boolean pass;
+                    try {
+                        pass = predicate.test(value);
+                    } catch (Throwable e) {
+                        fail(e);
+                        return;
+                    }
+                    if (pass) {
+                        downstream.onNext(value);
+                    }
+                }
+            });
+        }
+    }
+
+    private static final class Scan extends LongObservable {
+        private final LongObservable source;
+        private final LongBinaryOperator accumulator;
+
+        Scan(LongObservable source, LongBinaryOperator accumulator) {
+            this.source = source;
+            this.accumulator = accumulator;
+        }
+
+        @Override
+        protected void subscribeActual(LongObserver observer) {
+            source.subscribe(new BasicLongObserver(observer) {
+                boolean hasValue;
+                long value;
+
+                @Override
+                public void onNext(long next) {
+                    if (done) {
+                        return;
+                    }
+                    if (hasValue) {
+                        try {
+                            value = accumulator.applyAsLong(value, next);
+                        } catch (Throwable e) {
+                            fail(e);
+                            return;
+                        }
+                    } else {
+                        hasValue = true;
+                        value = next;
+                    }
+                    downstream.onNext(value);
+                }
+            });
+        }
+    }
+
+    private static final class Reduce extends Maybe<Long> {
+        private final LongObservable source;
+        private final LongBinaryOperator reducer;
+
+        Reduce(LongObservable source, LongBinaryOperator reducer) {
+            this.source = source;
+            this.reducer = reducer;
+        }
+
+        @Override
+        protected void subscribeActual(MaybeObserver<? super Long> observer) {
+            source.subscribe(new ReduceObserver(observer, reducer));
+        }
+    }
+
+    private static final class ReduceObserver implements LongObserver, Disposable {
+        private final MaybeObserver<? super Long> downstream;
+        private final LongBinaryOperator reducer;
+        private Disposable upstream;
+        private boolean hasValue;
+        private long value;
+        private boolean done;
+
+        ReduceObserver(MaybeObserver<? super Long> downstream, LongBinaryOperator reducer) {
+            this.downstream = downstream;
+            this.reducer = reducer;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            upstream = d;
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(long next) {
+            if (done) {
+                return;
+            }
+            if (hasValue) {
+                try {
+                    value = reducer.applyAsLong(value, next);
+                } catch (Throwable e) {
+                    Exceptions.throwIfFatal(e);
+                    upstream.dispose();
+                    onError(e);
+                }
+            } else {
+                hasValue = true;
+                value = next;
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (done) {
+                RxJavaPlugins.onError(e);
+                return;
+            }
+            done = true;
+            downstream.onError(e);
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            if (hasValue) {
+                downstream.onSuccess(value);
+            } else {
+                downstream.onComplete();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            upstream.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return upstream.isDisposed();
+        }
+    }
+
+    private static final class ReduceSeed extends Single<Long> {
+        private final LongObservable source;
+        private final long seed;
+        private final LongBinaryOperator reducer;
+
+        ReduceSeed(LongObservable source, long seed, LongBinaryOperator reducer) {
+            this.source = source;
+            this.seed = seed;
+            this.reducer = reducer;
+        }
+
+        @Override
+        protected void subscribeActual(SingleObserver<? super Long> observer) {
+            source.subscribe(new ReduceSeedObserver(observer, seed, reducer));
+        }
+    }
+
+    private static final class ReduceSeedObserver implements LongObserver, Disposable {
+        private final SingleObserver<? super Long> downstream;
+        private final LongBinaryOperator reducer;
+        private Disposable upstream;
+        private long value;
+        private boolean done;
+
+        ReduceSeedObserver(SingleObserver<? super Long> downstream, long seed, LongBinaryOperator reducer) {
+            this.downstream = downstream;
+            this.value = seed;
+            this.reducer = reducer;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            upstream = d;
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(long next) {
+            if (done) {
+                return;
+            }
+            try {
+                value = reducer.applyAsLong(value, next);
+            } catch (Throwable e) {
+                Exceptions.throwIfFatal(e);
+                upstream.dispose();
+                onError(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (done) {
+                RxJavaPlugins.onError(e);
+                return;
+            }
+            done = true;
+            downstream.onError(e);
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            downstream.onSuccess(value);
+        }
+
+        @Override
+        public void dispose() {
+            upstream.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return upstream.isDisposed();
+        }
+    }
+
+    private static final class Boxed extends Observable<Long> {
+        private final LongObservable source;
+
+        Boxed(LongObservable source) {
+            this.source = source;
+        }
+
+        @Override
+        protected void subscribeActual(Observer<? super Long> observer) {
+            source.subscribe(new LongObserver() {
+                @Override
+                public void onSubscribe(Disposable d) {
+                    observer.onSubscribe(d);
+                }
+
+                @Override
+                public void onNext(long value) {
+                    observer.onNext(value);
+                }
+
+                @Override
+                public void onError(Throwable e) {
+                    observer.onError(e);
+                }
+
+                @Override
+                public void onComplete() {
+                    observer.onComplete();
+                }
+            });
+        }
+    }
+}
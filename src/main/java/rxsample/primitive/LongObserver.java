@@ -0,0 +1,16 @@
+package rxsample.primitive;
+
+import io.reactivex.disposables.Disposable;
+
+/**
+ * Same contract as {@link io.reactivex.Observer}, but receives values as {@code long} so nothing is boxed per element.
+ */
+public interface LongObserver {
+    void onSubscribe(Disposable d);
+
+    void onNext(long value);
+
+    void onError(Throwable e);
+
+    void onComplete();
+}
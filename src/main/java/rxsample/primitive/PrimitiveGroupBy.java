@@ -0,0 +1,88 @@
+package rxsample.primitive;
+
+import io.reactivex.ObservableConverter;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.Single;
+import io.reactivex.functions.Function;
+import io.reactivex.observables.GroupedObservable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * groupBy() and toMultimap() for numeric keys, which keep the groups in a {@link LongObjectMap}: the key of every
+ * value is computed and looked up as a primitive, so it's boxed once per group ({@link GroupedObservable#getKey()})
+ * instead of once per value, and there is no HashMap entry per group.
+ * <p>
+ * Groups behave like the ones of {@link io.reactivex.Observable#groupBy}: each can be subscribed once, buffers values
+ * until then, and when it's disposed the next value with its key starts a new group. Upstream is disposed when the
+ * main observer and all groups were disposed.
+ * <p>
+ * Usage: {@code words.compose(PrimitiveGroupBy.byChar(word -> word.charAt(0)))} or
+ * {@code persons.as(PrimitiveGroupBy.toMultimapByInt(person -> person.age, person -> person.name))}
+ */
+public final class PrimitiveGroupBy {
+    // initial capacity of a group buffer, it grows by linking more arrays of the same size
+    static final int DEFAULT_GROUP_BUFFER = 16;
+
+    private PrimitiveGroupBy() {
+    }
+
+    public static <T> ObservableTransformer<T, GroupedObservable<Integer, T>> byInt(ToIntFunction<? super T> keySelector) {
+        Objects.requireNonNull(keySelector, "keySelector is null");
+        return upstream -> new PrimitiveGroupByObservable<>(upstream, keySelector::applyAsInt,
+                key -> (int) key, DEFAULT_GROUP_BUFFER);
+    }
+
+    public static <T> ObservableTransformer<T, GroupedObservable<Long, T>> byLong(ToLongFunction<? super T> keySelector) {
+        Objects.requireNonNull(keySelector, "keySelector is null");
+        return upstream -> new PrimitiveGroupByObservable<>(upstream, keySelector, Long::valueOf,
+                DEFAULT_GROUP_BUFFER);
+    }
+
+    public static <T> ObservableTransformer<T, GroupedObservable<Character, T>> byChar(
+            ToCharFunction<? super T> keySelector) {
+        Objects.requireNonNull(keySelector, "keySelector is null");
+        return upstream -> new PrimitiveGroupByObservable<>(upstream, keySelector::applyAsChar,
+                key -> (char) key, DEFAULT_GROUP_BUFFER);
+    }
+
+    /**
+     * Values by key, like {@link io.reactivex.Observable#toMultimap(io.reactivex.functions.Function,
+     * io.reactivex.functions.Function)}. The lists keep the order of the values.
+     */
+    public static <T, V> ObservableConverter<T, Single<LongObjectMap<List<V>>>> toMultimapByInt(
+            ToIntFunction<? super T> keySelector, Function<? super T, ? extends V> valueSelector) {
+        Objects.requireNonNull(keySelector, "keySelector is null");
+        return toMultimap(keySelector::applyAsInt, valueSelector);
+    }
+
+    public static <T, V> ObservableConverter<T, Single<LongObjectMap<List<V>>>> toMultimapByLong(
+            ToLongFunction<? super T> keySelector, Function<? super T, ? extends V> valueSelector) {
+        Objects.requireNonNull(keySelector, "keySelector is null");
+        return toMultimap(keySelector, valueSelector);
+    }
+
+    public static <T, V> ObservableConverter<T, Single<LongObjectMap<List<V>>>> toMultimapByChar(
+            ToCharFunction<? super T> keySelector, Function<? super T, ? extends V> valueSelector) {
+        Objects.requireNonNull(keySelector, "keySelector is null");
+        return toMultimap(keySelector::applyAsChar, valueSelector);
+    }
+
+    private static <T, V> ObservableConverter<T, Single<LongObjectMap<List<V>>>> toMultimap(
+            ToLongFunction<? super T> keySelector, Function<? super T, ? extends V> valueSelector) {
+        Objects.requireNonNull(valueSelector, "valueSelector is null");
+        return upstream -> upstream.collect(LongObjectMap::new, (map, value) -> {
+            long key = keySelector.applyAsLong(value);
+            List<V> values = map.get(key);
+            if (values == null) {
+                values = new ArrayList<>();
+                map.put(key, values);
+            }
+            values.add(valueSelector.apply(value));
+        });
+    }
+}
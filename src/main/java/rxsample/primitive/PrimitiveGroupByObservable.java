@@ -0,0 +1,174 @@
+package rxsample.primitive;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.observables.GroupedObservable;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.subjects.UnicastSubject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+
+final class PrimitiveGroupByObservable<T, K> extends Observable<GroupedObservable<K, T>> {
+    private final ObservableSource<T> source;
+    private final ToLongFunction<? super T> keySelector;
+    private final LongFunction<? extends K> keyBoxer;
+    private final int bufferSize;
+
+    PrimitiveGroupByObservable(ObservableSource<T> source, ToLongFunction<? super T> keySelector,
+                               LongFunction<? extends K> keyBoxer, int bufferSize) {
+        this.source = source;
+        this.keySelector = keySelector;
+        this.keyBoxer = keyBoxer;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super GroupedObservable<K, T>> observer) {
+        source.subscribe(new GroupByObserver<>(observer, keySelector, keyBoxer, bufferSize));
+    }
+
+    /**
+     * Counts the main observer and the groups which weren't disposed yet; upstream is disposed when it drops to 0.
+     * The map of groups is accessed only from upstream signals.
+     */
+    static final class GroupByObserver<T, K> extends AtomicInteger implements Observer<T>, Disposable {
+        private final Observer<? super GroupedObservable<K, T>> downstream;
+        private final ToLongFunction<? super T> keySelector;
+        private final LongFunction<? extends K> keyBoxer;
+        private final int bufferSize;
+        private final LongObjectMap<Group<K, T>> groups = new LongObjectMap<>();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private Disposable upstream;
+        private boolean done;
+
+        GroupByObserver(Observer<? super GroupedObservable<K, T>> downstream, ToLongFunction<? super T> keySelector,
+                        LongFunction<? extends K> keyBoxer, int bufferSize) {
+            this.downstream = downstream;
+            this.keySelector = keySelector;
+            this.keyBoxer = keyBoxer;
+            this.bufferSize = bufferSize;
+            lazySet(1);
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            upstream = d;
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (done) {
+                return;
+            }
+            long key;
+            try {
+                key = keySelector.applyAsLong(t);
+            } catch (Throwable e) {
+                Exceptions.throwIfFatal(e);
+                upstream.dispose();
+                onError(e);
+                return;
+            }
+            Group<K, T> group = groups.get(key);
+            if (group == null || group.cancelled) {
+                if (group != null) {
+                    groups.remove(key);
+                }
+                if (cancelled.get()) {
+                    // nobody can receive a new group
+                    return;
+                }
+                group = new Group<>(keyBoxer.apply(key), this, bufferSize);
+                groups.put(key, group);
+                getAndIncrement();
+                downstream.onNext(group);
+            }
+            group.subject.onNext(t);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (done) {
+                RxJavaPlugins.onError(e);
+                return;
+            }
+            done = true;
+            for (Group<K, T> group : drainGroups()) {
+                group.subject.onError(e);
+            }
+            downstream.onError(e);
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            for (Group<K, T> group : drainGroups()) {
+                group.subject.onComplete();
+            }
+            downstream.onComplete();
+        }
+
+        private List<Group<K, T>> drainGroups() {
+            List<Group<K, T>> list = new ArrayList<>(groups.size());
+            groups.forEach((key, group) -> list.add(group));
+            groups.clear();
+            return list;
+        }
+
+        void cancelGroup() {
+            if (decrementAndGet() == 0) {
+                upstream.dispose();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (cancelled.compareAndSet(false, true)) {
+                cancelGroup();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return cancelled.get();
+        }
+    }
+
+    /**
+     * Group buffered by a UnicastSubject until its single subscriber arrives. The subject calls {@link #cancel}
+     * when the subscriber disposes or the group terminates.
+     */
+    static final class Group<K, T> extends GroupedObservable<K, T> {
+        final UnicastSubject<T> subject;
+        private final GroupByObserver<T, K> parent;
+        volatile boolean cancelled;
+
+        Group(K key, GroupByObserver<T, K> parent, int bufferSize) {
+            super(key);
+            this.parent = parent;
+            this.subject = UnicastSubject.create(bufferSize, this::cancel);
+        }
+
+        private void cancel() {
+            cancelled = true;
+            parent.cancelGroup();
+        }
+
+        @Override
+        protected void subscribeActual(Observer<? super T> observer) {
+            subject.subscribe(observer);
+        }
+    }
+}
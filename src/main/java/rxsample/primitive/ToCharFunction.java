@@ -0,0 +1,8 @@
+package rxsample.primitive;
+
+/**
+ * {@code char}-valued counterpart of {@link java.util.function.ToIntFunction}, which the JDK doesn't have.
+ */
+public interface ToCharFunction<T> {
+    char applyAsChar(T value);
+}
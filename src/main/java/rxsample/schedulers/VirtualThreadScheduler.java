@@ -0,0 +1,253 @@
+package rxsample.schedulers;
+
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.plugins.RxJavaPlugins;
+
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scheduler for blocking stages which starts a new virtual thread (Java 21+) for the work instead of borrowing a
+ * platform thread from a pool: unlike {@link io.reactivex.schedulers.Schedulers#io()}, 10K subscriptions blocked on
+ * I/O don't need 10K platform threads.
+ * <p>
+ * Workers have the same semantics as the workers of the built-in schedulers: tasks of a single worker are executed
+ * one after another in the order they were scheduled (each run of the worker's queue gets its own thread),
+ * delayed tasks wait on a sleeping virtual thread, and disposing a task or a worker cancels pending tasks and
+ * interrupts the running one.
+ * <p>
+ * The project is compiled for Java 8, so virtual threads are looked up reflectively: use {@link #isSupported()} to
+ * check if the running JVM has them. {@link #create(ThreadFactory)} gives the same semantics on top of any other
+ * thread factory.
+ */
+public final class VirtualThreadScheduler extends Scheduler {
+    private static final ThreadFactory VIRTUAL_THREADS = virtualThreadFactory();
+
+    private final ThreadFactory threadFactory;
+
+    private VirtualThreadScheduler(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * Whether the running JVM supports virtual threads.
+     */
+    public static boolean isSupported() {
+        return VIRTUAL_THREADS != null;
+    }
+
+    /**
+     * @throws UnsupportedOperationException if the running JVM doesn't support virtual threads
+     */
+    public static VirtualThreadScheduler create() {
+        if (VIRTUAL_THREADS == null) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21+, but running on Java "
+                    + System.getProperty("java.version"));
+        }
+        return new VirtualThreadScheduler(VIRTUAL_THREADS);
+    }
+
+    /**
+     * Thread-per-task scheduler on top of the given thread factory, which has to be thread-safe.
+     */
+    public static VirtualThreadScheduler create(ThreadFactory threadFactory) {
+        Objects.requireNonNull(threadFactory, "threadFactory is null");
+        return new VirtualThreadScheduler(threadFactory);
+    }
+
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            // Thread.ofVirtual().name("RxVirtualThread-", 0).factory()
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method name = builderClass.getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, "RxVirtualThread-", 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Worker createWorker() {
+        return new ThreadPerTaskWorker(threadFactory);
+    }
+
+    static final class ThreadPerTaskWorker extends Worker implements Runnable {
+        private final ThreadFactory threadFactory;
+        private final ConcurrentLinkedQueue<WorkerTask> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final CompositeDisposable tasks = new CompositeDisposable();
+        private volatile boolean disposed;
+
+        ThreadPerTaskWorker(ThreadFactory threadFactory) {
+            this.threadFactory = threadFactory;
+        }
+
+        @Override
+        public Disposable schedule(Runnable run, long delay, TimeUnit unit) {
+            Objects.requireNonNull(run, "run is null");
+            Objects.requireNonNull(unit, "unit is null");
+            if (disposed) {
+                return Disposables.disposed();
+            }
+            WorkerTask task = new WorkerTask(RxJavaPlugins.onSchedule(run), this);
+            if (!tasks.add(task)) {
+                return Disposables.disposed();
+            }
+            if (delay <= 0) {
+                enqueue(task);
+            } else {
+                long delayNanos = unit.toNanos(delay);
+                Thread timer = threadFactory.newThread(() -> {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(delayNanos);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    task.timer = null;
+                    enqueue(task);
+                });
+                task.timer = timer;
+                timer.start();
+            }
+            return task;
+        }
+
+        private void enqueue(WorkerTask task) {
+            queue.offer(task);
+            if (wip.getAndIncrement() == 0) {
+                threadFactory.newThread(this).start();
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            for (;;) {
+                for (;;) {
+                    if (disposed) {
+                        queue.clear();
+                        return;
+                    }
+                    WorkerTask task = queue.poll();
+                    if (task == null) {
+                        break;
+                    }
+                    task.run();
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        void remove(WorkerTask task) {
+            tasks.delete(task);
+        }
+
+        @Override
+        public void dispose() {
+            if (!disposed) {
+                disposed = true;
+                tasks.dispose();
+                if (wip.getAndIncrement() == 0) {
+                    queue.clear();
+                }
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+
+    /**
+     * Task which can be disposed before it runs (then it's skipped), or while it runs (then its thread is
+     * interrupted, but the interrupt never leaks into the worker's next task).
+     */
+    static final class WorkerTask extends AtomicInteger implements Runnable, Disposable {
+        private static final int READY = 0;
+        private static final int RUNNING = 1;
+        private static final int INTERRUPTING = 2;
+        private static final int DONE = 3;
+
+        private final Runnable run;
+        private final ThreadPerTaskWorker parent;
+        private volatile Thread runner;
+        volatile Thread timer;
+
+        WorkerTask(Runnable run, ThreadPerTaskWorker parent) {
+            this.run = run;
+            this.parent = parent;
+        }
+
+        @Override
+        public void run() {
+            runner = Thread.currentThread();
+            if (!compareAndSet(READY, RUNNING)) {
+                runner = null;
+                return;
+            }
+            try {
+                run.run();
+            } catch (Throwable e) {
+                Exceptions.throwIfFatal(e);
+                RxJavaPlugins.onError(e);
+            } finally {
+                if (!compareAndSet(RUNNING, DONE)) {
+                    while (get() == INTERRUPTING) {
+                        Thread.yield();
+                    }
+                    Thread.interrupted();
+                }
+                runner = null;
+                parent.remove(this);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            for (;;) {
+                int state = get();
+                if (state == READY) {
+                    if (compareAndSet(READY, DONE)) {
+                        Thread t = timer;
+                        if (t != null) {
+                            t.interrupt();
+                        }
+                        parent.remove(this);
+                        return;
+                    }
+                } else if (state == RUNNING) {
+                    if (compareAndSet(RUNNING, INTERRUPTING)) {
+                        Thread t = runner;
+                        // a task disposing itself (e.g. through take()) isn't interrupted
+                        if (t != null && t != Thread.currentThread()) {
+                            t.interrupt();
+                        }
+                        set(DONE);
+                        return;
+                    }
+                } else {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return get() == DONE;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package rxsample.schedulers;
+
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.Schedulers;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Alternative to {@link Schedulers#computation()} on top of a work-stealing {@link ForkJoinPool}.
+ * <p>
+ * computation() assigns every Worker to one of its single-threaded executors round-robin, so a Worker which is
+ * busy with a hot groupBy() partition delays all the Workers which happened to get the same thread, while other
+ * threads idle. Here every Worker still executes its tasks one after another in the order they were scheduled, but
+ * the Worker isn't bound to a thread: its queue is drained by a pool task which idle threads can steal, and which
+ * gives the thread up after {@value #DRAIN_BATCH} tasks, so that other Workers queued behind it get their turn.
+ * <p>
+ * Delayed tasks wait on {@link Schedulers#single()} and are then executed in the pool.
+ */
+public final class WorkStealingScheduler extends Scheduler {
+    static final int DRAIN_BATCH = 64;
+
+    private final ForkJoinPool pool;
+    private final LongAccumulator maxQueueDepth = new LongAccumulator(Math::max, 0);
+
+    private WorkStealingScheduler(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism, WorkStealingScheduler::newThread, null, true);
+    }
+
+    /**
+     * Scheduler with as many threads as there are available processors.
+     */
+    public static WorkStealingScheduler create() {
+        return create(Runtime.getRuntime().availableProcessors());
+    }
+
+    public static WorkStealingScheduler create(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism > 0 required but it was " + parallelism);
+        }
+        return new WorkStealingScheduler(parallelism);
+    }
+
+    private static ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("RxWorkStealingScheduler-" + thread.getPoolIndex());
+        return thread;
+    }
+
+    /**
+     * Estimated number of Worker drains which were executed by a thread other than the one they were queued on.
+     */
+    public long stealCount() {
+        return pool.getStealCount();
+    }
+
+    /**
+     * Estimated number of Worker drains waiting for a thread.
+     */
+    public long queuedDrainCount() {
+        return pool.getQueuedTaskCount() + pool.getQueuedSubmissionCount();
+    }
+
+    /**
+     * Maximum number of tasks which were waiting in a single Worker's queue so far.
+     */
+    public long maxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    @Override
+    public Worker createWorker() {
+        return new StealingWorker(this);
+    }
+
+    @Override
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    static final class StealingWorker extends Worker implements Runnable {
+        private final WorkStealingScheduler parent;
+        private final ConcurrentLinkedQueue<WorkerTask> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicInteger depth = new AtomicInteger();
+        private final CompositeDisposable tasks = new CompositeDisposable();
+        private volatile boolean disposed;
+
+        StealingWorker(WorkStealingScheduler parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public Disposable schedule(Runnable run, long delay, TimeUnit unit) {
+            Objects.requireNonNull(run, "run is null");
+            Objects.requireNonNull(unit, "unit is null");
+            if (disposed) {
+                return Disposables.disposed();
+            }
+            WorkerTask task = new WorkerTask(RxJavaPlugins.onSchedule(run), tasks);
+            if (!tasks.add(task)) {
+                return Disposables.disposed();
+            }
+            if (delay <= 0) {
+                enqueue(task);
+            } else {
+                task.timer = Schedulers.single().scheduleDirect(() -> enqueue(task), delay, unit);
+            }
+            return task;
+        }
+
+        private void enqueue(WorkerTask task) {
+            queue.offer(task);
+            parent.maxQueueDepth.accumulate(depth.incrementAndGet());
+            if (wip.getAndIncrement() == 0) {
+                submit();
+            }
+        }
+
+        private void submit() {
+            ForkJoinTask<?> drain = ForkJoinTask.adapt(this);
+            if (ForkJoinTask.getPool() == parent.pool) {
+                // local queue of the current thread, which other threads steal from
+                drain.fork();
+            } else {
+                parent.pool.execute(drain);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            int executed = 0;
+            for (;;) {
+                for (;;) {
+                    if (disposed) {
+                        queue.clear();
+                        return;
+                    }
+                    if (executed == DRAIN_BATCH) {
+                        // keep wip, the resubmitted drain continues where this one stopped
+                        submit();
+                        return;
+                    }
+                    WorkerTask task = queue.poll();
+                    if (task == null) {
+                        break;
+                    }
+                    depth.decrementAndGet();
+                    task.run();
+                    executed++;
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (!disposed) {
+                disposed = true;
+                tasks.dispose();
+                if (wip.getAndIncrement() == 0) {
+                    queue.clear();
+                }
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+
+    static final class WorkerTask extends AtomicBoolean implements Runnable, Disposable {
+        private final Runnable run;
+        private final CompositeDisposable parent;
+        volatile Disposable timer;
+
+        WorkerTask(Runnable run, CompositeDisposable parent) {
+            this.run = run;
+            this.parent = parent;
+        }
+
+        @Override
+        public void run() {
+            if (get()) {
+                return;
+            }
+            try {
+                run.run();
+            } catch (Throwable e) {
+                Exceptions.throwIfFatal(e);
+                RxJavaPlugins.onError(e);
+            } finally {
+                lazySet(true);
+                parent.delete(this);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (compareAndSet(false, true)) {
+                Disposable t = timer;
+                if (t != null) {
+                    t.dispose();
+                }
+                parent.delete(this);
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return get();
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package rxsample.sinks;
+
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent key-value sink for side effects of pipelines running on several threads (e.g. doOnNext(save) after
+ * observeOn()), where a plain HashMap is racy and a synchronized one serializes all writers.
+ * <p>
+ * Keys are spread over shards by hash; every shard is a table of buckets holding immutable chains of entries, which
+ * writers replace with a CAS - no locks, a writer only retries when another writer changed the same bucket. When a
+ * shard grows, one of the writers resizes it while others keep writing: buckets which were already moved are
+ * marked with a forwarding node pointing to the new table.
+ * <p>
+ * Reads never block either: {@link #get} and {@link #snapshot} see every bucket as of some moment during the call,
+ * like iteration of ConcurrentHashMap. Each shard counts its writes and the CAS retries caused by contention.
+ */
+public final class ShardedSink<K, V> {
+    private static final int INITIAL_BUCKETS = 16;
+
+    private final Shard<K, V>[] shards;
+    private final int shardMask;
+    private final int shardShift;
+
+    @SuppressWarnings("unchecked")
+    private ShardedSink(int shardCount) {
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard<>();
+        }
+        shardMask = shardCount - 1;
+        // the top log2(shardCount) bits; with a single shard the mask is 0 and the shift of 32 doesn't matter
+        shardShift = Integer.numberOfLeadingZeros(shardMask);
+    }
+
+    /**
+     * Sink with at least {@code shards} shards (rounded up to a power of 2).
+     */
+    public static <K, V> ShardedSink<K, V> create(int shards) {
+        if (shards <= 0 || shards > 1 << 16) {
+            throw new IllegalArgumentException("0 < shards <= 65536 required but it was " + shards);
+        }
+        int size = Integer.highestOneBit(shards);
+        if (size < shards) {
+            size <<= 1;
+        }
+        return new ShardedSink<>(size);
+    }
+
+    /**
+     * Murmur3 finalizer: every bit of the result depends on every bit of the hash code, so sequential keys (small
+     * Integers, string lengths) spread over both the shards and the buckets.
+     */
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+
+    private Shard<K, V> shard(int hash) {
+        // the top bits choose the shard, the bottom bits the bucket within it; they overlap only in tables of more
+        // than 2^(32 - log2(shards)) buckets
+        return shards[(hash >>> shardShift) & shardMask];
+    }
+
+    /**
+     * Stores the value, replacing the previous value of the key.
+     */
+    public void put(K key, V value) {
+        Objects.requireNonNull(key, "key is null");
+        Objects.requireNonNull(value, "value is null");
+        int hash = spread(key.hashCode());
+        shard(hash).put(key, hash, value);
+    }
+
+    public V get(K key) {
+        Objects.requireNonNull(key, "key is null");
+        int hash = spread(key.hashCode());
+        return shard(hash).get(key, hash);
+    }
+
+    /**
+     * Consumer which stores every value under the key derived from it, to be used as
+     * {@code subscribe(sink.writer(keySelector))} or {@code doOnNext(sink.writer(keySelector))}.
+     */
+    public Consumer<V> writer(Function<? super V, ? extends K> keySelector) {
+        Objects.requireNonNull(keySelector, "keySelector is null");
+        return v -> put(keySelector.apply(v), v);
+    }
+
+    /**
+     * Copy of the stored entries.
+     */
+    public Map<K, V> snapshot() {
+        Map<K, V> result = new HashMap<>();
+        for (Shard<K, V> shard : shards) {
+            shard.copyTo(result);
+        }
+        return result;
+    }
+
+    public long size() {
+        long size = 0;
+        for (Shard<K, V> shard : shards) {
+            size += shard.size.sum();
+        }
+        return size;
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Number of writes per shard.
+     */
+    public long[] writeCounts() {
+        long[] counts = new long[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            counts[i] = shards[i].writes.sum();
+        }
+        return counts;
+    }
+
+    /**
+     * Number of CAS retries per shard, i.e. how often writers of the shard collided.
+     */
+    public long[] retryCounts() {
+        long[] counts = new long[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            counts[i] = shards[i].retries.sum();
+        }
+        return counts;
+    }
+
+    static class Node<K, V> {
+        final K key;
+        final int hash;
+        final V value;
+        final Node<K, V> next;
+
+        Node(K key, int hash, V value, Node<K, V> next) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /**
+     * Placed into buckets of the old table which were moved to the new one.
+     */
+    static final class Forward<K, V> extends Node<K, V> {
+        final AtomicReferenceArray<Node<K, V>> table;
+
+        Forward(AtomicReferenceArray<Node<K, V>> table) {
+            super(null, 0, null, null);
+            this.table = table;
+        }
+    }
+
+    static final class Shard<K, V> {
+        volatile AtomicReferenceArray<Node<K, V>> table = new AtomicReferenceArray<>(INITIAL_BUCKETS);
+        final AtomicBoolean resizing = new AtomicBoolean();
+        final LongAdder size = new LongAdder();
+        final LongAdder writes = new LongAdder();
+        final LongAdder retries = new LongAdder();
+
+        void put(K key, int hash, V value) {
+            writes.increment();
+            AtomicReferenceArray<Node<K, V>> tab = table;
+            for (;;) {
+                int i = hash & (tab.length() - 1);
+                Node<K, V> head = tab.get(i);
+                if (head instanceof Forward) {
+                    tab = ((Forward<K, V>) head).table;
+                    continue;
+                }
+                Node<K, V> updated = replace(head, key, value);
+                boolean added = updated == null;
+                if (added) {
+                    updated = new Node<>(key, hash, value, head);
+                }
+                if (tab.compareAndSet(i, head, updated)) {
+                    if (added) {
+                        size.increment();
+                        if (size.sum() > tab.length() - (tab.length() >> 2)) {
+                            resize(tab);
+                        }
+                    }
+                    return;
+                }
+                retries.increment();
+            }
+        }
+
+        /**
+         * Chain with the value of key replaced, or null if the key isn't in the chain.
+         */
+        private static <K, V> Node<K, V> replace(Node<K, V> head, K key, V value) {
+            for (Node<K, V> n = head; n != null; n = n.next) {
+                if (n.key.equals(key)) {
+                    // copy the entries before the replaced one, share the rest
+                    Node<K, V> tail = new Node<>(key, n.hash, value, n.next);
+                    return copyUntil(head, n, tail);
+                }
+            }
+            return null;
+        }
+
+        private static <K, V> Node<K, V> copyUntil(Node<K, V> n, Node<K, V> stop, Node<K, V> tail) {
+            if (n == stop) {
+                return tail;
+            }
+            return new Node<>(n.key, n.hash, n.value, copyUntil(n.next, stop, tail));
+        }
+
+        V get(K key, int hash) {
+            AtomicReferenceArray<Node<K, V>> tab = table;
+            for (;;) {
+                Node<K, V> n = tab.get(hash & (tab.length() - 1));
+                if (n instanceof Forward) {
+                    tab = ((Forward<K, V>) n).table;
+                    continue;
+                }
+                for (; n != null; n = n.next) {
+                    if (n.key.equals(key)) {
+                        return n.value;
+                    }
+                }
+                return null;
+            }
+        }
+
+        /**
+         * Moves every bucket of the table into a table twice as large. Bucket i is split into buckets i and i + n of
+         * the new table, which nobody writes to before bucket i is forwarded, so the move is retried until no writer
+         * changes bucket i in between.
+         */
+        private void resize(AtomicReferenceArray<Node<K, V>> tab) {
+            if (table != tab || !resizing.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                if (table != tab) {
+                    return;
+                }
+                int n = tab.length();
+                AtomicReferenceArray<Node<K, V>> next = new AtomicReferenceArray<>(n << 1);
+                Forward<K, V> forward = new Forward<>(next);
+                for (int i = 0; i < n; i++) {
+                    for (;;) {
+                        Node<K, V> head = tab.get(i);
+                        Node<K, V> low = null;
+                        Node<K, V> high = null;
+                        for (Node<K, V> e = head; e != null; e = e.next) {
+                            if ((e.hash & n) == 0) {
+                                low = new Node<>(e.key, e.hash, e.value, low);
+                            } else {
+                                high = new Node<>(e.key, e.hash, e.value, high);
+                            }
+                        }
+                        next.set(i, low);
+                        next.set(i + n, high);
+                        if (tab.compareAndSet(i, head, forward)) {
+                            break;
+                        }
+                    }
+                }
+                table = next;
+            } finally {
+                resizing.set(false);
+            }
+        }
+
+        void copyTo(Map<K, V> result) {
+            copyTo(table, result);
+        }
+
+        private static <K, V> void copyTo(AtomicReferenceArray<Node<K, V>> tab, Map<K, V> result) {
+            for (int i = 0; i < tab.length(); i++) {
+                Node<K, V> n = tab.get(i);
+                if (n instanceof Forward) {
+                    // moved during the copy: buckets i and i + n of the new table
+                    AtomicReferenceArray<Node<K, V>> next = ((Forward<K, V>) n).table;
+                    copyBucket(next, i, result);
+                    copyBucket(next, i + tab.length(), result);
+                    continue;
+                }
+                for (; n != null; n = n.next) {
+                    result.put(n.key, n.value);
+                }
+            }
+        }
+
+        private static <K, V> void copyBucket(AtomicReferenceArray<Node<K, V>> tab, int i, Map<K, V> result) {
+            Node<K, V> n = tab.get(i);
+            if (n instanceof Forward) {
+                AtomicReferenceArray<Node<K, V>> next = ((Forward<K, V>) n).table;
+                copyBucket(next, i, result);
+                copyBucket(next, i + tab.length(), result);
+                return;
+            }
+            for (; n != null; n = n.next) {
+                result.put(n.key, n.value);
+            }
+        }
+    }
+}
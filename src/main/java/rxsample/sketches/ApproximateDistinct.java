@@ -0,0 +1,109 @@
+package rxsample.sketches;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.functions.Function;
+
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+/**
+ * {@link Observable#distinct()} in bounded memory, for streams where the set of seen keys would grow forever: keys
+ * are remembered in a {@link ScalableBloomFilter}, so a small share of new values ({@link #falsePositiveRate}) is
+ * dropped as if it was a duplicate, but a duplicate is never emitted. Each subscription has its own filter.
+ * <p>
+ * Usage: {@code events.compose(ApproximateDistinct.<Event>create().keySelector(Event::id).falsePositiveRate(1e-4))}
+ */
+public final class ApproximateDistinct<T> implements ObservableTransformer<T, T> {
+    static final long DEFAULT_EXPECTED_KEYS = 1 << 16;
+    static final double DEFAULT_FALSE_POSITIVE_RATE = 0.001;
+    static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    final Function<? super T, ?> keySelector;
+    final ToLongFunction<Object> hasher;
+    final long expectedKeys;
+    final double falsePositiveRate;
+    final long maxBytes;
+
+    private ApproximateDistinct(Function<? super T, ?> keySelector, ToLongFunction<Object> hasher, long expectedKeys,
+                                double falsePositiveRate, long maxBytes) {
+        this.keySelector = keySelector;
+        this.hasher = hasher;
+        this.expectedKeys = expectedKeys;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Distinct values with false positive rate {@value #DEFAULT_FALSE_POSITIVE_RATE}, filter sized for
+     * {@value #DEFAULT_EXPECTED_KEYS} keys initially and growing up to {@value #DEFAULT_MAX_BYTES} bytes.
+     */
+    public static <T> ApproximateDistinct<T> create() {
+        return new ApproximateDistinct<>(v -> v, Hashing::hash64, DEFAULT_EXPECTED_KEYS,
+                DEFAULT_FALSE_POSITIVE_RATE, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Compares keys computed by {@code keySelector} instead of the values, like {@link Observable#distinct(Function)}.
+     */
+    public ApproximateDistinct<T> keySelector(Function<? super T, ?> keySelector) {
+        Objects.requireNonNull(keySelector, "keySelector is null");
+        return new ApproximateDistinct<>(keySelector, hasher, expectedKeys, falsePositiveRate, maxBytes);
+    }
+
+    /**
+     * 64-bit hash of the keys. Defaults to {@link Hashing#hash64(Object)}.
+     */
+    public ApproximateDistinct<T> hasher(ToLongFunction<Object> hasher) {
+        Objects.requireNonNull(hasher, "hasher is null");
+        return new ApproximateDistinct<>(keySelector, hasher, expectedKeys, falsePositiveRate, maxBytes);
+    }
+
+    /**
+     * Capacity of the first filter; the filter grows beyond it, but fewer larger steps use less memory.
+     */
+    public ApproximateDistinct<T> expectedKeys(long expectedKeys) {
+        if (expectedKeys <= 0) {
+            throw new IllegalArgumentException("expectedKeys > 0 required but it was " + expectedKeys);
+        }
+        return new ApproximateDistinct<>(keySelector, hasher, expectedKeys, falsePositiveRate, maxBytes);
+    }
+
+    public ApproximateDistinct<T> falsePositiveRate(double falsePositiveRate) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("0 < falsePositiveRate < 1 required but it was " + falsePositiveRate);
+        }
+        return new ApproximateDistinct<>(keySelector, hasher, expectedKeys, falsePositiveRate, maxBytes);
+    }
+
+    /**
+     * Memory budget of the filter. Once it's reached, the false positive rate grows with every new key.
+     */
+    public ApproximateDistinct<T> maxBytes(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes > 0 required but it was " + maxBytes);
+        }
+        return new ApproximateDistinct<>(keySelector, hasher, expectedKeys, falsePositiveRate, maxBytes);
+    }
+
+    /**
+     * Filter of a single subscription.
+     */
+    ScalableBloomFilter newFilter() {
+        return ScalableBloomFilter.create(expectedKeys, falsePositiveRate, maxBytes);
+    }
+
+    @Override
+    public ObservableSource<T> apply(Observable<T> upstream) {
+        long initialBytes = ScalableBloomFilter.initialBytes(expectedKeys, falsePositiveRate);
+        if (initialBytes > maxBytes) {
+            throw new IllegalStateException("maxBytes " + maxBytes + " can't fit " + expectedKeys
+                    + " expected keys, it needs " + initialBytes);
+        }
+        return Observable.defer(() -> {
+            ScalableBloomFilter filter = newFilter();
+            return upstream.filter(v -> filter.add(hasher.applyAsLong(keySelector.apply(v))));
+        });
+    }
+}
@@ -0,0 +1,47 @@
+package rxsample.sketches;
+
+import io.reactivex.ObservableConverter;
+import io.reactivex.Single;
+import io.reactivex.functions.Function;
+
+import java.util.Objects;
+
+/**
+ * Approximate count of distinct values backed by {@link HyperLogLog}, for streams where
+ * {@code distinct().count()} would need to remember every key.
+ * <p>
+ * Usage: {@code Single<Long> users = events.as(CountDistinct.approximate(Event::userId))}
+ */
+public final class CountDistinct {
+    public static final int DEFAULT_PRECISION = 14;
+
+    private CountDistinct() {
+    }
+
+    /**
+     * Approximate number of distinct values, with {@value #DEFAULT_PRECISION} bits of precision (0.8% error).
+     */
+    public static <T> ObservableConverter<T, Single<Long>> approximate() {
+        return approximate(v -> v, DEFAULT_PRECISION);
+    }
+
+    public static <T> ObservableConverter<T, Single<Long>> approximate(Function<? super T, ?> keySelector) {
+        return approximate(keySelector, DEFAULT_PRECISION);
+    }
+
+    /**
+     * Approximate number of distinct keys, with standard error {@code 1.04 / sqrt(2^precision)}.
+     */
+    public static <T> ObservableConverter<T, Single<Long>> approximate(Function<? super T, ?> keySelector,
+                                                                       int precision) {
+        Objects.requireNonNull(keySelector, "keySelector is null");
+        if (precision < HyperLogLog.MIN_PRECISION || precision > HyperLogLog.MAX_PRECISION) {
+            throw new IllegalArgumentException(HyperLogLog.MIN_PRECISION + " <= precision <= "
+                    + HyperLogLog.MAX_PRECISION + " required but it was " + precision);
+        }
+        return upstream -> upstream
+                .collect(() -> new HyperLogLog(precision),
+                        (sketch, v) -> sketch.add(Hashing.hash64(keySelector.apply(v))))
+                .map(HyperLogLog::estimate);
+    }
+}
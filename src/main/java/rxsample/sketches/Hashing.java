@@ -0,0 +1,49 @@
+package rxsample.sketches;
+
+/**
+ * 64-bit hashes for the sketches. {@link Object#hashCode()} has only 32 bits, so with 100M keys thousands of them
+ * would collide and look like duplicates; strings and numbers are hashed from their content instead.
+ */
+public final class Hashing {
+    private Hashing() {
+    }
+
+    /**
+     * Hash of the content for {@link CharSequence}, {@link Long}, {@link Integer} and other integral numbers;
+     * {@link Object#hashCode()} spread to 64 bits otherwise.
+     */
+    public static long hash64(Object key) {
+        if (key instanceof CharSequence) {
+            return hash64((CharSequence) key);
+        }
+        if (key instanceof Long || key instanceof Integer || key instanceof Short || key instanceof Byte) {
+            return mix(((Number) key).longValue());
+        }
+        if (key instanceof Character) {
+            return mix((Character) key);
+        }
+        return mix(key.hashCode());
+    }
+
+    public static long hash64(CharSequence chars) {
+        // FNV-1a over the chars, finished with the mixer to spread the low bits
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < chars.length(); i++) {
+            h ^= chars.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * Finalizer of MurmurHash3: a bijection on longs, so distinct numbers never collide.
+     */
+    public static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
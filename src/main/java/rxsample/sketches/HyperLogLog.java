@@ -0,0 +1,91 @@
+package rxsample.sketches;
+
+/**
+ * Estimates the number of distinct keys in {@code 2^precision} bytes (Flajolet et al., with the linear counting
+ * correction for small cardinalities): the standard error is {@code 1.04 / sqrt(2^precision)}, e.g. 0.8% for
+ * precision 14 (16KB), whether there were thousands or billions of keys.
+ * <p>
+ * Not thread-safe; sketches of parts of a stream can be {@link #merge merged}.
+ */
+public final class HyperLogLog {
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 18;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException(MIN_PRECISION + " <= precision <= " + MAX_PRECISION
+                    + " required but it was " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Adds the key with the given 64-bit hash (see {@link Hashing}).
+     */
+    public void add(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // the remaining bits, with a sentinel bit so that the rank is at most 64 - precision + 1
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte r : registers) {
+            sum += 1.0 / (1L << r);
+            if (r == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Adds the keys counted by the other sketch, which must have the same precision.
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("precision " + precision + " required but it was "
+                    + other.precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public int precision() {
+        return precision;
+    }
+
+    public long memoryBytes() {
+        return registers.length;
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package rxsample.sketches;
+
+import java.util.Arrays;
+
+/**
+ * Approximate quantiles of a stream of doubles in {@code O(k)} memory (KLL sketch, Karnin, Lang and Liberty): values
+ * are kept in levels, a value at level {@code h} stands for {@code 2^h} values of the stream. When a level is full,
+ * it's sorted and every other value - odd or even positions, picked at random - moves one level up. Upper levels
+ * have capacity {@code k}, each lower level 2/3 of the one above.
+ * <p>
+ * The rank error is about {@code 1.7 / k}: 0.8% for the default k = 200, whether there were thousands or billions of
+ * values. {@link #min()} and {@link #max()} are exact. NaN values are ignored.
+ * <p>
+ * Not thread-safe; sketches of parts of a stream can be {@link #merge merged}.
+ */
+public final class KllSketch {
+    public static final int DEFAULT_K = 200;
+    public static final int MIN_K = 8;
+    private static final int MIN_LEVEL_CAPACITY = 8;
+
+    private final int k;
+    private double[][] levels = new double[1][];
+    private int[] sizes = new int[1];
+    private int retained;
+    private int maxRetained;
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    // xorshift state for the coin flips; fixed seed, so results are reproducible
+    private long random = 0x9E3779B97F4A7C15L;
+
+    public KllSketch() {
+        this(DEFAULT_K);
+    }
+
+    public KllSketch(int k) {
+        if (k < MIN_K) {
+            throw new IllegalArgumentException("k >= " + MIN_K + " required but it was " + k);
+        }
+        this.k = k;
+        levels[0] = new double[capacity(0)];
+        maxRetained = capacity(0);
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (count == 0) {
+            min = value;
+            max = value;
+        } else if (value < min) {
+            min = value;
+        } else if (value > max) {
+            max = value;
+        }
+        count++;
+        append(0, value);
+        if (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    /**
+     * Adds the values summarized by the other sketch.
+     */
+    public void merge(KllSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        while (levels.length < other.levels.length) {
+            addLevel();
+        }
+        for (int h = 0; h < other.levels.length; h++) {
+            for (int i = 0; i < other.sizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        if (count == 0) {
+            min = other.min;
+            max = other.max;
+        } else {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+        count += other.count;
+        while (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    /**
+     * Value with approximately {@code q * count()} values below it; NaN if the sketch is empty.
+     */
+    public double quantile(double q) {
+        return quantiles(q)[0];
+    }
+
+    /**
+     * {@link #quantile} for several quantiles at once, which sorts the retained values only once.
+     */
+    public double[] quantiles(double... qs) {
+        for (double q : qs) {
+            if (!(q >= 0 && q <= 1)) {
+                throw new IllegalArgumentException("0 <= q <= 1 required but it was " + q);
+            }
+        }
+        double[] result = new double[qs.length];
+        if (count == 0) {
+            Arrays.fill(result, Double.NaN);
+            return result;
+        }
+        // retained values sorted, with their weights
+        double[] values = new double[0];
+        long[] weights = new long[0];
+        for (int h = 0; h < levels.length; h++) {
+            double[] level = Arrays.copyOf(levels[h], sizes[h]);
+            Arrays.sort(level);
+            double[] mergedValues = new double[values.length + level.length];
+            long[] mergedWeights = new long[mergedValues.length];
+            int i = 0;
+            int j = 0;
+            for (int m = 0; m < mergedValues.length; m++) {
+                if (j == level.length || (i < values.length && values[i] <= level[j])) {
+                    mergedValues[m] = values[i];
+                    mergedWeights[m] = weights[i++];
+                } else {
+                    mergedValues[m] = level[j++];
+                    mergedWeights[m] = 1L << h;
+                }
+            }
+            values = mergedValues;
+            weights = mergedWeights;
+        }
+        for (int n = 0; n < qs.length; n++) {
+            if (qs[n] == 0) {
+                result[n] = min;
+            } else if (qs[n] == 1) {
+                result[n] = max;
+            } else {
+                long rank = Math.max(1, (long) Math.ceil(qs[n] * count));
+                long cumulative = 0;
+                int i = 0;
+                while (i < values.length - 1 && (cumulative += weights[i]) < rank) {
+                    i++;
+                }
+                result[n] = values[i];
+            }
+        }
+        return result;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Smallest value added, NaN if the sketch is empty.
+     */
+    public double min() {
+        return min;
+    }
+
+    /**
+     * Largest value added, NaN if the sketch is empty.
+     */
+    public double max() {
+        return max;
+    }
+
+    public int k() {
+        return k;
+    }
+
+    /**
+     * Number of values kept by the sketch.
+     */
+    public int retained() {
+        return retained;
+    }
+
+    private int capacity(int level) {
+        int depth = levels.length - 1 - level;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(2.0 / 3, depth)));
+    }
+
+    private void append(int level, double value) {
+        double[] values = levels[level];
+        if (sizes[level] == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+            levels[level] = values;
+        }
+        values[sizes[level]++] = value;
+        retained++;
+    }
+
+    private void addLevel() {
+        int height = levels.length + 1;
+        levels = Arrays.copyOf(levels, height);
+        sizes = Arrays.copyOf(sizes, height);
+        levels[height - 1] = new double[MIN_LEVEL_CAPACITY];
+        maxRetained = 0;
+        for (int h = 0; h < height; h++) {
+            maxRetained += capacity(h);
+        }
+    }
+
+    /**
+     * Compacts the lowest level which is over its capacity; lazily, one level is enough to get under
+     * {@code maxRetained} most of the time.
+     */
+    private void compress() {
+        for (int h = 0; h < levels.length; h++) {
+            if (sizes[h] >= capacity(h)) {
+                if (h + 1 == levels.length) {
+                    addLevel();
+                }
+                compact(h);
+                if (retained < maxRetained) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves half of the level up. With an odd size, the smallest value stays.
+     */
+    private void compact(int level) {
+        double[] values = levels[level];
+        int size = sizes[level];
+        Arrays.sort(values, 0, size);
+        int start = size & 1;
+        random ^= random << 13;
+        random ^= random >>> 7;
+        random ^= random << 17;
+        for (int i = start + (int) (random & 1); i < size; i += 2) {
+            append(level + 1, values[i]);
+        }
+        sizes[level] = start;
+        retained -= size - start;
+    }
+}
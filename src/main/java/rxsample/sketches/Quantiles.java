@@ -0,0 +1,83 @@
+package rxsample.sketches;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableConverter;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.Single;
+
+import java.util.Objects;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Approximate quantiles backed by {@link KllSketch}, for percentiles of streams which {@code toSortedList()} would
+ * have to keep whole: the sketch keeps a few hundred values, whatever the length of the stream.
+ * <p>
+ * Usage: {@code Single<double[]> p50p99 = requests.as(Quantiles.of(Request::latencyMillis, 0.5, 0.99))}
+ */
+public final class Quantiles {
+    private Quantiles() {
+    }
+
+    /**
+     * The sketch of all values, emitted when upstream completes; query it for any quantile, or merge it with
+     * sketches of other streams.
+     */
+    public static <T> ObservableConverter<T, Single<KllSketch>> sketch(ToDoubleFunction<? super T> value) {
+        return sketch(value, KllSketch.DEFAULT_K);
+    }
+
+    public static <T> ObservableConverter<T, Single<KllSketch>> sketch(ToDoubleFunction<? super T> value, int k) {
+        Objects.requireNonNull(value, "value is null");
+        checkK(k);
+        return upstream -> upstream.collect(() -> new KllSketch(k), (sketch, v) -> sketch.add(value.applyAsDouble(v)));
+    }
+
+    /**
+     * The given quantiles of all values, emitted when upstream completes (like {@code reduce}); NaN for an empty
+     * stream.
+     */
+    public static <T> ObservableConverter<T, Single<double[]>> of(ToDoubleFunction<? super T> value,
+                                                                  double... quantiles) {
+        checkQuantiles(quantiles);
+        ObservableConverter<T, Single<KllSketch>> sketch = sketch(value);
+        return upstream -> upstream.as(sketch).map(s -> s.quantiles(quantiles));
+    }
+
+    /**
+     * The given quantiles of the values so far, emitted after every {@code every} values (like {@code scan}, but a
+     * query sorts the retained values, so it's not done for each of them).
+     */
+    public static <T> ObservableTransformer<T, double[]> rolling(ToDoubleFunction<? super T> value, int every,
+                                                                double... quantiles) {
+        Objects.requireNonNull(value, "value is null");
+        if (every <= 0) {
+            throw new IllegalArgumentException("every > 0 required but it was " + every);
+        }
+        checkQuantiles(quantiles);
+        return upstream -> Observable.defer(() -> {
+            KllSketch sketch = new KllSketch();
+            // counted here, the sketch doesn't count NaNs
+            long[] seen = {0};
+            return upstream
+                    .filter(v -> {
+                        sketch.add(value.applyAsDouble(v));
+                        return ++seen[0] % every == 0;
+                    })
+                    .map(v -> sketch.quantiles(quantiles));
+        });
+    }
+
+    private static void checkK(int k) {
+        if (k < KllSketch.MIN_K) {
+            throw new IllegalArgumentException("k >= " + KllSketch.MIN_K + " required but it was " + k);
+        }
+    }
+
+    private static void checkQuantiles(double[] quantiles) {
+        for (double q : quantiles) {
+            if (!(q >= 0 && q <= 1)) {
+                throw new IllegalArgumentException("0 <= q <= 1 required but it was " + q);
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package rxsample.sketches;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Set membership in bounded memory, with false positives but no false negatives: {@link #add} may report a new key
+ * as already seen, with the configured probability, but never the other way around.
+ * <p>
+ * A plain Bloom filter has to be sized for the number of keys up-front. This one is a series of filters (Almeida et
+ * al., "Scalable Bloom Filters"): when the current filter is full, a new one twice as large with half the false
+ * positive rate is added, so the total rate converges to the configured one however many keys come. Growth stops at
+ * the memory budget: after that the last filter keeps taking keys and the false positive rate rises above the
+ * configured one.
+ * <p>
+ * Not thread-safe.
+ */
+public final class ScalableBloomFilter {
+    private static final double LN2_SQUARED = Math.log(2) * Math.log(2);
+    // each next filter has this share of the previous filter's false positive rate, and twice its capacity
+    private static final double TIGHTENING = 0.5;
+
+    private final double falsePositiveRate;
+    private final long maxBytes;
+    private final List<Slice> slices = new ArrayList<>();
+    private Slice current;
+    private long bytes;
+    private long count;
+
+    private ScalableBloomFilter(long initialCapacity, double falsePositiveRate, long maxBytes) {
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxBytes = maxBytes;
+        // the rates of the series sum up to p0 / (1 - TIGHTENING)
+        addSlice(initialCapacity, falsePositiveRate * (1 - TIGHTENING));
+    }
+
+    /**
+     * Filter starting with room for {@code initialCapacity} keys, growing while it fits into {@code maxBytes}.
+     */
+    public static ScalableBloomFilter create(long initialCapacity, double falsePositiveRate, long maxBytes) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("initialCapacity > 0 required but it was " + initialCapacity);
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("0 < falsePositiveRate < 1 required but it was " + falsePositiveRate);
+        }
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes > 0 required but it was " + maxBytes);
+        }
+        long initialBytes = initialBytes(initialCapacity, falsePositiveRate);
+        if (initialBytes > maxBytes) {
+            throw new IllegalArgumentException("maxBytes " + maxBytes + " can't fit initialCapacity "
+                    + initialCapacity + ", it needs " + initialBytes);
+        }
+        return new ScalableBloomFilter(initialCapacity, falsePositiveRate, maxBytes);
+    }
+
+    /**
+     * Size of the first filter, which has to fit into the budget.
+     */
+    static long initialBytes(long initialCapacity, double falsePositiveRate) {
+        return Slice.bytesFor(initialCapacity, falsePositiveRate * (1 - TIGHTENING));
+    }
+
+    private void addSlice(long capacity, double rate) {
+        Slice slice = new Slice(capacity, rate);
+        slices.add(slice);
+        current = slice;
+        bytes += slice.bits.length * (long) Long.BYTES;
+    }
+
+    /**
+     * Adds the key with the given 64-bit hash (see {@link Hashing}).
+     *
+     * @return false if the key was (probably) added before
+     */
+    public boolean add(long hash) {
+        for (int i = slices.size() - 1; i >= 0; i--) {
+            if (slices.get(i).mightContain(hash)) {
+                return false;
+            }
+        }
+        if (current.count >= current.capacity) {
+            long capacity = current.capacity * 2;
+            double rate = current.rate * TIGHTENING;
+            if (bytes + Slice.bytesFor(capacity, rate) <= maxBytes) {
+                addSlice(capacity, rate);
+            }
+        }
+        current.put(hash);
+        count++;
+        return true;
+    }
+
+    public boolean mightContain(long hash) {
+        for (int i = slices.size() - 1; i >= 0; i--) {
+            if (slices.get(i).mightContain(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Number of keys added, i.e. reported as new.
+     */
+    public long count() {
+        return count;
+    }
+
+    public long memoryBytes() {
+        return bytes;
+    }
+
+    /**
+     * False positive rate the filter was configured with; it holds while the filter fits into its budget.
+     */
+    public double falsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    /**
+     * Estimate of the current false positive rate: the probability that a new key hits set bits in one of the
+     * filters, given how full they are.
+     */
+    public double currentFalsePositiveRate() {
+        double none = 1;
+        for (Slice slice : slices) {
+            none *= 1 - slice.currentRate();
+        }
+        return 1 - none;
+    }
+
+    /**
+     * Blocked Bloom filter (Putze et al.): the hash picks a 64-byte block and all bits of the key are set in that
+     * block, so a lookup touches one cache line instead of one per bit. Keys spread over blocks unevenly, so it
+     * needs about {@value #BLOCKED_OVERHEAD}x the bits of a classic Bloom filter for the same false positive rate.
+     */
+    static final class Slice {
+        static final double BLOCKED_OVERHEAD = 1.25;
+        static final int BLOCK_WORDS = 8;
+        static final int BLOCK_BITS = BLOCK_WORDS * Long.SIZE;
+
+        final long[] bits;
+        final long blocks;
+        final int hashes;
+        final long capacity;
+        final double rate;
+        long count;
+
+        Slice(long capacity, double rate) {
+            this.capacity = capacity;
+            this.rate = rate;
+            this.blocks = bitCountFor(capacity, rate) / BLOCK_BITS;
+            this.bits = new long[(int) (blocks * BLOCK_WORDS)];
+            this.hashes = Math.max(1, (int) Math.ceil(-Math.log(rate) / Math.log(2)));
+        }
+
+        static long bitCountFor(long capacity, double rate) {
+            long m = (long) Math.ceil(-capacity * Math.log(rate) / LN2_SQUARED * BLOCKED_OVERHEAD);
+            // whole blocks
+            return Math.max(BLOCK_BITS, (m + BLOCK_BITS - 1) / BLOCK_BITS * BLOCK_BITS);
+        }
+
+        static long bytesFor(long capacity, double rate) {
+            return bitCountFor(capacity, rate) >>> 3;
+        }
+
+        private int firstWord(long hash) {
+            // upper half of the hash picks the block, without a division
+            return (int) (((hash >>> 32) * blocks) >>> 32) * BLOCK_WORDS;
+        }
+
+        void put(long hash) {
+            int first = firstWord(hash);
+            long g = Hashing.mix(hash);
+            for (int i = 0, left = 7; i < hashes; i++, left--) {
+                if (left == 0) {
+                    g = Hashing.mix(g);
+                    left = 7;
+                }
+                // 9 bits of g per bit position within the block
+                int bit = (int) g & (BLOCK_BITS - 1);
+                g >>>= 9;
+                bits[first + (bit >>> 6)] |= 1L << bit;
+            }
+            count++;
+        }
+
+        boolean mightContain(long hash) {
+            int first = firstWord(hash);
+            long g = Hashing.mix(hash);
+            for (int i = 0, left = 7; i < hashes; i++, left--) {
+                if (left == 0) {
+                    g = Hashing.mix(g);
+                    left = 7;
+                }
+                int bit = (int) g & (BLOCK_BITS - 1);
+                g >>>= 9;
+                if ((bits[first + (bit >>> 6)] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        double currentRate() {
+            // classic estimate, over the bits a key can hit
+            double bitCount = (double) blocks * BLOCK_BITS;
+            return Math.pow(1 - Math.exp(-(double) hashes * count / bitCount), hashes);
+        }
+    }
+}
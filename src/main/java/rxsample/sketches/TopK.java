@@ -0,0 +1,137 @@
+package rxsample.sketches;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableConverter;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.Single;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The {@code k} largest values of a stream, kept in a min-heap of size {@code k}: a value is compared with the
+ * smallest of them and replaces it if it's larger, so memory is {@code O(k)} and an update is {@code O(log k)}, instead
+ * of sorting the whole stream with {@code toSortedList()} and taking the first {@code k}. For the smallest values,
+ * pass {@link Comparator#reverseOrder()}.
+ * <p>
+ * Usage: {@code Single<List<Order>> biggest = orders.as(TopK.largest(10, comparing(Order::amount)))}
+ * <p>
+ * The accumulator itself is not thread-safe.
+ */
+public final class TopK<T> {
+    private final int k;
+    private final Comparator<? super T> comparator;
+    private final Object[] heap;
+    private int size;
+
+    public TopK(int k, Comparator<? super T> comparator) {
+        check(k, comparator);
+        this.k = k;
+        this.comparator = comparator;
+        this.heap = new Object[k];
+    }
+
+    /**
+     * The {@code k} largest values, largest first, emitted when upstream completes (like {@code reduce}).
+     */
+    public static <T extends Comparable<? super T>> ObservableConverter<T, Single<List<T>>> largest(int k) {
+        return largest(k, Comparator.naturalOrder());
+    }
+
+    public static <T> ObservableConverter<T, Single<List<T>>> largest(int k, Comparator<? super T> comparator) {
+        check(k, comparator);
+        return upstream -> upstream
+                .collect(() -> new TopK<T>(k, comparator), TopK::offer)
+                .map(TopK::toList);
+    }
+
+    /**
+     * The {@code k} largest values so far, largest first, emitted every time a value gets among them (like
+     * {@code scan}, but unchanged results are not repeated).
+     */
+    public static <T> ObservableTransformer<T, List<T>> rolling(int k, Comparator<? super T> comparator) {
+        check(k, comparator);
+        return upstream -> Observable.defer(() -> {
+            TopK<T> top = new TopK<>(k, comparator);
+            return upstream.filter(top::offer).map(v -> top.toList());
+        });
+    }
+
+    private static void check(int k, Comparator<?> comparator) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k > 0 required but it was " + k);
+        }
+        Objects.requireNonNull(comparator, "comparator is null");
+    }
+
+    /**
+     * Returns true if the value is among the {@code k} largest so far. Of equal values, the earliest ones are kept.
+     */
+    @SuppressWarnings("unchecked")
+    public boolean offer(T value) {
+        if (size < k) {
+            siftUp(size++, value);
+            return true;
+        }
+        if (comparator.compare(value, (T) heap[0]) <= 0) {
+            return false;
+        }
+        siftDown(value);
+        return true;
+    }
+
+    /**
+     * The values, largest first.
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> toList() {
+        T[] values = (T[]) Arrays.copyOf(heap, size);
+        Arrays.sort(values, comparator.reversed());
+        return new ArrayList<>(Arrays.asList(values));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void siftUp(int i, T value) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            T p = (T) heap[parent];
+            if (comparator.compare(value, p) >= 0) {
+                break;
+            }
+            heap[i] = p;
+            i = parent;
+        }
+        heap[i] = value;
+    }
+
+    /**
+     * Replaces the smallest value.
+     */
+    @SuppressWarnings("unchecked")
+    private void siftDown(T value) {
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            T c = (T) heap[child];
+            int right = child + 1;
+            if (right < size && comparator.compare((T) heap[right], c) < 0) {
+                child = right;
+                c = (T) heap[child];
+            }
+            if (comparator.compare(value, c) <= 0) {
+                break;
+            }
+            heap[i] = c;
+            i = child;
+        }
+        heap[i] = value;
+    }
+}
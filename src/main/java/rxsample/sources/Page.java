@@ -0,0 +1,40 @@
+package rxsample.sources;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Page of query results together with the cursor of the next page, null for the last page.
+ */
+public final class Page<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    private Page(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public static <T> Page<T> of(List<T> items, String nextCursor) {
+        Objects.requireNonNull(items, "items is null");
+        Objects.requireNonNull(nextCursor, "nextCursor is null");
+        return new Page<>(items, nextCursor);
+    }
+
+    public static <T> Page<T> last(List<T> items) {
+        Objects.requireNonNull(items, "items is null");
+        return new Page<>(items, null);
+    }
+
+    public List<T> items() {
+        return items;
+    }
+
+    public String nextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isLast() {
+        return nextCursor == null;
+    }
+}
@@ -0,0 +1,13 @@
+package rxsample.sources;
+
+import io.reactivex.Single;
+
+/**
+ * Fetches one page of results, e.g. from a paginated REST API or a database cursor. Used by {@link PagedSource}.
+ */
+public interface PageFetcher<T> {
+    /**
+     * Page at the cursor returned by the previous page, or the first page when {@code cursor} is null.
+     */
+    Single<Page<T>> fetch(String cursor);
+}
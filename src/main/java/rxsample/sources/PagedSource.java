@@ -0,0 +1,33 @@
+package rxsample.sources;
+
+import io.reactivex.Observable;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Streams paginated results: pages are emitted as they arrive instead of being collected into a single list, so
+ * only one page is held in memory and the first results are available after the first page was fetched.
+ * <p>
+ * The next page is fetched only after the current one was emitted, and no more pages are fetched once the
+ * downstream disposes - e.g. when {@code take(n)} got its values from the first pages.
+ */
+public final class PagedSource {
+    private PagedSource() {
+    }
+
+    /**
+     * Pages of results, empty pages are skipped.
+     */
+    public static <T> Observable<List<T>> pages(PageFetcher<T> fetcher) {
+        Objects.requireNonNull(fetcher, "fetcher is null");
+        return new PagedSourceObservable<>(fetcher);
+    }
+
+    /**
+     * Results of all pages.
+     */
+    public static <T> Observable<T> items(PageFetcher<T> fetcher) {
+        return pages(fetcher).concatMapIterable(page -> page);
+    }
+}
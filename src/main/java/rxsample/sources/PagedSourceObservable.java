@@ -0,0 +1,110 @@
+package rxsample.sources;
+
+import io.reactivex.Observable;
+import io.reactivex.Observer;
+import io.reactivex.SingleObserver;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.SerialDisposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.plugins.RxJavaPlugins;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class PagedSourceObservable<T> extends Observable<List<T>> {
+    private final PageFetcher<T> fetcher;
+
+    PagedSourceObservable(PageFetcher<T> fetcher) {
+        this.fetcher = fetcher;
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super List<T>> observer) {
+        PageObserver<T> parent = new PageObserver<>(observer, fetcher);
+        observer.onSubscribe(parent);
+        parent.fetchNext();
+    }
+
+    /**
+     * Fetches pages one after another. A fetcher which answers synchronously would call fetchNext() from
+     * onSuccess() for every page, so fetches are trampolined through wip instead of recursing.
+     */
+    static final class PageObserver<T> extends AtomicInteger implements SingleObserver<Page<T>>, Disposable {
+        private final Observer<? super List<T>> downstream;
+        private final PageFetcher<T> fetcher;
+        private final SerialDisposable current = new SerialDisposable();
+        // written before fetchNext(), read in the fetch loop
+        private volatile String cursor;
+        private volatile boolean done;
+
+        PageObserver(Observer<? super List<T>> downstream, PageFetcher<T> fetcher) {
+            this.downstream = downstream;
+            this.fetcher = fetcher;
+        }
+
+        void fetchNext() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            for (;;) {
+                if (isDisposed()) {
+                    return;
+                }
+                try {
+                    fetcher.fetch(cursor).subscribe(this);
+                } catch (Throwable e) {
+                    Exceptions.throwIfFatal(e);
+                    onError(e);
+                    return;
+                }
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            current.replace(d);
+        }
+
+        @Override
+        public void onSuccess(Page<T> page) {
+            if (done || isDisposed()) {
+                return;
+            }
+            if (!page.items().isEmpty()) {
+                downstream.onNext(page.items());
+            }
+            if (page.isLast()) {
+                done = true;
+                downstream.onComplete();
+                return;
+            }
+            cursor = page.nextCursor();
+            fetchNext();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (done || isDisposed()) {
+                RxJavaPlugins.onError(e);
+                return;
+            }
+            done = true;
+            downstream.onError(e);
+        }
+
+        @Override
+        public void dispose() {
+            current.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return current.isDisposed();
+        }
+    }
+}
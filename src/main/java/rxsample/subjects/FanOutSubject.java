@@ -0,0 +1,305 @@
+package rxsample.subjects;
+
+import io.reactivex.BackpressureOverflowStrategy;
+import io.reactivex.Observer;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.MissingBackpressureException;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.subjects.Subject;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PublishSubject which doesn't deliver values on the emitting thread: each subscriber gets its own bounded
+ * single-producer/single-consumer queue, drained on its own worker of the given scheduler. A slow subscriber only
+ * fills its own queue instead of stalling the emitter and all other subscribers.
+ * <p>
+ * When a subscriber's queue is full, the {@link BackpressureOverflowStrategy} decides what happens:
+ * DROP_OLDEST drops the oldest queued value, DROP_LATEST drops the value being emitted, ERROR terminates that
+ * subscriber with {@link MissingBackpressureException}. Other subscribers are never affected.
+ * <p>
+ * Like any Subject, onNext/onError/onComplete must be called serially.
+ */
+public final class FanOutSubject<T> extends Subject<T> {
+    @SuppressWarnings("rawtypes")
+    private static final QueueSubscription[] EMPTY = new QueueSubscription[0];
+    @SuppressWarnings("rawtypes")
+    private static final QueueSubscription[] TERMINATED = new QueueSubscription[0];
+
+    private final Scheduler scheduler;
+    private final int bufferSize;
+    private final BackpressureOverflowStrategy overflowStrategy;
+    private final AtomicReference<QueueSubscription<T>[]> subscribers;
+    private final AtomicLong dropped = new AtomicLong();
+    private Throwable error;
+
+    @SuppressWarnings("unchecked")
+    private FanOutSubject(Scheduler scheduler, int bufferSize, BackpressureOverflowStrategy overflowStrategy) {
+        this.scheduler = scheduler;
+        this.bufferSize = bufferSize;
+        this.overflowStrategy = overflowStrategy;
+        this.subscribers = new AtomicReference<>(EMPTY);
+    }
+
+    public static <T> FanOutSubject<T> create(Scheduler scheduler, int bufferSize,
+                                              BackpressureOverflowStrategy overflowStrategy) {
+        Objects.requireNonNull(scheduler, "scheduler is null");
+        Objects.requireNonNull(overflowStrategy, "overflowStrategy is null");
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize > 0 required but it was " + bufferSize);
+        }
+        return new FanOutSubject<>(scheduler, bufferSize, overflowStrategy);
+    }
+
+    /**
+     * Total number of values dropped because of full subscriber queues, across all subscribers.
+     */
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super T> observer) {
+        QueueSubscription<T> qs = new QueueSubscription<>(observer, this, scheduler.createWorker(), bufferSize);
+        observer.onSubscribe(qs);
+        if (add(qs)) {
+            if (qs.cancelled) {
+                remove(qs);
+            }
+        } else {
+            qs.terminate(error);
+        }
+    }
+
+    @Override
+    public void onSubscribe(Disposable d) {
+        if (subscribers.get() == TERMINATED) {
+            d.dispose();
+        }
+    }
+
+    @Override
+    public void onNext(T t) {
+        Objects.requireNonNull(t, "onNext called with null. Null values are generally not allowed in 2.x operators and sources.");
+        for (QueueSubscription<T> qs : subscribers.get()) {
+            qs.offer(t, overflowStrategy);
+        }
+    }
+
+    @Override
+    public void onError(Throwable e) {
+        Objects.requireNonNull(e, "onError called with null. Null values are generally not allowed in 2.x operators and sources.");
+        if (subscribers.get() == TERMINATED) {
+            RxJavaPlugins.onError(e);
+            return;
+        }
+        error = e;
+        terminate(e);
+    }
+
+    @Override
+    public void onComplete() {
+        if (subscribers.get() == TERMINATED) {
+            return;
+        }
+        terminate(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void terminate(Throwable e) {
+        for (QueueSubscription<T> qs : subscribers.getAndSet(TERMINATED)) {
+            qs.terminate(e);
+        }
+    }
+
+    @Override
+    public boolean hasObservers() {
+        return subscribers.get().length != 0;
+    }
+
+    @Override
+    public boolean hasThrowable() {
+        return subscribers.get() == TERMINATED && error != null;
+    }
+
+    @Override
+    public boolean hasComplete() {
+        return subscribers.get() == TERMINATED && error == null;
+    }
+
+    @Override
+    public Throwable getThrowable() {
+        return subscribers.get() == TERMINATED ? error : null;
+    }
+
+    private boolean add(QueueSubscription<T> qs) {
+        for (;;) {
+            QueueSubscription<T>[] a = subscribers.get();
+            if (a == TERMINATED) {
+                return false;
+            }
+            int n = a.length;
+            @SuppressWarnings("unchecked")
+            QueueSubscription<T>[] b = new QueueSubscription[n + 1];
+            System.arraycopy(a, 0, b, 0, n);
+            b[n] = qs;
+            if (subscribers.compareAndSet(a, b)) {
+                return true;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void remove(QueueSubscription<T> qs) {
+        for (;;) {
+            QueueSubscription<T>[] a = subscribers.get();
+            int n = a.length;
+            int j = -1;
+            for (int i = 0; i < n; i++) {
+                if (a[i] == qs) {
+                    j = i;
+                    break;
+                }
+            }
+            if (j < 0) {
+                return;
+            }
+            QueueSubscription<T>[] b;
+            if (n == 1) {
+                b = EMPTY;
+            } else {
+                b = new QueueSubscription[n - 1];
+                System.arraycopy(a, 0, b, 0, j);
+                System.arraycopy(a, j + 1, b, j, n - j - 1);
+            }
+            if (subscribers.compareAndSet(a, b)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Queue of a single subscriber, drained on the subscriber's worker.
+     */
+    static final class QueueSubscription<T> extends AtomicInteger implements Disposable, Runnable {
+        final Observer<? super T> downstream;
+        final FanOutSubject<T> parent;
+        final Scheduler.Worker worker;
+        final SpscRingQueue<T> queue;
+        volatile boolean done;
+        volatile boolean cancelled;
+        // set before done, delivered ahead of queued values if it's an overflow error
+        Throwable error;
+        volatile boolean overflowed;
+
+        QueueSubscription(Observer<? super T> downstream, FanOutSubject<T> parent, Scheduler.Worker worker,
+                          int bufferSize) {
+            this.downstream = downstream;
+            this.parent = parent;
+            this.worker = worker;
+            this.queue = new SpscRingQueue<>(bufferSize);
+        }
+
+        void offer(T value, BackpressureOverflowStrategy strategy) {
+            if (done) {
+                return;
+            }
+            switch (strategy) {
+                case DROP_OLDEST:
+                    if (queue.offerOverwrite(value)) {
+                        parent.dropped.incrementAndGet();
+                    }
+                    break;
+                case DROP_LATEST:
+                    if (!queue.offer(value)) {
+                        parent.dropped.incrementAndGet();
+                        return;
+                    }
+                    break;
+                default:
+                    if (!queue.offer(value)) {
+                        parent.remove(this);
+                        error = new MissingBackpressureException("Subscriber queue of " + parent.bufferSize
+                                + " values is full");
+                        overflowed = true;
+                        done = true;
+                    }
+                    break;
+            }
+            schedule();
+        }
+
+        void terminate(Throwable e) {
+            error = e;
+            done = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (getAndIncrement() == 0) {
+                worker.schedule(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            for (;;) {
+                for (;;) {
+                    if (cancelled) {
+                        queue.clear();
+                        return;
+                    }
+                    boolean d = done;
+                    if (d && overflowed) {
+                        finish();
+                        return;
+                    }
+                    T value = queue.poll();
+                    if (value == null) {
+                        if (d) {
+                            finish();
+                            return;
+                        }
+                        break;
+                    }
+                    downstream.onNext(value);
+                }
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        private void finish() {
+            cancelled = true;
+            queue.clear();
+            worker.dispose();
+            Throwable e = error;
+            if (e != null) {
+                downstream.onError(e);
+            } else {
+                downstream.onComplete();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (!cancelled) {
+                cancelled = true;
+                parent.remove(this);
+                worker.dispose();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package rxsample.subjects;
+
+import io.reactivex.Observer;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.subjects.Subject;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Size-bounded ReplaySubject which stores values serialized in a fixed-capacity ring of direct memory instead of
+ * a linked list of heap nodes, so buffered values are invisible to GC. Buffering a value doesn't allocate, replaying
+ * allocates only what {@link Serializer#read} creates.
+ * <p>
+ * Every slot of the ring holds [timestamp: long][length: int][value: up to {@link Serializer#maxSerializedSize()}].
+ * Values are serialized into a scratch buffer and copied into their slot only when that succeeded, so a failing
+ * serializer doesn't damage the oldest value. When the ring is full the oldest value is overwritten. A subscriber, which replays slower than values are emitted,
+ * skips the values overwritten before it got to them.
+ */
+public final class OffHeapReplaySubject<T> extends Subject<T> {
+    private static final int HEADER_SIZE = Long.BYTES + Integer.BYTES;
+    private static final int REPLAY_BATCH_SIZE = 64;
+
+    @SuppressWarnings("rawtypes")
+    private static final ReplayDisposable[] EMPTY = new ReplayDisposable[0];
+    @SuppressWarnings("rawtypes")
+    private static final ReplayDisposable[] TERMINATED = new ReplayDisposable[0];
+
+    private final Serializer<T> serializer;
+    private final int capacity;
+    private final int slotSize;
+    private final long maxAgeNanos;
+    private final Scheduler scheduler;
+
+    // ring buffer state is guarded by this; writeIndex is also read without locking to check for new values
+    private final ByteBuffer ring;
+    // values are serialized here first, so that a failing serializer can't damage the slot it would overwrite
+    private final ByteBuffer scratch;
+    private volatile long writeIndex;
+
+    private final AtomicReference<ReplayDisposable<T>[]> subscribers;
+    private volatile boolean done;
+    private Throwable error;
+
+    @SuppressWarnings("unchecked")
+    private OffHeapReplaySubject(int maxSize, long maxAgeNanos, Scheduler scheduler, Serializer<T> serializer) {
+        this.serializer = serializer;
+        this.capacity = maxSize;
+        this.slotSize = HEADER_SIZE + serializer.maxSerializedSize();
+        this.maxAgeNanos = maxAgeNanos;
+        this.scheduler = scheduler;
+        long bytes = (long) maxSize * slotSize;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Ring of " + maxSize + " slots of " + slotSize + " bytes exceeds 2GB");
+        }
+        this.ring = ByteBuffer.allocateDirect((int) bytes);
+        this.scratch = ByteBuffer.allocateDirect(serializer.maxSerializedSize());
+        this.subscribers = new AtomicReference<>(EMPTY);
+    }
+
+    /**
+     * Off-heap counterpart of {@link io.reactivex.subjects.ReplaySubject#createWithSize(int)}.
+     */
+    public static <T> OffHeapReplaySubject<T> createWithSize(int maxSize, Serializer<T> serializer) {
+        checkArguments(maxSize, serializer);
+        return new OffHeapReplaySubject<>(maxSize, -1L, null, serializer);
+    }
+
+    /**
+     * Off-heap counterpart of {@link io.reactivex.subjects.ReplaySubject#createWithTimeAndSize}: new subscribers
+     * don't get values emitted more than {@code maxAge} ago. {@code maxSize} is still required as it defines the
+     * size of the ring.
+     */
+    public static <T> OffHeapReplaySubject<T> createWithTimeAndSize(long maxAge, TimeUnit unit, Scheduler scheduler,
+                                                                    int maxSize, Serializer<T> serializer) {
+        checkArguments(maxSize, serializer);
+        if (maxAge <= 0) {
+            throw new IllegalArgumentException("maxAge > 0 required but it was " + maxAge);
+        }
+        Objects.requireNonNull(unit, "unit is null");
+        Objects.requireNonNull(scheduler, "scheduler is null");
+        return new OffHeapReplaySubject<>(maxSize, unit.toNanos(maxAge), scheduler, serializer);
+    }
+
+    private static void checkArguments(int maxSize, Serializer<?> serializer) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize > 0 required but it was " + maxSize);
+        }
+        Objects.requireNonNull(serializer, "serializer is null");
+    }
+
+    /**
+     * Number of values which are currently stored in the ring, including the ones older than max age.
+     */
+    public int size() {
+        return (int) Math.min(writeIndex, capacity);
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super T> observer) {
+        ReplayDisposable<T> rd = new ReplayDisposable<>(observer, this);
+        observer.onSubscribe(rd);
+        synchronized (this) {
+            rd.index = startIndex();
+        }
+        if (add(rd) && rd.cancelled) {
+            remove(rd);
+            return;
+        }
+        replay(rd);
+    }
+
+    @Override
+    public void onSubscribe(Disposable d) {
+        if (done) {
+            d.dispose();
+        }
+    }
+
+    @Override
+    public void onNext(T t) {
+        Objects.requireNonNull(t, "onNext called with null. Null values are generally not allowed in 2.x operators and sources.");
+        if (done) {
+            return;
+        }
+        Throwable failure = null;
+        synchronized (this) {
+            try {
+                write(t);
+            } catch (Throwable e) {
+                // e.g. a value larger than maxSerializedSize; nothing was copied to the ring
+                Exceptions.throwIfFatal(e);
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            onError(failure);
+            return;
+        }
+        for (ReplayDisposable<T> rd : subscribers.get()) {
+            replay(rd);
+        }
+    }
+
+    @Override
+    public void onError(Throwable e) {
+        Objects.requireNonNull(e, "onError called with null. Null values are generally not allowed in 2.x operators and sources.");
+        if (done) {
+            RxJavaPlugins.onError(e);
+            return;
+        }
+        error = e;
+        terminate();
+    }
+
+    @Override
+    public void onComplete() {
+        if (done) {
+            return;
+        }
+        terminate();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void terminate() {
+        done = true;
+        for (ReplayDisposable<T> rd : subscribers.getAndSet(TERMINATED)) {
+            replay(rd);
+        }
+    }
+
+    @Override
+    public boolean hasObservers() {
+        return subscribers.get().length != 0;
+    }
+
+    @Override
+    public boolean hasThrowable() {
+        return done && error != null;
+    }
+
+    @Override
+    public boolean hasComplete() {
+        return done && error == null;
+    }
+
+    @Override
+    public Throwable getThrowable() {
+        return done ? error : null;
+    }
+
+    private void write(T value) {
+        long index = writeIndex;
+        int offset = (int) (index % capacity) * slotSize;
+        scratch.clear();
+        serializer.write(value, scratch);
+        scratch.flip();
+        int length = scratch.remaining();
+        ring.clear();
+        ring.position(offset + HEADER_SIZE);
+        ring.put(scratch);
+        ring.putLong(offset, maxAgeNanos > 0 ? scheduler.now(TimeUnit.NANOSECONDS) : 0L);
+        ring.putInt(offset + Long.BYTES, length);
+        writeIndex = index + 1;
+    }
+
+    // must be called holding the lock
+    private T read(long index) {
+        int offset = (int) (index % capacity) * slotSize;
+        int start = offset + HEADER_SIZE;
+        ring.clear();
+        ring.limit(start + ring.getInt(offset + Long.BYTES));
+        ring.position(start);
+        return serializer.read(ring);
+    }
+
+    // must be called holding the lock
+    private long startIndex() {
+        long end = writeIndex;
+        long index = Math.max(0L, end - capacity);
+        if (maxAgeNanos > 0) {
+            ring.clear();
+            long limit = scheduler.now(TimeUnit.NANOSECONDS) - maxAgeNanos;
+            while (index < end && ring.getLong((int) (index % capacity) * slotSize) <= limit) {
+                index++;
+            }
+        }
+        return index;
+    }
+
+    private void replay(ReplayDisposable<T> rd) {
+        if (rd.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        Observer<? super T> downstream = rd.downstream;
+        Object[] batch = rd.batch;
+        for (;;) {
+            for (;;) {
+                if (rd.cancelled) {
+                    return;
+                }
+                boolean d = done;
+                int n = rd.index != writeIndex ? readBatch(rd) : 0;
+                if (n == 0) {
+                    if (d) {
+                        rd.cancelled = true;
+                        Throwable e = error;
+                        if (e != null) {
+                            downstream.onError(e);
+                        } else {
+                            downstream.onComplete();
+                        }
+                        return;
+                    }
+                    break;
+                }
+                for (int i = 0; i < n; i++) {
+                    @SuppressWarnings("unchecked")
+                    T value = (T) batch[i];
+                    batch[i] = null;
+                    if (!rd.cancelled) {
+                        downstream.onNext(value);
+                    }
+                }
+            }
+            missed = rd.addAndGet(-missed);
+            if (missed == 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Deserializes next values into subscriber's batch, so that the lock is taken once per batch rather than once
+     * per value, and isn't held while values are delivered downstream.
+     */
+    private synchronized int readBatch(ReplayDisposable<T> rd) {
+        long end = writeIndex;
+        long index = Math.max(rd.index, end - capacity);
+        Object[] batch = rd.batch;
+        int n = (int) Math.min(end - index, batch.length);
+        for (int i = 0; i < n; i++) {
+            batch[i] = read(index + i);
+        }
+        rd.index = index + n;
+        return n;
+    }
+
+    private boolean add(ReplayDisposable<T> rd) {
+        for (;;) {
+            ReplayDisposable<T>[] current = subscribers.get();
+            if (current == TERMINATED) {
+                return false;
+            }
+            int n = current.length;
+            @SuppressWarnings("unchecked")
+            ReplayDisposable<T>[] updated = new ReplayDisposable[n + 1];
+            System.arraycopy(current, 0, updated, 0, n);
+            updated[n] = rd;
+            if (subscribers.compareAndSet(current, updated)) {
+                return true;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void remove(ReplayDisposable<T> rd) {
+        for (;;) {
+            ReplayDisposable<T>[] current = subscribers.get();
+            int n = current.length;
+            int j = -1;
+            for (int i = 0; i < n; i++) {
+                if (current[i] == rd) {
+                    j = i;
+                    break;
+                }
+            }
+            if (j < 0) {
+                return;
+            }
+            ReplayDisposable<T>[] updated;
+            if (n == 1) {
+                updated = EMPTY;
+            } else {
+                updated = new ReplayDisposable[n - 1];
+                System.arraycopy(current, 0, updated, 0, j);
+                System.arraycopy(current, j + 1, updated, j, n - j - 1);
+            }
+            if (subscribers.compareAndSet(current, updated)) {
+                return;
+            }
+        }
+    }
+
+    static final class ReplayDisposable<T> extends AtomicInteger implements Disposable {
+        final Observer<? super T> downstream;
+        final OffHeapReplaySubject<T> parent;
+        // accessed only by the thread which is currently replaying
+        final Object[] batch = new Object[REPLAY_BATCH_SIZE];
+        long index;
+        volatile boolean cancelled;
+
+        ReplayDisposable(Observer<? super T> downstream, OffHeapReplaySubject<T> parent) {
+            this.downstream = downstream;
+            this.parent = parent;
+        }
+
+        @Override
+        public void dispose() {
+            if (!cancelled) {
+                cancelled = true;
+                parent.remove(this);
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package rxsample.subjects;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts values to and from bytes of an off-heap buffer, see {@link OffHeapReplaySubject}.
+ * Implementations must not keep references to the passed buffer: it's a shared view, which is repositioned for
+ * every value.
+ */
+public interface Serializer<T> {
+    /**
+     * Upper bound of bytes {@link #write} produces for any value; used as the size of a ring buffer slot.
+     */
+    int maxSerializedSize();
+
+    /**
+     * Writes {@code value} starting at the buffer's position. Buffer limit is set to the end of the slot.
+     */
+    void write(T value, ByteBuffer buffer);
+
+    /**
+     * Reads value written by {@link #write}; buffer position and limit surround exactly the written bytes.
+     */
+    T read(ByteBuffer buffer);
+}
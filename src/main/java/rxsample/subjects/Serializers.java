@@ -0,0 +1,94 @@
+package rxsample.subjects;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serializers for common value types.
+ */
+public final class Serializers {
+    private Serializers() {
+    }
+
+    public static final Serializer<Long> LONG = new Serializer<Long>() {
+        @Override
+        public int maxSerializedSize() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void write(Long value, ByteBuffer buffer) {
+            buffer.putLong(value);
+        }
+
+        @Override
+        public Long read(ByteBuffer buffer) {
+            return buffer.getLong();
+        }
+    };
+
+    public static final Serializer<Integer> INTEGER = new Serializer<Integer>() {
+        @Override
+        public int maxSerializedSize() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void write(Integer value, ByteBuffer buffer) {
+            buffer.putInt(value);
+        }
+
+        @Override
+        public Integer read(ByteBuffer buffer) {
+            return buffer.getInt();
+        }
+    };
+
+    public static final Serializer<Double> DOUBLE = new Serializer<Double>() {
+        @Override
+        public int maxSerializedSize() {
+            return Double.BYTES;
+        }
+
+        @Override
+        public void write(Double value, ByteBuffer buffer) {
+            buffer.putDouble(value);
+        }
+
+        @Override
+        public Double read(ByteBuffer buffer) {
+            return buffer.getDouble();
+        }
+    };
+
+    /**
+     * UTF-8 strings which take at most {@code maxBytes} when encoded. Longer strings fail on write.
+     */
+    public static Serializer<String> utf8(int maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes > 0 required but it was " + maxBytes);
+        }
+        return new Serializer<String>() {
+            @Override
+            public int maxSerializedSize() {
+                return maxBytes;
+            }
+
+            @Override
+            public void write(String value, ByteBuffer buffer) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > maxBytes) {
+                    throw new IllegalArgumentException("String takes " + bytes.length + " bytes, max is " + maxBytes);
+                }
+                buffer.put(bytes);
+            }
+
+            @Override
+            public String read(ByteBuffer buffer) {
+                byte[] bytes = new byte[buffer.remaining()];
+                buffer.get(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package rxsample.subjects;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for a single producer and a single consumer.
+ * <p>
+ * Besides the usual {@link #offer}, the producer can {@link #offerOverwrite} to drop the oldest value when the queue
+ * is full. To make that safe the consumer claims every value with a CAS on the consumer index, so that it never
+ * returns a value the producer has already dropped. For the same reason consumed slots aren't cleared: they keep
+ * the reference until the producer overwrites them, so up to {@code capacity} stale values stay reachable.
+ */
+final class SpscRingQueue<T> {
+    private final AtomicReferenceArray<T> buffer;
+    private final int mask;
+    private final int capacity;
+    private final AtomicLong producerIndex = new AtomicLong();
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    SpscRingQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity > 0 required but it was " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds value to the queue, or returns false if the queue is full. Producer thread only.
+     */
+    boolean offer(T value) {
+        long p = producerIndex.get();
+        if (p - consumerIndex.get() >= capacity) {
+            return false;
+        }
+        buffer.lazySet((int) p & mask, value);
+        producerIndex.lazySet(p + 1);
+        return true;
+    }
+
+    /**
+     * Adds value to the queue, dropping the oldest value if the queue is full. Producer thread only.
+     *
+     * @return true if the oldest value was dropped
+     */
+    boolean offerOverwrite(T value) {
+        long p = producerIndex.get();
+        boolean dropped = false;
+        for (;;) {
+            long c = consumerIndex.get();
+            if (p - c < capacity) {
+                break;
+            }
+            if (consumerIndex.compareAndSet(c, c + 1)) {
+                dropped = true;
+                break;
+            }
+        }
+        buffer.lazySet((int) p & mask, value);
+        producerIndex.lazySet(p + 1);
+        return dropped;
+    }
+
+    /**
+     * Returns the oldest value or null if the queue is empty. Consumer thread only.
+     */
+    T poll() {
+        for (;;) {
+            long c = consumerIndex.get();
+            if (c >= producerIndex.get()) {
+                return null;
+            }
+            T value = buffer.get((int) c & mask);
+            if (consumerIndex.compareAndSet(c, c + 1)) {
+                return value;
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return consumerIndex.get() >= producerIndex.get();
+    }
+
+    /**
+     * Consumer thread only.
+     */
+    void clear() {
+        while (poll() != null) {
+            // drop everything
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subjects.PublishSubject;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveBatchTest {
+    @Test
+    public void testBatchesByCount() {
+        Observable.range(1, 7)
+                .compose(AdaptiveBatch.<Integer>create().maxCount(3))
+                .test()
+                .assertResult(Arrays.asList(1, 2, 3), Arrays.asList(4, 5, 6), Arrays.asList(7));
+    }
+
+    @Test
+    public void testBatchesByBytes() {
+        Observable.just("ab", "cde", "f", "ghij", "k")
+                .compose(AdaptiveBatch.<String>create().maxBytes(4, String::length))
+                .test()
+                .assertResult(Arrays.asList("ab", "cde"), Arrays.asList("f", "ghij"), Arrays.asList("k"));
+    }
+
+    @Test
+    public void testBatchesByLatency() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishSubject<Integer> subject = PublishSubject.create();
+        TestObserver<List<Integer>> observer = subject
+                .compose(AdaptiveBatch.<Integer>create().maxCount(10).maxLatency(100, TimeUnit.MILLISECONDS)
+                        .scheduler(scheduler))
+                .test();
+        subject.onNext(1);
+        scheduler.advanceTimeBy(50, TimeUnit.MILLISECONDS);
+        subject.onNext(2);
+        observer.assertEmpty();
+        scheduler.advanceTimeBy(50, TimeUnit.MILLISECONDS);
+        observer.assertValues(Arrays.asList(1, 2));
+        // the timer starts with the first value of the next batch
+        scheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+        subject.onNext(3);
+        scheduler.advanceTimeBy(99, TimeUnit.MILLISECONDS);
+        observer.assertValueCount(1);
+        subject.onComplete();
+        observer.assertResult(Arrays.asList(1, 2), Arrays.asList(3));
+    }
+
+    @Test
+    public void testTimerAndCountClosedBatchesKeepOrder() {
+        // the timer closes batches on a computation thread while the upstream thread closes them by count
+        int count = 200_000;
+        for (int round = 0; round < 20; round++) {
+            TestObserver<List<Integer>> observer = Observable.range(0, count)
+                    .compose(AdaptiveBatch.<Integer>create().maxCount(7).maxLatency(1, TimeUnit.MICROSECONDS)
+                            .scheduler(Schedulers.computation()))
+                    .test();
+            observer.awaitTerminalEvent(10, TimeUnit.SECONDS);
+            observer.assertComplete();
+            int expected = 0;
+            for (List<Integer> batch : observer.values()) {
+                for (int value : batch) {
+                    assertEquals(expected++, value);
+                }
+            }
+            assertEquals(count, expected);
+        }
+    }
+
+    @Test
+    public void testAdaptiveLimitFollowsDownstream() {
+        AdaptiveBatch<Integer> batching = AdaptiveBatch.<Integer>create().maxCount(1024)
+                .adaptive(1, TimeUnit.MILLISECONDS);
+        // fast downstream: batches grow up to maxCount
+        List<List<Integer>> fast = Observable.range(0, 10_000).compose(batching).toList().blockingGet();
+        assertEquals(AdaptiveBatch.INITIAL_ADAPTIVE_COUNT, fast.get(0).size());
+        int max = 0;
+        for (List<Integer> batch : fast) {
+            max = Math.max(max, batch.size());
+        }
+        assertEquals(1024, max);
+        // slow downstream: batches shrink to a single value
+        List<Integer> sizes = Observable.range(0, 200).compose(batching)
+                .doOnNext(b -> Thread.sleep(2))
+                .map(List::size)
+                .toList()
+                .blockingGet();
+        assertTrue(sizes.get(0) > 1);
+        assertEquals(1, (int) sizes.get(sizes.size() - 1));
+    }
+
+    @Test
+    public void testErrorDropsCurrentBatch() {
+        Observable.range(1, 5).concatWith(Observable.error(new IllegalStateException()))
+                .compose(AdaptiveBatch.<Integer>create().maxCount(3))
+                .test()
+                .assertFailure(IllegalStateException.class, Arrays.asList(1, 2, 3));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testLimitRequired() {
+        Observable.range(1, 5).compose(AdaptiveBatch.<Integer>create());
+    }
+}
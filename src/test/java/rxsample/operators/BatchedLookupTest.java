@@ -0,0 +1,93 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subjects.PublishSubject;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class BatchedLookupTest {
+    private static Map<String, Integer> store() {
+        Map<String, Integer> store = new HashMap<>();
+        store.put("a", 1);
+        store.put("b", 2);
+        store.put("c", 3);
+        return store;
+    }
+
+    @Test
+    public void testValuesInKeyOrderWithoutMissingKeys() {
+        InMemoryBulkLoader<String, Integer> loader = InMemoryBulkLoader.create(store());
+        Observable.just("c", "x", "a", "b", "a")
+                .compose(BatchedLookup.create(loader).maxBatchSize(2).scheduler(new TestScheduler()))
+                .test()
+                .assertResult(3, 1, 2, 1);
+        assertEquals(3, loader.loadCount());
+    }
+
+    @Test
+    public void testKeysInFlightAreNotLoadedAgain() {
+        TestScheduler scheduler = new TestScheduler();
+        InMemoryBulkLoader<String, Integer> loader = InMemoryBulkLoader.create(store(), 2, TimeUnit.MILLISECONDS,
+                scheduler);
+        PublishSubject<String> subject = PublishSubject.create();
+        TestObserver<Integer> observer = subject
+                .compose(BatchedLookup.create(loader).maxBatchSize(2).scheduler(scheduler))
+                .test();
+        subject.onNext("a");
+        subject.onNext("b");
+        subject.onNext("a");
+        subject.onNext("c");
+        subject.onComplete();
+        observer.assertEmpty();
+        scheduler.advanceTimeBy(2, TimeUnit.MILLISECONDS);
+        observer.assertResult(1, 2, 1, 3);
+        assertEquals(2, loader.loadCount());
+        assertEquals(3, loader.loadedKeyCount());
+    }
+
+    @Test
+    public void testCacheExpiresAfterTtl() {
+        TestScheduler scheduler = new TestScheduler();
+        InMemoryBulkLoader<String, Integer> loader = InMemoryBulkLoader.create(store());
+        BatchedLookup<String, Integer> lookup = BatchedLookup.create(loader)
+                .cache(10, 1, TimeUnit.SECONDS)
+                .scheduler(scheduler);
+        Observable.just("a", "b").compose(lookup).test().assertResult(1, 2);
+        Observable.just("a").compose(lookup).test().assertResult(1);
+        assertEquals(1, loader.loadCount());
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        Observable.just("a").compose(lookup).test().assertResult(1);
+        assertEquals(2, loader.loadCount());
+    }
+
+    @Test
+    public void testCacheEvictsLeastRecentlyUsed() {
+        InMemoryBulkLoader<String, Integer> loader = InMemoryBulkLoader.create(store());
+        BatchedLookup<String, Integer> lookup = BatchedLookup.create(loader).cache(2).scheduler(new TestScheduler());
+        Observable.just("a", "b").compose(lookup).test().assertResult(1, 2);
+        Observable.just("a").compose(lookup).test().assertResult(1);
+        Observable.just("c").compose(lookup).test().assertResult(3);
+        // b was used least recently
+        Observable.just("a", "b").compose(lookup).test().assertResult(1, 2);
+        assertEquals(3, loader.loadCount());
+        assertEquals(4, loader.loadedKeyCount());
+    }
+
+    @Test
+    public void testLoaderErrorIsDelivered() {
+        BulkLoader<String, Integer> failing = keys -> Single.error(new IOException("unavailable"));
+        Observable.just("a")
+                .compose(BatchedLookup.create(failing).scheduler(new TestScheduler()))
+                .test()
+                .assertFailure(IOException.class);
+    }
+}
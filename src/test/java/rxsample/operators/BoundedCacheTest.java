@@ -0,0 +1,88 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subjects.PublishSubject;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedCacheTest {
+    @Test
+    public void testLateSubscriberGetsOnlyLastValuesBySize() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        Observable<Integer> cached = Observable.range(1, 10)
+                .doOnSubscribe(d -> subscriptions.incrementAndGet())
+                .compose(BoundedCache.<Integer>create().maxSize(3));
+        cached.test().assertResult(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        cached.test().assertResult(8, 9, 10);
+        assertEquals(1, subscriptions.get());
+    }
+
+    @Test
+    public void testEvictionByWeight() {
+        PublishSubject<String> subject = PublishSubject.create();
+        Observable<String> cached = subject.compose(BoundedCache.<String>create().maxWeight(6, String::length));
+        TestObserver<String> early = cached.test();
+        subject.onNext("aaaa");
+        subject.onNext("bb");
+        subject.onNext("ccc");
+        // heavier than the whole cache: delivered to current subscribers, but not retained
+        subject.onNext("ddddddd");
+        subject.onNext("e");
+        early.assertValues("aaaa", "bb", "ccc", "ddddddd", "e");
+        cached.test().assertValues("e");
+    }
+
+    @Test
+    public void testEvictionByAge() {
+        TestScheduler scheduler = new TestScheduler();
+        Observable<Long> cached = Observable.interval(100, TimeUnit.MILLISECONDS, scheduler)
+                .compose(BoundedCache.<Long>create().maxAge(250, TimeUnit.MILLISECONDS).scheduler(scheduler));
+        TestObserver<Long> early = cached.test();
+        scheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+        early.assertValues(0L, 1L, 2L, 3L, 4L);
+        cached.test().assertValues(2L, 3L, 4L);
+        scheduler.advanceTimeBy(240, TimeUnit.MILLISECONDS);
+        // values 2 and 3 expired without any new emissions evicting them
+        cached.test().assertValues(4L, 5L, 6L);
+    }
+
+    @Test
+    public void testDisconnectsAfterGracePeriod() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishSubject<Integer> subject = PublishSubject.create();
+        Observable<Integer> cached = subject.compose(BoundedCache.<Integer>create()
+                .maxSize(10)
+                .disconnectAfter(1, TimeUnit.SECONDS)
+                .scheduler(scheduler));
+
+        TestObserver<Integer> first = cached.test();
+        subject.onNext(1);
+        first.dispose();
+        assertTrue(subject.hasObservers());
+
+        scheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+        // resubscribing within the grace period keeps the connection and the cached values
+        TestObserver<Integer> second = cached.test();
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        second.assertValues(1);
+        second.dispose();
+
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        assertFalse(subject.hasObservers());
+        cached.test().assertNoValues();
+        assertTrue(subject.hasObservers());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRequiresBound() {
+        Observable.just(1).compose(BoundedCache.<Integer>create());
+    }
+}
@@ -0,0 +1,89 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.observables.GroupedObservable;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subjects.PublishSubject;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedGroupByTest {
+    @Test
+    public void testLeastRecentlyUsedGroupIsCompleted() {
+        BoundedGroupBy<String, Character> groupBy = BoundedGroupBy.<String, Character>create(w -> w.charAt(0))
+                .maxGroups(2);
+        Observable.just("a1", "b1", "a2", "c1", "b2", "a3")
+                .compose(groupBy)
+                .concatMapSingle(group -> group.toList().map(words -> group.getKey() + ": " + words))
+                .test()
+                // c evicts b (used less recently than a), the new b evicts a, the new a evicts c
+                .assertResult("a: [a1, a2]", "b: [b1]", "c: [c1]", "b: [b2]", "a: [a3]");
+        assertEquals(3, groupBy.evictedGroupCount());
+        assertEquals(0, groupBy.activeGroupCount());
+    }
+
+    @Test
+    public void testIdleGroupIsCompletedAndReopened() {
+        TestScheduler scheduler = new TestScheduler();
+        BoundedGroupBy<Integer, Integer> groupBy = BoundedGroupBy.<Integer, Integer>create(v -> v % 10)
+                .idleTimeout(10, TimeUnit.SECONDS)
+                .scheduler(scheduler);
+        PublishSubject<Integer> subject = PublishSubject.create();
+        TestObserver<GroupedObservable<Integer, Integer>> main = subject.compose(groupBy).test();
+        subject.onNext(1);
+        TestObserver<Integer> first = main.values().get(0).test();
+        scheduler.advanceTimeBy(6, TimeUnit.SECONDS);
+        subject.onNext(2);
+        scheduler.advanceTimeBy(5, TimeUnit.SECONDS);
+        first.assertResult(1);
+        assertEquals(1, groupBy.expiredGroupCount());
+        assertEquals(1, groupBy.activeGroupCount());
+        subject.onNext(11);
+        assertEquals(3, main.values().size());
+        main.values().get(2).test().assertValues(11);
+        subject.onComplete();
+        main.assertComplete();
+    }
+
+    @Test
+    public void testUpstreamDisposedWhenMainAndGroupsAreDisposed() {
+        PublishSubject<Integer> subject = PublishSubject.create();
+        TestObserver<Integer> group = new TestObserver<>();
+        TestObserver<GroupedObservable<Integer, Integer>> main = subject
+                .compose(BoundedGroupBy.<Integer, Integer>create(v -> v).maxGroups(4))
+                .doOnNext(g -> g.subscribe(group))
+                .test();
+        subject.onNext(1);
+        main.dispose();
+        assertTrue(subject.hasObservers());
+        group.dispose();
+        assertFalse(subject.hasObservers());
+    }
+
+    @Test
+    public void testManyDistinctKeysKeepGroupsBounded() {
+        int keys = 1_000_000;
+        int maxGroups = 1000;
+        BoundedGroupBy<Integer, Integer> groupBy = BoundedGroupBy.<Integer, Integer>create(v -> v)
+                .maxGroups(maxGroups);
+        AtomicLong maxActive = new AtomicLong();
+        AtomicLong values = new AtomicLong();
+        Observable.range(0, keys)
+                .compose(groupBy)
+                .subscribe(group -> {
+                    maxActive.accumulateAndGet(groupBy.activeGroupCount(), Math::max);
+                    group.subscribe(v -> values.incrementAndGet());
+                });
+        assertEquals(keys, values.get());
+        assertEquals(maxGroups, maxActive.get());
+        assertEquals(keys - maxGroups, groupBy.evictedGroupCount());
+        assertEquals(0, groupBy.activeGroupCount());
+    }
+}
@@ -0,0 +1,71 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.schedulers.Schedulers;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class CollectTest {
+    @Test
+    public void testToListWithSizeHint() {
+        Observable.range(10, 5)
+                .as(Collect.toList(5))
+                .test()
+                .assertResult(Arrays.asList(10, 11, 12, 13, 14));
+        // the hint is only a hint
+        Observable.range(10, 5)
+                .as(Collect.toList(2))
+                .test()
+                .assertResult(Arrays.asList(10, 11, 12, 13, 14));
+        SizedObservable.fromArray("a", "b")
+                .as(Collect.toList())
+                .test()
+                .assertResult(Arrays.asList("a", "b"));
+        assertEquals(5, SizedObservable.range(10, 5).size());
+    }
+
+    @Test
+    public void testCollector() {
+        Map<Boolean, List<Integer>> evenOdd = Observable.range(0, 6)
+                .as(Collect.of(Collectors.partitioningBy((Integer v) -> v % 2 == 0)))
+                .blockingGet();
+        assertEquals(Arrays.asList(0, 2, 4), evenOdd.get(true));
+        assertEquals(Arrays.asList(1, 3, 5), evenOdd.get(false));
+        Observable.fromArray("a", "b", "c")
+                .as(Collect.of(Collectors.joining(",")))
+                .test()
+                .assertResult("a,b,c");
+    }
+
+    @Test
+    public void testParallelCollectorKeepsOrder() {
+        int size = 100_000;
+        List<Integer> expected = Observable.range(0, size).toList().blockingGet();
+        Observable.range(0, size)
+                .as(Collect.parallel(Collectors.<Integer>toList(), 4))
+                .test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertResult(expected);
+        Observable.<Integer>empty()
+                .as(Collect.parallel(Collectors.summingInt((Integer v) -> v), 2, Schedulers.single()))
+                .test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertResult(0);
+    }
+
+    @Test
+    public void testParallelAccumulatorErrorIsDelivered() {
+        Observable.range(0, 10_000)
+                .as(Collect.parallel(Collectors.summingInt((Integer v) -> 100 / (v - 5_000)), 2))
+                .test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertError(ArithmeticException.class);
+    }
+}
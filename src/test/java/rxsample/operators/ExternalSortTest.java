@@ -0,0 +1,118 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.PublishSubject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import rxsample.subjects.Serializers;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ExternalSortTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSortsInMemoryWithoutFiles() {
+        Observable.fromArray(5L, 1L, 4L, 2L, 3L)
+                .compose(ExternalSort.create(Serializers.LONG, Comparator.naturalOrder(), folder.getRoot()))
+                .test()
+                .assertResult(1L, 2L, 3L, 4L, 5L);
+        assertEquals(0, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void testMergesSpilledRunsInMultiplePasses() {
+        List<Long> values = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            values.add((long) random.nextInt(1000) - 500);
+        }
+        List<Long> expected = new ArrayList<>(values);
+        expected.sort(Comparator.naturalOrder());
+        // 100 runs, merged 4 at a time
+        Observable.fromIterable(values)
+                .compose(ExternalSort.create(Serializers.LONG, Comparator.naturalOrder(), folder.getRoot())
+                        .runSize(100)
+                        .bufferSize(64)
+                        .maxFanIn(4))
+                .test()
+                .assertResult(expected.toArray(new Long[0]));
+        assertEquals(0, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void testSortIsStable() {
+        // sorted by length only, strings of equal length keep their order
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            values.add(i % 7 + ":" + i);
+        }
+        List<String> expected = new ArrayList<>(values);
+        expected.sort(Comparator.comparing(String::length));
+        Observable.fromIterable(values)
+                .compose(ExternalSort.create(Serializers.utf8(16), Comparator.comparing(String::length),
+                        folder.getRoot())
+                        .runSize(30)
+                        .maxFanIn(3))
+                .test()
+                .assertResult(expected.toArray(new String[0]));
+    }
+
+    @Test
+    public void testDisposeDeletesFiles() {
+        PublishSubject<Long> subject = PublishSubject.create();
+        TestObserver<Long> observer = subject
+                .compose(ExternalSort.create(Serializers.LONG, Comparator.naturalOrder(), folder.getRoot())
+                        .runSize(10))
+                .test();
+        for (long i = 0; i < 25; i++) {
+            subject.onNext(i);
+        }
+        assertEquals(2, runFiles().length);
+        observer.dispose();
+        assertEquals(0, folder.getRoot().list().length);
+        assertFalse(subject.hasObservers());
+    }
+
+    @Test
+    public void testSerializerFailureDeletesFiles() {
+        Observable.rangeLong(0, 25)
+                .map(String::valueOf)
+                .compose(ExternalSort.create(Serializers.utf8(1), Comparator.<String>naturalOrder(),
+                        folder.getRoot())
+                        .runSize(5))
+                .test()
+                .assertNoValues()
+                .assertError(IllegalArgumentException.class);
+        assertEquals(0, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void testUpstreamErrorDeletesFiles() {
+        Observable.rangeLong(0, 25)
+                .concatWith(Observable.error(new IOException("source failed")))
+                .compose(ExternalSort.create(Serializers.LONG, Comparator.naturalOrder(), folder.getRoot())
+                        .runSize(10))
+                .test()
+                .assertNoValues()
+                .assertError(IOException.class);
+        assertEquals(0, folder.getRoot().list().length);
+    }
+
+    private File[] runFiles() {
+        File[] directories = folder.getRoot().listFiles();
+        assertEquals(1, directories.length);
+        return directories[0].listFiles();
+    }
+}
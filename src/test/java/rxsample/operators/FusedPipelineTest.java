@@ -0,0 +1,73 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.PublishSubject;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FusedPipelineTest {
+    @Test
+    public void testSameResultAsSeparateOperators() {
+        Observable<Integer> source = Observable.range(0, 100);
+        Observable<String> expected = source.filter(i -> i % 3 == 0).map(i -> i * 2).skip(2).take(5)
+                .map(String::valueOf);
+        Observable<String> fused = source.compose(FusedPipeline.<Integer>create()
+                .filter(i -> i % 3 == 0).map(i -> i * 2).skip(2).take(5).map(String::valueOf));
+        fused.test().assertResult(expected.toList().blockingGet().toArray(new String[0]));
+    }
+
+    @Test
+    public void testTakeCompletesEvenIfLaterStageDropsLastValue() {
+        PublishSubject<Integer> subject = PublishSubject.create();
+        subject.compose(FusedPipeline.<Integer>create().take(2).filter(i -> i > 10))
+                .test()
+                .assertEmpty();
+        subject.onNext(20);
+        subject.onNext(1);
+        assertFalse(subject.hasObservers());
+        // same as subject.take(2).filter(i -> i > 10)
+        Observable.just(20, 1, 30).compose(FusedPipeline.<Integer>create().take(2).filter(i -> i > 10))
+                .test()
+                .assertResult(20);
+    }
+
+    @Test
+    public void testTakeZero() {
+        AtomicInteger calls = new AtomicInteger();
+        PublishSubject<Integer> subject = PublishSubject.create();
+        subject.compose(FusedPipeline.<Integer>create().map(calls::addAndGet).take(0))
+                .test()
+                .assertResult();
+        assertFalse(subject.hasObservers());
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    public void testMapperError() {
+        PublishSubject<Integer> subject = PublishSubject.create();
+        TestObserver<Integer> observer = subject
+                .compose(FusedPipeline.<Integer>create().map(i -> 10 / i))
+                .test();
+        subject.onNext(5);
+        subject.onNext(0);
+        observer.assertFailure(ArithmeticException.class, 2);
+        assertFalse(subject.hasObservers());
+    }
+
+    @Test
+    public void testPipelinesAppliedInSequenceAreFused() {
+        Observable<Integer> first = Observable.range(1, 10)
+                .compose(FusedPipeline.<Integer>create().map(i -> i * 10));
+        Observable<String> second = first.compose(FusedPipeline.<Integer>create().skip(1).take(2)
+                .map(String::valueOf));
+        assertTrue(second instanceof FusedObservable);
+        second.test().assertResult("20", "30");
+        assertEquals(3, FusedPipeline.<Integer>create().skip(1).take(2).map(String::valueOf).stageCount());
+    }
+}
@@ -0,0 +1,137 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.exceptions.MissingBackpressureException;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subjects.PublishSubject;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class OrderedFlatMapTest {
+    @Test
+    public void testInnerSourcesRunConcurrentlyAndEmitInOrder() {
+        TestScheduler scheduler = new TestScheduler();
+        OrderedFlatMap<Integer, Integer> orderedFlatMap = OrderedFlatMap.create(
+                delay -> Observable.timer(delay, TimeUnit.MILLISECONDS, scheduler).map(v -> delay));
+        TestObserver<Integer> observer = Observable.just(300, 100, 200)
+                .compose(orderedFlatMap)
+                .test();
+        scheduler.advanceTimeBy(200, TimeUnit.MILLISECONDS);
+        // 100 and 200 wait for 300
+        observer.assertEmpty();
+        assertEquals(2, orderedFlatMap.bufferedCount());
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+        observer.assertResult(300, 100, 200);
+        assertEquals(0, orderedFlatMap.bufferedCount());
+        assertEquals(2, orderedFlatMap.peakBufferedCount());
+    }
+
+    @Test
+    public void testMaxConcurrency() {
+        TestScheduler scheduler = new TestScheduler();
+        AtomicInteger subscribed = new AtomicInteger();
+        TestObserver<Integer> observer = Observable.range(0, 5)
+                .compose(OrderedFlatMap.<Integer, Integer>create(i -> Observable.timer(10, TimeUnit.MILLISECONDS,
+                        scheduler)
+                        .map(v -> i)
+                        .doOnSubscribe(d -> subscribed.incrementAndGet()))
+                        .maxConcurrency(2))
+                .test();
+        assertEquals(2, subscribed.get());
+        scheduler.advanceTimeBy(10, TimeUnit.MILLISECONDS);
+        observer.assertValues(0, 1);
+        assertEquals(4, subscribed.get());
+        scheduler.advanceTimeBy(20, TimeUnit.MILLISECONDS);
+        observer.assertResult(0, 1, 2, 3, 4);
+    }
+
+    @Test
+    public void testSynchronousInnerSourcesAreNotBuffered() {
+        OrderedFlatMap<Integer, Integer> orderedFlatMap = OrderedFlatMap.<Integer, Integer>create(
+                i -> Observable.range(i * 1000, 1000))
+                .prefetch(1);
+        TestObserver<Integer> observer = Observable.range(0, 3)
+                .compose(orderedFlatMap)
+                .test();
+        observer.assertComplete();
+        assertEquals(3000, observer.valueCount());
+        assertEquals(0, orderedFlatMap.peakBufferedCount());
+    }
+
+    @Test
+    public void testSynchronousInnerSourceKeepsOrderOfValuesFromOtherThreads() {
+        // emits 1 from another thread while it's being subscribed, then 2 from the subscribing thread
+        Observable<Integer> inner = Observable.unsafeCreate(observer -> {
+            observer.onSubscribe(Disposables.empty());
+            Thread thread = new Thread(() -> observer.onNext(1));
+            thread.start();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                observer.onError(e);
+                return;
+            }
+            observer.onNext(2);
+            observer.onComplete();
+        });
+        Observable.just(0)
+                .compose(OrderedFlatMap.<Integer, Integer>create(i -> inner))
+                .test()
+                .assertResult(1, 2);
+    }
+
+    @Test
+    public void testInnerSourceEmittingBeyondPrefetchFails() {
+        PublishSubject<Integer> first = PublishSubject.create();
+        OrderedFlatMap<Integer, Integer> orderedFlatMap = OrderedFlatMap.<Integer, Integer>create(
+                i -> i == 0 ? first : Observable.range(0, 10))
+                .prefetch(5);
+        Observable.range(0, 2)
+                .compose(orderedFlatMap)
+                .test()
+                .assertNoValues()
+                .assertError(MissingBackpressureException.class);
+        assertEquals(0, orderedFlatMap.bufferedCount());
+        assertFalse(first.hasObservers());
+    }
+
+    @Test
+    public void testDisposeReleasesBufferedValues() {
+        PublishSubject<Integer> first = PublishSubject.create();
+        PublishSubject<Integer> second = PublishSubject.create();
+        OrderedFlatMap<Integer, Integer> orderedFlatMap = OrderedFlatMap.create(i -> i == 0 ? first : second);
+        TestObserver<Integer> observer = Observable.range(0, 2)
+                .compose(orderedFlatMap)
+                .test();
+        first.onNext(1);
+        second.onNext(2);
+        second.onNext(3);
+        observer.assertValues(1);
+        assertEquals(2, orderedFlatMap.bufferedCount());
+        observer.dispose();
+        assertEquals(0, orderedFlatMap.bufferedCount());
+        assertFalse(first.hasObservers());
+        assertFalse(second.hasObservers());
+    }
+
+    @Test
+    public void testMapperFailure() {
+        Observable.range(0, 3)
+                .compose(OrderedFlatMap.<Integer, Integer>create(i -> {
+                    if (i == 1) {
+                        throw new IllegalStateException("mapper failed");
+                    }
+                    return Observable.just(i);
+                }))
+                .test()
+                .assertValues(0)
+                .assertError(IllegalStateException.class);
+    }
+}
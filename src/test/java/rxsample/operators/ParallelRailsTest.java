@@ -0,0 +1,122 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.Schedulers;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelRailsTest {
+    private static final int COUNT = 100_000;
+
+    @Test
+    public void testUnorderedMergeEmitsAllValues() {
+        List<Integer> values = ParallelRails.from(Observable.range(0, COUNT), 4)
+                .map(i -> i * 2)
+                .filter(i -> i % 3 == 0)
+                .merge()
+                .toList()
+                .blockingGet();
+        Collections.sort(values);
+        List<Integer> expected = Observable.range(0, COUNT).map(i -> i * 2).filter(i -> i % 3 == 0)
+                .toList().blockingGet();
+        assertEquals(expected, values);
+    }
+
+    @Test
+    public void testOrderedMergeRestoresSourceOrder() {
+        // uneven processing time on the rails
+        List<String> values = ParallelRails.from(Observable.range(0, 200), 3)
+                .map(i -> {
+                    if (i % 7 == 0) {
+                        Thread.sleep(1);
+                    }
+                    return i;
+                })
+                .filter(i -> i % 5 != 0)
+                .map(String::valueOf)
+                .mergeOrdered()
+                .toList()
+                .blockingGet();
+        List<String> expected = Observable.range(0, 200).filter(i -> i % 5 != 0).map(String::valueOf)
+                .toList().blockingGet();
+        assertEquals(expected, values);
+    }
+
+    @Test
+    public void testOrderedMergeByKey() {
+        List<Integer> values = ParallelRails.byKey(Observable.range(0, COUNT), 4, Schedulers.computation(),
+                i -> i % 10)
+                .filter(i -> i % 3 != 0)
+                .mergeOrdered()
+                .toList()
+                .blockingGet();
+        assertEquals(Observable.range(0, COUNT).filter(i -> i % 3 != 0).toList().blockingGet(), values);
+    }
+
+    @Test
+    public void testSameKeyStaysInOrder() {
+        List<Integer> values = ParallelRails.byKey(Observable.range(0, COUNT), 4, Schedulers.computation(),
+                i -> i % 10)
+                .merge()
+                .toList()
+                .blockingGet();
+        assertEquals(COUNT, values.size());
+        Map<Integer, Integer> last = new HashMap<>();
+        for (int v : values) {
+            Integer previous = last.put(v % 10, v);
+            assertTrue(previous == null || previous < v);
+        }
+    }
+
+    @Test
+    public void testReduce() {
+        long sum = ParallelRails.from(Observable.range(1, COUNT), 4)
+                .map(i -> (long) i)
+                .reduce(Long::sum)
+                .blockingGet();
+        assertEquals((long) COUNT * (COUNT + 1) / 2, sum);
+        ParallelRails.from(Observable.<Integer>empty(), 4)
+                .reduce(Integer::sum)
+                .test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertResult();
+    }
+
+    @Test
+    public void testMapperError() {
+        TestObserver<Integer> observer = ParallelRails.from(Observable.range(0, COUNT), 4)
+                .map(i -> {
+                    if (i == 1000) {
+                        throw new IllegalStateException("Bad value");
+                    }
+                    return i;
+                })
+                .merge()
+                .test();
+        observer.awaitDone(5, TimeUnit.SECONDS)
+                .assertError(IllegalStateException.class)
+                .assertNotComplete();
+        List<Integer> received = new ArrayList<>(observer.values());
+        assertTrue(received.size() < COUNT);
+    }
+
+    @Test
+    public void testEmptyAndError() {
+        ParallelRails.from(Observable.<Integer>empty(), 2).mergeOrdered().test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertResult();
+        ParallelRails.from(Observable.<Integer>error(new IllegalStateException()), 2).merge().test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertFailure(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,77 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.PublishSubject;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PartitionedToMapTest {
+    @Test
+    public void testSameAsToMap() {
+        Observable<Integer> values = Observable.range(0, 200_000);
+        Map<Integer, String> expected = values.toMap(v -> v % 50_000, v -> "v" + v).blockingGet();
+        Map<Integer, String> actual = values
+                .as(PartitionedToMap.<Integer, Integer, String>create(v -> v % 50_000, v -> "v" + v)
+                        .partitions(6)
+                        .expectedSize(50_000)
+                        .toMap())
+                .blockingGet();
+        assertEquals(8, ((PartitionedMap<Integer, String>) actual).partitionCount());
+        assertEquals(expected, actual);
+        assertEquals(expected.hashCode(), actual.hashCode());
+        assertEquals("v199999", actual.get(49_999));
+        assertFalse(actual.containsKey(50_000));
+        assertEquals(expected, new HashMap<>(actual));
+    }
+
+    @Test
+    public void testMultimapKeepsOrderOfValues() {
+        Map<Integer, Collection<Integer>> map = Observable.range(0, 100_000)
+                .as(PartitionedToMap.<Integer, Integer, Integer>create(v -> v % 3, v -> v).partitions(4).toMultimap())
+                .blockingGet();
+        assertEquals(3, map.size());
+        Integer previous = -1;
+        for (Integer v : map.get(1)) {
+            assertTrue(v > previous);
+            previous = v;
+        }
+        assertEquals(33_333, map.get(2).size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testResultIsReadOnly() {
+        Observable.just(1, 2)
+                .as(PartitionedToMap.<Integer, Integer, Integer>create(v -> v, v -> v).toMap())
+                .blockingGet()
+                .put(3, 3);
+    }
+
+    @Test
+    public void testValueSelectorErrorIsDelivered() {
+        Observable.range(0, 10_000)
+                .as(PartitionedToMap.<Integer, Integer, Integer>create(v -> v, v -> 100 / (v - 5_000)).toMap())
+                .test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertError(ArithmeticException.class);
+    }
+
+    @Test
+    public void testDisposeStopsUpstream() {
+        PublishSubject<Integer> subject = PublishSubject.create();
+        subject.as(PartitionedToMap.<Integer, Integer, Integer>create(v -> v, v -> v)
+                .scheduler(Schedulers.single())
+                .toMap())
+                .test()
+                .dispose();
+        assertFalse(subject.hasObservers());
+    }
+}
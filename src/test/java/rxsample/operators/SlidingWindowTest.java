@@ -0,0 +1,86 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subjects.PublishSubject;
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class SlidingWindowTest {
+    private static final Observable<Integer> VALUES = Observable.fromArray(1, 4, 0, 5, 12, 3);
+
+    @Test
+    public void testSumAndAverageOfLastValues() {
+        VALUES.compose(SlidingWindow.<Integer>create().size(3).sum(v -> v))
+                .test()
+                .assertResult(1L, 5L, 5L, 9L, 17L, 20L);
+        VALUES.compose(SlidingWindow.<Integer>create().size(2).average(v -> v))
+                .test()
+                .assertResult(1.0, 2.5, 2.0, 2.5, 8.5, 7.5);
+    }
+
+    @Test
+    public void testMinMaxOfLastValues() {
+        VALUES.compose(SlidingWindow.<Integer>create().size(3).min(Comparator.naturalOrder()))
+                .test()
+                .assertResult(1, 1, 0, 0, 0, 3);
+        VALUES.compose(SlidingWindow.<Integer>create().size(3).max(Comparator.naturalOrder()))
+                .test()
+                .assertResult(1, 4, 4, 5, 12, 12);
+    }
+
+    @Test
+    public void testTimeWindow() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishSubject<Integer> subject = PublishSubject.create();
+        TestObserver<Integer> observer = subject
+                .compose(SlidingWindow.<Integer>create().span(10, TimeUnit.SECONDS).scheduler(scheduler)
+                        .max(Comparator.naturalOrder()))
+                .test();
+        subject.onNext(7);
+        scheduler.advanceTimeBy(6, TimeUnit.SECONDS);
+        subject.onNext(2);
+        scheduler.advanceTimeBy(4, TimeUnit.SECONDS);
+        // 7 is 10 seconds old
+        subject.onNext(3);
+        scheduler.advanceTimeBy(30, TimeUnit.SECONDS);
+        subject.onNext(1);
+        subject.onComplete();
+        observer.assertResult(7, 7, 3, 1);
+    }
+
+    @Test
+    public void testMatchesReducedWindows() {
+        int size = 100;
+        Observable<Integer> values = Observable.range(0, 10_000).map(i -> (i * 0x9E3779B9) >>> 20);
+        List<Integer> expected = values.window(size, 1)
+                .concatMapSingle(w -> w.reduce(Math::min).toSingle())
+                .take(10_000 - size + 1)
+                .toList()
+                .blockingGet();
+        List<Integer> actual = values.compose(SlidingWindow.<Integer>create().size(size).min(Comparator.naturalOrder()))
+                .skip(size - 1)
+                .toList()
+                .blockingGet();
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testReduceKeepsOrder() {
+        Observable.fromArray("a", "b", "c", "d")
+                .compose(SlidingWindow.<String>create().size(2).reduce(String::concat))
+                .test()
+                .assertResult("a", "ab", "bc", "cd");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testBoundIsRequired() {
+        SlidingWindow.<Integer>create().sum(v -> v);
+    }
+}
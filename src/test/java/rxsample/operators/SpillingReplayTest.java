@@ -0,0 +1,119 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.PublishSubject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import rxsample.subjects.Serializer;
+import rxsample.subjects.Serializers;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class SpillingReplayTest {
+    // 4 bytes of length + 8 bytes of long, 3 records per segment
+    private static final int SEGMENT_SIZE = 36;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testLateSubscriberReplaysFromHeapAndSegments() {
+        SpillingReplay<Long> replay = SpillingReplay.create(Observable.rangeLong(0, 20), Serializers.LONG,
+                folder.getRoot(), 4, SEGMENT_SIZE, SpillingReplay.UNLIMITED_SEGMENTS);
+        TestObserver<Long> early = replay.test();
+        replay.connect();
+        Long[] expected = Observable.rangeLong(0, 20).toList().blockingGet().toArray(new Long[0]);
+        early.assertResult(expected);
+        replay.test().assertResult(expected);
+        // 16 spilled values, 3 per segment
+        assertEquals(6, segmentFiles().length);
+    }
+
+    @Test
+    public void testRetentionDropsOldestSegmentAndHeap() {
+        PublishSubject<Long> subject = PublishSubject.create();
+        SpillingReplay<Long> replay = SpillingReplay.create(subject, Serializers.LONG, folder.getRoot(),
+                2, SEGMENT_SIZE, 2);
+        Disposable connection = replay.connect();
+        for (long i = 0; i < 10; i++) {
+            subject.onNext(i);
+        }
+        // heap: 0, 1; segments: [2, 3, 4], [5, 6, 7], [8, 9] - only the last 2 segments are retained
+        replay.test().assertValues(5L, 6L, 7L, 8L, 9L);
+        assertEquals(2, segmentFiles().length);
+
+        connection.dispose();
+        assertEquals(0, segmentFiles().length);
+    }
+
+    @Test
+    public void testReconnectStartsNewHistory() {
+        PublishSubject<Long> subject = PublishSubject.create();
+        SpillingReplay<Long> replay = SpillingReplay.create(subject, Serializers.LONG, folder.getRoot(),
+                0, SEGMENT_SIZE, SpillingReplay.UNLIMITED_SEGMENTS);
+        Disposable connection = replay.connect();
+        subject.onNext(1L);
+        connection.dispose();
+        replay.connect();
+        subject.onNext(2L);
+        subject.onComplete();
+        replay.test().assertResult(2L);
+    }
+
+    @Test
+    public void testSerializerFailureTerminatesWithError() {
+        // writes part of the record before it fails on 3
+        Serializer<Long> failing = new Serializer<Long>() {
+            @Override
+            public int maxSerializedSize() {
+                return Long.BYTES;
+            }
+
+            @Override
+            public void write(Long value, ByteBuffer buffer) {
+                buffer.putInt(value.intValue());
+                if (value == 3L) {
+                    throw new IllegalStateException("can't serialize " + value);
+                }
+                buffer.putInt(0);
+            }
+
+            @Override
+            public Long read(ByteBuffer buffer) {
+                long value = buffer.getInt();
+                buffer.getInt();
+                return value;
+            }
+        };
+        PublishSubject<Long> subject = PublishSubject.create();
+        SpillingReplay<Long> replay = SpillingReplay.create(subject, failing, folder.getRoot(), 1, SEGMENT_SIZE,
+                SpillingReplay.UNLIMITED_SEGMENTS);
+        TestObserver<Long> early = replay.test();
+        replay.connect();
+        for (long i = 0; i < 5; i++) {
+            subject.onNext(i);
+        }
+        early.assertValues(0L, 1L, 2L)
+                .assertError(IllegalStateException.class);
+        assertFalse(subject.hasObservers());
+        replay.test()
+                .assertValues(0L, 1L, 2L)
+                .assertError(IllegalStateException.class);
+    }
+
+    private File[] segmentFiles() {
+        File[] dirs = folder.getRoot().listFiles();
+        if (dirs == null || dirs.length == 0) {
+            return new File[0];
+        }
+        File[] files = dirs[0].listFiles();
+        return files == null ? new File[0] : files;
+    }
+}
@@ -0,0 +1,74 @@
+package rxsample.operators;
+
+import io.reactivex.Observable;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subjects.PublishSubject;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WindowedDistinctTest {
+    @Test
+    public void testDuplicatesWithinWindowAreDropped() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishSubject<String> subject = PublishSubject.create();
+        TestObserver<String> observer = subject
+                .compose(WindowedDistinct.<String>create().window(60, TimeUnit.SECONDS).scheduler(scheduler))
+                .test();
+        subject.onNext("a");
+        subject.onNext("b");
+        scheduler.advanceTimeBy(59, TimeUnit.SECONDS);
+        subject.onNext("a");
+        scheduler.advanceTimeBy(2, TimeUnit.SECONDS);
+        subject.onNext("c");
+        // the window is measured from the first "a", the retry at 59 s didn't extend it
+        subject.onNext("a");
+        subject.onNext("b");
+        subject.onNext("c");
+        subject.onComplete();
+        observer.assertResult("a", "b", "c", "a", "b");
+    }
+
+    @Test
+    public void testOnlyLastKeysAreRemembered() {
+        Observable.fromArray(1, 2, 3, 1, 4, 1, 2, 4)
+                .compose(WindowedDistinct.<Integer>create().maxKeys(3))
+                .test()
+                // 4 pushes 1 out, then the second 1 pushes 2 out
+                .assertResult(1, 2, 3, 4, 1, 2);
+    }
+
+    @Test
+    public void testKeySelector() {
+        Observable.fromArray('A', 'B', 'b', 'c', 'a')
+                .compose(WindowedDistinct.<Character>create().keySelector(Character::toLowerCase).maxKeys(2))
+                .test()
+                .assertResult('A', 'B', 'c', 'a');
+    }
+
+    @Test
+    public void testExpiredKeysAreReleased() {
+        ExpiringKeySet keys = new ExpiringKeySet(WindowedDistinct.TICKS_PER_WINDOW, Long.MAX_VALUE);
+        int perTick = 1000;
+        long key = 0;
+        for (long tick = 0; tick < 10 * WindowedDistinct.TICKS_PER_WINDOW; tick++) {
+            for (int i = 0; i < perTick; i++) {
+                assertTrue(keys.add(key++, tick));
+            }
+            // a retry of a key from the previous tick
+            assertEquals(tick == 0, keys.add(key - perTick - 1, tick));
+            assertTrue(keys.size() <= (WindowedDistinct.TICKS_PER_WINDOW + 1) * perTick + 1);
+        }
+        keys.advance(Long.MAX_VALUE);
+        assertEquals(0, keys.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testBoundIsRequired() {
+        Observable.just(1).compose(WindowedDistinct.create());
+    }
+}
@@ -0,0 +1,88 @@
+package rxsample.primitive;
+
+import io.reactivex.Observable;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class IntObservableTest {
+    @Test
+    public void testRangeFilterMapMatchesBoxedPipeline() {
+        Integer[] expected = Observable.range(1, 8).filter(v -> v % 2 == 0).map(i -> i + 3)
+                .toList().blockingGet().toArray(new Integer[0]);
+        IntObservable.range(1, 8).filter(v -> v % 2 == 0).map(i -> i + 3)
+                .boxed()
+                .test()
+                .assertValues(expected)
+                .assertComplete();
+    }
+
+    @Test
+    public void testReduceScanAndAggregates() {
+        IntObservable values = IntObservable.fromObservable(Observable.fromArray(1, 4, 0, 5, 12));
+        values.scan((i1, i2) -> i1 + i2).boxed().test().assertValues(1, 5, 5, 10, 22);
+        values.reduce((i1, i2) -> (i1 > i2) ? i2 : i1).test().assertResult(0);
+        values.sum().test().assertResult(22);
+        values.max().test().assertResult(12);
+        IntObservable.range(0, 0).min().test().assertResult();
+        IntObservable.range(0, 0).reduce(7, Integer::sum).test().assertResult(7);
+    }
+
+    @Test
+    public void testMapperErrorStopsUpstream() {
+        IllegalStateException error = new IllegalStateException();
+        IntObservable.range(1, 10)
+                .map(v -> {
+                    if (v == 3) {
+                        throw error;
+                    }
+                    return v;
+                })
+                .boxed()
+                .test()
+                .assertFailure(IllegalStateException.class, 1, 2);
+    }
+
+    @Test
+    public void testDisposeStopsRange() {
+        TestObserver<Integer> observer = new TestObserver<>();
+        IntObservable.range(1, 1000).boxed().take(3).subscribe(observer);
+        observer.assertResult(1, 2, 3);
+    }
+
+    @Test
+    public void testLongInterval() {
+        TestScheduler scheduler = new TestScheduler();
+        TestObserver<Long> observer = LongObservable.interval(1, 1, TimeUnit.SECONDS, scheduler)
+                .map(v -> v * 10)
+                .boxed()
+                .test();
+        observer.assertNoValues();
+        scheduler.advanceTimeBy(3, TimeUnit.SECONDS);
+        observer.assertValues(0L, 10L, 20L);
+        observer.dispose();
+        scheduler.advanceTimeBy(3, TimeUnit.SECONDS);
+        observer.assertValueCount(3);
+    }
+
+    @Test
+    public void testToArrayAndCollectInto() {
+        int[] values = IntObservable.range(1, 5).map(v -> v * 2).toArray().blockingGet();
+        assertArrayEquals(new int[]{2, 4, 6, 8, 10}, values);
+        assertArrayEquals(new int[]{2, 4}, IntObservable.range(1, 5).filter(v -> v < 3).map(v -> v * 2)
+                .toArray().blockingGet());
+        IntArray reused = new IntArray(0);
+        IntObservable.range(0, 100).collectInto(reused).blockingGet();
+        int capacity = reused.capacity();
+        IntArray result = IntObservable.range(7, 3).collectInto(reused).blockingGet();
+        assertSame(reused, result);
+        assertArrayEquals(new int[]{7, 8, 9}, result.toArray());
+        assertEquals(capacity, reused.capacity());
+    }
+}
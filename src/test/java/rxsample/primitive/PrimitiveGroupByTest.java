@@ -0,0 +1,101 @@
+package rxsample.primitive;
+
+import io.reactivex.Observable;
+import io.reactivex.observables.GroupedObservable;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.PublishSubject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PrimitiveGroupByTest {
+    @Test
+    public void testGroupsByCharKey() {
+        Observable.just("first", "second", "third", "forth", "fifth", "sixth")
+                .compose(PrimitiveGroupBy.byChar(word -> word.charAt(0)))
+                .flatMapSingle(group -> group.toList().map(words -> group.getKey() + ": " + words))
+                .test()
+                .assertResult("f: [first, forth, fifth]", "s: [second, sixth]", "t: [third]");
+    }
+
+    @Test
+    public void testDisposedGroupIsRecreated() {
+        PublishSubject<Integer> subject = PublishSubject.create();
+        List<TestObserver<Integer>> groups = new ArrayList<>();
+        subject.compose(PrimitiveGroupBy.byInt(v -> v % 2))
+                .subscribe(group -> groups.add(group.test()));
+        subject.onNext(1);
+        subject.onNext(3);
+        groups.get(0).dispose();
+        subject.onNext(5);
+        subject.onComplete();
+        assertEquals(2, groups.size());
+        groups.get(0).assertValues(1, 3).assertNotComplete();
+        groups.get(1).assertResult(5);
+    }
+
+    @Test
+    public void testUpstreamDisposedWhenMainAndGroupsAreDisposed() {
+        PublishSubject<Long> subject = PublishSubject.create();
+        List<TestObserver<Long>> groups = new ArrayList<>();
+        TestObserver<GroupedObservable<Long, Long>> main = subject
+                .compose(PrimitiveGroupBy.byLong(v -> v))
+                .doOnNext(group -> groups.add(group.test()))
+                .test();
+        subject.onNext(1L);
+        main.dispose();
+        assertTrue(subject.hasObservers());
+        // no new groups after main was disposed, existing ones still get values
+        subject.onNext(2L);
+        subject.onNext(1L);
+        assertEquals(1, groups.size());
+        groups.get(0).assertValues(1L, 1L);
+        groups.get(0).dispose();
+        assertFalse(subject.hasObservers());
+    }
+
+    @Test
+    public void testToMultimapByInt() {
+        LongObjectMap<List<String>> byLength = Observable.just("a", "bb", "c", "dd", "eee")
+                .as(PrimitiveGroupBy.toMultimapByInt(String::length, s -> s))
+                .blockingGet();
+        assertEquals(3, byLength.size());
+        assertEquals(Arrays.asList("a", "c"), byLength.get(1));
+        assertEquals(Arrays.asList("bb", "dd"), byLength.get(2));
+        assertEquals(Arrays.asList("eee"), byLength.get(3));
+    }
+
+    @Test
+    public void testMapMatchesHashMapUnderRandomOperations() {
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            // small key range, so that removals hit existing keys and probe sequences overlap
+            long key = random.nextInt(4096) - 2048L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Long> e : expected.entrySet()) {
+            assertEquals(e.getValue(), map.get(e.getKey()));
+        }
+        map.forEach((key, value) -> assertEquals(expected.get(key), value));
+        map.clear();
+        assertNull(map.get(0));
+        assertTrue(map.isEmpty());
+    }
+}
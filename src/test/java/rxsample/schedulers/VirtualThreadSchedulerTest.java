@@ -0,0 +1,120 @@
+package rxsample.schedulers;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class VirtualThreadSchedulerTest {
+    // same semantics on platform threads, so that they're tested on any JDK
+    private static final ThreadFactory DAEMON_THREADS = r -> {
+        Thread t = new Thread(r);
+        t.setDaemon(true);
+        return t;
+    };
+
+    @Test
+    public void testWorkerExecutesTasksInOrder() throws InterruptedException {
+        Scheduler.Worker worker = VirtualThreadScheduler.create(DAEMON_THREADS).createWorker();
+        List<Integer> executed = new ArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        for (int i = 0; i < 1000; i++) {
+            int value = i;
+            worker.schedule(() -> executed.add(value));
+        }
+        worker.schedule(latch::countDown);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, (int) executed.get(i));
+        }
+        worker.dispose();
+    }
+
+    @Test
+    public void testDelayedTask() throws InterruptedException {
+        Scheduler.Worker worker = VirtualThreadScheduler.create(DAEMON_THREADS).createWorker();
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+        worker.schedule(latch::countDown, 50, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        worker.dispose();
+    }
+
+    @Test
+    public void testDisposeCancelsDelayedAndInterruptsRunningTask() throws InterruptedException {
+        Scheduler.Worker worker = VirtualThreadScheduler.create(DAEMON_THREADS).createWorker();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AtomicBoolean delayedExecuted = new AtomicBoolean();
+        worker.schedule(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        worker.schedule(() -> delayedExecuted.set(true), 20, TimeUnit.MILLISECONDS);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        worker.dispose();
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertFalse(delayedExecuted.get());
+        assertTrue(worker.schedule(() -> delayedExecuted.set(true)).isDisposed());
+    }
+
+    @Test
+    public void testDisposedTaskIsSkipped() throws InterruptedException {
+        Scheduler.Worker worker = VirtualThreadScheduler.create(DAEMON_THREADS).createWorker();
+        CountDownLatch block = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicBoolean executed = new AtomicBoolean();
+        worker.schedule(() -> {
+            try {
+                block.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        Disposable task = worker.schedule(() -> executed.set(true));
+        worker.schedule(done::countDown);
+        task.dispose();
+        block.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertFalse(executed.get());
+        worker.dispose();
+    }
+
+    @Test
+    public void testBlockingSubscriptionsOnVirtualThreads() {
+        Assume.assumeTrue(VirtualThreadScheduler.isSupported());
+        Scheduler scheduler = VirtualThreadScheduler.create();
+        long count = Observable.range(0, 1000)
+                .flatMap(i -> Observable.fromCallable(() -> {
+                    Thread.sleep(100);
+                    return Thread.currentThread().getName();
+                }).subscribeOn(scheduler))
+                .filter(name -> name.startsWith("RxVirtualThread-"))
+                .count()
+                .blockingGet();
+        assertEquals(1000, count);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testCreateFailsWithoutVirtualThreads() {
+        Assume.assumeFalse(VirtualThreadScheduler.isSupported());
+        VirtualThreadScheduler.create();
+    }
+}
@@ -0,0 +1,100 @@
+package rxsample.schedulers;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WorkStealingSchedulerTest {
+    private final WorkStealingScheduler scheduler = WorkStealingScheduler.create(2);
+
+    @After
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testWorkerExecutesTasksInOrder() throws InterruptedException {
+        Scheduler.Worker worker = scheduler.createWorker();
+        List<Integer> executed = new ArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        // more than a single drain batch, and rescheduled from the pool thread as well
+        for (int i = 0; i < 500; i++) {
+            int value = i;
+            worker.schedule(() -> executed.add(value));
+        }
+        worker.schedule(() -> {
+            for (int i = 500; i < 1000; i++) {
+                int value = i;
+                worker.schedule(() -> executed.add(value));
+            }
+            worker.schedule(latch::countDown);
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(1000, executed.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, (int) executed.get(i));
+        }
+        assertTrue(scheduler.maxQueueDepth() >= 500);
+        worker.dispose();
+    }
+
+    @Test
+    public void testBusyWorkerDoesNotBlockOtherWorkers() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Scheduler.Worker busy = scheduler.createWorker();
+        busy.schedule(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        // with round-robin assignment to 2 threads every other worker would wait for the busy one
+        CountDownLatch others = new CountDownLatch(10);
+        for (int i = 0; i < 10; i++) {
+            scheduler.createWorker().schedule(others::countDown);
+        }
+        assertTrue(others.await(5, TimeUnit.SECONDS));
+        release.countDown();
+        busy.dispose();
+    }
+
+    @Test
+    public void testDelayedAndDisposedTasks() throws InterruptedException {
+        Scheduler.Worker worker = scheduler.createWorker();
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        long start = System.nanoTime();
+        worker.schedule(latch::countDown, 50, TimeUnit.MILLISECONDS);
+        worker.schedule(() -> cancelled.set(true), 20, TimeUnit.MILLISECONDS).dispose();
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertFalse(cancelled.get());
+        worker.dispose();
+        assertTrue(worker.schedule(() -> cancelled.set(true)).isDisposed());
+    }
+
+    @Test
+    public void testGroupByWithObserveOn() {
+        List<Long> counts = Observable.range(0, 10_000)
+                .groupBy(i -> i % 4 == 0 ? 0 : i % 7)
+                .flatMap(group -> group.observeOn(scheduler).count().toObservable())
+                .toList()
+                .blockingGet();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        assertEquals(10_000, total);
+    }
+}
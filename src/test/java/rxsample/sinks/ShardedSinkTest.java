@@ -0,0 +1,101 @@
+package rxsample.sinks;
+
+import io.reactivex.Observable;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ShardedSinkTest {
+    @Test
+    public void testLastWriteWins() {
+        ShardedSink<Integer, String> sink = ShardedSink.create(4);
+        Observable.just("a", "bb", "cc", "d").subscribe(sink.writer(String::length));
+        assertEquals("d", sink.get(1));
+        assertEquals("cc", sink.get(2));
+        assertNull(sink.get(3));
+        assertEquals(2, sink.size());
+        assertEquals(2, sink.snapshot().size());
+    }
+
+    @Test
+    public void testSnapshotIsDetached() {
+        ShardedSink<Integer, Integer> sink = ShardedSink.create(2);
+        sink.put(1, 1);
+        Map<Integer, Integer> snapshot = sink.snapshot();
+        sink.put(1, 2);
+        sink.put(2, 2);
+        assertEquals(Integer.valueOf(1), snapshot.get(1));
+        assertEquals(1, snapshot.size());
+    }
+
+    @Test
+    public void testShardCountIsRoundedUp() {
+        assertEquals(8, ShardedSink.create(5).shardCount());
+        assertEquals(1, ShardedSink.create(1).shardCount());
+    }
+
+    @Test
+    public void testSequentialKeysSpreadOverAllShards() {
+        ShardedSink<Integer, Integer> sink = ShardedSink.create(16);
+        int keys = 1 << 16;
+        for (int key = 0; key < keys; key++) {
+            sink.put(key, key);
+        }
+        // each shard within 10% of keys / 16
+        for (long count : sink.writeCounts()) {
+            assertTrue("shard writes " + count, Math.abs(count - keys / 16) < keys / 160);
+        }
+    }
+
+    @Test
+    public void testConcurrentWritersWithResizes() throws Exception {
+        int writers = 8;
+        int keysPerWriter = 20_000;
+        ShardedSink<Integer, Integer> sink = ShardedSink.create(4);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            Thread t = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                // every writer writes its own keys twice and a shared key on every step
+                for (int round = 0; round < 2; round++) {
+                    for (int i = 0; i < keysPerWriter; i++) {
+                        int key = i * writers + writer;
+                        sink.put(key, key + round);
+                        sink.put(-1, writer);
+                    }
+                }
+            });
+            threads.add(t);
+            t.start();
+        }
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        Map<Integer, Integer> snapshot = sink.snapshot();
+        assertEquals(writers * keysPerWriter + 1, snapshot.size());
+        assertEquals(writers * keysPerWriter + 1, sink.size());
+        for (int key = 0; key < writers * keysPerWriter; key++) {
+            assertEquals(Integer.valueOf(key + 1), snapshot.get(key));
+            assertEquals(Integer.valueOf(key + 1), sink.get(key));
+        }
+        long writes = 0;
+        for (long count : sink.writeCounts()) {
+            writes += count;
+        }
+        assertEquals(4L * writers * keysPerWriter, writes);
+    }
+}
@@ -0,0 +1,72 @@
+package rxsample.sketches;
+
+import io.reactivex.Observable;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ApproximateDistinctTest {
+    @Test
+    public void testDropsDuplicates() {
+        Observable.fromArray('A', 'B', 'b', 'c', 'a')
+                .compose(ApproximateDistinct.<Character>create().keySelector(Character::toLowerCase))
+                .test()
+                .assertResult('A', 'B', 'c');
+    }
+
+    @Test
+    public void testFalsePositiveRateStaysWithinConfiguredWhileGrowing() {
+        int keys = 1_000_000;
+        double rate = 0.01;
+        ScalableBloomFilter filter = ScalableBloomFilter.create(1000, rate, Long.MAX_VALUE);
+        long falsePositives = 0;
+        for (long key = 0; key < keys; key++) {
+            if (!filter.add(Hashing.hash64(key))) {
+                falsePositives++;
+            }
+        }
+        // the rates of the series converge to the configured one
+        assertTrue("false positives: " + falsePositives, falsePositives < keys * rate * 1.05);
+        assertEquals(keys - falsePositives, filter.count());
+        for (long key = 0; key < keys; key++) {
+            assertTrue(filter.mightContain(Hashing.mix(key)));
+        }
+    }
+
+    @Test
+    public void testGrowthStopsAtMemoryBudget() {
+        ScalableBloomFilter filter = ScalableBloomFilter.create(1000, 0.01, 64 * 1024);
+        for (long key = 0; key < 1_000_000; key++) {
+            filter.add(Hashing.mix(key));
+        }
+        assertTrue(filter.memoryBytes() <= 64 * 1024);
+        assertTrue(filter.currentFalsePositiveRate() > 0.01);
+    }
+
+    @Test
+    public void testCountDistinctWithinStandardError() {
+        int distinct = 500_000;
+        long estimate = Observable.range(0, distinct * 2)
+                .map(i -> "user" + (i % distinct))
+                .as(CountDistinct.approximate())
+                .blockingGet();
+        // 3 standard errors of precision 14
+        assertEquals(distinct, estimate, distinct * 3 * 1.04 / 128);
+        assertEquals(0L, (long) Observable.empty().as(CountDistinct.approximate()).blockingGet());
+    }
+
+    @Test
+    public void testSmallCardinalitiesAndMerge() {
+        HyperLogLog sketch = new HyperLogLog(14);
+        HyperLogLog other = new HyperLogLog(14);
+        for (int i = 0; i < 100; i++) {
+            sketch.add(Hashing.hash64(i));
+            other.add(Hashing.hash64(i + 50));
+        }
+        // linear counting is nearly exact while most registers are empty
+        assertEquals(100, sketch.estimate(), 1);
+        sketch.merge(other);
+        assertEquals(150, sketch.estimate(), 1);
+    }
+}
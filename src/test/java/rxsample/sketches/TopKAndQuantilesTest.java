@@ -0,0 +1,72 @@
+package rxsample.sketches;
+
+import io.reactivex.Observable;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TopKAndQuantilesTest {
+    @Test
+    public void testLargestMatchesSortedList() {
+        int size = 100_000;
+        // a permutation of 0..size - 1
+        Observable<Integer> values = Observable.range(0, size).map(i -> (int) (((long) i * 0x9E3779B1L) % size));
+        List<Integer> sorted = values.toSortedList(Comparator.reverseOrder()).blockingGet();
+        assertEquals(sorted.subList(0, 100), values.as(TopK.largest(100)).blockingGet());
+        assertEquals(Arrays.asList(0, 1),
+                values.as(TopK.largest(2, Comparator.<Integer>reverseOrder())).blockingGet());
+        assertEquals(Collections.emptyList(), Observable.<Integer>empty().as(TopK.largest(3)).blockingGet());
+    }
+
+    @Test
+    public void testRollingEmitsOnlyChanges() {
+        Observable.fromArray(1, 4, 0, 5, 12, 2)
+                .compose(TopK.rolling(2, Comparator.<Integer>naturalOrder()))
+                .test()
+                .assertResult(Collections.singletonList(1), Arrays.asList(4, 1), Arrays.asList(5, 4),
+                        Arrays.asList(12, 5));
+    }
+
+    @Test
+    public void testQuantilesWithinRankError() {
+        int size = 1_000_000;
+        double[] qs = {0.01, 0.5, 0.9, 0.99, 0.999};
+        double[] result = Observable.range(0, size)
+                .map(i -> (int) (((long) i * 0x9E3779B1L) % size))
+                .as(Quantiles.of(Integer::doubleValue, qs))
+                .blockingGet();
+        for (int i = 0; i < qs.length; i++) {
+            assertEquals("q" + qs[i], qs[i], result[i] / size, 2.0 / KllSketch.DEFAULT_K);
+        }
+        KllSketch sketch = Observable.range(0, size).as(Quantiles.sketch(Integer::doubleValue)).blockingGet();
+        assertEquals(0, sketch.quantile(0), 0);
+        assertEquals(size - 1, sketch.quantile(1), 0);
+        assertTrue("retained " + sketch.retained(), sketch.retained() < 4 * KllSketch.DEFAULT_K);
+    }
+
+    @Test
+    public void testRollingQuantilesAndMerge() {
+        Observable.range(1, 10)
+                .compose(Quantiles.rolling(Integer::doubleValue, 5, 0, 1))
+                .test()
+                .assertValueCount(2)
+                .assertValueAt(1, q -> Arrays.equals(q, new double[]{1, 10}));
+        KllSketch low = new KllSketch();
+        KllSketch high = new KllSketch();
+        for (int i = 0; i < 100_000; i++) {
+            low.add(i);
+            high.add(i + 100_000);
+        }
+        low.merge(high);
+        assertEquals(200_000, low.count());
+        assertEquals(0.5, low.quantile(0.5) / 200_000, 2.0 / KllSketch.DEFAULT_K);
+        assertArrayEquals(new double[]{Double.NaN}, new KllSketch().quantiles(0.5), 0);
+    }
+}
@@ -0,0 +1,97 @@
+package rxsample.sources;
+
+import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class PagedSourceTest {
+    /**
+     * Pages of {@code pageSize} consecutive numbers from 0 until {@code total}, with the offset as cursor.
+     */
+    private static PageFetcher<Integer> numbers(int total, int pageSize, AtomicInteger fetches) {
+        return cursor -> Single.fromCallable(() -> {
+            fetches.incrementAndGet();
+            int from = cursor == null ? 0 : Integer.parseInt(cursor);
+            int to = Math.min(total, from + pageSize);
+            List<Integer> items = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                items.add(i);
+            }
+            return to == total ? Page.last(items) : Page.of(items, String.valueOf(to));
+        });
+    }
+
+    @Test
+    public void testEmitsPagesInOrder() {
+        AtomicInteger fetches = new AtomicInteger();
+        PagedSource.items(numbers(7, 3, fetches))
+                .test()
+                .assertResult(0, 1, 2, 3, 4, 5, 6);
+        assertEquals(3, fetches.get());
+    }
+
+    @Test
+    public void testStopsFetchingWhenDownstreamIsSatisfied() {
+        AtomicInteger fetches = new AtomicInteger();
+        PagedSource.items(numbers(1_000_000, 10, fetches))
+                .take(15)
+                .test()
+                .assertValueCount(15)
+                .assertComplete();
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    public void testManySynchronousPagesDontOverflowStack() {
+        AtomicInteger fetches = new AtomicInteger();
+        PagedSource.pages(numbers(100_000, 1, fetches))
+                .test()
+                .assertValueCount(100_000)
+                .assertComplete();
+    }
+
+    @Test
+    public void testNextPageIsFetchedAfterCurrentArrives() {
+        TestScheduler scheduler = new TestScheduler();
+        AtomicInteger fetches = new AtomicInteger();
+        PageFetcher<Integer> numbers = numbers(4, 2, fetches);
+        TestObserver<List<Integer>> observer = PagedSource
+                .pages(cursor -> numbers.fetch(cursor).delaySubscription(1, TimeUnit.SECONDS, scheduler))
+                .test();
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        observer.assertValuesOnly(Arrays.asList(0, 1));
+        assertEquals(1, fetches.get());
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        observer.assertResult(Arrays.asList(0, 1), Arrays.asList(2, 3));
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    public void testEmptyPagesAreSkippedAndErrorsDelivered() {
+        AtomicInteger calls = new AtomicInteger();
+        PageFetcher<Integer> fetcher = cursor -> {
+            switch (calls.incrementAndGet()) {
+                case 1:
+                    return Single.just(Page.of(Collections.<Integer>emptyList(), "2"));
+                case 2:
+                    return Single.just(Page.of(Collections.singletonList(1), "3"));
+                default:
+                    return Single.error(new IOException("unavailable"));
+            }
+        };
+        PagedSource.items(fetcher)
+                .test()
+                .assertFailure(IOException.class, 1);
+    }
+}
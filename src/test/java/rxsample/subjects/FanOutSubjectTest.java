@@ -0,0 +1,84 @@
+package rxsample.subjects;
+
+import io.reactivex.BackpressureOverflowStrategy;
+import io.reactivex.exceptions.MissingBackpressureException;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class FanOutSubjectTest {
+    @Test
+    public void testValuesAreDeliveredOnSubscriberWorker() {
+        TestScheduler scheduler = new TestScheduler();
+        FanOutSubject<Integer> subject = FanOutSubject.create(scheduler, 16, BackpressureOverflowStrategy.ERROR);
+        TestObserver<Integer> first = subject.test();
+        TestObserver<Integer> second = subject.test();
+        subject.onNext(1);
+        subject.onNext(2);
+        subject.onComplete();
+        first.assertEmpty();
+        scheduler.triggerActions();
+        first.assertResult(1, 2);
+        second.assertResult(1, 2);
+    }
+
+    @Test
+    public void testDropOldest() {
+        TestScheduler scheduler = new TestScheduler();
+        FanOutSubject<Integer> subject = FanOutSubject.create(scheduler, 2, BackpressureOverflowStrategy.DROP_OLDEST);
+        TestObserver<Integer> observer = subject.test();
+        for (int i = 1; i <= 5; i++) {
+            subject.onNext(i);
+        }
+        scheduler.triggerActions();
+        observer.assertValues(4, 5);
+        assertEquals(3, subject.droppedCount());
+    }
+
+    @Test
+    public void testDropLatest() {
+        TestScheduler scheduler = new TestScheduler();
+        FanOutSubject<Integer> subject = FanOutSubject.create(scheduler, 2, BackpressureOverflowStrategy.DROP_LATEST);
+        TestObserver<Integer> observer = subject.test();
+        for (int i = 1; i <= 5; i++) {
+            subject.onNext(i);
+        }
+        scheduler.triggerActions();
+        observer.assertValues(1, 2);
+        assertEquals(3, subject.droppedCount());
+    }
+
+    @Test
+    public void testOverflowErrorAffectsOnlySlowSubscriber() {
+        TestScheduler slowScheduler = new TestScheduler();
+        FanOutSubject<Integer> subject = FanOutSubject.create(slowScheduler, 2, BackpressureOverflowStrategy.ERROR);
+        TestObserver<Integer> slow = subject.test();
+        for (int i = 1; i <= 3; i++) {
+            subject.onNext(i);
+        }
+        TestObserver<Integer> late = subject.test();
+        subject.onNext(4);
+        subject.onComplete();
+        slowScheduler.triggerActions();
+        slow.assertFailure(MissingBackpressureException.class);
+        late.assertResult(4);
+        assertFalse(subject.hasObservers());
+    }
+
+    @Test
+    public void testQueueDropOldestKeepsOrder() {
+        SpscRingQueue<Integer> queue = new SpscRingQueue<>(3);
+        for (int i = 0; i < 10; i++) {
+            queue.offerOverwrite(i);
+        }
+        assertEquals(Integer.valueOf(7), queue.poll());
+        queue.offerOverwrite(10);
+        assertEquals(Integer.valueOf(8), queue.poll());
+        assertEquals(Integer.valueOf(9), queue.poll());
+        assertEquals(Integer.valueOf(10), queue.poll());
+        assertEquals(null, queue.poll());
+    }
+}
@@ -0,0 +1,111 @@
+package rxsample.subjects;
+
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapReplaySubjectTest {
+    @Test
+    public void testLateSubscriberGetsLastValuesBySize() {
+        OffHeapReplaySubject<Integer> subject = OffHeapReplaySubject.createWithSize(2, Serializers.INTEGER);
+        TestObserver<Integer> early = subject.test();
+        subject.onNext(1);
+        subject.onNext(2);
+        subject.onNext(3);
+        TestObserver<Integer> late = subject.test();
+        subject.onNext(4);
+        subject.onNext(5);
+        subject.onComplete();
+        early.assertResult(1, 2, 3, 4, 5);
+        late.assertResult(2, 3, 4, 5);
+        subject.test().assertResult(4, 5);
+        assertEquals(2, subject.size());
+    }
+
+    @Test
+    public void testLateSubscriberSkipsExpiredValues() {
+        TestScheduler scheduler = new TestScheduler();
+        OffHeapReplaySubject<Long> subject = OffHeapReplaySubject.createWithTimeAndSize(
+                150, TimeUnit.MILLISECONDS, scheduler, 16, Serializers.LONG);
+        subject.onNext(1L);
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+        subject.onNext(2L);
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+        subject.test().assertValues(2L);
+    }
+
+    @Test
+    public void testVariableLengthValuesAndError() {
+        OffHeapReplaySubject<String> subject = OffHeapReplaySubject.createWithSize(3, Serializers.utf8(16));
+        subject.onNext("a");
+        subject.onNext("\u0105\u0119\u015b\u0107");
+        subject.onNext("");
+        subject.onNext("long string");
+        IllegalStateException error = new IllegalStateException();
+        subject.onError(error);
+        subject.test().assertFailure(IllegalStateException.class, "\u0105\u0119\u015b\u0107", "", "long string");
+    }
+
+    @Test
+    public void testSerializerFailureTerminatesWithError() {
+        OffHeapReplaySubject<String> subject = OffHeapReplaySubject.createWithSize(4, Serializers.utf8(3));
+        TestObserver<String> observer = subject.test();
+        subject.onNext("ab");
+        subject.onNext("abcdef");
+        subject.onNext("c");
+        observer.assertValues("ab")
+                .assertError(IllegalArgumentException.class);
+        assertTrue(subject.hasThrowable());
+        subject.test()
+                .assertValues("ab")
+                .assertError(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testPartialWriteDoesNotDamageOldestValue() {
+        // writes the value before it fails on 3; the ring is full, so 3 goes to the slot of 1
+        Serializer<Integer> failing = new Serializer<Integer>() {
+            @Override
+            public int maxSerializedSize() {
+                return Integer.BYTES;
+            }
+
+            @Override
+            public void write(Integer value, ByteBuffer buffer) {
+                buffer.putInt(value);
+                if (value == 3) {
+                    throw new IllegalStateException("can't serialize " + value);
+                }
+            }
+
+            @Override
+            public Integer read(ByteBuffer buffer) {
+                return buffer.getInt();
+            }
+        };
+        OffHeapReplaySubject<Integer> subject = OffHeapReplaySubject.createWithSize(2, failing);
+        subject.onNext(1);
+        subject.onNext(2);
+        subject.onNext(3);
+        subject.test()
+                .assertValues(1, 2)
+                .assertError(IllegalStateException.class);
+    }
+
+    @Test
+    public void testDisposedObserverStopsReceiving() {
+        OffHeapReplaySubject<Integer> subject = OffHeapReplaySubject.createWithSize(4, Serializers.INTEGER);
+        TestObserver<Integer> observer = subject.test();
+        subject.onNext(1);
+        observer.dispose();
+        subject.onNext(2);
+        observer.assertValues(1);
+        assertEquals(false, subject.hasObservers());
+    }
+}